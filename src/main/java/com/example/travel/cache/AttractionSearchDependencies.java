@@ -0,0 +1,201 @@
+package com.example.travel.cache;
+
+import com.example.travel.event.AttractionSnapshot;
+import com.example.travel.search.AttractionTextIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 景点搜索缓存页的依赖：每个缓存页包含的景点，以及它的过滤维度 (类别、标签、最低评分、关键字)。
+ * 某个景点变化时只找出可能受影响的缓存页：
+ * <ul>
+ *     <li>页面中包含该景点 (显示的数据变了)；</li>
+ *     <li>景点在变化前后对该查询的匹配结果不同 (结果集和总数变了，该查询的所有页都受影响)；</li>
+ *     <li>景点变化前后都匹配，且查询按变化了的字段排序 (景点可能移动到这一页)。</li>
+ * </ul>
+ * 候选页按维度索引：有类别过滤的查询挂在类别下，只有标签过滤的挂在每个标签下，其余的查询每次都要检查。
+ * <p>
+ * 条目数有上限 (与缓存容量一致)，超出时移除最早登记的条目，由调用方把对应的缓存页一起删除，
+ * 保证缓存中的页面都有依赖记录。缓存自己淘汰的页面会在这里留到被挤出，对应的删除是空操作。
+ * 所有方法在 this 上同步；不要在持有缓存加载锁的同时回调缓存 (返回需要删除的键，由调用方在锁外删除)。
+ */
+public class AttractionSearchDependencies {
+
+    // 景点快照中跟踪了变化前后取值的排序字段；相关度只取决于快照中的文本字段
+    private static final Set<String> TRACKED_PROPERTIES = Set.of("name", "description", "location", "address",
+            "category", "averageRating", "ratingCount", AttractionTextIndex.RELEVANCE);
+    // 不会变化的排序字段
+    private static final Set<String> STABLE_PROPERTIES = Set.of("id", "createdAt");
+
+    private final int maximumEntries;
+    private final LinkedHashMap<AttractionSearchKey, List<Long>> entries = new LinkedHashMap<>();
+    private final Map<Long, Set<AttractionSearchKey>> byAttraction = new HashMap<>();
+    private final Map<String, Set<AttractionSearchKey>> byCategory = new HashMap<>();
+    private final Map<Long, Set<AttractionSearchKey>> byTag = new HashMap<>();
+    private final Set<AttractionSearchKey> unfiltered = new HashSet<>();
+
+    public AttractionSearchDependencies(int maximumEntries) {
+        if (maximumEntries <= 0) {
+            throw new IllegalArgumentException("maximumEntries must be positive: " + maximumEntries);
+        }
+        this.maximumEntries = maximumEntries;
+    }
+
+    /**
+     * 登记一个缓存页包含的景点 (替换之前的登记)
+     *
+     * @return 因超出上限被移除、需要同时从缓存中删除的键
+     */
+    public synchronized List<AttractionSearchKey> register(AttractionSearchKey key, List<Long> attractionIds) {
+        remove(key);
+        List<Long> ids = List.copyOf(attractionIds);
+        entries.put(key, ids);
+        for (Long attractionId : ids) {
+            byAttraction.computeIfAbsent(attractionId, id -> new HashSet<>()).add(key);
+        }
+        if (key.categoryDimension() != null) {
+            byCategory.computeIfAbsent(key.categoryDimension(), category -> new HashSet<>()).add(key);
+        } else if (key.getTagIds() != null) {
+            for (Long tagId : key.getTagIds()) {
+                byTag.computeIfAbsent(tagId, id -> new HashSet<>()).add(key);
+            }
+        } else {
+            unfiltered.add(key);
+        }
+        List<AttractionSearchKey> overflow = new ArrayList<>();
+        while (entries.size() > maximumEntries) {
+            AttractionSearchKey eldest = entries.keySet().iterator().next();
+            remove(eldest);
+            overflow.add(eldest);
+        }
+        return overflow;
+    }
+
+    public synchronized void remove(AttractionSearchKey key) {
+        List<Long> ids = entries.remove(key);
+        if (ids == null) {
+            return;
+        }
+        for (Long attractionId : ids) {
+            unindex(byAttraction, attractionId, key);
+        }
+        if (key.categoryDimension() != null) {
+            unindex(byCategory, key.categoryDimension(), key);
+        } else if (key.getTagIds() != null) {
+            for (Long tagId : key.getTagIds()) {
+                unindex(byTag, tagId, key);
+            }
+        } else {
+            unfiltered.remove(key);
+        }
+    }
+
+    /**
+     * 找出并移除受一次景点变化影响的缓存页
+     *
+     * @param before               变化前的快照，新增时为 null
+     * @param after                变化后的快照，删除时为 null
+     * @param untrackedFieldsChanged 快照以外的字段是否可能变化 (按这些字段排序的查询视为受影响)
+     * @return 需要从缓存中删除的键
+     */
+    public synchronized List<AttractionSearchKey> removeAffectedBy(AttractionSnapshot before, AttractionSnapshot after,
+                                                                   boolean untrackedFieldsChanged) {
+        Long attractionId = after != null ? after.getId() : before != null ? before.getId() : null;
+        Set<AttractionSearchKey> candidates = new HashSet<>(unfiltered);
+        addAll(candidates, byAttraction.get(attractionId));
+        for (AttractionSnapshot snapshot : new AttractionSnapshot[]{before, after}) {
+            if (snapshot == null) {
+                continue;
+            }
+            if (snapshot.getCategory() != null) {
+                addAll(candidates, byCategory.get(snapshot.getCategory().toLowerCase(Locale.ROOT)));
+            }
+            for (Long tagId : snapshot.getTagIds()) {
+                addAll(candidates, byTag.get(tagId));
+            }
+        }
+
+        Set<String> changed = changedProperties(before, after);
+        Predicate<String> sortPropertyChanged = property -> changed.contains(property)
+                || (untrackedFieldsChanged && !TRACKED_PROPERTIES.contains(property) && !STABLE_PROPERTIES.contains(property));
+        List<AttractionSearchKey> affected = new ArrayList<>();
+        for (AttractionSearchKey key : candidates) {
+            boolean matchedBefore = key.matches(before);
+            boolean matchesAfter = key.matches(after);
+            boolean onPage = attractionId != null && entries.get(key).contains(attractionId);
+            if (onPage || matchedBefore != matchesAfter
+                    || (matchesAfter && key.sortsByAny(sortPropertyChanged))) {
+                affected.add(key);
+            }
+        }
+        affected.forEach(this::remove);
+        return affected;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        byAttraction.clear();
+        byCategory.clear();
+        byTag.clear();
+        unfiltered.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Set<String> changedProperties(AttractionSnapshot before, AttractionSnapshot after) {
+        Set<String> changed = new HashSet<>();
+        if (before == null || after == null) {
+            return changed; // 新增或删除：是否匹配一定会变化，不需要再看排序
+        }
+        if (!Objects.equals(before.getName(), after.getName())) {
+            changed.add("name");
+        }
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            changed.add("description");
+        }
+        if (!Objects.equals(before.getLocation(), after.getLocation())) {
+            changed.add("location");
+        }
+        if (!Objects.equals(before.getAddress(), after.getAddress())) {
+            changed.add("address");
+        }
+        if (!changed.isEmpty()) {
+            // 其他景点的文本变化也会让词频统计略有漂移，这种微小的分值变化不删除缓存，由过期时间兜底
+            changed.add(AttractionTextIndex.RELEVANCE);
+        }
+        if (!Objects.equals(before.getCategory(), after.getCategory())) {
+            changed.add("category");
+        }
+        if (!Objects.equals(before.getAverageRating(), after.getAverageRating())) {
+            changed.add("averageRating");
+        }
+        if (!Objects.equals(before.getRatingCount(), after.getRatingCount())) {
+            changed.add("ratingCount");
+        }
+        return changed;
+    }
+
+    private static <K> void unindex(Map<K, Set<AttractionSearchKey>> index, K dimension, AttractionSearchKey key) {
+        index.computeIfPresent(dimension, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static void addAll(Set<AttractionSearchKey> target, Set<AttractionSearchKey> keys) {
+        if (keys != null) {
+            target.addAll(keys);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.travel.cache;
+
+import com.example.travel.event.AttractionSnapshot;
+import com.example.travel.search.TextTokenizer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 景点搜索缓存的键：全部查询条件加分页 (含排序)。
+ * {@link #matches} 在内存中重现 AttractionService.searchAttractions 的过滤条件，用于判断景点是否在这个查询的结果集中。
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class AttractionSearchKey {
+
+    private final String keyword;
+    private final String category;
+    private final Float minRating;
+    private final List<Long> tagIds;
+    private final Pageable pageable;
+
+    public AttractionSearchKey(String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
+        this.keyword = StringUtils.hasText(keyword) ? keyword : null;
+        this.category = StringUtils.hasText(category) ? category : null;
+        this.minRating = minRating;
+        this.tagIds = tagIds == null || tagIds.isEmpty() ? null : List.copyOf(tagIds);
+        this.pageable = pageable;
+    }
+
+    /**
+     * 小写后的类别过滤条件，没有类别过滤时为 null
+     */
+    public String categoryDimension() {
+        return category != null ? category.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * 景点是否满足这个查询的过滤条件；景点为 null (新增前/删除后) 时不满足。
+     * 关键字同时按全文索引 (全部词项命中) 和索引就绪前的数据库 LIKE (任一文本字段包含关键字) 判断，任一满足即视为匹配；
+     * 关键字含 LIKE 通配符时无法在内存中精确判断，按满足处理。
+     */
+    public boolean matches(AttractionSnapshot attraction) {
+        if (attraction == null) {
+            return false;
+        }
+        if (keyword != null && !matchesKeyword(attraction)) {
+            return false;
+        }
+        if (category != null && (attraction.getCategory() == null
+                || !attraction.getCategory().toLowerCase(Locale.ROOT).equals(categoryDimension()))) {
+            return false;
+        }
+        if (minRating != null && (attraction.getAverageRating() == null || attraction.getAverageRating() < minRating)) {
+            return false;
+        }
+        return tagIds == null || tagIds.stream().anyMatch(attraction.getTagIds()::contains);
+    }
+
+    private boolean matchesKeyword(AttractionSnapshot attraction) {
+        if (keyword.contains("%") || keyword.contains("_")) {
+            return true;
+        }
+        String[] texts = {attraction.getName(), attraction.getDescription(), attraction.getLocation(), attraction.getAddress()};
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        Set<String> terms = new HashSet<>();
+        for (String text : texts) {
+            if (text != null && text.toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                return true;
+            }
+            terms.addAll(TextTokenizer.indexTerms(text));
+        }
+        List<String> queryTerms = TextTokenizer.queryTerms(keyword);
+        return !queryTerms.isEmpty() && terms.containsAll(queryTerms);
+    }
+
+    /**
+     * 排序是否用到了可能变化的属性
+     */
+    public boolean sortsByAny(Predicate<String> changedProperty) {
+        if (pageable == null) {
+            return false;
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (changedProperty.test(order.getProperty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
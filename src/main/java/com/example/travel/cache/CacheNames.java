@@ -0,0 +1,15 @@
+package com.example.travel.cache;
+
+/**
+ * 服务层 @Cacheable / @CacheEvict 使用的缓存名，每个名字都需要在 application.yml 的 local-cache.caches 中配置
+ */
+public final class CacheNames {
+
+    // 景点多条件分页查询
+    public static final String ATTRACTION_SEARCH = "attractionSearch";
+    // 热门景点分页
+    public static final String POPULAR_ATTRACTIONS_PAGE = "popularAttractionsPage";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.travel.cache;
+
+/**
+ * 本地缓存的淘汰策略
+ */
+public enum CachePolicy {
+    // Caffeine 的 W-TinyLFU：按访问频率准入和淘汰，扫描式的一次性访问不会冲掉热点条目
+    W_TINY_LFU,
+    // 淘汰最久未访问的条目，适合条目少、访问集中在最近几页的缓存
+    LRU
+}
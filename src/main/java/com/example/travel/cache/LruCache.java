@@ -0,0 +1,170 @@
+package com.example.travel.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 严格 LRU 淘汰的 Spring Cache 实现 (Caffeine 只提供 W-TinyLFU)：按访问顺序排列的 LinkedHashMap，
+ * 超出容量时淘汰最久未访问的条目，条目写入超过 TTL 后视为过期。
+ * 统计使用 Caffeine 的 StatsCounter，与 Caffeine 缓存的命中/未命中/淘汰/加载耗时口径一致。
+ * <p>
+ * {@link #get(Object, Callable)} (即 @Cacheable(sync = true)) 对同一个键只加载一次，并发请求等待同一次加载；
+ * 加载期间执行了 clear/evict 时，加载结果只返回给调用方，不写入缓存。
+ */
+public class LruCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    // 访问顺序的 LinkedHashMap 在读取时也会修改链表，所有访问都在 this 上同步
+    private final LinkedHashMap<Object, Entry> entries;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    // 每次 clear/evict 递增，加载开始后代数变化说明结果可能已经过时
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param ttl 条目写入后的存活时间，为 null 或 0 时不过期
+     */
+    public LruCache(String name, int maximumSize, Duration ttl) {
+        this(name, maximumSize, ttl, System::nanoTime);
+    }
+
+    LruCache(String name, int maximumSize, Duration ttl, LongSupplier nanoTime) {
+        super(true);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl == null || ttl.isZero() ? 0 : ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    stats.recordEviction(1, RemovalCause.SIZE);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                entries.remove(key);
+                stats.recordEviction(1, RemovalCause.EXPIRED);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            stats.recordMisses(1);
+            return null;
+        }
+        stats.recordHits(1);
+        return entry.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.join());
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        long loadGeneration = generation.get();
+        long start = nanoTime.getAsLong();
+        try {
+            Object storeValue = toStoreValue(valueLoader.call());
+            stats.recordLoadSuccess(nanoTime.getAsLong() - start);
+            synchronized (this) {
+                if (generation.get() == loadGeneration) {
+                    entries.put(key, new Entry(storeValue, nanoTime.getAsLong()));
+                }
+            }
+            load.complete(storeValue);
+            return (T) fromStoreValue(storeValue);
+        } catch (Exception e) {
+            stats.recordLoadFailure(nanoTime.getAsLong() - start);
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    @Override
+    public synchronized void put(Object key, Object value) {
+        entries.put(key, new Entry(toStoreValue(value), nanoTime.getAsLong()));
+    }
+
+    @Override
+    public synchronized void evict(Object key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlNanos > 0 && nanoTime.getAsLong() - entry.writtenAt >= ttlNanos;
+    }
+
+    private record Entry(Object value, long writtenAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.travel.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LruCache} 的 Micrometer 指标 (cache.gets / cache.evictions / cache.size 等)，与 Caffeine 缓存的指标同名
+ */
+public class LruCacheMetrics extends CacheMeterBinder<LruCache> {
+
+    public LruCacheMetrics(LruCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        LruCache cache = getCache();
+        return cache != null ? (long) cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        LruCache cache = getCache();
+        return cache != null ? cache.stats().hitCount() : 0L;
+    }
+
+    @Override
+    protected Long missCount() {
+        LruCache cache = getCache();
+        return cache != null ? cache.stats().missCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        LruCache cache = getCache();
+        return cache != null ? cache.stats().evictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        LruCache cache = getCache();
+        return cache != null ? cache.stats().loadCount() : 0L;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        LruCache cache = getCache();
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags(getTagsWithCacheName()).tag("result", "success")
+                .description("The number of times cache lookup methods have successfully loaded a new value")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags(getTagsWithCacheName()).tag("result", "failure")
+                .description("The number of times cache lookup methods failed to load a new value")
+                .register(registry);
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tags(getTagsWithCacheName())
+                .description("The time the cache has spent loading new values")
+                .register(registry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.travel.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -7,6 +8,8 @@ public class Result<T> {
     private int code; // 状态码（200=成功）
     private String message; // 提示信息
     private T data; // 响应数据
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean degraded; // 降级响应 (超时或依赖不可用时返回的兜底数据) 为 true，正常响应不输出
 
     public int getCode() {
         return code;
@@ -32,6 +35,14 @@ public class Result<T> {
         this.data = data;
     }
 
+    public Boolean getDegraded() {
+        return degraded;
+    }
+
+    public void setDegraded(Boolean degraded) {
+        this.degraded = degraded;
+    }
+
     public static <T> Result<T> success(T data) {
         Result<T> result = new Result<>();
         result.setCode(200);
@@ -40,6 +51,15 @@ public class Result<T> {
         return result;
     }
 
+    public static <T> Result<T> degraded(T data, String message) {
+        Result<T> result = new Result<>();
+        result.setCode(200);
+        result.setMessage(message);
+        result.setData(data);
+        result.setDegraded(true);
+        return result;
+    }
+
     public static <T> Result<T> error(int code, String message) {
         Result<T> result = new Result<>();
         result.setCode(code);
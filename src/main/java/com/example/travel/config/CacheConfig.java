@@ -0,0 +1,67 @@
+package com.example.travel.config;
+
+import com.example.travel.cache.CachePolicy;
+import com.example.travel.cache.LruCache;
+import com.example.travel.cache.LruCacheMetrics;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务层缓存：每个缓存按 local-cache.caches 中的配置单独设置容量、TTL 和淘汰策略。
+ * 没有配置的缓存名在使用时直接报错，避免 @CacheEvict 写错名字后静默失效。
+ * 缓存是事务感知的：事务中的 put/evict/clear 在提交后才执行，提交前并发的读取不会把旧数据重新写回缓存。
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(LocalCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(LocalCacheProperties properties) {
+        List<Cache> caches = new ArrayList<>();
+        for (Map.Entry<String, LocalCacheProperties.Spec> entry : properties.getCaches().entrySet()) {
+            caches.add(new TransactionAwareCacheDecorator(buildCache(entry.getKey(), entry.getValue())));
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    // 让 Spring Boot 的缓存指标也覆盖 LRU 缓存 (Caffeine 缓存由 Spring Boot 自带的 provider 处理)
+    @Bean
+    public CacheMeterBinderProvider<LruCache> lruCacheMeterBinderProvider() {
+        return LruCacheMetrics::new;
+    }
+
+    private static Cache buildCache(String name, LocalCacheProperties.Spec spec) {
+        Duration ttl = spec.getTtlSeconds() > 0 ? Duration.ofSeconds(spec.getTtlSeconds()) : null;
+        log.info("CacheConfig: cache '{}' uses {} with maximum size {} and ttl {}", name, spec.getPolicy(),
+                spec.getMaximumSize(), ttl != null ? ttl : "none");
+        if (spec.getPolicy() == CachePolicy.LRU) {
+            return new LruCache(name, spec.getMaximumSize(), ttl);
+        }
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+        if (ttl != null) {
+            builder.expireAfterWrite(ttl);
+        }
+        return new CaffeineCache(name, builder.build());
+    }
+}
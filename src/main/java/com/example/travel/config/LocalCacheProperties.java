@@ -0,0 +1,27 @@
+package com.example.travel.config;
+
+import com.example.travel.cache.CachePolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 服务层本地缓存配置 (application.yml 中的 local-cache.*)，键为缓存名 (见 CacheNames)
+ */
+@Data
+@ConfigurationProperties(prefix = "local-cache")
+public class LocalCacheProperties {
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private CachePolicy policy = CachePolicy.W_TINY_LFU;
+        // 最多缓存的条目数
+        private int maximumSize = 1000;
+        // 条目写入后的存活时间 (秒)，<= 0 表示只按容量淘汰
+        private long ttlSeconds = 300;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.travel.config;
+
+import com.example.travel.recommendation.PopularityRanking;
+import com.example.travel.recommendation.SimilarityMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 推荐模块配置 (application.yml 中的 recommendation.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "recommendation")
+public class RecommendationProperties {
+
+    private Similarity similarity = new Similarity();
+    private Snapshot snapshot = new Snapshot();
+    private Delta delta = new Delta();
+    private Signals signals = new Signals();
+    private Als als = new Als();
+    private ResultCache resultCache = new ResultCache();
+    private Batch batch = new Batch();
+    private Popularity popularity = new Popularity();
+    private Trending trending = new Trending();
+    private Pipeline pipeline = new Pipeline();
+    private Serving serving = new Serving();
+    private CoView coView = new CoView();
+
+    @Data
+    public static class Similarity {
+        // 构建相似度模型使用的线程数，<= 0 表示使用全部 CPU 核心
+        private int buildThreads = 0;
+        // 每个线程分到的工作块数，块越多负载越均衡，合并开销也越大
+        private int tilesPerThread = 4;
+        // 每个景点保留的最相似邻居数 K
+        private int neighborsPerAttraction = 50;
+        // EXACT: 与所有共现景点计算精确相似度；LSH: MinHash/LSH 近似，适合景点数很大的情况
+        private SimilarityMode mode = SimilarityMode.EXACT;
+        private Lsh lsh = new Lsh();
+
+        public int resolveBuildThreads() {
+            return buildThreads > 0 ? buildThreads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Lsh {
+        // 签名长度 = bands * rows-per-band；bands 越多召回越高，rows-per-band 越大候选越少
+        private int bands = 32;
+        private int rowsPerBand = 4;
+        // 超过该大小的桶不产生候选对
+        private int maxBucketSize = 500;
+        // 构建后抽样与精确模式比较召回率的景点数，0 表示不测量
+        private int recallSampleSize = 200;
+        private long seed = 42L;
+    }
+
+    @Data
+    public static class Als {
+        // 是否随模型构建训练 ALS；关闭时 /api/recommendations/als 回退到热门景点
+        private boolean enabled = true;
+        private int factors = 32;
+        private int iterations = 10;
+        private double regularization = 0.1;
+        // 置信度 c = 1 + alpha * 偏好分
+        private double alpha = 10.0;
+        private long seed = 42L;
+    }
+
+    @Data
+    public static class ResultCache {
+        // 按用户缓存各策略的推荐结果 (排好序的景点ID)，用户产生新交互或修改偏好标签时作废
+        private boolean enabled = true;
+        // 最多缓存的用户数
+        private long maxUsers = 10_000;
+        private long ttlMinutes = 10;
+    }
+
+    @Data
+    public static class Popularity {
+        // AVERAGE: 平均评分；BAYESIAN: 贝叶斯平均，评分数少的景点向全站平均分收缩
+        private PopularityRanking ranking = PopularityRanking.AVERAGE;
+        // 贝叶斯平均的先验权重，相当于每个景点额外有这么多条全站平均分的评价
+        private double priorWeight = 10.0;
+        // 全站平均分漂移超过该值时整体重排
+        private double meanTolerance = 0.01;
+    }
+
+    @Data
+    public static class Trending {
+        // 热度半衰期 (分钟)：一次浏览在这段时间后只算半次
+        private long halfLifeMinutes = 360;
+        private double viewWeight = 1.0;
+        private double favoriteWeight = 5.0;
+        private double reviewWeight = 3.0;
+    }
+
+    /**
+     * 浏览会话共现模型 ("看过这个景点的人也看了" / "根据最近浏览")
+     */
+    @Data
+    public static class CoView {
+        private boolean enabled = true;
+        // 同一用户相邻两次浏览超过该间隔 (分钟) 时开始新会话
+        private long sessionGapMinutes = 30;
+        // 会话中参与共现计数的最近景点数
+        private int maxSessionItems = 20;
+        // "根据最近浏览" 使用的最近浏览景点数
+        private int recentViews = 10;
+        // 共现次数低于该值的景点对不参与推荐
+        private int minCoViews = 1;
+        // 用户不活跃超过该时长 (小时) 后丢弃其会话和最近浏览
+        private long userRetentionHours = 72;
+        private long maxUsers = 100_000;
+        // 启动时从活动日志预热的天数，0 表示不预热
+        private long warmupDays = 30;
+    }
+
+    /**
+     * /api/recommendations/* 的异步处理：独立的有界线程池，每个端点有截止时间，超时返回缓存的热门景点
+     */
+    @Data
+    public static class Serving {
+        private int threads = 16;
+        // 等待队列容量，队列满时直接返回降级结果
+        private int queueCapacity = 200;
+        // 未在 deadlines 中配置的端点使用的截止时间 (毫秒)
+        private long defaultDeadlineMillis = 1000;
+        // 按端点名称 (user-preferences / popular-attractions / trending / item-based-cf / als / blended / also-viewed / recent-browsing) 的截止时间
+        private Map<String, Long> deadlines = new LinkedHashMap<>();
+        // 降级时使用的热门景点列表长度，景点变化后在后台刷新
+        private int fallbackSize = 100;
+
+        public long deadlineMillis(String endpoint) {
+            return deadlines.getOrDefault(endpoint, defaultDeadlineMillis);
+        }
+    }
+
+    /**
+     * 召回 + 排序流水线 (GET /api/recommendations/blended)
+     */
+    @Data
+    public static class Pipeline {
+        // 候选生成线程数，<= 0 表示使用全部 CPU 核心
+        private int threads = 0;
+        // 等待候选生成线程的阶段任务上限，队列满时该阶段按跳过处理
+        private int queueCapacity = 200;
+        // 每个阶段最多返回的候选数
+        private int candidatesPerStage = 200;
+        // 连续超时达到该次数的阶段在 skip-seconds 秒内直接跳过，<= 0 表示从不跳过
+        private int skipAfterTimeouts = 3;
+        private long skipSeconds = 30;
+        // 附近景点阶段的搜索半径 (公里)
+        private double geoRadiusKm = 20.0;
+        // 按阶段名称 (item-cf / tag / trending / geo / co-view) 配置，未配置的阶段使用 Stage 的默认值
+        private Map<String, Stage> stages = new LinkedHashMap<>();
+
+        public Stage stage(String name) {
+            return stages.getOrDefault(name, new Stage());
+        }
+
+        public int resolveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Stage {
+        private boolean enabled = true;
+        // 从请求开始计时的时间预算 (毫秒)，超时的阶段按没有候选处理
+        private long budgetMillis = 50;
+        // 合并时归一化分值的权重
+        private double weight = 1.0;
+    }
+
+    @Data
+    public static class Batch {
+        // 批量推荐的打分线程数，<= 0 表示使用全部 CPU 核心
+        private int threads = 0;
+        // 每批用户打分后合并查询一次景点，再输出这一批结果
+        private int chunkSize = 1000;
+
+        public int resolveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Snapshot {
+        // 构建完成后是否写入快照文件，并在启动时优先从快照加载
+        private boolean enabled = true;
+        private String path = "data/recommendation-model.snapshot";
+        // 快照超过该时长 (小时) 时，加载后仍在后台全量重建一次，<= 0 表示不限制
+        private long maxAgeHours = 24;
+    }
+
+    /**
+     * 多节点部署时的增量拉取：每个节点按高水位定期读取变更过的评价/收藏/行程和删除墓碑，应用到本地模型
+     */
+    @Data
+    public static class Delta {
+        private boolean enabled = true;
+        // 两次拉取之间的间隔 (秒)，即其他节点上的变更最晚多久在本节点生效
+        private long pollIntervalSeconds = 30;
+        // 每次拉取的起点相对上次拉取时间回退的秒数，覆盖节点间的时钟偏差和提交晚于 updated_at 的事务
+        private long overlapSeconds = 120;
+        // 删除墓碑的保留时长 (小时)，应不小于 snapshot.max-age-hours，快照恢复后追平时才能看到期间的删除
+        private long tombstoneRetentionHours = 168;
+        // 清理过期墓碑的间隔 (分钟)
+        private long purgeIntervalMinutes = 60;
+    }
+
+    /**
+     * 各类交互换算成偏好分的权重，同一用户对同一景点有多种交互时取最大值
+     */
+    @Data
+    public static class Signals {
+        // 评分 (1-5) 乘以该系数
+        private double reviewWeight = 1.0;
+        // 收藏等同的分值
+        private double favoriteScore = 5.0;
+        // 景点在用户某个行程中时等同的分值，<= 0 表示不使用行程信号
+        private double itineraryScore = 4.0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.travel.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 开启 @Scheduled 定时任务 (推荐模型的增量拉取、删除墓碑清理)，使用 Spring Boot 默认的单线程调度器
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,6 @@
 package com.example.travel.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -52,11 +53,16 @@ public class SecurityConfig {
                 // 不需要 session (如果使用 token-based auth)
                 // .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // 异步端点 (CompletableFuture) 完成后的 ASYNC 派发：原请求已经鉴权，JWT 过滤器不会再次执行
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
                         // 公开访问的路径，例如登录、注册等
                         .requestMatchers("/api/users/login", "/api/users/register").permitAll()
                         // 需要认证的路径，例如获取当前用户信息
                         .requestMatchers("/api/users/me").authenticated()
+                        // actuator: 健康检查公开，指标等其他端点仅管理员可见
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // 其他所有未明确指定的请求都需要认证 (这是一个好的默认安全策略)
                         .anyRequest().authenticated()
                 );
@@ -0,0 +1,32 @@
+package com.example.travel.controller;
+
+import com.example.travel.common.Result;
+import com.example.travel.dto.CacheStatsResponse;
+import com.example.travel.service.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    @Autowired
+    public AdminCacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    // 查看每个服务层缓存的配置、条目数以及命中/未命中/淘汰/加载耗时统计
+    @GetMapping
+    public ResponseEntity<Result<List<CacheStatsResponse>>> getCacheStats() {
+        return ResponseEntity.ok(Result.success(cacheStatsService.getCacheStats()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.travel.controller;
+
+import com.example.travel.common.Result;
+import com.example.travel.dto.recommendation.RecommendationModelStatusResponse;
+import com.example.travel.service.RecommendationService;
+import com.example.travel.dto.recommendation.BatchRecommendationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/admin/recommendations")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRecommendationController {
+
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AdminRecommendationController(RecommendationService recommendationService, ObjectMapper objectMapper) {
+        this.recommendationService = recommendationService;
+        this.objectMapper = objectMapper;
+    }
+
+    // 查看推荐模型快照的版本、构建耗时和就绪状态
+    @GetMapping("/model")
+    public ResponseEntity<Result<RecommendationModelStatusResponse>> getModelStatus() {
+        return ResponseEntity.ok(Result.success(recommendationService.getModelStatus()));
+    }
+
+    // 在后台重新构建推荐模型，构建完成后替换当前快照；已在构建中时返回 409
+    @PostMapping("/model/rebuild")
+    public ResponseEntity<Result<RecommendationModelStatusResponse>> rebuildModel() {
+        recommendationService.rebuildModelAsync();
+        return ResponseEntity.accepted().body(Result.success(recommendationService.getModelStatus()));
+    }
+
+    // 为一批用户生成物品协同过滤推荐 (邮件/推送任务使用)，以 NDJSON 逐行输出，每行一个用户，边计算边写出
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void batchRecommendations(@Valid @RequestBody BatchRecommendationRequest request,
+                                     HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        try {
+            recommendationService.generateBatchRecommendations(request.getUserIds(), request.getNumRecs(), line -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(line));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // 客户端断开连接等写出失败
+        }
+        out.flush();
+    }
+}
@@ -4,7 +4,12 @@ import com.example.travel.common.Result;
 import com.example.travel.dto.AttractionCreateRequest;
 import com.example.travel.dto.AttractionResponse;
 import com.example.travel.dto.AttractionUpdateRequest;
+import com.example.travel.dto.NearbyAttractionResponse;
+import com.example.travel.dto.SuggestionResponse;
+import com.example.travel.search.AttractionTextIndex;
+import com.example.travel.service.AttractionGeoIndexService;
 import com.example.travel.service.AttractionService;
+import com.example.travel.service.AttractionSuggestionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,6 +19,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,10 +29,15 @@ import java.util.List;
 public class AttractionController {
 
     private final AttractionService attractionService;
+    private final AttractionSuggestionService attractionSuggestionService;
+    private final AttractionGeoIndexService attractionGeoIndexService;
 
     @Autowired
-    public AttractionController(AttractionService attractionService) {
+    public AttractionController(AttractionService attractionService, AttractionSuggestionService attractionSuggestionService,
+                                AttractionGeoIndexService attractionGeoIndexService) {
         this.attractionService = attractionService;
+        this.attractionSuggestionService = attractionSuggestionService;
+        this.attractionGeoIndexService = attractionGeoIndexService;
     }
 
     // 创建新景点 (Admin only)
@@ -72,20 +83,45 @@ public class AttractionController {
             @RequestParam(required = false) List<Long> tagIds, // Pass tag IDs for filtering
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,asc") String[] sort) { // Default sort by id ascending
+            @RequestParam(required = false) String[] sort) { // Default: by relevance for keyword searches, otherwise by id ascending
 
+        if (sort == null) {
+            sort = StringUtils.hasText(keyword) ? new String[]{AttractionTextIndex.RELEVANCE, "desc"} : new String[]{"id", "asc"};
+        }
         // Handle sorting (example: "name,asc", "averageRating,desc")
         // More robust sorting would parse sort parameters carefully
         Sort.Direction direction = Sort.Direction.fromString(sort[1].equalsIgnoreCase("desc") ? "DESC" : "ASC");
         Sort.Order order = new Sort.Order(direction, sort[0]);
         Pageable pageable = PageRequest.of(page, size, Sort.by(order));
 
+        attractionService.recordSearchActivity(keyword, category, minRating, tagIds);
         Page<AttractionResponse> attractionsPage = attractionService.searchAttractions(
                 keyword, category, minRating, tagIds, pageable
         );
         return ResponseEntity.ok(Result.success(attractionsPage));
     }
 
+    // 搜索框输入联想：景点名、地点、标签名的前缀补全，按热度排序 (内存索引，不查询数据库)
+    @GetMapping("/suggest")
+    public ResponseEntity<Result<List<SuggestionResponse>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(Result.success(attractionSuggestionService.suggest(prefix, limit)));
+    }
+
+    // 附近景点：给出 radiusKm 时返回半径内最近的 limit 个，否则返回最近的 limit 个，按距离升序 (内存空间索引)
+    @GetMapping("/nearby")
+    public ResponseEntity<Result<List<NearbyAttractionResponse>>> findNearbyAttractions(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) List<Long> tagIds) {
+        return ResponseEntity.ok(Result.success(
+                attractionGeoIndexService.findNearbyAttractions(latitude, longitude, radiusKm, limit, category, tagIds)));
+    }
+
     // 获取热门景点 (Public)
     @GetMapping("/popular")
     public ResponseEntity<Result<Page<AttractionResponse>>> getPopularAttractions(
@@ -3,7 +3,13 @@ package com.example.travel.controller;
 import com.example.travel.common.Result;
 import com.example.travel.dto.AttractionResponse;
 import com.example.travel.entity.User;
+import com.example.travel.exception.ExceptionUtils;
+import com.example.travel.service.CoViewService;
+import com.example.travel.service.RecommendationFallbackService;
+import com.example.travel.service.RecommendationPipelineService;
 import com.example.travel.service.RecommendationService;
+import com.example.travel.service.RecommendationServingExecutor;
+import com.example.travel.service.TrendingService;
 import com.example.travel.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -11,23 +17,64 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 推荐端点全部异步执行 (见 {@link RecommendationServingExecutor})：超过各自的截止时间或数据库不可用时，
+ * 返回内存中的热门景点并标记 degraded = true
+ */
 @RestController
 @RequestMapping("/api/recommendations")
 public class RecommendationController {
 
+    // 推荐列表端点单次返回的景点数上限 (与 /api/attractions/nearby 一致)
+    private static final int MAX_LIMIT = 100;
+
     private final RecommendationService recommendationService;
     private final UserService userService;
+    private final TrendingService trendingService;
+    private final RecommendationPipelineService recommendationPipelineService;
+    private final RecommendationServingExecutor servingExecutor;
+    private final RecommendationFallbackService fallbackService;
+    private final CoViewService coViewService;
 
     @Autowired
-    public RecommendationController(RecommendationService recommendationService, UserService userService) {
+    public RecommendationController(RecommendationService recommendationService, UserService userService,
+                                    TrendingService trendingService,
+                                    RecommendationPipelineService recommendationPipelineService,
+                                    RecommendationServingExecutor servingExecutor,
+                                    RecommendationFallbackService fallbackService,
+                                    CoViewService coViewService) {
         this.recommendationService = recommendationService;
         this.userService = userService;
+        this.trendingService = trendingService;
+        this.recommendationPipelineService = recommendationPipelineService;
+        this.servingExecutor = servingExecutor;
+        this.fallbackService = fallbackService;
+        this.coViewService = coViewService;
+    }
+
+    /**
+     * 综合推荐：协同过滤、偏好标签、热度、浏览会话、附近景点 (提供 lat/lon 时) 并发召回后合并排序
+     */
+    @GetMapping("/blended")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getBlendedRecommendations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int numRecs,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon) {
+        int size = boundedLimit(numRecs);
+        return servingExecutor.submit("blended", () -> {
+            User currentUser = userService.getCurrentAuthenticatedUser();
+            return recommendationPipelineService.getBlendedRecommendations(currentUser.getId(), size, lat, lon);
+        }, () -> fallbackService.popularAttractions(size));
     }
 
     /**
@@ -35,24 +82,68 @@ public class RecommendationController {
      */
     @GetMapping("/user-preferences")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Result<Page<AttractionResponse>>> getPersonalizedRecommendations(
+    public CompletableFuture<ResponseEntity<Result<Page<AttractionResponse>>>> getPersonalizedRecommendations(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        User currentUser = userService.getCurrentAuthenticatedUser();
-        Page<AttractionResponse> recommendations = recommendationService.getRecommendationsBasedOnUserPreferences(currentUser.getId(), page, size);
-        return ResponseEntity.ok(Result.success(recommendations));
+        return servingExecutor.submit("user-preferences", () -> {
+            User currentUser = userService.getCurrentAuthenticatedUser();
+            return recommendationService.getRecommendationsBasedOnUserPreferences(currentUser.getId(), page, size);
+        }, () -> fallbackService.popularAttractionPage(page, size));
     }
 
     /**
      * 获取热门景点推荐 (分页) - 公开访问
      */
     @GetMapping("/popular-attractions")
-    public ResponseEntity<Result<Page<AttractionResponse>>> getPopularAttractions(
+    public CompletableFuture<ResponseEntity<Result<Page<AttractionResponse>>>> getPopularAttractions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<AttractionResponse> popular = recommendationService.getPopularAttractionRecommendations(page, size);
-        return ResponseEntity.ok(Result.success(popular));
+        return servingExecutor.submit("popular-attractions",
+                () -> recommendationService.getPopularAttractionRecommendations(page, size),
+                () -> fallbackService.popularAttractionPage(page, size));
+    }
+
+    /**
+     * 正在流行的景点 (近期浏览、收藏、评价随时间衰减后的热度)，可按类别或地点过滤 - 公开访问
+     */
+    @GetMapping("/trending")
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getTrendingAttractions(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String location) {
+        int size = boundedLimit(limit);
+        return servingExecutor.submit("trending",
+                () -> trendingService.getTrendingAttractions(size, category, location),
+                () -> fallbackService.popularAttractions(size));
+    }
+
+    /**
+     * 看过该景点的人也看了 (同一浏览会话中的共现)
+     */
+    @GetMapping("/also-viewed/{attractionId}")
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getAlsoViewed(
+            @PathVariable Long attractionId,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = boundedLimit(limit);
+        return servingExecutor.submit("also-viewed",
+                () -> coViewService.getAlsoViewed(attractionId, size),
+                () -> fallbackService.popularAttractions(size));
+    }
+
+    /**
+     * 根据当前用户最近浏览的景点推荐 (没有浏览记录时为空列表)
+     */
+    @GetMapping("/recent-browsing")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getRecentBrowsingRecommendations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = boundedLimit(limit);
+        return servingExecutor.submit("recent-browsing", () -> {
+            User currentUser = userService.getCurrentAuthenticatedUser();
+            return coViewService.getRecentBrowsingRecommendations(currentUser.getId(), size);
+        }, () -> fallbackService.popularAttractions(size));
     }
 
     // 未来可以添加更多推荐API端点，例如：
@@ -61,13 +152,34 @@ public class RecommendationController {
 
     @GetMapping("/item-based-cf")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Result<List<AttractionResponse>>> getItemBasedCfRecommendations(
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getItemBasedCfRecommendations(
             Authentication authentication,
             @RequestParam(defaultValue = "5") int numRecs) {
-        User currentUser = userService.getCurrentAuthenticatedUser();
-        List<AttractionResponse> recommendations = recommendationService.getItemBasedCfRecommendations(
-                currentUser.getId(), numRecs
-        );
-        return ResponseEntity.ok(Result.success(recommendations));
+        int size = boundedLimit(numRecs);
+        return servingExecutor.submit("item-based-cf", () -> {
+            User currentUser = userService.getCurrentAuthenticatedUser();
+            return recommendationService.getItemBasedCfRecommendations(currentUser.getId(), size);
+        }, () -> fallbackService.popularAttractions(size));
+    }
+
+    /**
+     * 基于 ALS 隐因子模型的推荐 (模型未就绪时回退到热门景点)
+     */
+    @GetMapping("/als")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<Result<List<AttractionResponse>>>> getAlsRecommendations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "5") int numRecs) {
+        int size = boundedLimit(numRecs);
+        return servingExecutor.submit("als", () -> {
+            User currentUser = userService.getCurrentAuthenticatedUser();
+            return recommendationService.getAlsRecommendations(currentUser.getId(), size);
+        }, () -> fallbackService.popularAttractions(size));
+    }
+
+    // 在提交到线程池之前校验，非法参数直接返回 400 而不是走降级
+    private static int boundedLimit(int limit) {
+        ExceptionUtils.throwIfInvalid(limit > 0, "返回数量必须大于 0");
+        return Math.min(limit, MAX_LIMIT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.travel.dto;
+
+import com.example.travel.cache.CachePolicy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private String name;
+    private CachePolicy policy;
+    private long size; // 当前条目数 (W-TinyLFU 为估计值)
+    private long maximumSize;
+    private long ttlSeconds; // <= 0 表示不过期
+    private long hitCount;
+    private long missCount;
+    private double hitRate; // 没有请求时为 1.0
+    private long evictionCount; // 容量淘汰与过期之和
+    private long loadCount; // 未命中后执行被缓存方法的次数
+    private long loadFailureCount;
+    private double averageLoadMillis; // 平均每次加载耗时
+    private double totalLoadMillis;
+}
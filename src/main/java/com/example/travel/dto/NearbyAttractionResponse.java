@@ -0,0 +1,13 @@
+package com.example.travel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyAttractionResponse {
+    private AttractionResponse attraction;
+    private Double distanceKm; // 到查询位置的球面距离
+}
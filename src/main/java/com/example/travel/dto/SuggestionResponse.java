@@ -0,0 +1,16 @@
+package com.example.travel.dto;
+
+import com.example.travel.search.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String text;
+    private SuggestionType type;
+    private Long id; // 景点或标签 id，地点为 null
+    private Long weight; // 热度：评价数 + 浏览数 (地点、标签为其下景点之和)
+}
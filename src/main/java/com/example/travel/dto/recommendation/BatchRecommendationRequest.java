@@ -0,0 +1,25 @@
+package com.example.travel.dto.recommendation;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRecommendationRequest {
+
+    @NotEmpty(message = "User IDs cannot be empty")
+    @Size(max = 100000, message = "At most 100000 user IDs per batch")
+    private List<Long> userIds; // 重复的用户ID只输出一次
+
+    @Min(value = 1, message = "numRecs must be at least 1")
+    @Max(value = 100, message = "numRecs must be at most 100")
+    private int numRecs = 5; // 每个用户的推荐数量
+}
@@ -0,0 +1,34 @@
+package com.example.travel.dto.recommendation;
+
+import com.example.travel.recommendation.InteractionSourceStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationModelStatusResponse {
+    private boolean ready; // 是否已有可用的模型快照 (否则推荐回退到热门景点)
+    private boolean building; // 是否正在后台构建新快照
+    private Long version; // 当前快照版本号，每次构建递增
+    private LocalDateTime builtAt;
+    private Long buildMillis; // 当前快照的构建耗时
+    private LocalDateTime watermark; // 快照数据的高水位
+    private LocalDateTime deltaWatermark; // 增量拉取的高水位，其他节点的变更从这里开始读取
+    private boolean restoredFromSnapshot; // 是否由快照文件恢复
+    private List<InteractionSourceStats> sourceLoads; // 各交互来源的读取行数与耗时
+    private Integer userCount;
+    private Integer attractionCount;
+    private Long interactionCount;
+    private Long neighborCount;
+    private String similarityMode; // EXACT / LSH
+    private Double sampledRecall; // LSH 模式在抽样景点上相对精确模式的召回率
+    private Integer alsIterations; // 未启用 ALS 时为空
+    private Long alsTrainingMillis;
+    private Long estimatedHeapBytes;
+    private String lastBuildError; // 最近一次构建失败的原因，成功后清空
+}
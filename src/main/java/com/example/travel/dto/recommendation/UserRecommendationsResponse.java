@@ -0,0 +1,20 @@
+package com.example.travel.dto.recommendation;
+
+import com.example.travel.dto.AttractionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量推荐中一个用户的结果，NDJSON 输出中的一行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendationsResponse {
+    private Long userId;
+    private boolean personalized; // false 表示用户没有足够的交互，结果为热门景点
+    private List<AttractionResponse> attractions;
+}
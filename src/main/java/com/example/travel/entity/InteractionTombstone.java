@@ -0,0 +1,46 @@
+package com.example.travel.entity;
+
+import com.example.travel.event.InteractionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评价/收藏/行程景点被删除的记录。被删除的行已经不存在，其他节点按 deleted_at 高水位拉取墓碑，
+ * 才能知道需要重新计算哪些 (用户, 景点) 的偏好分。超过保留期的墓碑会被定期清理。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "interaction_tombstones", indexes = @Index(name = "idx_interaction_tombstones_deleted_at", columnList = "deleted_at"))
+public class InteractionTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 不使用外键：用户或景点本身被删除后墓碑仍然有效
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "attraction_id", nullable = false)
+    private Long attractionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "interaction_type", nullable = false, length = 20)
+    private InteractionType interactionType;
+
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    public InteractionTombstone(Long userId, Long attractionId, InteractionType interactionType) {
+        this.userId = userId;
+        this.attractionId = attractionId;
+        this.interactionType = interactionType;
+        this.deletedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.travel.event;
+
+/**
+ * 景点数据的变化类型
+ */
+public enum AttractionChangeType {
+    CREATED,
+    UPDATED, // 基本信息或标签被修改
+    DELETED,
+    RATING // 评价增删改后平均评分/评分数变化
+}
@@ -0,0 +1,25 @@
+package com.example.travel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 某个景点被新增、修改、删除，或评分统计发生变化。
+ * 事件只携带主键，内存中的景点索引在事务提交后自行读取最新状态 (删除时直接移除)。
+ * 搜索缓存还需要变化前后的过滤字段 (before / after，新增时 before 为空、删除时 after 为空)，
+ * 由发布方在修改前后各取一次；两者都为空时搜索缓存整体失效。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AttractionChangedEvent {
+    private final Long attractionId;
+    private final AttractionChangeType type;
+    private final AttractionSnapshot before;
+    private final AttractionSnapshot after;
+
+    public AttractionChangedEvent(Long attractionId, AttractionChangeType type) {
+        this(attractionId, type, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.travel.event;
+
+import com.example.travel.entity.Attraction;
+import com.example.travel.entity.Tag;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 景点在变化前或变化后参与搜索过滤和排序的字段，搜索缓存据此判断哪些缓存页可能受影响
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AttractionSnapshot {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final String location;
+    private final String address;
+    private final String category;
+    private final Set<Long> tagIds;
+    private final Double averageRating;
+    private final Integer ratingCount;
+
+    public static AttractionSnapshot of(Attraction attraction) {
+        Set<Long> tagIds = attraction.getTags() == null ? Set.of()
+                : attraction.getTags().stream().map(Tag::getId).collect(Collectors.toUnmodifiableSet());
+        return new AttractionSnapshot(attraction.getId(), attraction.getName(), attraction.getDescription(),
+                attraction.getLocation(), attraction.getAddress(), attraction.getCategory(), tagIds,
+                attraction.getAverageRating(), attraction.getRatingCount());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.travel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 景点详情被查看 (包括未登录用户)，userId 为空表示匿名访问。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AttractionViewedEvent {
+    private final Long userId;
+    private final Long attractionId;
+}
@@ -0,0 +1,18 @@
+package com.example.travel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 某个用户对某个景点的交互（评价、收藏）发生了新增/修改/删除。
+ * 事件只携带主键，监听方在事务提交后自行读取最新状态，因此重复投递是幂等的。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InteractionChangedEvent {
+    private final Long userId;
+    private final Long attractionId;
+    private final InteractionType type;
+}
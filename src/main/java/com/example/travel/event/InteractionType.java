@@ -0,0 +1,10 @@
+package com.example.travel.event;
+
+/**
+ * 用户与景点之间会影响推荐的交互类型
+ */
+public enum InteractionType {
+    REVIEW,
+    FAVORITE,
+    ITINERARY // 景点被加入或移出用户的行程
+}
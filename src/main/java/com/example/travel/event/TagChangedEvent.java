@@ -0,0 +1,15 @@
+package com.example.travel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 某个标签被新增、重命名或删除。事件只携带主键，监听方在事务提交后自行读取最新状态。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TagChangedEvent {
+    private final Long tagId;
+}
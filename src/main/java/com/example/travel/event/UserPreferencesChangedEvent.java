@@ -0,0 +1,15 @@
+package com.example.travel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 用户的偏好标签被修改 (本人或管理员)。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserPreferencesChangedEvent {
+    private final Long userId;
+}
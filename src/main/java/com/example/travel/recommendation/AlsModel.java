@@ -0,0 +1,254 @@
+package com.example.travel.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+
+/**
+ * 隐式反馈矩阵分解 (implicit ALS, Hu/Koren/Volinsky) 得到的用户与景点隐因子。
+ * <p>
+ * 因子矩阵按行平铺在 float[] 中：用户 u 的因子为 userFactors[u * f .. (u + 1) * f)，景点同理，
+ * 行号与 {@link InteractionMatrix} 中的序号一致。训练时交替固定一侧、对另一侧每一行求解 f 阶线性方程组，
+ * 每半轮先算一次 YᵀY，再利用稀疏性只累加该行交互过的条目，所以每行的代价与其交互数成正比；
+ * 各行互相独立，按块在 ForkJoinPool 上并行求解。
+ * <p>
+ * 为一个用户打分是对全部景点因子的一次稠密点积扫描，用有界最小堆取前 K 个。
+ * 训练之后新出现的用户或景点没有因子，得不到推荐。
+ */
+public final class AlsModel {
+
+    private final int factors;
+    private final int userCount;
+    private final int itemCount;
+    private final float[] userFactors;
+    private final float[] itemFactors;
+    private final AlsTrainingStats trainingStats;
+
+    private AlsModel(int factors, float[] userFactors, float[] itemFactors, AlsTrainingStats trainingStats) {
+        this.factors = factors;
+        this.userCount = userFactors.length / factors;
+        this.itemCount = itemFactors.length / factors;
+        this.userFactors = userFactors;
+        this.itemFactors = itemFactors;
+        this.trainingStats = trainingStats;
+    }
+
+    /**
+     * @param pool   为 null 时在当前线程顺序执行
+     * @param chunks 每半轮把行切成的工作块数
+     */
+    public static AlsModel train(InteractionMatrix interactions, AlsParameters params, ForkJoinPool pool, int chunks) {
+        long start = System.nanoTime();
+        int f = params.factors();
+        int users = interactions.userCount();
+        int items = interactions.itemCount();
+        float[] userFactors = new float[users * f];
+        float[] itemFactors = new float[items * f];
+        SplittableRandom random = new SplittableRandom(params.seed());
+        double scale = 0.1 / Math.sqrt(f);
+        for (int k = 0; k < itemFactors.length; k++) {
+            itemFactors[k] = (float) ((random.nextDouble() - 0.5) * scale);
+        }
+
+        for (int iteration = 0; iteration < params.iterations(); iteration++) {
+            solveSide(interactions::userRow, users, itemFactors, items, userFactors, params, pool, chunks);
+            solveSide(interactions::itemColumn, items, userFactors, users, itemFactors, params, pool, chunks);
+        }
+
+        int threads = pool == null ? 1 : pool.getParallelism();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new AlsModel(f, userFactors, itemFactors, new AlsTrainingStats(f, params.iterations(), threads, millis));
+    }
+
+    /**
+     * 由快照中的因子矩阵恢复
+     */
+    static AlsModel restore(int factors, float[] userFactors, float[] itemFactors, AlsTrainingStats trainingStats) {
+        return new AlsModel(factors, userFactors, itemFactors, trainingStats);
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    public AlsTrainingStats trainingStats() {
+        return trainingStats;
+    }
+
+    float[] userFactorArray() {
+        return userFactors;
+    }
+
+    float[] itemFactorArray() {
+        return itemFactors;
+    }
+
+    public boolean hasUser(int userOrdinal) {
+        return userOrdinal >= 0 && userOrdinal < userCount;
+    }
+
+    /**
+     * 对全部景点打分 (x_u · y_i)，跳过 exclude 中的景点，返回分数最高的 count 个，按分数降序
+     *
+     * @param exclude 按景点序号升序的行，通常是用户已交互过的景点
+     */
+    public SparseRow recommend(int userOrdinal, int count, SparseRow exclude) {
+        if (!hasUser(userOrdinal)) {
+            return SparseRow.EMPTY;
+        }
+        float[] scores = new float[itemCount];
+        VectorKernels.get().multiplyRows(itemFactors, itemCount, factors, userFactors, userOrdinal * factors, scores);
+        TopKSelector selector = new TopKSelector(count);
+        int next = 0; // exclude 中下一个待跳过的位置，景点按序号递增扫描
+        for (int i = 0; i < itemCount; i++) {
+            while (next < exclude.size() && exclude.indexAt(next) < i) {
+                next++;
+            }
+            if (next < exclude.size() && exclude.indexAt(next) == i) {
+                continue;
+            }
+            selector.offer(i, scores[i]);
+        }
+        return selector.drainDescending();
+    }
+
+    public long estimatedHeapBytes() {
+        return 4L * userFactors.length + 4L * itemFactors.length;
+    }
+
+    /**
+     * 固定 fixed 一侧，求解 target 一侧的每一行：
+     * (YᵀY + Yᵀ(C - I)Y + λI) x = Yᵀ C p，其中只有该行交互过的条目 c &gt; 1、p = 1
+     */
+    private static void solveSide(IntFunction<SparseRow> rows, int rowCount, float[] fixed, int fixedCount,
+                                  float[] target, AlsParameters params, ForkJoinPool pool, int chunks) {
+        int f = params.factors();
+        double[] gram = gram(fixed, fixedCount, f, pool, chunks);
+        int chunkSize = Math.max(1, (rowCount + chunks - 1) / Math.max(1, chunks));
+        List<Runnable> tasks = new ArrayList<>();
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(rowCount, from + chunkSize);
+            tasks.add(() -> {
+                double[] a = new double[f * f];
+                double[] b = new double[f];
+                for (int r = chunkFrom; r < chunkTo; r++) {
+                    solveRow(rows.apply(r), fixed, gram, params, a, b);
+                    for (int k = 0; k < f; k++) {
+                        target[r * f + k] = (float) b[k];
+                    }
+                }
+            });
+        }
+        runAll(tasks, pool);
+    }
+
+    // 解出的因子写回 b
+    private static void solveRow(SparseRow row, float[] fixed, double[] gram, AlsParameters params, double[] a, double[] b) {
+        int f = b.length;
+        System.arraycopy(gram, 0, a, 0, a.length);
+        Arrays.fill(b, 0.0);
+        if (row.isEmpty()) {
+            return; // 没有交互的行因子为 0
+        }
+        for (int k = 0; k < f; k++) {
+            a[k * f + k] += params.regularization();
+        }
+        for (int p = 0; p < row.size(); p++) {
+            double confidence = 1.0 + params.alpha() * row.valueAt(p);
+            int base = row.indexAt(p) * f;
+            for (int x = 0; x < f; x++) {
+                double yx = fixed[base + x];
+                b[x] += confidence * yx;
+                double weighted = (confidence - 1.0) * yx;
+                for (int y = 0; y <= x; y++) {
+                    a[x * f + y] += weighted * fixed[base + y];
+                }
+            }
+        }
+        choleskySolve(a, b, f);
+    }
+
+    /**
+     * 就地 Cholesky 分解 (只使用下三角) 并解 A x = b，结果写回 b
+     */
+    private static void choleskySolve(double[] a, double[] b, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * n + k] * a[j * n + k];
+            }
+            diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double sum = a[i * n + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[i * n + k] * a[j * n + k];
+                }
+                a[i * n + j] = sum / diagonal;
+            }
+        }
+        for (int i = 0; i < n; i++) { // L y = b
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= a[i * n + k] * b[k];
+            }
+            b[i] = sum / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) { // Lᵀ x = y
+            double sum = b[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= a[k * n + i] * b[k];
+            }
+            b[i] = sum / a[i * n + i];
+        }
+    }
+
+    /**
+     * YᵀY (只填下三角)，按块并行累加后求和
+     */
+    private static double[] gram(float[] factorsMatrix, int rowCount, int f, ForkJoinPool pool, int chunks) {
+        int chunkSize = Math.max(1, (rowCount + chunks - 1) / Math.max(1, chunks));
+        List<double[]> partials = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(rowCount, from + chunkSize);
+            double[] partial = new double[f * f];
+            partials.add(partial);
+            tasks.add(() -> {
+                for (int r = chunkFrom; r < chunkTo; r++) {
+                    int base = r * f;
+                    for (int x = 0; x < f; x++) {
+                        double vx = factorsMatrix[base + x];
+                        for (int y = 0; y <= x; y++) {
+                            partial[x * f + y] += vx * factorsMatrix[base + y];
+                        }
+                    }
+                }
+            });
+        }
+        runAll(tasks, pool);
+        double[] gram = new double[f * f];
+        for (double[] partial : partials) {
+            for (int k = 0; k < gram.length; k++) {
+                gram[k] += partial[k];
+            }
+        }
+        return gram;
+    }
+
+    private static void runAll(List<Runnable> tasks, ForkJoinPool pool) {
+        if (pool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> submitted.add(pool.submit(task)));
+        submitted.forEach(ForkJoinTask::join);
+    }
+}
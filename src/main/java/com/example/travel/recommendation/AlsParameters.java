@@ -0,0 +1,42 @@
+package com.example.travel.recommendation;
+
+/**
+ * 隐式反馈 ALS 的超参数。偏好分 r &gt; 0 视为正反馈 p = 1，置信度 c = 1 + alpha * r；
+ * 未交互的 (用户, 景点) 视为 p = 0、c = 1。
+ */
+public final class AlsParameters {
+
+    private final int factors;
+    private final int iterations;
+    private final double regularization;
+    private final double alpha;
+    private final long seed;
+
+    public AlsParameters(int factors, int iterations, double regularization, double alpha, long seed) {
+        this.factors = Math.max(1, factors);
+        this.iterations = Math.max(1, iterations);
+        this.regularization = regularization > 0 ? regularization : 0.01;
+        this.alpha = Math.max(0.0, alpha);
+        this.seed = seed;
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    public double regularization() {
+        return regularization;
+    }
+
+    public double alpha() {
+        return alpha;
+    }
+
+    public long seed() {
+        return seed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一次 ALS 训练的规模与耗时
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AlsTrainingStats {
+    private final int factors;
+    private final int iterations;
+    private final int threads;
+    private final long trainingMillis;
+}
@@ -0,0 +1,15 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (景点, 类别, 地点) 投影，内存中的排行按类别或地点过滤时使用
+ */
+@Data
+@AllArgsConstructor
+public class AttractionFacet {
+    private Long attractionId;
+    private String category;
+    private String location;
+}
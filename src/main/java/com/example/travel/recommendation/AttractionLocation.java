@@ -0,0 +1,15 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (景点, 纬度, 经度) 投影，按位置召回附近景点时使用
+ */
+@Data
+@AllArgsConstructor
+public class AttractionLocation {
+    private Long attractionId;
+    private Double latitude;
+    private Double longitude;
+}
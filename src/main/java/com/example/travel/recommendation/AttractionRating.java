@@ -0,0 +1,15 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (景点, 平均评分, 评分数) 投影，用于在内存中维护按评分排序的景点顺序
+ */
+@Data
+@AllArgsConstructor
+public class AttractionRating {
+    private Long attractionId;
+    private Double averageRating;
+    private Integer ratingCount;
+}
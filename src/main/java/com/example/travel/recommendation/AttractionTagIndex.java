@@ -0,0 +1,324 @@
+package com.example.travel.recommendation;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签 → 景点的倒排位图索引，用于基于偏好标签的推荐。
+ * <p>
+ * 景点 id 编码为连续序号 ({@link IdDictionary})，每个标签对应一个景点序号的 RoaringBitmap，
+ * 每个用户对应一个"已评价或收藏"的景点位图。推荐 = OR(偏好标签位图) ANDNOT 用户位图，
+ * 再按预先排好的评分顺序 (平均评分降序、评分数降序、id 升序) 取一页，多个标签命中同一景点也只出现一次。
+ * <p>
+ * 写操作串行化 (synchronized)，位图写时复制后整体替换，查询无锁。
+ * 评分变化只标记顺序失效，下一次查询时重新排序。
+ */
+public final class AttractionTagIndex {
+
+    // 候选数少于景点总数的 1/SORT_THRESHOLD 时直接对候选排序，否则按评分顺序扫描
+    private static final int SORT_THRESHOLD = 8;
+
+    private final IdDictionary attractions;
+    private final ConcurrentHashMap<Long, RoaringBitmap> attractionsByTag;
+    private final ConcurrentHashMap<Long, RoaringBitmap> interactedByUser;
+
+    // 以下字段只在持有锁时访问
+    private final Map<Long, long[]> tagsByAttraction;
+    private final RoaringBitmap liveAttractions;
+    private double[] averageRatings;
+    private int[] ratingCounts;
+
+    private volatile RatingOrder ratingOrder;
+    private volatile boolean ratingOrderDirty = true;
+
+    private AttractionTagIndex(IdDictionary attractions, Map<Long, RoaringBitmap> attractionsByTag,
+                               Map<Long, RoaringBitmap> interactedByUser, Map<Long, long[]> tagsByAttraction,
+                               RoaringBitmap liveAttractions, double[] averageRatings, int[] ratingCounts) {
+        this.attractions = attractions;
+        this.attractionsByTag = new ConcurrentHashMap<>(attractionsByTag);
+        this.interactedByUser = new ConcurrentHashMap<>(interactedByUser);
+        this.tagsByAttraction = tagsByAttraction;
+        this.liveAttractions = liveAttractions;
+        this.averageRatings = averageRatings;
+        this.ratingCounts = ratingCounts;
+    }
+
+    /**
+     * @param attractions 全部景点及其评分统计
+     */
+    public static Builder builder(Collection<AttractionRating> attractions) {
+        return new Builder(attractions);
+    }
+
+    /**
+     * 带任一偏好标签、且用户未评价/收藏过的景点，按评分顺序分页
+     *
+     * @return 当前页的景点 id 与满足条件的景点总数
+     */
+    public RankedAttractions recommend(Collection<Long> tagIds, Long userId, int offset, int limit) {
+        RatingOrder order = currentRatingOrder(); // 先取顺序再读位图，之后新增的景点不在顺序中，本次查询忽略
+        List<RoaringBitmap> tagBitmaps = new ArrayList<>(tagIds.size());
+        for (Long tagId : tagIds) {
+            RoaringBitmap bitmap = attractionsByTag.get(tagId);
+            if (bitmap != null) {
+                tagBitmaps.add(bitmap);
+            }
+        }
+        if (tagBitmaps.isEmpty()) {
+            return new RankedAttractions(List.of(), 0);
+        }
+        RoaringBitmap candidates = tagBitmaps.size() == 1 ? tagBitmaps.get(0).clone() : RoaringBitmap.or(tagBitmaps.iterator());
+        RoaringBitmap interacted = userId != null ? interactedByUser.get(userId) : null;
+        if (interacted != null) {
+            candidates.andNot(interacted);
+        }
+        if (candidates.getLongCardinality() > 0 && candidates.last() >= order.rankOf.length) {
+            candidates.remove(order.rankOf.length, candidates.last() + 1L);
+        }
+        int total = candidates.getCardinality();
+        if (offset >= total || limit <= 0) {
+            return new RankedAttractions(List.of(), total);
+        }
+
+        int end = (int) Math.min(total, (long) offset + limit);
+        List<Long> page = new ArrayList<>(end - offset);
+        if ((long) total * SORT_THRESHOLD < order.ordinals.length) {
+            // 候选少：把候选换算成名次排序
+            int[] ranks = new int[total];
+            int k = 0;
+            for (IntIterator it = candidates.getIntIterator(); it.hasNext(); ) {
+                ranks[k++] = order.rankOf[it.next()];
+            }
+            Arrays.sort(ranks);
+            // 顺序计算之后被删除又重新加入的景点名次为 MAX_VALUE，排在最后并跳过
+            for (int r = offset; r < end && ranks[r] != Integer.MAX_VALUE; r++) {
+                page.add(order.ids[ranks[r]]);
+            }
+        } else {
+            // 候选多：按评分顺序扫描，跳过 offset 个命中后收集一页
+            int seen = 0;
+            for (int rank = 0; rank < order.ordinals.length && page.size() < end - offset; rank++) {
+                if (candidates.contains(order.ordinals[rank]) && seen++ >= offset) {
+                    page.add(order.ids[rank]);
+                }
+            }
+        }
+        return new RankedAttractions(page, total);
+    }
+
+    /**
+     * 新增或修改景点：替换其标签集合并更新评分
+     */
+    public synchronized void upsertAttraction(long attractionId, Collection<Long> tagIds, Double averageRating, Integer ratingCount) {
+        int ordinal = attractions.getOrAdd(attractionId);
+        ensureCapacity(ordinal + 1);
+        long[] oldTags = tagsByAttraction.getOrDefault(attractionId, new long[0]);
+        long[] newTags = tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        for (long tagId : oldTags) {
+            if (Arrays.binarySearch(newTags, tagId) < 0) {
+                attractionsByTag.computeIfPresent(tagId, (id, bitmap) -> without(bitmap, ordinal));
+            }
+        }
+        for (long tagId : newTags) {
+            if (Arrays.binarySearch(oldTags, tagId) < 0) {
+                attractionsByTag.compute(tagId, (id, bitmap) -> with(bitmap, ordinal));
+            }
+        }
+        tagsByAttraction.put(attractionId, newTags);
+        liveAttractions.add(ordinal);
+        setRating(ordinal, averageRating, ratingCount);
+    }
+
+    public synchronized void updateRating(long attractionId, Double averageRating, Integer ratingCount) {
+        int ordinal = attractions.ordinalOf(attractionId);
+        if (ordinal >= 0 && liveAttractions.contains(ordinal)) {
+            setRating(ordinal, averageRating, ratingCount);
+        }
+    }
+
+    public synchronized void removeAttraction(long attractionId) {
+        int ordinal = attractions.ordinalOf(attractionId);
+        if (ordinal < 0 || !liveAttractions.contains(ordinal)) {
+            return;
+        }
+        for (long tagId : tagsByAttraction.getOrDefault(attractionId, new long[0])) {
+            attractionsByTag.computeIfPresent(tagId, (id, bitmap) -> without(bitmap, ordinal));
+        }
+        tagsByAttraction.remove(attractionId);
+        liveAttractions.remove(ordinal); // 用户位图中残留的序号不影响 ANDNOT 结果
+        ratingOrderDirty = true;
+    }
+
+    /**
+     * 设置用户是否已与景点交互 (评价或收藏)
+     */
+    public synchronized void setInteracted(long userId, long attractionId, boolean interacted) {
+        int ordinal = attractions.ordinalOf(attractionId);
+        if (ordinal < 0) {
+            return; // 未知景点不会出现在推荐结果中
+        }
+        if (interacted) {
+            interactedByUser.compute(userId, (id, bitmap) -> with(bitmap, ordinal));
+        } else {
+            interactedByUser.computeIfPresent(userId, (id, bitmap) -> without(bitmap, ordinal));
+        }
+    }
+
+    public synchronized int attractionCount() {
+        return liveAttractions.getCardinality();
+    }
+
+    public int tagCount() {
+        return attractionsByTag.size();
+    }
+
+    public int userCount() {
+        return interactedByUser.size();
+    }
+
+    public long estimatedHeapBytes() {
+        long bytes = attractions.estimatedHeapBytes();
+        for (RoaringBitmap bitmap : attractionsByTag.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        for (RoaringBitmap bitmap : interactedByUser.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        RatingOrder order = ratingOrder;
+        if (order != null) {
+            bytes += 16L * order.ordinals.length;
+        }
+        return bytes;
+    }
+
+    private void setRating(int ordinal, Double averageRating, Integer ratingCount) {
+        averageRatings[ordinal] = averageRating != null ? averageRating : 0.0;
+        ratingCounts[ordinal] = ratingCount != null ? ratingCount : 0;
+        ratingOrderDirty = true;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > averageRatings.length) {
+            int capacity = Math.max(count, averageRatings.length * 2);
+            averageRatings = Arrays.copyOf(averageRatings, capacity);
+            ratingCounts = Arrays.copyOf(ratingCounts, capacity);
+        }
+    }
+
+    private RatingOrder currentRatingOrder() {
+        RatingOrder order = ratingOrder;
+        if (order == null || ratingOrderDirty) {
+            order = rebuildRatingOrder();
+        }
+        return order;
+    }
+
+    private synchronized RatingOrder rebuildRatingOrder() {
+        if (ratingOrder != null && !ratingOrderDirty) {
+            return ratingOrder; // 其他线程已经重排
+        }
+        ratingOrderDirty = false; // 先清标记，排序期间的评分变化会再次置位
+        int[] live = liveAttractions.toArray();
+        Integer[] sorted = new Integer[live.length];
+        for (int i = 0; i < live.length; i++) {
+            sorted[i] = live[i];
+        }
+        Arrays.sort(sorted, (a, b) -> {
+            int cmp = Double.compare(averageRatings[b], averageRatings[a]);
+            if (cmp == 0) {
+                cmp = Integer.compare(ratingCounts[b], ratingCounts[a]);
+            }
+            return cmp != 0 ? cmp : Long.compare(attractions.idOf(a), attractions.idOf(b));
+        });
+        int[] ordinals = new int[sorted.length];
+        long[] ids = new long[sorted.length];
+        int[] rankOf = new int[attractions.size()];
+        Arrays.fill(rankOf, Integer.MAX_VALUE); // 已删除的景点不会出现在候选中
+        for (int rank = 0; rank < sorted.length; rank++) {
+            ordinals[rank] = sorted[rank];
+            ids[rank] = attractions.idOf(sorted[rank]);
+            rankOf[sorted[rank]] = rank;
+        }
+        RatingOrder order = new RatingOrder(ordinals, ids, rankOf);
+        ratingOrder = order;
+        return order;
+    }
+
+    private static RoaringBitmap with(RoaringBitmap bitmap, int ordinal) {
+        RoaringBitmap copy = bitmap != null ? bitmap.clone() : new RoaringBitmap();
+        copy.add(ordinal);
+        copy.runOptimize();
+        return copy;
+    }
+
+    private static RoaringBitmap without(RoaringBitmap bitmap, int ordinal) {
+        RoaringBitmap copy = bitmap.clone();
+        copy.remove(ordinal);
+        return copy.isEmpty() ? null : copy;
+    }
+
+    // ordinals/ids: 按评分顺序排列的景点；rankOf: 景点序号 → 名次
+    private record RatingOrder(int[] ordinals, long[] ids, int[] rankOf) {
+    }
+
+    /**
+     * 全量构建：先确定全部景点及其序号，再逐条加入标签关联和用户交互，最后一次性生成索引
+     */
+    public static final class Builder {
+        private final IdDictionary attractions;
+        private final double[] averageRatings;
+        private final int[] ratingCounts;
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> attractionsByTag = new HashMap<>();
+        private final Map<Long, List<Long>> tagsByAttraction = new HashMap<>();
+        private final Map<Long, RoaringBitmap> interactedByUser = new HashMap<>();
+
+        private Builder(Collection<AttractionRating> ratings) {
+            long[] ids = ratings.stream().mapToLong(AttractionRating::getAttractionId).toArray();
+            attractions = IdDictionary.fromIds(ids, ids.length);
+            averageRatings = new double[attractions.size()];
+            ratingCounts = new int[attractions.size()];
+            for (AttractionRating rating : ratings) {
+                int ordinal = attractions.ordinalOf(rating.getAttractionId());
+                averageRatings[ordinal] = rating.getAverageRating() != null ? rating.getAverageRating() : 0.0;
+                ratingCounts[ordinal] = rating.getRatingCount() != null ? rating.getRatingCount() : 0;
+                live.add(ordinal);
+            }
+        }
+
+        public Builder addTag(Long attractionId, Long tagId) {
+            int ordinal = attractions.ordinalOf(attractionId);
+            if (ordinal >= 0) {
+                attractionsByTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(ordinal);
+                tagsByAttraction.computeIfAbsent(attractionId, id -> new ArrayList<>()).add(tagId);
+            }
+            return this;
+        }
+
+        public Builder addInteraction(Long userId, Long attractionId) {
+            int ordinal = attractions.ordinalOf(attractionId);
+            if (ordinal >= 0) {
+                interactedByUser.computeIfAbsent(userId, id -> new RoaringBitmap()).add(ordinal);
+            }
+            return this;
+        }
+
+        public AttractionTagIndex build() {
+            attractionsByTag.values().forEach(RoaringBitmap::runOptimize);
+            interactedByUser.values().forEach(RoaringBitmap::runOptimize);
+            Map<Long, long[]> tagsOfAttraction = new HashMap<>();
+            tagsByAttraction.forEach((attractionId, tagIds) ->
+                    tagsOfAttraction.put(attractionId, tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray()));
+            return new AttractionTagIndex(attractions, attractionsByTag, interactedByUser, tagsOfAttraction,
+                    live, averageRatings, ratingCounts);
+        }
+    }
+}
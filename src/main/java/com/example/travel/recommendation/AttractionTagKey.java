@@ -0,0 +1,14 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (景点, 标签) 关联，全量构建标签索引时使用，不加载 Attraction/Tag 实体
+ */
+@Data
+@AllArgsConstructor
+public class AttractionTagKey {
+    private Long attractionId;
+    private Long tagId;
+}
@@ -0,0 +1,17 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * (用户, 景点, 浏览时间) 投影，来自 VIEW_ATTRACTION 活动日志，预热浏览会话模型时使用
+ */
+@Data
+@AllArgsConstructor
+public class AttractionView {
+    private Long userId;
+    private Long attractionId;
+    private LocalDateTime timestamp;
+}
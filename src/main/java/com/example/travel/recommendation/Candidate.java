@@ -0,0 +1,14 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 候选生成器产出的 (景点, 分值)；分值只在同一个生成器内可比，合并前由 {@link CandidateRanker} 归一化
+ */
+@Data
+@AllArgsConstructor
+public class Candidate {
+    private Long attractionId;
+    private double score;
+}
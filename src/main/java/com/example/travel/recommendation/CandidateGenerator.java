@@ -0,0 +1,18 @@
+package com.example.travel.recommendation;
+
+import java.util.List;
+
+/**
+ * 推荐流水线的召回阶段：从一种信号 (协同过滤邻居、偏好标签、热度、附近景点等) 中取出候选景点。
+ * 实现需要线程安全，会在流水线的线程池上与其他生成器并发调用；超出时间预算的结果会被丢弃。
+ */
+public interface CandidateGenerator {
+
+    /** 阶段名称，用于配置 (recommendation.pipeline.stages.&lt;name&gt;) 和指标标签 */
+    String name();
+
+    /**
+     * @return 至多 request.getCandidateLimit() 个候选，分值越大越相关；没有可用信号时返回空列表
+     */
+    List<Candidate> generate(CandidateRequest request);
+}
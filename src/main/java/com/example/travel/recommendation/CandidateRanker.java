@@ -0,0 +1,49 @@
+package com.example.travel.recommendation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 合并各阶段的候选并打分：每个阶段的分值先除以该阶段的最高分归一化到 (0, 1]，
+ * 再按阶段权重加权求和，被多个阶段同时召回的景点因此排在前面。
+ * 候选只有几百个，直接排序。
+ */
+public final class CandidateRanker {
+
+    private CandidateRanker() {
+    }
+
+    /**
+     * @param stageCandidates 各阶段的候选，与 weights 一一对应
+     * @param excluded        不参与排名的景点 (用户已交互过的)
+     * @return 分数最高的 limit 个候选，分数降序，同分时景点ID小的在前
+     */
+    public static List<Candidate> rank(List<List<Candidate>> stageCandidates, double[] weights,
+                                       Set<Long> excluded, int limit) {
+        Map<Long, Double> merged = new HashMap<>();
+        for (int s = 0; s < stageCandidates.size(); s++) {
+            List<Candidate> candidates = stageCandidates.get(s);
+            double max = 0;
+            for (Candidate candidate : candidates) {
+                max = Math.max(max, candidate.getScore());
+            }
+            if (max <= 0 || weights[s] <= 0) {
+                continue;
+            }
+            for (Candidate candidate : candidates) {
+                if (candidate.getScore() <= 0 || excluded.contains(candidate.getAttractionId())) {
+                    continue;
+                }
+                merged.merge(candidate.getAttractionId(), weights[s] * candidate.getScore() / max, Double::sum);
+            }
+        }
+        List<Candidate> ranked = new ArrayList<>(merged.size());
+        merged.forEach((attractionId, score) -> ranked.add(new Candidate(attractionId, score)));
+        ranked.sort(Comparator.comparingDouble(Candidate::getScore).reversed().thenComparing(Candidate::getAttractionId));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, Math.max(0, limit))) : ranked;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * 一次推荐请求的上下文，在调用线程上准备好后交给各候选生成器 (生成器运行在其他线程上，不能再懒加载实体)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CandidateRequest {
+    private final Long userId;
+    private final Set<Long> preferredTagIds;
+    // 用户已交互过的景点，合并时统一排除
+    private final Set<Long> excludedAttractionIds;
+    // 可选，用户当前位置
+    private final Double latitude;
+    private final Double longitude;
+    // 每个生成器最多返回的候选数
+    private final int candidateLimit;
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.travel.recommendation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于浏览会话的共现模型 ("看过这个景点的人也看了")，逐条浏览事件增量更新，不需要回扫历史。
+ * <p>
+ * 同一用户相邻两次浏览间隔不超过 sessionGap 时属于同一会话。景点第一次出现在会话中时，
+ * 与会话中已有的每个景点的共现次数各加一 (会话只保留最近 maxSessionItems 个景点，限制每次更新的代价)，
+ * 景点的会话数也加一。共现次数存放在每个景点自己的 {@link LongIntHashMap} 中。
+ * <p>
+ * 相似度为 co(i, j) / sqrt(sessions(i) * sessions(j))，避免所有景点都与最热门的景点最相似。
+ * 用户的会话和最近浏览记录保存在按访问过期的 Caffeine 缓存中，长时间不活跃的用户被淘汰。
+ * 线程安全：用户状态按用户加锁，共现表按景点加锁，两者不嵌套。
+ */
+public final class CoViewModel {
+
+    private final long sessionGapMillis;
+    private final int maxSessionItems;
+    private final int recentViews;
+    private final int minCoViews;
+    private final Cache<Long, UserBrowsing> users;
+    private final Map<Long, ItemCoViews> items = new ConcurrentHashMap<>();
+
+    /**
+     * @param sessionGap      相邻浏览超过该间隔时开始新会话
+     * @param maxSessionItems 会话中参与共现计数的最近景点数
+     * @param recentViews     "根据最近浏览" 使用的最近景点数
+     * @param minCoViews      共现次数低于该值的景点对不参与推荐
+     * @param userRetention   用户不活跃超过该时长后丢弃其会话
+     */
+    public CoViewModel(Duration sessionGap, int maxSessionItems, int recentViews, int minCoViews,
+                       Duration userRetention, long maxUsers) {
+        this(sessionGap, maxSessionItems, recentViews, minCoViews, userRetention, maxUsers, Ticker.systemTicker());
+    }
+
+    CoViewModel(Duration sessionGap, int maxSessionItems, int recentViews, int minCoViews,
+                Duration userRetention, long maxUsers, Ticker ticker) {
+        this.sessionGapMillis = sessionGap.toMillis();
+        this.maxSessionItems = Math.max(1, maxSessionItems);
+        this.recentViews = Math.max(1, recentViews);
+        this.minCoViews = Math.max(1, minCoViews);
+        this.users = Caffeine.newBuilder()
+                .expireAfterAccess(userRetention.toMillis(), TimeUnit.MILLISECONDS)
+                .maximumSize(maxUsers)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * 记录一次浏览；同一用户的事件需按时间顺序到达 (乱序的较早事件按当前会话处理)
+     */
+    public void recordView(long userId, long attractionId, long timestampMillis) {
+        UserBrowsing browsing = users.get(userId, id -> new UserBrowsing());
+        long[] coViewed;
+        synchronized (browsing) {
+            coViewed = browsing.view(attractionId, timestampMillis, sessionGapMillis, maxSessionItems, recentViews);
+        }
+        if (coViewed == null) {
+            return; // 会话中已经出现过
+        }
+        ItemCoViews target = items.computeIfAbsent(attractionId, id -> new ItemCoViews());
+        synchronized (target) {
+            target.sessions++;
+            for (long other : coViewed) {
+                target.coViews.addTo(other, 1);
+            }
+        }
+        for (long other : coViewed) {
+            ItemCoViews node = items.computeIfAbsent(other, id -> new ItemCoViews());
+            synchronized (node) {
+                node.coViews.addTo(attractionId, 1);
+            }
+        }
+    }
+
+    /**
+     * 看过该景点的人也看了：相似度最高的 limit 个景点，降序
+     */
+    public List<Candidate> alsoViewed(long attractionId, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        accumulateSimilar(attractionId, 1.0, scores);
+        return top(scores, limit);
+    }
+
+    /**
+     * 根据用户最近浏览的景点推荐：越近的浏览权重越高 (每往前一个乘 0.8)，排除最近浏览过的景点
+     */
+    public List<Candidate> recentBrowsing(long userId, int limit) {
+        UserBrowsing browsing = users.getIfPresent(userId);
+        if (browsing == null) {
+            return List.of();
+        }
+        long[] recent;
+        synchronized (browsing) {
+            recent = browsing.recentMostRecentFirst();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        double weight = 1.0;
+        for (long viewed : recent) {
+            accumulateSimilar(viewed, weight, scores);
+            weight *= 0.8;
+        }
+        for (long viewed : recent) {
+            scores.remove(viewed);
+        }
+        return top(scores, limit);
+    }
+
+    public void removeAttraction(long attractionId) {
+        items.remove(attractionId); // 其他景点表中残留的计数在查询时因缺少会话数被忽略
+    }
+
+    public int attractionCount() {
+        return items.size();
+    }
+
+    public long userCount() {
+        return users.estimatedSize();
+    }
+
+    /** 共现表中的条目数 (每个景点对计两次) */
+    public long coViewEntryCount() {
+        long total = 0;
+        for (ItemCoViews node : items.values()) {
+            synchronized (node) {
+                total += node.coViews.size();
+            }
+        }
+        return total;
+    }
+
+    public long estimatedHeapBytes() {
+        long total = 0;
+        for (ItemCoViews node : items.values()) {
+            synchronized (node) {
+                total += 48 + node.coViews.estimatedHeapBytes();
+            }
+        }
+        return total + users.estimatedSize() * (64L + 8L * (maxSessionItems + recentViews));
+    }
+
+    private void accumulateSimilar(long attractionId, double weight, Map<Long, Double> scores) {
+        ItemCoViews node = items.get(attractionId);
+        if (node == null) {
+            return;
+        }
+        long[] others;
+        int[] counts;
+        int sessions;
+        synchronized (node) {
+            sessions = node.sessions;
+            others = new long[node.coViews.size()];
+            counts = new int[others.length];
+            int[] next = {0};
+            node.coViews.forEach((other, count) -> {
+                others[next[0]] = other;
+                counts[next[0]++] = count;
+            });
+        }
+        for (int k = 0; k < others.length; k++) {
+            if (counts[k] < minCoViews) {
+                continue;
+            }
+            ItemCoViews otherNode = items.get(others[k]);
+            int otherSessions = otherNode != null ? otherNode.sessions : 0;
+            if (otherSessions == 0 || sessions == 0) {
+                continue;
+            }
+            scores.merge(others[k], weight * counts[k] / Math.sqrt((double) sessions * otherSessions), Double::sum);
+        }
+    }
+
+    private static List<Candidate> top(Map<Long, Double> scores, int limit) {
+        List<Candidate> ranked = new ArrayList<>(scores.size());
+        scores.forEach((attractionId, score) -> ranked.add(new Candidate(attractionId, score)));
+        ranked.sort(Comparator.comparingDouble(Candidate::getScore).reversed().thenComparing(Candidate::getAttractionId));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, Math.max(0, limit))) : ranked;
+    }
+
+    // 景点的会话数与共现次数，整体用对象锁保护
+    private static final class ItemCoViews {
+        int sessions;
+        final LongIntHashMap coViews = new LongIntHashMap();
+    }
+
+    /**
+     * 一个用户的当前会话 (环形缓冲，最近 maxSessionItems 个不同景点) 和最近浏览 (跨会话，最近 recentViews 个不同景点)
+     */
+    private static final class UserBrowsing {
+        long lastViewMillis = Long.MIN_VALUE;
+        long[] session = new long[0];
+        int sessionSize;
+        long[] recent = new long[0];
+        int recentSize;
+
+        /**
+         * @return 景点新加入会话时，返回此前会话中的景点 (与它共现)；已在会话中时返回 null
+         */
+        long[] view(long attractionId, long timestampMillis, long gapMillis, int maxSessionItems, int recentViews) {
+            if (lastViewMillis == Long.MIN_VALUE || timestampMillis - lastViewMillis > gapMillis) {
+                sessionSize = 0; // 新会话
+            }
+            lastViewMillis = Math.max(lastViewMillis, timestampMillis);
+            boolean seenRecently = contains(recent, recentSize, attractionId);
+            recent = moveToFront(recent, recentSize, attractionId, recentViews);
+            if (!seenRecently) {
+                recentSize = Math.min(recentSize + 1, recentViews);
+            }
+            if (contains(session, sessionSize, attractionId)) {
+                session = moveToFront(session, sessionSize, attractionId, maxSessionItems); // 只刷新顺序
+                return null;
+            }
+            long[] coViewed = new long[sessionSize];
+            System.arraycopy(session, 0, coViewed, 0, sessionSize);
+            session = moveToFront(session, sessionSize, attractionId, maxSessionItems);
+            sessionSize = Math.min(sessionSize + 1, maxSessionItems);
+            return coViewed;
+        }
+
+        long[] recentMostRecentFirst() {
+            long[] copy = new long[recentSize];
+            System.arraycopy(recent, 0, copy, 0, recentSize);
+            return copy;
+        }
+
+        private static boolean contains(long[] values, int size, long value) {
+            for (int k = 0; k < size; k++) {
+                if (values[k] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 把 value 移到数组最前 (已存在时先移除)，超过 capacity 的最旧元素被丢弃
+         */
+        private static long[] moveToFront(long[] values, int size, long value, int capacity) {
+            long[] target = values.length >= capacity ? values : Arrays.copyOf(values, capacity);
+            int position = size;
+            for (int k = 0; k < size; k++) {
+                if (target[k] == value) {
+                    position = k;
+                    break;
+                }
+            }
+            int shift = Math.min(position, capacity - 1);
+            System.arraycopy(target, 0, target, 1, shift);
+            target[0] = value;
+            return target;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.travel.recommendation;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据库主键 (long) 与连续序号 (int) 之间的双向字典。
+ * 批量构建的 id 以有序 long[] 保存（二分查找，每个 id 8 字节）；
+ * 构建之后新出现的 id 追加在末尾，序号一经分配不再改变。
+ * 追加操作需要调用方串行化，查询无锁。
+ */
+public final class IdDictionary {
+
+    private final long[] sortedIds;
+    private final ConcurrentHashMap<Long, Integer> appendedOrdinals = new ConcurrentHashMap<>();
+    private volatile long[] appendedIds = new long[0];
+    private volatile int size;
+
+    private IdDictionary(long[] sortedIds) {
+        this.sortedIds = sortedIds;
+        this.size = sortedIds.length;
+    }
+
+    /**
+     * 由任意顺序、可能重复的 id 构建字典，序号按 id 升序分配
+     */
+    public static IdDictionary fromIds(long[] ids, int length) {
+        long[] sorted = Arrays.copyOf(ids, length);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return new IdDictionary(Arrays.copyOf(sorted, unique));
+    }
+
+    /**
+     * 按序号顺序给出的 id 恢复字典 (快照加载)，保证每个 id 的序号与保存时一致
+     */
+    static IdDictionary fromOrdinalOrder(long[] ids) {
+        int sortedPrefix = 0;
+        while (sortedPrefix < ids.length && (sortedPrefix == 0 || ids[sortedPrefix] > ids[sortedPrefix - 1])) {
+            sortedPrefix++;
+        }
+        IdDictionary dictionary = new IdDictionary(Arrays.copyOf(ids, sortedPrefix));
+        for (int i = sortedPrefix; i < ids.length; i++) {
+            dictionary.getOrAdd(ids[i]);
+        }
+        return dictionary;
+    }
+
+    /** 按序号顺序导出全部 id */
+    long[] toArray() {
+        int count = size;
+        long[] ids = Arrays.copyOf(sortedIds, count);
+        if (count > sortedIds.length) {
+            System.arraycopy(appendedIds, 0, ids, sortedIds.length, count - sortedIds.length);
+        }
+        return ids;
+    }
+
+    /**
+     * @return id 对应的序号，不存在时返回 -1
+     */
+    public int ordinalOf(long id) {
+        int ordinal = Arrays.binarySearch(sortedIds, id);
+        if (ordinal >= 0) {
+            return ordinal;
+        }
+        Integer appended = appendedOrdinals.get(id);
+        return appended != null ? appended : -1;
+    }
+
+    public long idOf(int ordinal) {
+        if (ordinal < sortedIds.length) {
+            return sortedIds[ordinal];
+        }
+        return appendedIds[ordinal - sortedIds.length];
+    }
+
+    /**
+     * 查询序号，不存在则追加。调用方负责串行化写操作。
+     */
+    public int getOrAdd(long id) {
+        int ordinal = ordinalOf(id);
+        if (ordinal >= 0) {
+            return ordinal;
+        }
+        int appendedCount = size - sortedIds.length;
+        long[] ids = appendedIds;
+        if (appendedCount == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, ids.length * 2));
+        }
+        ids[appendedCount] = id;
+        appendedIds = ids; // volatile 写，保证读线程看到新元素
+        ordinal = size;
+        appendedOrdinals.put(id, ordinal);
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long estimatedHeapBytes() {
+        // 追加部分按 ConcurrentHashMap 条目约 64 字节估算
+        return 8L * sortedIds.length + 8L * appendedIds.length + 64L * appendedOrdinals.size();
+    }
+}
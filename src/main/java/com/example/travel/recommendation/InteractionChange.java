@@ -0,0 +1,21 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一次 (用户, 景点) 交互变更及其发生时间，用于按高水位增量拉取评价/收藏/行程的修改和删除墓碑
+ */
+@Data
+@AllArgsConstructor
+public class InteractionChange {
+    private Long userId;
+    private Long attractionId;
+    private LocalDateTime changedAt;
+
+    public InteractionKey key() {
+        return new InteractionKey(userId, attractionId);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 一个 (用户, 景点) 交互的主键，用于 JPQL 构造表达式查询变更过的交互
+ */
+@Data
+@AllArgsConstructor
+public class InteractionKey {
+    private Long userId;
+    private Long attractionId;
+}
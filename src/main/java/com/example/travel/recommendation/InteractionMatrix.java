@@ -0,0 +1,166 @@
+package com.example.travel.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * 用户-景点偏好矩阵，同时保存按用户 (CSR) 和按景点 (CSC) 两个方向的稀疏存储。
+ * 用户与景点主键都经过 {@link IdDictionary} 编码为连续序号，分值为 float，
+ * 每条交互在两个方向上共约 16 字节（嵌套 HashMap&lt;Long, Double&gt; 约 100 字节以上）。
+ * <p>
+ * 同时维护每个景点向量模长的平方，供余弦相似度使用。
+ * 写操作 ({@link #setScore}) 需要调用方串行化，读操作无锁。
+ */
+public final class InteractionMatrix {
+
+    private final IdDictionary users;
+    private final IdDictionary items;
+    private final SparseMatrix byUser; // 行 = 用户序号，列 = 景点序号
+    private final SparseMatrix byItem; // 行 = 景点序号，列 = 用户序号
+    private volatile double[] itemSquaredNorms;
+
+    private InteractionMatrix(IdDictionary users, IdDictionary items, SparseMatrix byUser, SparseMatrix byItem) {
+        this.users = users;
+        this.items = items;
+        this.byUser = byUser;
+        this.byItem = byItem;
+        VectorKernels kernels = VectorKernels.get();
+        double[] norms = new double[items.size()];
+        for (int i = 0; i < norms.length; i++) {
+            SparseRow column = byItem.row(i);
+            norms[i] = kernels.sumOfSquares(column.valueArray(), column.start(), column.end());
+        }
+        this.itemSquaredNorms = norms;
+    }
+
+    /**
+     * 由已编码的按用户 CSR 恢复 (快照加载)，按景点方向的存储与模长重新计算
+     */
+    static InteractionMatrix fromUserRows(IdDictionary users, IdDictionary items, SparseMatrix byUser) {
+        return new InteractionMatrix(users, items, byUser, byUser.transpose(items.size()));
+    }
+
+    SparseMatrix byUser() {
+        return byUser;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public IdDictionary users() {
+        return users;
+    }
+
+    public IdDictionary items() {
+        return items;
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public int itemCount() {
+        return items.size();
+    }
+
+    /** 用户交互过的景点，按景点序号升序 */
+    public SparseRow userRow(int userOrdinal) {
+        return byUser.row(userOrdinal);
+    }
+
+    /** 与景点交互过的用户，按用户序号升序 */
+    public SparseRow itemColumn(int itemOrdinal) {
+        return byItem.row(itemOrdinal);
+    }
+
+    public double itemSquaredNorm(int itemOrdinal) {
+        double[] norms = itemSquaredNorms;
+        return itemOrdinal < norms.length ? norms[itemOrdinal] : 0.0;
+    }
+
+    public float score(int userOrdinal, int itemOrdinal) {
+        return byUser.get(userOrdinal, itemOrdinal);
+    }
+
+    /**
+     * 修改一条偏好分 (0 表示删除)，同步更新两个方向的存储和景点模长。
+     *
+     * @return 修改前的分值
+     */
+    public float setScore(int userOrdinal, int itemOrdinal, float score) {
+        float old = byUser.get(userOrdinal, itemOrdinal);
+        if (old == score) {
+            return old;
+        }
+        byUser.put(userOrdinal, itemOrdinal, score);
+        byItem.put(itemOrdinal, userOrdinal, score);
+
+        double[] norms = itemSquaredNorms;
+        if (itemOrdinal >= norms.length) {
+            norms = Arrays.copyOf(norms, Math.max(itemOrdinal + 1, norms.length * 2));
+        }
+        norms[itemOrdinal] = Math.max(0.0, norms[itemOrdinal] + (double) score * score - (double) old * old);
+        itemSquaredNorms = norms;
+        return old;
+    }
+
+    public long interactionCount() {
+        return byUser.nonZeroCount();
+    }
+
+    public long estimatedHeapBytes() {
+        return users.estimatedHeapBytes() + items.estimatedHeapBytes()
+                + byUser.estimatedHeapBytes() + byItem.estimatedHeapBytes()
+                + 8L * itemSquaredNorms.length;
+    }
+
+    /**
+     * 以原始主键收集交互，最后一次性编码并排序成 CSR/CSC。
+     * 同一 (用户, 景点) 出现多次时取最大分值，与评分/收藏的合并规则一致。
+     */
+    public static final class Builder {
+
+        private long[] userIds = new long[1024];
+        private long[] itemIds = new long[1024];
+        private float[] scores = new float[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(long userId, long itemId, float score) {
+            if (score <= 0f) {
+                return this;
+            }
+            if (size == scores.length) {
+                int capacity = scores.length * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            userIds[size] = userId;
+            itemIds[size] = itemId;
+            scores[size] = score;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public InteractionMatrix build() {
+            IdDictionary users = IdDictionary.fromIds(userIds, size);
+            IdDictionary items = IdDictionary.fromIds(itemIds, size);
+            int[] userOrdinals = new int[size];
+            int[] itemOrdinals = new int[size];
+            for (int k = 0; k < size; k++) {
+                userOrdinals[k] = users.ordinalOf(userIds[k]);
+                itemOrdinals[k] = items.ordinalOf(itemIds[k]);
+            }
+            SparseMatrix byUser = SparseMatrix.fromCoordinates(users.size(), userOrdinals, itemOrdinals, scores, size);
+            SparseMatrix byItem = byUser.transpose(items.size());
+            return new InteractionMatrix(users, items, byUser, byItem);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (用户, 景点, 评分) 投影，全量加载偏好矩阵时逐行流式读取，不加载 Review 实体
+ */
+@Data
+@AllArgsConstructor
+public class InteractionRating {
+    private Long userId;
+    private Long attractionId;
+    private Integer rating;
+}
@@ -0,0 +1,17 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 全量加载时单个交互来源 (评价/收藏/行程) 的读取行数与耗时
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InteractionSourceStats {
+    private final String source;
+    private final long rows;
+    private final long millis;
+}
@@ -0,0 +1,189 @@
+package com.example.travel.recommendation;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基于物品的协同过滤模型：偏好矩阵 + 每个景点最相似的 K 个景点 ({@link NeighborIndex})。
+ * <p>
+ * 构建时按景点的用户列、再按用户行累加出与共现景点的点积，换算成余弦相似度
+ * sim(i, j) = dot(i, j) / (|i| * |j|) 后用有界最小堆只保留前 K 个，可在多个线程上分块并行
+ * (见 {@link NeighborIndexBuilder})；景点规模很大时可改用 MinHash/LSH 近似模式 ({@link #buildApproximate})。
+ * 查询相似景点只是读取邻居数组上的一个区间。
+ * <p>
+ * 偏好变化时 ({@link #applyScoreChange}) 重算目标景点的邻居列表 (代价与其共同用户的交互总数成正比)，
+ * 并更新共现景点列表中目标景点的相似度。某个景点从别人的前 K 名中被挤出或移除后，
+ * 下一名不会自动补位，直到下一次全量构建。
+ */
+public final class ItemCfModel {
+
+    private final InteractionMatrix interactions;
+    private final NeighborIndex neighbors;
+    private final SimilarityBuildStats buildStats;
+    private NeighborIndexBuilder.NeighborAccumulator updateAccumulator; // 仅在 applyScoreChange 中使用
+
+    private ItemCfModel(InteractionMatrix interactions, NeighborIndex neighbors, SimilarityBuildStats buildStats) {
+        this.interactions = interactions;
+        this.neighbors = neighbors;
+        this.buildStats = buildStats;
+    }
+
+    /**
+     * 在当前线程中顺序构建
+     */
+    public static ItemCfModel build(InteractionMatrix interactions, int maxNeighbors) {
+        return build(interactions, null, 1, maxNeighbors);
+    }
+
+    /**
+     * 在给定线程池上并行构建邻居列表
+     *
+     * @param pool         为 null 时在当前线程顺序执行
+     * @param tileCount    按景点切分的工作块数
+     * @param maxNeighbors 每个景点保留的邻居数 K
+     */
+    public static ItemCfModel build(InteractionMatrix interactions, ForkJoinPool pool, int tileCount, int maxNeighbors) {
+        NeighborIndexBuilder.Result result = NeighborIndexBuilder.build(interactions, pool, tileCount, maxNeighbors);
+        return new ItemCfModel(interactions, result.neighbors, result.stats);
+    }
+
+    /**
+     * 近似模式：MinHash/LSH 生成候选景点对，只对候选对计算相似度 (见 {@link LshNeighborIndexBuilder})
+     */
+    public static ItemCfModel buildApproximate(InteractionMatrix interactions, ForkJoinPool pool, int tileCount,
+                                               int maxNeighbors, LshParameters params) {
+        NeighborIndexBuilder.Result result = LshNeighborIndexBuilder.build(interactions, pool, tileCount, maxNeighbors, params);
+        return new ItemCfModel(interactions, result.neighbors, result.stats);
+    }
+
+    /**
+     * 由快照中的偏好矩阵和邻居列表直接恢复，不重新计算相似度
+     */
+    static ItemCfModel restore(InteractionMatrix interactions, NeighborIndex neighbors, SimilarityBuildStats buildStats) {
+        return new ItemCfModel(interactions, neighbors, buildStats);
+    }
+
+    public InteractionMatrix interactions() {
+        return interactions;
+    }
+
+    public NeighborIndex neighborIndex() {
+        return neighbors;
+    }
+
+    public SimilarityBuildStats buildStats() {
+        return buildStats;
+    }
+
+    /**
+     * 两个景点的相似度；item2 不在 item1 的前 K 个邻居中时为 0
+     */
+    public double similarity(int item1, int item2) {
+        SparseRow row = neighbors.neighbors(item1);
+        for (int k = 0; k < row.size(); k++) {
+            if (row.indexAt(k) == item2) {
+                return row.valueAt(k);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * 与给定景点最相似的 count 个景点 (至多 K 个)，按相似度降序；indices 为景点序号，values 为相似度
+     */
+    public SparseRow similarItems(int itemOrdinal, int count) {
+        if (itemOrdinal < 0 || itemOrdinal >= neighbors.itemCount()) {
+            return SparseRow.EMPTY;
+        }
+        return neighbors.neighbors(itemOrdinal, count);
+    }
+
+    /**
+     * 为用户打分：score(j) = Σ rating_ui * sim(i, j)，i 为用户交互过的景点，j 取 i 的前 neighborsPerItem 个邻居。
+     * 在按景点序号寻址的稠密数组上逐个邻居列表做 scatter-add，清掉用户已交互过的景点后扫描出正分值的前 count 个
+     *
+     * @return 按分数降序；indices 为景点序号，values 为预测分
+     */
+    public SparseRow recommend(int userOrdinal, int neighborsPerItem, int count) {
+        if (userOrdinal < 0 || userOrdinal >= interactions.userCount()) {
+            return SparseRow.EMPTY;
+        }
+        SparseRow liked = interactions.userRow(userOrdinal);
+        if (liked.isEmpty()) {
+            return SparseRow.EMPTY;
+        }
+        VectorKernels kernels = VectorKernels.get();
+        // 查询不加锁，applyScoreChange 可能同时登记新景点并写入邻居列表：
+        // 先取出各行 (写时复制，取出后不再变化)，按其中实际出现的最大序号确定打分数组长度
+        SparseRow[] rows = new SparseRow[liked.size()];
+        int itemCount = interactions.itemCount();
+        for (int k = 0; k < liked.size(); k++) {
+            rows[k] = similarItems(liked.indexAt(k), neighborsPerItem);
+            for (int n = 0; n < rows[k].size(); n++) {
+                itemCount = Math.max(itemCount, rows[k].indexAt(n) + 1);
+            }
+        }
+        float[] scores = new float[itemCount];
+        for (int k = 0; k < liked.size(); k++) {
+            SparseRow similar = rows[k];
+            kernels.scatterAdd(similar.indexArray(), similar.valueArray(), similar.start(), similar.end(),
+                    liked.valueAt(k), scores);
+        }
+        for (int k = 0; k < liked.size(); k++) {
+            scores[liked.indexAt(k)] = 0f; // 用户已经与该景点互动过
+        }
+        TopKSelector topN = new TopKSelector(count);
+        kernels.offerPositive(scores, scores.length, topN);
+        return topN.drainDescending();
+    }
+
+    /**
+     * 把 (userId, itemId) 的偏好分改为 newScore (0 表示删除)。
+     * 只有目标景点与其他景点之间的相似度会变化：重算目标景点的前 K 个邻居，
+     * 并在每个共现景点 (以及原来的邻居) 的列表中更新目标景点的相似度。
+     */
+    public synchronized void applyScoreChange(long userId, long itemId, float newScore) {
+        // 删除模型中从未出现过的偏好时不分配序号，避免字典和矩阵里留下空的用户、景点
+        int user = newScore == 0 ? interactions.users().ordinalOf(userId) : interactions.users().getOrAdd(userId);
+        int item = newScore == 0 ? interactions.items().ordinalOf(itemId) : interactions.items().getOrAdd(itemId);
+        if (user < 0 || item < 0) {
+            return;
+        }
+        if (interactions.score(user, item) == newScore) {
+            return;
+        }
+        SparseRow previousNeighbors = similarItems(item, Integer.MAX_VALUE);
+        interactions.setScore(user, item, newScore);
+        neighbors.ensureItemCount(interactions.itemCount());
+
+        if (updateAccumulator == null) {
+            updateAccumulator = new NeighborIndexBuilder.NeighborAccumulator(interactions, interactions.itemCount());
+        }
+        NeighborIndexBuilder.NeighborAccumulator accumulator = updateAccumulator;
+        int count = accumulator.accumulate(item);
+        TopKSelector selector = new TopKSelector(neighbors.maxNeighbors());
+        for (int t = 0; t < count; t++) {
+            int other = accumulator.neighborAt(t);
+            float similarity = accumulator.similarityAt(item, t);
+            if (similarity > 0) {
+                selector.offer(other, similarity);
+            }
+            neighbors.updateNeighbor(other, item, similarity);
+        }
+        for (int k = 0; k < previousNeighbors.size(); k++) {
+            int other = previousNeighbors.indexAt(k);
+            if (!accumulator.isCoRated(other)) {
+                neighbors.updateNeighbor(other, item, 0f); // 不再有共同用户
+            }
+        }
+        accumulator.reset();
+        neighbors.replace(item, selector.drainDescending());
+    }
+
+    public long neighborCount() {
+        return neighbors.neighborCount();
+    }
+
+    public long estimatedHeapBytes() {
+        return interactions.estimatedHeapBytes() + neighbors.estimatedHeapBytes();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.travel.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * long -&gt; int 的开放寻址哈希表 (线性探测)，键和值分别存放在两个基本类型数组中，
+ * 每个条目约 12 字节 (装载因子 0.5 时约 24 字节)，HashMap&lt;Long, Integer&gt; 则在 60 字节以上。
+ * 键 0 保留为空槽标记；不支持删除。非线程安全。
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * 把 key 的值加上 delta (不存在时视为 0)
+     *
+     * @return 累加后的值
+     */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        int slot = find(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Entry action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public long estimatedHeapBytes() {
+        return 12L * keys.length;
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    private int find(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = find(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    // 主键通常是连续的小整数，打散后再取低位
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        long[] present = Arrays.stream(keys).filter(key -> key != EMPTY).sorted().toArray();
+        StringBuilder sb = new StringBuilder("{");
+        for (int k = 0; k < present.length; k++) {
+            sb.append(k == 0 ? "" : ", ").append(present[k]).append('=').append(get(present[k]));
+        }
+        return sb.append('}').toString();
+    }
+}
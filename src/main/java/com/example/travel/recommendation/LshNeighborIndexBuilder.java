@@ -0,0 +1,305 @@
+package com.example.travel.recommendation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 近似模式：用 MinHash/LSH 生成候选景点对，只对候选对计算精确余弦相似度。
+ * <p>
+ * 1. 对每个景点的用户集合计算 MinHash 签名 (bands * rowsPerBand 个哈希的最小值)，按景点并行；
+ * 2. 签名切成 bands 段，每段哈希成桶号，同一段同一桶中的景点两两成为候选对；
+ * 3. 候选对整理成按景点的邻接表，交给 {@link NeighborIndexBuilder} 的 tile 并行计算余弦相似度并保留前 K 个；
+ * 4. 抽样若干景点，用精确模式重算它们的前 K 个邻居，报告近似结果的召回率。
+ * <p>
+ * 工作量与候选对数成正比，而不是与共现景点对数成正比。热门景点会把大量景点聚到同一个桶里，
+ * 超过 maxBucketSize 的桶直接跳过。去重后的候选对仍超过 {@link #MAX_CANDIDATE_PAIRS} 时说明分桶过粗，回退到精确模式。
+ */
+@Slf4j
+final class LshNeighborIndexBuilder {
+
+    // 候选对按 long 存放，5000 万对约 400 MB；再多就不如直接走精确模式
+    static final long MAX_CANDIDATE_PAIRS = 50_000_000L;
+
+    private LshNeighborIndexBuilder() {
+    }
+
+    static NeighborIndexBuilder.Result build(InteractionMatrix interactions, ForkJoinPool pool, int tileCount,
+                                             int maxNeighbors, LshParameters params) {
+        long start = System.nanoTime();
+        int[] signatures = signatures(interactions, pool, Math.max(1, tileCount), params);
+        CandidateLists candidates = candidates(interactions, signatures, params);
+        if (candidates == null) {
+            log.warn("LshNeighborIndexBuilder: more than {} candidate pairs (bands={}, rowsPerBand={}, maxBucketSize={}), falling back to exact similarity",
+                    MAX_CANDIDATE_PAIRS, params.bands(), params.rowsPerBand(), params.maxBucketSize());
+            return NeighborIndexBuilder.build(interactions, pool, tileCount, maxNeighbors);
+        }
+
+        long[] work = new long[interactions.itemCount()];
+        for (int i = 0; i < work.length; i++) {
+            long columnSize = interactions.itemColumn(i).size();
+            for (int p = candidates.pointers[i]; p < candidates.pointers[i + 1]; p++) {
+                work[i] += columnSize + interactions.itemColumn(candidates.items[p]).size();
+            }
+        }
+        NeighborIndexBuilder.Result scored = NeighborIndexBuilder.build(interactions, pool, tileCount, maxNeighbors,
+                work, () -> new CandidateScorer(interactions, candidates), SimilarityMode.LSH);
+
+        double recall = sampledRecall(interactions, scored.neighbors, maxNeighbors, params);
+        SimilarityBuildStats stats = scored.stats;
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        return new NeighborIndexBuilder.Result(scored.neighbors, new SimilarityBuildStats(stats.getThreads(), stats.getTiles(),
+                wallMillis, stats.getTileMillisTotal(), stats.getCandidatePairs(), stats.getNeighbors(), SimilarityMode.LSH, recall));
+    }
+
+    /**
+     * 每个景点的 MinHash 签名，平铺在一个数组中：signatures[item * length + k]。没有用户的景点签名全为 MAX_VALUE。
+     */
+    private static int[] signatures(InteractionMatrix interactions, ForkJoinPool pool, int chunks, LshParameters params) {
+        int itemCount = interactions.itemCount();
+        int length = params.signatureLength();
+        long[] hashSeeds = new long[length];
+        SplittableRandom random = new SplittableRandom(params.seed());
+        for (int k = 0; k < length; k++) {
+            hashSeeds[k] = random.nextLong();
+        }
+        int[] signatures = new int[itemCount * length];
+        Arrays.fill(signatures, Integer.MAX_VALUE);
+
+        int chunkSize = Math.max(1, (itemCount + chunks - 1) / chunks);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int from = 0; from < itemCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(itemCount, from + chunkSize);
+            tasks.add(() -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    SparseRow users = interactions.itemColumn(i);
+                    int base = i * length;
+                    for (int u = 0; u < users.size(); u++) {
+                        long user = users.indexAt(u);
+                        for (int k = 0; k < length; k++) {
+                            int hash = (int) (mix64(hashSeeds[k] ^ user) >>> 32);
+                            if (hash < signatures[base + k]) {
+                                signatures[base + k] = hash;
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        if (pool == null) {
+            tasks.forEach(Runnable::run);
+        } else {
+            List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+            tasks.forEach(task -> submitted.add(pool.submit(task)));
+            submitted.forEach(ForkJoinTask::join);
+        }
+        return signatures;
+    }
+
+    /**
+     * 按段分桶，收集同桶景点对，逐段归并去重后整理成按景点的候选邻接表
+     *
+     * @return 去重后的候选对超过 {@link #MAX_CANDIDATE_PAIRS} 时为 null
+     */
+    private static CandidateLists candidates(InteractionMatrix interactions, int[] signatures, LshParameters params) {
+        int itemCount = interactions.itemCount();
+        int length = params.signatureLength();
+        int[] activeItems = new int[itemCount];
+        int activeCount = 0;
+        for (int i = 0; i < itemCount; i++) {
+            if (!interactions.itemColumn(i).isEmpty()) {
+                activeItems[activeCount++] = i;
+            }
+        }
+
+        // 同一段内每个景点只落在一个桶里，段内的景点对互不重复；各段排序后归并进已去重的集合，
+        // 内存只与去重后的候选对数 + 单段的候选对数成正比
+        long[] unique = new long[0];
+        long[] bandPairs = new long[Math.max(16, activeCount)];
+        long[] keyed = new long[activeCount];
+        for (int band = 0; band < params.bands(); band++) {
+            for (int a = 0; a < activeCount; a++) {
+                int item = activeItems[a];
+                long hash = params.seed() ^ band;
+                int offset = item * length + band * params.rowsPerBand();
+                for (int r = 0; r < params.rowsPerBand(); r++) {
+                    hash = mix64(hash ^ signatures[offset + r]);
+                }
+                // 高 32 位为桶号，低 32 位为景点序号，排序后同桶景点相邻 (桶号截断只会多出候选对，不影响正确性)
+                keyed[a] = (hash & 0xFFFFFFFF00000000L) | item;
+            }
+            Arrays.sort(keyed, 0, activeCount);
+            int bandCount = 0;
+            int runStart = 0;
+            for (int a = 1; a <= activeCount; a++) {
+                if (a < activeCount && (keyed[a] >>> 32) == (keyed[runStart] >>> 32)) {
+                    continue;
+                }
+                int runLength = a - runStart;
+                if (runLength >= 2 && runLength <= params.maxBucketSize()) {
+                    long needed = bandCount + (long) runLength * (runLength - 1);
+                    if (needed > MAX_CANDIDATE_PAIRS) {
+                        return null;
+                    }
+                    if (needed > bandPairs.length) {
+                        bandPairs = Arrays.copyOf(bandPairs, (int) Math.min(MAX_CANDIDATE_PAIRS, Math.max(needed, 2L * bandPairs.length)));
+                    }
+                    for (int x = runStart; x < a; x++) {
+                        long itemX = keyed[x] & 0xFFFFFFFFL;
+                        for (int y = runStart; y < a; y++) {
+                            if (x != y) {
+                                bandPairs[bandCount++] = (itemX << 32) | (keyed[y] & 0xFFFFFFFFL);
+                            }
+                        }
+                    }
+                }
+                runStart = a;
+            }
+            Arrays.sort(bandPairs, 0, bandCount);
+            unique = mergeUnique(unique, bandPairs, bandCount);
+            if (unique.length > MAX_CANDIDATE_PAIRS) {
+                return null;
+            }
+        }
+
+        int[] pointers = new int[itemCount + 1];
+        int[] items = new int[unique.length];
+        for (int p = 0; p < unique.length; p++) {
+            pointers[(int) (unique[p] >>> 32) + 1]++;
+            items[p] = (int) unique[p];
+        }
+        for (int i = 0; i < itemCount; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+        return new CandidateLists(pointers, items);
+    }
+
+    /**
+     * 归并两个升序数组并去掉重复元素；existing 本身无重复
+     */
+    static long[] mergeUnique(long[] existing, long[] sorted, int sortedCount) {
+        long[] merged = new long[existing.length + sortedCount];
+        int count = 0;
+        int a = 0;
+        int b = 0;
+        while (a < existing.length || b < sortedCount) {
+            long next;
+            if (b == sortedCount || (a < existing.length && existing[a] <= sorted[b])) {
+                next = existing[a++];
+            } else {
+                next = sorted[b++];
+            }
+            if (count == 0 || merged[count - 1] != next) {
+                merged[count++] = next;
+            }
+        }
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * 抽样景点上近似邻居对精确前 K 个邻居的召回率；没有测量时返回 NaN
+     */
+    private static double sampledRecall(InteractionMatrix interactions, NeighborIndex approximate, int maxNeighbors,
+                                         LshParameters params) {
+        int itemCount = interactions.itemCount();
+        if (params.recallSampleSize() == 0 || itemCount == 0) {
+            return Double.NaN;
+        }
+        NeighborIndexBuilder.NeighborAccumulator exact = new NeighborIndexBuilder.NeighborAccumulator(interactions, itemCount);
+        SplittableRandom random = new SplittableRandom(params.seed());
+        long relevant = 0;
+        long found = 0;
+        for (int s = 0; s < Math.min(params.recallSampleSize(), itemCount); s++) {
+            int item = random.nextInt(itemCount);
+            SparseRow expected = exact.topNeighbors(item, maxNeighbors);
+            SparseRow actual = approximate.neighbors(item);
+            for (int e = 0; e < expected.size(); e++) {
+                for (int a = 0; a < actual.size(); a++) {
+                    if (actual.indexAt(a) == expected.indexAt(e)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            relevant += expected.size();
+        }
+        return relevant == 0 ? 1.0 : (double) found / relevant;
+    }
+
+    // SplitMix64 的混合函数
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 候选邻接表 (CSR)：景点 i 的候选为 items[pointers[i] .. pointers[i + 1])
+     */
+    private static final class CandidateLists {
+        final int[] pointers;
+        final int[] items;
+
+        CandidateLists(int[] pointers, int[] items) {
+            this.pointers = pointers;
+            this.items = items;
+        }
+    }
+
+    /**
+     * 对一个景点的全部候选求点积并换算成余弦相似度：先把该景点的用户列散布到按用户序号寻址的稠密数组，
+     * 每个候选的点积就是一次 gather 点积 ({@link VectorKernels#sparseDenseDot})，最后只清零写过的位置
+     */
+    private static final class CandidateScorer implements NeighborIndexBuilder.NeighborScorer {
+        private final InteractionMatrix interactions;
+        private final CandidateLists candidates;
+        private final VectorKernels kernels = VectorKernels.get();
+        private final float[] denseColumn;
+        private int lastCandidateCount;
+
+        CandidateScorer(InteractionMatrix interactions, CandidateLists candidates) {
+            this.interactions = interactions;
+            this.candidates = candidates;
+            this.denseColumn = new float[interactions.userCount()];
+        }
+
+        @Override
+        public SparseRow topNeighbors(int item, int maxNeighbors) {
+            SparseRow users = interactions.itemColumn(item);
+            double norm = interactions.itemSquaredNorm(item);
+            TopKSelector selector = new TopKSelector(maxNeighbors);
+            int from = candidates.pointers[item];
+            int to = candidates.pointers[item + 1];
+            kernels.scatterAdd(users.indexArray(), users.valueArray(), users.start(), users.end(), 1f, denseColumn);
+            try {
+                for (int p = from; p < to; p++) {
+                    int other = candidates.items[p];
+                    SparseRow otherUsers = interactions.itemColumn(other);
+                    double dot = kernels.sparseDenseDot(otherUsers.indexArray(), otherUsers.valueArray(),
+                            otherUsers.start(), otherUsers.end(), denseColumn);
+                    double norms = norm * interactions.itemSquaredNorm(other);
+                    if (dot > 0 && norms > 0) {
+                        selector.offer(other, (float) (dot / Math.sqrt(norms)));
+                    }
+                }
+            } finally {
+                for (int k = 0; k < users.size(); k++) {
+                    denseColumn[users.indexAt(k)] = 0f;
+                }
+            }
+            lastCandidateCount = to - from;
+            return selector.drainDescending();
+        }
+
+        @Override
+        public int lastCandidateCount() {
+            return lastCandidateCount;
+        }
+    }
+}
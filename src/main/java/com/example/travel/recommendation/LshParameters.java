@@ -0,0 +1,50 @@
+package com.example.travel.recommendation;
+
+/**
+ * MinHash/LSH 近似相似度的参数。签名长度 = bands * rowsPerBand；
+ * 两个景点的用户集合 Jaccard 相似度为 s 时，成为候选对的概率约为 1 - (1 - s^rowsPerBand)^bands。
+ */
+public final class LshParameters {
+
+    private final int bands;
+    private final int rowsPerBand;
+    private final int maxBucketSize;
+    private final int recallSampleSize;
+    private final long seed;
+
+    /**
+     * @param maxBucketSize    超过该大小的桶不产生候选对 (通常是被大量用户共同交互的热门景点造成的退化桶)
+     * @param recallSampleSize 构建后抽样与精确模式比较召回率的景点数，0 表示不测量
+     */
+    public LshParameters(int bands, int rowsPerBand, int maxBucketSize, int recallSampleSize, long seed) {
+        this.bands = Math.max(1, bands);
+        this.rowsPerBand = Math.max(1, rowsPerBand);
+        this.maxBucketSize = Math.max(2, maxBucketSize);
+        this.recallSampleSize = Math.max(0, recallSampleSize);
+        this.seed = seed;
+    }
+
+    public int bands() {
+        return bands;
+    }
+
+    public int rowsPerBand() {
+        return rowsPerBand;
+    }
+
+    public int signatureLength() {
+        return bands * rowsPerBand;
+    }
+
+    public int maxBucketSize() {
+        return maxBucketSize;
+    }
+
+    public int recallSampleSize() {
+        return recallSampleSize;
+    }
+
+    public long seed() {
+        return seed;
+    }
+}
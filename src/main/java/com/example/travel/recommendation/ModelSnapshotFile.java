@@ -0,0 +1,260 @@
+package com.example.travel.recommendation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 推荐模型快照的二进制文件格式，用于启动时恢复模型而不必全表扫描重建。
+ * <p>
+ * 布局 (小端)：固定 256 字节的文件头，之后是若干数组段，每段为 8 字节长度 + 数组内容：
+ * 用户 id、景点 id (均按序号顺序)、按用户的 CSR (行指针、景点序号、分值)、
+ * 邻居列表 (行指针、邻居序号、相似度)、ALS 用户因子与景点因子 (未启用 ALS 时为空)。文件头记录格式版本、模型版本、高水位、构建统计、
+ * 数据段长度和数据段的 CRC32，加载时逐项校验，任何不一致都视为快照不可用。
+ * <p>
+ * 写入先写临时文件再原子替换，读到的要么是旧快照，要么是完整的新快照。
+ * <p>
+ * 文件映射只用于整段读写：加载时各数组段复制到堆上，映射随即释放，模型并不直接由映射提供服务
+ * (增量更新需要对行做写时复制，打分内核也只接受堆上的数组)。
+ */
+public final class ModelSnapshotFile {
+
+    private static final int MAGIC = 0x54524D53; // "TRMS"
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_BYTES = 256;
+
+    private ModelSnapshotFile() {
+    }
+
+    public static void write(RecommendationModel model, Path path) throws IOException {
+        ItemCfModel itemCf = model.itemCf();
+        InteractionMatrix interactions = itemCf.interactions();
+        long[] userIds = interactions.users().toArray();
+        long[] itemIds = interactions.items().toArray();
+        SparseMatrix byUser = interactions.byUser().compact();
+        SparseMatrix neighbors = itemCf.neighborIndex().rows().compact();
+        AlsModel als = model.als();
+        float[] userFactors = als != null ? als.userFactorArray() : new float[0];
+        float[] itemFactors = als != null ? als.itemFactorArray() : new float[0];
+
+        long payloadBytes = longsBytes(userIds) + longsBytes(itemIds)
+                + intsBytes(byUser.rowPointerArray()) + intsBytes(byUser.columnIndexArray()) + floatsBytes(byUser.valueArray())
+                + intsBytes(neighbors.rowPointerArray()) + intsBytes(neighbors.columnIndexArray()) + floatsBytes(neighbors.valueArray())
+                + floatsBytes(userFactors) + floatsBytes(itemFactors);
+        if (HEADER_BYTES + payloadBytes > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large for a single mapping: " + payloadBytes + " bytes");
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payloadBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.position(HEADER_BYTES);
+            putLongs(buffer, userIds);
+            putLongs(buffer, itemIds);
+            putInts(buffer, byUser.rowPointerArray());
+            putInts(buffer, byUser.columnIndexArray());
+            putFloats(buffer, byUser.valueArray());
+            putInts(buffer, neighbors.rowPointerArray());
+            putInts(buffer, neighbors.columnIndexArray());
+            putFloats(buffer, neighbors.valueArray());
+            putFloats(buffer, userFactors);
+            putFloats(buffer, itemFactors);
+
+            SimilarityBuildStats stats = itemCf.buildStats();
+            buffer.position(0);
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putLong(model.version());
+            buffer.putLong(toEpochMillis(model.watermark()));
+            buffer.putLong(toEpochMillis(model.builtAt()));
+            buffer.putLong(model.buildMillis());
+            buffer.putInt(itemCf.neighborIndex().maxNeighbors());
+            buffer.putInt(stats.getThreads());
+            buffer.putLong(stats.getTiles());
+            buffer.putLong(stats.getWallMillis());
+            buffer.putLong(stats.getTileMillisTotal());
+            buffer.putLong(stats.getCandidatePairs());
+            buffer.putLong(stats.getNeighbors());
+            buffer.putInt(stats.getMode().ordinal());
+            buffer.putInt(0); // 对齐
+            buffer.putDouble(stats.getSampledRecall());
+            buffer.putInt(als != null ? als.factors() : 0);
+            buffer.putInt(als != null ? als.trainingStats().getIterations() : 0);
+            buffer.putInt(als != null ? als.trainingStats().getThreads() : 0);
+            buffer.putInt(0); // 对齐
+            buffer.putLong(als != null ? als.trainingStats().getTrainingMillis() : 0L);
+            buffer.putLong(payloadBytes);
+            buffer.putLong(checksum(buffer, payloadBytes));
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 校验快照文件并把各数组段复制到堆上，恢复出模型。格式版本不符、长度不符或校验和不符时抛出 IOException。
+     */
+    public static RecommendationModel read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            if (fileBytes < HEADER_BYTES) {
+                throw new IOException("Snapshot truncated: " + fileBytes + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a recommendation model snapshot: " + path);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + formatVersion);
+            }
+            long version = buffer.getLong();
+            LocalDateTime watermark = fromEpochMillis(buffer.getLong());
+            LocalDateTime builtAt = fromEpochMillis(buffer.getLong());
+            long buildMillis = buffer.getLong();
+            int maxNeighbors = buffer.getInt();
+            int threads = buffer.getInt();
+            int tiles = (int) buffer.getLong();
+            long wallMillis = buffer.getLong();
+            long tileMillis = buffer.getLong();
+            long candidatePairs = buffer.getLong();
+            long neighborCount = buffer.getLong();
+            int modeOrdinal = buffer.getInt();
+            buffer.getInt();
+            double sampledRecall = buffer.getDouble();
+            int alsFactors = buffer.getInt();
+            int alsIterations = buffer.getInt();
+            int alsThreads = buffer.getInt();
+            buffer.getInt();
+            long alsTrainingMillis = buffer.getLong();
+            if (modeOrdinal < 0 || modeOrdinal >= SimilarityMode.values().length) {
+                throw new IOException("Unknown similarity mode " + modeOrdinal);
+            }
+            long payloadBytes = buffer.getLong();
+            long expectedChecksum = buffer.getLong();
+            if (HEADER_BYTES + payloadBytes != fileBytes) {
+                throw new IOException("Snapshot length mismatch: header says " + payloadBytes + " payload bytes, file has " + (fileBytes - HEADER_BYTES));
+            }
+            if (checksum(buffer, payloadBytes) != expectedChecksum) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+
+            buffer.position(HEADER_BYTES);
+            IdDictionary users = IdDictionary.fromOrdinalOrder(getLongs(buffer));
+            IdDictionary items = IdDictionary.fromOrdinalOrder(getLongs(buffer));
+            SparseMatrix byUser = SparseMatrix.of(getInts(buffer), getInts(buffer), getFloats(buffer));
+            SparseMatrix neighborRows = SparseMatrix.of(getInts(buffer), getInts(buffer), getFloats(buffer));
+            float[] userFactors = getFloats(buffer);
+            float[] itemFactors = getFloats(buffer);
+
+            if (byUser.rowCount() != users.size() || neighborRows.rowCount() != items.size()) {
+                throw new IOException("Snapshot sections are inconsistent with the id dictionaries");
+            }
+
+            InteractionMatrix interactions = InteractionMatrix.fromUserRows(users, items, byUser);
+            SimilarityBuildStats stats = new SimilarityBuildStats(threads, tiles, wallMillis, tileMillis, candidatePairs, neighborCount,
+                    SimilarityMode.values()[modeOrdinal], sampledRecall);
+            ItemCfModel itemCf = ItemCfModel.restore(interactions, new NeighborIndex(neighborRows, maxNeighbors), stats);
+            AlsModel als = null;
+            if (alsFactors > 0) {
+                if (userFactors.length != users.size() * alsFactors || itemFactors.length != items.size() * alsFactors) {
+                    throw new IOException("Snapshot ALS factor sections are inconsistent with the id dictionaries");
+                }
+                als = AlsModel.restore(alsFactors, userFactors, itemFactors,
+                        new AlsTrainingStats(alsFactors, alsIterations, alsThreads, alsTrainingMillis));
+            }
+            return new RecommendationModel(version, itemCf, als, builtAt, buildMillis, watermark, true, List.of());
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, long payloadBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, (int) payloadBytes));
+        return crc.getValue();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static long longsBytes(long[] array) {
+        return 8L + 8L * array.length;
+    }
+
+    private static long intsBytes(int[] array) {
+        return 8L + 4L * array.length;
+    }
+
+    private static long floatsBytes(float[] array) {
+        return 8L + 4L * array.length;
+    }
+
+    private static void putLongs(ByteBuffer buffer, long[] array) {
+        buffer.putLong(array.length);
+        buffer.asLongBuffer().put(array);
+        buffer.position(buffer.position() + 8 * array.length);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] array) {
+        buffer.putLong(array.length);
+        buffer.asIntBuffer().put(array);
+        buffer.position(buffer.position() + 4 * array.length);
+    }
+
+    private static void putFloats(ByteBuffer buffer, float[] array) {
+        buffer.putLong(array.length);
+        buffer.asFloatBuffer().put(array);
+        buffer.position(buffer.position() + 4 * array.length);
+    }
+
+    private static long[] getLongs(ByteBuffer buffer) throws IOException {
+        long[] array = new long[checkedLength(buffer, 8)];
+        buffer.asLongBuffer().get(array);
+        buffer.position(buffer.position() + 8 * array.length);
+        return array;
+    }
+
+    private static int[] getInts(ByteBuffer buffer) throws IOException {
+        int[] array = new int[checkedLength(buffer, 4)];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + 4 * array.length);
+        return array;
+    }
+
+    private static float[] getFloats(ByteBuffer buffer) throws IOException {
+        float[] array = new float[checkedLength(buffer, 4)];
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * array.length);
+        return array;
+    }
+
+    private static int checkedLength(ByteBuffer buffer, int elementBytes) throws IOException {
+        long length = buffer.getLong();
+        if (length < 0 || length * elementBytes > buffer.remaining()) {
+            throw new IOException("Corrupt snapshot section length " + length);
+        }
+        return (int) length;
+    }
+}
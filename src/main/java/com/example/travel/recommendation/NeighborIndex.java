@@ -0,0 +1,110 @@
+package com.example.travel.recommendation;
+
+/**
+ * 每个景点最相似的 K 个景点，按相似度降序预先排好。
+ * 批量构建的结果保存在扁平数组中，查询前 n 个邻居只是数组上的一个区间，不排序、不分配新数组；
+ * 增量更新时整行写时复制替换。内存占用为 O(景点数 * K)，与景点对的总数无关。
+ */
+public final class NeighborIndex {
+
+    private final SparseMatrix rows; // 行 = 景点序号，行内按相似度降序 (不按列号)
+    private final int maxNeighbors;
+
+    NeighborIndex(SparseMatrix rows, int maxNeighbors) {
+        this.rows = rows;
+        this.maxNeighbors = maxNeighbors;
+    }
+
+    SparseMatrix rows() {
+        return rows;
+    }
+
+    public int maxNeighbors() {
+        return maxNeighbors;
+    }
+
+    public int itemCount() {
+        return rows.rowCount();
+    }
+
+    /** 全部 (至多 K 个) 邻居，indices 为景点序号，values 为相似度 */
+    public SparseRow neighbors(int itemOrdinal) {
+        return rows.row(itemOrdinal);
+    }
+
+    /** 最相似的前 count 个邻居 */
+    public SparseRow neighbors(int itemOrdinal, int count) {
+        SparseRow all = rows.row(itemOrdinal);
+        if (count >= all.size()) {
+            return all;
+        }
+        return new SparseRow(all.indexArray(), all.valueArray(), all.start(), all.start() + Math.max(0, count));
+    }
+
+    /**
+     * 用已排好序的新邻居列表替换一行
+     */
+    void replace(int itemOrdinal, SparseRow sortedNeighbors) {
+        rows.replaceRow(itemOrdinal, sortedNeighbors);
+    }
+
+    /**
+     * 更新某一行中单个邻居的相似度 (similarity 为 0 表示移除)，保持降序且不超过 K 个
+     *
+     * @return 该行是否发生变化
+     */
+    boolean updateNeighbor(int itemOrdinal, int neighbor, float similarity) {
+        SparseRow current = rows.row(itemOrdinal);
+        int n = current.size();
+        int existing = -1;
+        for (int k = 0; k < n; k++) {
+            if (current.indexAt(k) == neighbor) {
+                existing = k;
+                break;
+            }
+        }
+        boolean qualifies = similarity > 0
+                && (n - (existing >= 0 ? 1 : 0) < maxNeighbors || similarity > current.valueAt(n - 1));
+        if (existing < 0 && !qualifies) {
+            return false;
+        }
+
+        int[] indices = new int[Math.min(maxNeighbors, n + 1)];
+        float[] values = new float[indices.length];
+        int size = 0;
+        boolean inserted = !qualifies;
+        for (int k = 0; k < n && size < indices.length; k++) {
+            if (k == existing) {
+                continue;
+            }
+            if (!inserted && similarity > current.valueAt(k)) {
+                indices[size] = neighbor;
+                values[size++] = similarity;
+                inserted = true;
+                if (size == indices.length) {
+                    break;
+                }
+            }
+            indices[size] = current.indexAt(k);
+            values[size++] = current.valueAt(k);
+        }
+        if (!inserted && size < indices.length) {
+            indices[size] = neighbor;
+            values[size++] = similarity;
+        }
+        rows.replaceRow(itemOrdinal, new SparseRow(indices, values, 0, size));
+        return true;
+    }
+
+    void ensureItemCount(int itemCount) {
+        rows.ensureRowCount(itemCount);
+    }
+
+    public long neighborCount() {
+        return rows.nonZeroCount();
+    }
+
+    public long estimatedHeapBytes() {
+        return rows.estimatedHeapBytes();
+    }
+}
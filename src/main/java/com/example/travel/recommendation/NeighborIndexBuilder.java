@@ -0,0 +1,283 @@
+package com.example.travel.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * 并行构建每个景点的 top-K 相似景点列表。
+ * <p>
+ * 按景点序号把景点切成若干行带 (tile)，每个 tile 的工作量 (需要累加的 (i, j) 乘积个数)
+ * 大致相等，由 ForkJoinPool 并行执行。对行带中的每个景点 i，沿共同用户累加出 i 与所有
+ * 共现景点的点积，换算成余弦相似度后送入容量为 K 的有界最小堆，只保留最相似的 K 个，
+ * 降序写入该 tile 的局部数组；最后按 tile 顺序拼接。全部景点对的相似度不会同时驻留内存，
+ * 每个工作线程只持有一个稠密累加数组。
+ */
+final class NeighborIndexBuilder {
+
+    private NeighborIndexBuilder() {
+    }
+
+    static final class Result {
+        final NeighborIndex neighbors;
+        final SimilarityBuildStats stats;
+
+        Result(NeighborIndex neighbors, SimilarityBuildStats stats) {
+            this.neighbors = neighbors;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * 计算单个景点的前 K 个邻居，每个工作线程持有自己的实例
+     */
+    interface NeighborScorer {
+        /** 按相似度降序的前 maxNeighbors 个邻居 */
+        SparseRow topNeighbors(int item, int maxNeighbors);
+
+        /** 上一次 {@link #topNeighbors} 中计算过相似度的景点数 */
+        int lastCandidateCount();
+    }
+
+    /**
+     * 精确模式：每个景点与所有共现景点计算余弦相似度
+     *
+     * @param pool         执行 tile 的线程池，为 null 时在当前线程顺序执行
+     * @param tileCount    期望的 tile 数
+     * @param maxNeighbors 每个景点保留的邻居数 K
+     */
+    static Result build(InteractionMatrix interactions, ForkJoinPool pool, int tileCount, int maxNeighbors) {
+        int itemCount = interactions.itemCount();
+        return build(interactions, pool, tileCount, maxNeighbors, exactWork(interactions),
+                () -> new NeighborAccumulator(interactions, itemCount), SimilarityMode.EXACT);
+    }
+
+    /**
+     * @param work    每个景点的预计工作量，用于切分 tile
+     * @param scorers 为每个工作线程创建 NeighborScorer
+     */
+    static Result build(InteractionMatrix interactions, ForkJoinPool pool, int tileCount, int maxNeighbors,
+                        long[] work, Supplier<? extends NeighborScorer> scorers, SimilarityMode mode) {
+        long start = System.nanoTime();
+        int itemCount = interactions.itemCount();
+        List<Tile> tiles = split(work, Math.max(1, tileCount));
+
+        ThreadLocal<NeighborScorer> scorerPerThread = ThreadLocal.withInitial(scorers);
+        if (pool == null) {
+            tiles.forEach(tile -> tile.compute(scorerPerThread.get(), maxNeighbors));
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(tiles.size());
+            for (Tile tile : tiles) {
+                tasks.add(pool.submit(() -> tile.compute(scorerPerThread.get(), maxNeighbors)));
+            }
+            tasks.forEach(ForkJoinTask::join);
+        }
+
+        NeighborIndex neighbors = new NeighborIndex(concatenate(tiles, itemCount), maxNeighbors);
+
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        long tileMillis = tiles.stream().mapToLong(tile -> tile.elapsedNanos).sum() / 1_000_000;
+        long candidatePairs = tiles.stream().mapToLong(tile -> tile.candidateCount).sum() / 2;
+        int threads = pool == null ? 1 : pool.getParallelism();
+        return new Result(neighbors, new SimilarityBuildStats(threads, tiles.size(), wallMillis, tileMillis,
+                candidatePairs, neighbors.neighborCount(), mode, Double.NaN));
+    }
+
+    /**
+     * 精确模式下每个景点 i 的工作量 = Σ_{u 交互过 i} (用户 u 的交互数)
+     */
+    private static long[] exactWork(InteractionMatrix interactions) {
+        long[] work = new long[interactions.itemCount()];
+        for (int u = 0; u < interactions.userCount(); u++) {
+            SparseRow row = interactions.userRow(u);
+            for (int k = 0; k < row.size(); k++) {
+                work[row.indexAt(k)] += row.size();
+            }
+        }
+        return work;
+    }
+
+    /**
+     * 按工作量前缀和把 [0, itemCount) 切成工作量相近的连续区间
+     */
+    private static List<Tile> split(long[] work, int tileCount) {
+        int itemCount = work.length;
+        long total = 0;
+        for (long w : work) {
+            total += w;
+        }
+
+        List<Tile> tiles = new ArrayList<>(tileCount);
+        long target = Math.max(1, total / tileCount);
+        long accumulated = 0;
+        int from = 0;
+        for (int i = 0; i < itemCount; i++) {
+            accumulated += work[i];
+            if (accumulated >= target && tiles.size() < tileCount - 1) {
+                tiles.add(new Tile(from, i + 1));
+                from = i + 1;
+                accumulated = 0;
+            }
+        }
+        if (from < itemCount || tiles.isEmpty()) {
+            tiles.add(new Tile(from, itemCount));
+        }
+        return tiles;
+    }
+
+    private static SparseMatrix concatenate(List<Tile> tiles, int itemCount) {
+        int total = tiles.stream().mapToInt(tile -> tile.size).sum();
+        int[] pointers = new int[itemCount + 1];
+        int[] neighbors = new int[total];
+        float[] similarities = new float[total];
+        int offset = 0;
+        for (Tile tile : tiles) {
+            for (int i = tile.from; i < tile.to; i++) {
+                pointers[i + 1] = offset + tile.rowEnds[i - tile.from];
+            }
+            System.arraycopy(tile.neighbors, 0, neighbors, offset, tile.size);
+            System.arraycopy(tile.similarities, 0, similarities, offset, tile.size);
+            offset += tile.size;
+        }
+        return SparseMatrix.of(pointers, neighbors, similarities);
+    }
+
+    /**
+     * 沿共同用户累加一个景点与其他景点的点积，并换算为余弦相似度。
+     * 稠密累加数组按线程复用，增量更新时 {@link ItemCfModel} 也用它重算单个景点。
+     */
+    static final class NeighborAccumulator implements NeighborScorer {
+        private final InteractionMatrix interactions;
+        private double[] dots;
+        private int[] touched;
+        private int touchedCount;
+        private int lastCoRatedCount;
+
+        NeighborAccumulator(InteractionMatrix interactions, int itemCount) {
+            this.interactions = interactions;
+            this.dots = new double[itemCount];
+            this.touched = new int[itemCount];
+        }
+
+        /**
+         * 累加 item 与所有共现景点的点积，返回共现景点数；结果通过 {@link #neighborAt}/{@link #similarityAt} 读取
+         */
+        int accumulate(int item) {
+            int itemCount = interactions.itemCount();
+            if (dots.length < itemCount) {
+                dots = new double[itemCount];
+                touched = new int[itemCount];
+            }
+            touchedCount = 0;
+            SparseRow users = interactions.itemColumn(item);
+            for (int k = 0; k < users.size(); k++) {
+                float rating = users.valueAt(k);
+                SparseRow itemsOfUser = interactions.userRow(users.indexAt(k));
+                for (int p = 0; p < itemsOfUser.size(); p++) {
+                    int j = itemsOfUser.indexAt(p);
+                    if (j == item) {
+                        continue;
+                    }
+                    if (dots[j] == 0) {
+                        touched[touchedCount++] = j;
+                    }
+                    dots[j] += rating * itemsOfUser.valueAt(p);
+                }
+            }
+            return touchedCount;
+        }
+
+        int neighborAt(int t) {
+            return touched[t];
+        }
+
+        /** 第 t 个共现景点与 item 的余弦相似度 */
+        float similarityAt(int item, int t) {
+            int j = touched[t];
+            double norms = interactions.itemSquaredNorm(item) * interactions.itemSquaredNorm(j);
+            double dot = dots[j];
+            return dot > 0 && norms > 0 ? (float) (dot / Math.sqrt(norms)) : 0f;
+        }
+
+        /** 最近一次累加中 j 是否与 item 有共同用户 */
+        boolean isCoRated(int j) {
+            return j < dots.length && dots[j] > 0;
+        }
+
+        /** 读取结束后清零累加数组，供下一个景点复用 */
+        void reset() {
+            for (int t = 0; t < touchedCount; t++) {
+                dots[touched[t]] = 0;
+            }
+            touchedCount = 0;
+        }
+
+        /** 上一次 {@link #topNeighbors} 中的共现景点数 */
+        @Override
+        public int lastCandidateCount() {
+            return lastCoRatedCount;
+        }
+
+        /** 累加 item 的共现景点并用有界最小堆选出最相似的 K 个，按相似度降序 */
+        @Override
+        public SparseRow topNeighbors(int item, int maxNeighbors) {
+            int count = accumulate(item);
+            lastCoRatedCount = count;
+            TopKSelector selector = new TopKSelector(maxNeighbors);
+            for (int t = 0; t < count; t++) {
+                float similarity = similarityAt(item, t);
+                if (similarity > 0) {
+                    selector.offer(touched[t], similarity);
+                }
+            }
+            reset();
+            return selector.drainDescending();
+        }
+    }
+
+    /**
+     * 行带 [from, to)，结果是该行带内每个景点的邻居列表，依次存放
+     */
+    private static final class Tile {
+        final int from;
+        final int to;
+        int[] rowEnds;
+        int[] neighbors = new int[256];
+        float[] similarities = new float[256];
+        int size;
+        long candidateCount;
+        long elapsedNanos;
+
+        Tile(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.rowEnds = new int[to - from];
+        }
+
+        void compute(NeighborScorer scorer, int maxNeighbors) {
+            long start = System.nanoTime();
+            for (int i = from; i < to; i++) {
+                SparseRow top = scorer.topNeighbors(i, maxNeighbors);
+                candidateCount += scorer.lastCandidateCount();
+                for (int k = 0; k < top.size(); k++) {
+                    append(top.indexAt(k), top.valueAt(k));
+                }
+                rowEnds[i - from] = size;
+            }
+            elapsedNanos = System.nanoTime() - start;
+        }
+
+        private void append(int neighbor, float similarity) {
+            if (size == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, size * 2);
+                similarities = Arrays.copyOf(similarities, size * 2);
+            }
+            neighbors[size] = neighbor;
+            similarities[size] = similarity;
+            size++;
+        }
+    }
+}
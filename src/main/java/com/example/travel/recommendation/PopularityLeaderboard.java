@@ -0,0 +1,202 @@
+package com.example.travel.recommendation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 内存中的热门景点排行榜，按 (排序分降序, 评分数降序, id 升序) 排列。
+ * <p>
+ * 条目保存在跳表中，单个景点评分变化时 O(log n) 重新插入；靠前的页直接沿跳表遍历，
+ * 深分页使用按需生成的 id 数组快照。BAYESIAN 模式下排序分为 (C·m + 平均分·评分数) / (C + 评分数)，
+ * m 为全站平均分，m 的漂移超过容差时整体重排。写操作串行化，读操作无锁。
+ */
+public final class PopularityLeaderboard {
+
+    // offset + limit 不超过该值时直接遍历跳表
+    private static final int DIRECT_SCAN_LIMIT = 200;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingInt(Entry::ratingCount).reversed())
+            .thenComparingLong(Entry::attractionId);
+
+    private final PopularityRanking ranking;
+    private final double priorWeight;
+    private final double meanTolerance;
+
+    // 整体重排时替换为新的跳表，读线程不会看到清空中的排行
+    private volatile ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // 以下字段只在持有锁时修改
+    private double totalRating; // Σ 平均分 × 评分数
+    private long totalCount; // Σ 评分数
+    private volatile double priorMean; // 当前排序分使用的全站平均分
+
+    private volatile long modifications; // 每次排行变化递增
+    private volatile RankedSnapshot rankedSnapshot; // 深分页用的 id 数组，版本落后时按需重建
+
+    /**
+     * @param priorWeight   贝叶斯平均的先验权重 C (相当于 C 条全站平均分的虚拟评价)
+     * @param meanTolerance 全站平均分漂移超过该值时按新的平均分整体重排
+     */
+    public PopularityLeaderboard(PopularityRanking ranking, double priorWeight, double meanTolerance) {
+        this.ranking = ranking;
+        this.priorWeight = priorWeight;
+        this.meanTolerance = meanTolerance;
+    }
+
+    public static PopularityLeaderboard build(Collection<AttractionRating> ratings, PopularityRanking ranking,
+                                              double priorWeight, double meanTolerance) {
+        PopularityLeaderboard leaderboard = new PopularityLeaderboard(ranking, priorWeight, meanTolerance);
+        synchronized (leaderboard) {
+            for (AttractionRating rating : ratings) {
+                Entry entry = leaderboard.newEntry(rating.getAttractionId(), rating.getAverageRating(), rating.getRatingCount());
+                leaderboard.totalRating += entry.averageRating() * entry.ratingCount();
+                leaderboard.totalCount += entry.ratingCount();
+                leaderboard.entries.put(entry.attractionId(), entry);
+            }
+            leaderboard.rescore();
+        }
+        return leaderboard;
+    }
+
+    /**
+     * 新增景点或更新其评分统计
+     */
+    public synchronized void upsert(long attractionId, Double averageRating, Integer ratingCount) {
+        Entry previous = entries.get(attractionId);
+        if (previous != null) {
+            totalRating -= previous.averageRating() * previous.ratingCount();
+            totalCount -= previous.ratingCount();
+        }
+        Entry entry = newEntry(attractionId, averageRating, ratingCount);
+        totalRating += entry.averageRating() * entry.ratingCount();
+        totalCount += entry.ratingCount();
+        if (needsRescore()) {
+            entries.put(attractionId, entry);
+            rescore();
+            return;
+        }
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        entries.put(attractionId, entry);
+        ordered.add(entry);
+        modifications++;
+    }
+
+    public synchronized void remove(long attractionId) {
+        Entry previous = entries.remove(attractionId);
+        if (previous == null) {
+            return;
+        }
+        ordered.remove(previous);
+        totalRating -= previous.averageRating() * previous.ratingCount();
+        totalCount -= previous.ratingCount();
+        if (needsRescore()) {
+            rescore();
+        }
+        modifications++;
+    }
+
+    /**
+     * 排行中第 offset 个起的 limit 个景点 id
+     */
+    public List<Long> page(int offset, int limit) {
+        if (limit <= 0 || offset < 0) {
+            return List.of();
+        }
+        List<Long> page = new ArrayList<>(Math.min(limit, DIRECT_SCAN_LIMIT));
+        if ((long) offset + limit <= DIRECT_SCAN_LIMIT) {
+            Iterator<Entry> it = ordered.iterator();
+            for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (page.size() < limit && it.hasNext()) {
+                page.add(it.next().attractionId());
+            }
+            return page;
+        }
+        long[] ids = rankedIds();
+        for (int rank = offset; rank < ids.length && page.size() < limit; rank++) {
+            page.add(ids[rank]);
+        }
+        return page;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public PopularityRanking ranking() {
+        return ranking;
+    }
+
+    /**
+     * 全站平均分 (BAYESIAN 模式下排序使用的先验均值)
+     */
+    public double priorMean() {
+        return priorMean;
+    }
+
+    private long[] rankedIds() {
+        RankedSnapshot snapshot = rankedSnapshot;
+        long version = modifications;
+        if (snapshot == null || snapshot.version() != version) {
+            // 遍历期间如有并发写，版本号已变化，下一次读取会重建
+            snapshot = new RankedSnapshot(version, ordered.stream().mapToLong(Entry::attractionId).toArray());
+            rankedSnapshot = snapshot;
+        }
+        return snapshot.ids();
+    }
+
+    private Entry newEntry(long attractionId, Double averageRating, Integer ratingCount) {
+        double average = averageRating != null ? averageRating : 0.0;
+        int count = ratingCount != null ? ratingCount : 0;
+        return new Entry(attractionId, average, count, score(average, count, priorMean));
+    }
+
+    private double score(double averageRating, int ratingCount, double mean) {
+        if (ranking == PopularityRanking.AVERAGE) {
+            return averageRating;
+        }
+        return (priorWeight * mean + averageRating * ratingCount) / (priorWeight + ratingCount);
+    }
+
+    private double currentMean() {
+        return totalCount > 0 ? totalRating / totalCount : 0.0;
+    }
+
+    private boolean needsRescore() {
+        return ranking == PopularityRanking.BAYESIAN && Math.abs(currentMean() - priorMean) > meanTolerance;
+    }
+
+    // 按当前全站平均分重新计算所有排序分并重建跳表
+    private void rescore() {
+        double mean = currentMean();
+        priorMean = mean;
+        List<Entry> rescored = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            rescored.add(new Entry(entry.attractionId(), entry.averageRating(), entry.ratingCount(),
+                    score(entry.averageRating(), entry.ratingCount(), mean)));
+        }
+        ConcurrentSkipListSet<Entry> rebuilt = new ConcurrentSkipListSet<>(ORDER);
+        for (Entry entry : rescored) {
+            entries.put(entry.attractionId(), entry);
+            rebuilt.add(entry);
+        }
+        ordered = rebuilt;
+        modifications++;
+    }
+
+    private record Entry(long attractionId, double averageRating, int ratingCount, double score) {
+    }
+
+    private record RankedSnapshot(long version, long[] ids) {
+    }
+}
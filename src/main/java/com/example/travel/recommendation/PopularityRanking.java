@@ -0,0 +1,9 @@
+package com.example.travel.recommendation;
+
+/**
+ * 热门景点的排序方式
+ */
+public enum PopularityRanking {
+    AVERAGE, // 平均评分降序，与数据库 ORDER BY average_rating DESC, rating_count DESC 一致
+    BAYESIAN // 贝叶斯平均：评分数少的景点向全站平均分收缩，避免几条五星评价就排到最前
+}
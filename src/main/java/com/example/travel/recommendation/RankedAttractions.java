@@ -0,0 +1,22 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 一次推荐计算的结果：排好序的景点ID，以及分页查询时的总条数
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RankedAttractions {
+    private final List<Long> attractionIds;
+    private final long totalElements;
+
+    public static RankedAttractions of(List<Long> attractionIds) {
+        return new RankedAttractions(List.copyOf(attractionIds), attractionIds.size());
+    }
+}
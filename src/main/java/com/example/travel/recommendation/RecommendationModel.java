@@ -0,0 +1,71 @@
+package com.example.travel.recommendation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 一次全量构建得到的推荐模型快照 (物品协同过滤 + 可选的 ALS 隐因子)，通过原子引用整体发布。
+ * <p>
+ * 快照本身的字段不可变；发布后评价/收藏的增量变化由 {@link ItemCfModel#applyScoreChange}
+ * 以写时复制的方式写入其中的行，读请求不加锁。重新构建时生成新的快照并替换旧快照。
+ */
+public final class RecommendationModel {
+
+    private final long version;
+    private final ItemCfModel itemCf;
+    private final AlsModel als; // 未启用 ALS 时为 null
+    private final LocalDateTime builtAt;
+    private final long buildMillis;
+    // 高水位：构建读取数据时的时间点，此后的变更需要追平 (见快照加载)
+    private final LocalDateTime watermark;
+    private final boolean restoredFromSnapshot;
+    private final List<InteractionSourceStats> sourceStats; // 由快照恢复时为空
+
+    public RecommendationModel(long version, ItemCfModel itemCf, AlsModel als, LocalDateTime builtAt, long buildMillis,
+                               LocalDateTime watermark, boolean restoredFromSnapshot, List<InteractionSourceStats> sourceStats) {
+        this.version = version;
+        this.itemCf = itemCf;
+        this.als = als;
+        this.builtAt = builtAt;
+        this.buildMillis = buildMillis;
+        this.watermark = watermark;
+        this.restoredFromSnapshot = restoredFromSnapshot;
+        this.sourceStats = List.copyOf(sourceStats);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public ItemCfModel itemCf() {
+        return itemCf;
+    }
+
+    public AlsModel als() {
+        return als;
+    }
+
+    public InteractionMatrix interactions() {
+        return itemCf.interactions();
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public long buildMillis() {
+        return buildMillis;
+    }
+
+    public LocalDateTime watermark() {
+        return watermark;
+    }
+
+    public boolean restoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    public List<InteractionSourceStats> sourceStats() {
+        return sourceStats;
+    }
+}
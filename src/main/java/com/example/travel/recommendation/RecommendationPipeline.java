@@ -0,0 +1,238 @@
+package com.example.travel.recommendation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 两阶段推荐流水线：各候选生成器在线程池上并发召回，每个阶段有自己的时间预算 (从请求开始计时)，
+ * 超时或出错的阶段按没有候选处理；然后由 {@link CandidateRanker} 合并打分。
+ * <p>
+ * 每个阶段的耗时 (含排队)、结果和候选数都记录为指标。某个阶段连续超时达到阈值后，
+ * 在接下来的一段时间内直接跳过，负载高时不再等待慢阶段；线程池队列已满、提交被拒绝的阶段同样按跳过处理。
+ */
+@Slf4j
+public final class RecommendationPipeline {
+
+    private final List<StageState> stages;
+    private final Executor executor;
+    private final int skipAfterTimeouts;
+    private final long skipNanos;
+    private final Timer rankingTimer;
+
+    /**
+     * @param skipAfterTimeouts 连续超时多少次后暂时跳过该阶段，&lt;= 0 表示从不跳过
+     * @param skipDuration      跳过的时长
+     */
+    public RecommendationPipeline(List<Stage> stages, Executor executor, int skipAfterTimeouts,
+                                  Duration skipDuration, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.skipAfterTimeouts = skipAfterTimeouts;
+        this.skipNanos = skipDuration.toNanos();
+        this.stages = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            this.stages.add(new StageState(stage, meterRegistry));
+        }
+        this.rankingTimer = Timer.builder("recommendation.pipeline.ranking")
+                .description("Time to merge and score candidates from all stages")
+                .register(meterRegistry);
+    }
+
+    public List<String> stageNames() {
+        List<String> names = new ArrayList<>(stages.size());
+        stages.forEach(state -> names.add(state.stage.generator().name()));
+        return names;
+    }
+
+    /**
+     * 运行一次流水线，阻塞至多各阶段预算中的最大值 (加上排序时间)
+     */
+    public Result run(CandidateRequest request, int limit) {
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<List<Candidate>>> futures = new ArrayList<>(stages.size());
+        for (StageState state : stages) {
+            if (state.isSkipped(startNanos)) {
+                futures.add(null);
+                continue;
+            }
+            CandidateGenerator generator = state.stage.generator();
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> generator.generate(request), executor));
+            } catch (RejectedExecutionException e) {
+                futures.add(null); // 线程池已满，不再排队等待
+            }
+        }
+
+        List<List<Candidate>> stageCandidates = new ArrayList<>(stages.size());
+        List<StageReport> reports = new ArrayList<>(stages.size());
+        double[] weights = new double[stages.size()];
+        for (int s = 0; s < stages.size(); s++) {
+            StageState state = stages.get(s);
+            weights[s] = state.stage.weight();
+            StageReport report = await(state, futures.get(s), startNanos);
+            reports.add(report);
+            stageCandidates.add(report.candidates);
+        }
+
+        List<Candidate> ranked = rankingTimer.record(() ->
+                CandidateRanker.rank(stageCandidates, weights, request.getExcludedAttractionIds(), limit));
+        if (log.isDebugEnabled()) {
+            log.debug("Pipeline for user {}: {} ranked in {} ms, stages {}", request.getUserId(), ranked.size(),
+                    (System.nanoTime() - startNanos) / 1_000_000, reports);
+        }
+        return new Result(ranked, reports);
+    }
+
+    private StageReport await(StageState state, CompletableFuture<List<Candidate>> future, long startNanos) {
+        String name = state.stage.generator().name();
+        if (future == null) {
+            state.skipped.increment();
+            return new StageReport(name, StageOutcome.SKIPPED, 0, List.of());
+        }
+        long deadline = startNanos + state.stage.budget().toNanos();
+        StageOutcome outcome;
+        List<Candidate> candidates = List.of();
+        try {
+            List<Candidate> result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            candidates = result != null ? result : List.of();
+            outcome = StageOutcome.OK;
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            outcome = StageOutcome.TIMEOUT;
+        } catch (ExecutionException e) {
+            log.warn("Candidate stage {} failed: {}", name, e.getCause() != null ? e.getCause().toString() : e.toString());
+            outcome = StageOutcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            outcome = StageOutcome.TIMEOUT;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        state.record(outcome, elapsedNanos, candidates.size());
+        return new StageReport(name, outcome, elapsedNanos / 1_000_000, candidates);
+    }
+
+    /**
+     * 一个召回阶段：生成器、时间预算和合并时的权重
+     */
+    public static final class Stage {
+        private final CandidateGenerator generator;
+        private final Duration budget;
+        private final double weight;
+
+        public Stage(CandidateGenerator generator, Duration budget, double weight) {
+            this.generator = generator;
+            this.budget = budget;
+            this.weight = weight;
+        }
+
+        public CandidateGenerator generator() {
+            return generator;
+        }
+
+        public Duration budget() {
+            return budget;
+        }
+
+        public double weight() {
+            return weight;
+        }
+    }
+
+    public enum StageOutcome {
+        OK, TIMEOUT, ERROR, SKIPPED
+    }
+
+    @Getter
+    @ToString(exclude = "candidates")
+    @AllArgsConstructor
+    public static class StageReport {
+        private final String stage;
+        private final StageOutcome outcome;
+        private final long elapsedMillis;
+        private final List<Candidate> candidates;
+
+        public int getCandidateCount() {
+            return candidates.size();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final List<Candidate> ranked;
+        private final List<StageReport> stages;
+    }
+
+    private final class StageState {
+        private final Stage stage;
+        private final MeterRegistry meterRegistry;
+        private final DistributionSummary candidateCount;
+        private final Counter skipped;
+        private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+        private volatile long skipUntilNanos;
+        private volatile boolean skipping;
+
+        StageState(Stage stage, MeterRegistry meterRegistry) {
+            this.stage = stage;
+            this.meterRegistry = meterRegistry;
+            String name = stage.generator().name();
+            this.candidateCount = DistributionSummary.builder("recommendation.pipeline.candidates")
+                    .description("Candidates returned by a pipeline stage within its budget")
+                    .tag("stage", name)
+                    .register(meterRegistry);
+            this.skipped = Counter.builder("recommendation.pipeline.stage.skipped")
+                    .description("Requests that skipped a stage after repeated timeouts or because the candidate pool was full")
+                    .tag("stage", name)
+                    .register(meterRegistry);
+        }
+
+        boolean isSkipped(long nowNanos) {
+            if (!skipping) {
+                return false;
+            }
+            if (nowNanos - skipUntilNanos < 0) {
+                return true;
+            }
+            skipping = false; // 跳过期结束，重新试探
+            return false;
+        }
+
+        void record(StageOutcome outcome, long elapsedNanos, int candidates) {
+            Timer.builder("recommendation.pipeline.stage")
+                    .description("Latency of a pipeline stage, measured from the start of the request")
+                    .tag("stage", stage.generator().name())
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            candidateCount.record(candidates);
+            if (outcome != StageOutcome.TIMEOUT) {
+                consecutiveTimeouts.set(0);
+                return;
+            }
+            if (skipAfterTimeouts > 0 && consecutiveTimeouts.incrementAndGet() >= skipAfterTimeouts) {
+                consecutiveTimeouts.set(0);
+                skipUntilNanos = System.nanoTime() + skipNanos;
+                skipping = true;
+                log.warn("Candidate stage {} timed out {} times in a row (budget {} ms), skipping it for {} s",
+                        stage.generator().name(), skipAfterTimeouts, stage.budget().toMillis(), skipNanos / 1_000_000_000);
+            }
+        }
+    }
+}
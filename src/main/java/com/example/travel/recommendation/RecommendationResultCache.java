@@ -0,0 +1,106 @@
+package com.example.travel.recommendation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 按用户缓存各推荐策略排好序的景点ID列表。
+ * <p>
+ * 外层按用户分桶 (容量按用户数限制)，桶内按 策略 + 分页参数 存放结果。每条结果记录生成时的模型版本和时间，
+ * 版本不一致或超过 TTL 即视为未命中。用户产生新交互或修改偏好标签时整桶作废；
+ * 计算结果写回计算开始时拿到的那个桶，如果期间桶已被作废，结果随旧桶丢弃，不会把旧数据写进新桶。
+ */
+public final class RecommendationResultCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final Cache<Long, ConcurrentMap<RankingKey, CachedRanking>> byUser;
+    private final Map<RecommendationStrategy, Counter> hits = new EnumMap<>(RecommendationStrategy.class);
+    private final Map<RecommendationStrategy, Counter> misses = new EnumMap<>(RecommendationStrategy.class);
+
+    public RecommendationResultCache(boolean enabled, long maxUsers, Duration ttl, MeterRegistry meterRegistry) {
+        this(enabled, maxUsers, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    RecommendationResultCache(boolean enabled, long maxUsers, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        // 长时间不访问的用户整桶过期，桶内单条结果的 TTL 在读取时检查
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .ticker(ticker)
+                .build();
+        for (RecommendationStrategy strategy : RecommendationStrategy.values()) {
+            String tag = strategy.name().toLowerCase();
+            hits.put(strategy, Counter.builder("recommendation.cache.gets")
+                    .description("Recommendation result cache lookups")
+                    .tag("strategy", tag).tag("result", "hit")
+                    .register(meterRegistry));
+            misses.put(strategy, Counter.builder("recommendation.cache.gets")
+                    .description("Recommendation result cache lookups")
+                    .tag("strategy", tag).tag("result", "miss")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("recommendation.cache.users", byUser, Cache::estimatedSize)
+                .description("Users with cached recommendation results")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 命中时直接返回缓存的排序结果，否则调用 loader 计算并写入缓存
+     *
+     * @param offset       分页起始位置 (不分页的策略传 0)
+     * @param limit        返回条数
+     * @param modelVersion 当前模型快照版本，模型重建后旧结果自动失效
+     */
+    public RankedAttractions getOrCompute(Long userId, RecommendationStrategy strategy, int offset, int limit,
+                                          long modelVersion, Supplier<RankedAttractions> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        ConcurrentMap<RankingKey, CachedRanking> bucket = byUser.get(userId, id -> new ConcurrentHashMap<>());
+        RankingKey key = new RankingKey(strategy, offset, limit);
+        CachedRanking cached = bucket.get(key);
+        long now = ticker.read();
+        if (cached != null && cached.modelVersion == modelVersion && now - cached.createdNanos < ttlNanos) {
+            hits.get(strategy).increment();
+            return cached.ranking;
+        }
+        misses.get(strategy).increment();
+        RankedAttractions ranking = loader.get();
+        bucket.put(key, new CachedRanking(modelVersion, now, ranking));
+        return ranking;
+    }
+
+    public void invalidateUser(Long userId) {
+        byUser.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        byUser.invalidateAll();
+    }
+
+    public long estimatedUserCount() {
+        return byUser.estimatedSize();
+    }
+
+    private record RankingKey(RecommendationStrategy strategy, int offset, int limit) {
+    }
+
+    private record CachedRanking(long modelVersion, long createdNanos, RankedAttractions ranking) {
+    }
+}
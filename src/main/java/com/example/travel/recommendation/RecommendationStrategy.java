@@ -0,0 +1,10 @@
+package com.example.travel.recommendation;
+
+/**
+ * 个性化推荐的几种策略，对应 /api/recommendations 下的各个端点
+ */
+public enum RecommendationStrategy {
+    USER_PREFERENCES,
+    ITEM_CF,
+    ALS
+}
@@ -0,0 +1,63 @@
+package com.example.travel.recommendation;
+
+/**
+ * {@link VectorKernels} 的标量实现，不依赖孵化模块
+ */
+public final class ScalarKernels implements VectorKernels {
+
+    public static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public double sumOfSquares(float[] values, int from, int to) {
+        double sum = 0;
+        for (int k = from; k < to; k++) {
+            sum += (double) values[k] * values[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sparseDenseDot(int[] indices, float[] values, int from, int to, float[] dense) {
+        double sum = 0;
+        for (int k = from; k < to; k++) {
+            sum += (double) values[k] * dense[indices[k]];
+        }
+        return sum;
+    }
+
+    @Override
+    public void scatterAdd(int[] indices, float[] values, int from, int to, float scale, float[] dense) {
+        for (int k = from; k < to; k++) {
+            dense[indices[k]] += scale * values[k];
+        }
+    }
+
+    @Override
+    public void multiplyRows(float[] matrix, int rows, int dim, float[] query, int queryOffset, float[] out) {
+        for (int r = 0; r < rows; r++) {
+            int base = r * dim;
+            float score = 0f;
+            for (int k = 0; k < dim; k++) {
+                score += query[queryOffset + k] * matrix[base + k];
+            }
+            out[r] = score;
+        }
+    }
+
+    @Override
+    public void offerPositive(float[] scores, int length, TopKSelector selector) {
+        for (int i = 0; i < length; i++) {
+            if (scores[i] > 0) {
+                selector.offer(i, scores[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.travel.recommendation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link VectorKernels} 的 Vector API 实现，向量长度取 CPU 支持的最宽值 (SPECIES_PREFERRED)。
+ * 稀疏部分按下标数组 gather/scatter，主循环之后的尾部用标量处理。
+ * <p>
+ * 只能经 {@link VectorKernelsHolder} 反射加载，其他类不要直接引用。
+ */
+final class SimdKernels implements VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize() + "bit";
+    }
+
+    @Override
+    public double sumOfSquares(float[] values, int from, int to) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int k = from;
+        for (int upper = from + SPECIES.loopBound(to - from); k < upper; k += LANES) {
+            FloatVector v = FloatVector.fromArray(SPECIES, values, k);
+            acc = v.fma(v, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < to; k++) {
+            sum += (double) values[k] * values[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sparseDenseDot(int[] indices, float[] values, int from, int to, float[] dense) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int k = from;
+        for (int upper = from + SPECIES.loopBound(to - from); k < upper; k += LANES) {
+            FloatVector v = FloatVector.fromArray(SPECIES, values, k);
+            FloatVector d = FloatVector.fromArray(SPECIES, dense, 0, indices, k);
+            acc = v.fma(d, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < to; k++) {
+            sum += (double) values[k] * dense[indices[k]];
+        }
+        return sum;
+    }
+
+    @Override
+    public void scatterAdd(int[] indices, float[] values, int from, int to, float scale, float[] dense) {
+        int k = from;
+        for (int upper = from + SPECIES.loopBound(to - from); k < upper; k += LANES) {
+            FloatVector v = FloatVector.fromArray(SPECIES, values, k);
+            FloatVector d = FloatVector.fromArray(SPECIES, dense, 0, indices, k);
+            v.mul(scale).add(d).intoArray(dense, 0, indices, k);
+        }
+        for (; k < to; k++) {
+            dense[indices[k]] += scale * values[k];
+        }
+    }
+
+    @Override
+    public void multiplyRows(float[] matrix, int rows, int dim, float[] query, int queryOffset, float[] out) {
+        int bound = SPECIES.loopBound(dim);
+        for (int r = 0; r < rows; r++) {
+            int base = r * dim;
+            FloatVector acc = FloatVector.zero(SPECIES);
+            int k = 0;
+            for (; k < bound; k += LANES) {
+                FloatVector q = FloatVector.fromArray(SPECIES, query, queryOffset + k);
+                acc = q.fma(FloatVector.fromArray(SPECIES, matrix, base + k), acc);
+            }
+            float score = acc.reduceLanes(VectorOperators.ADD);
+            for (; k < dim; k++) {
+                score += query[queryOffset + k] * matrix[base + k];
+            }
+            out[r] = score;
+        }
+    }
+
+    @Override
+    public void offerPositive(float[] scores, int length, TopKSelector selector) {
+        int i = 0;
+        for (int upper = SPECIES.loopBound(length); i < upper; i += LANES) {
+            VectorMask<Float> positive = FloatVector.fromArray(SPECIES, scores, i).compare(VectorOperators.GT, 0f);
+            // 大多数景点未被触及 (分值为 0)，整段跳过
+            if (!positive.anyTrue()) {
+                continue;
+            }
+            for (int lane = positive.firstTrue(); lane < LANES; lane++) {
+                if (positive.laneIsSet(lane)) {
+                    selector.offer(i + lane, scores[i + lane]);
+                }
+            }
+        }
+        for (; i < length; i++) {
+            if (scores[i] > 0) {
+                selector.offer(i, scores[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.travel.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一次相似度模型构建的耗时统计。
+ * speedup = 各工作块耗时之和 / 墙钟耗时，即相对单线程执行的加速比。
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SimilarityBuildStats {
+    private final int threads;
+    private final int tiles;
+    private final long wallMillis;
+    private final long tileMillisTotal;
+    private final long candidatePairs; // 计算过精确相似度的景点对数
+    private final long neighbors;
+    private final SimilarityMode mode;
+    private final double sampledRecall; // 近似模式在抽样景点上相对精确模式的召回率，未测量时为 NaN
+
+    public double getSpeedup() {
+        return wallMillis > 0 ? (double) tileMillisTotal / wallMillis : 1.0;
+    }
+}
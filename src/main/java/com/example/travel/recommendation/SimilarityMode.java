@@ -0,0 +1,11 @@
+package com.example.travel.recommendation;
+
+/**
+ * 景点相似度的计算方式
+ */
+public enum SimilarityMode {
+    /** 每个景点与所有共现景点计算精确余弦相似度 */
+    EXACT,
+    /** MinHash 签名 + LSH 分桶得到候选景点对，只对候选对计算精确余弦相似度 */
+    LSH
+}
@@ -0,0 +1,290 @@
+package com.example.travel.recommendation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 行压缩 (CSR) 稀疏矩阵，行内按列号升序，值为 float。
+ * <p>
+ * 批量构建的数据保存在三个扁平数组中 (rowPointers / columnIndices / values)，每个非零元 8 字节，
+ * 顺序扫描一行就是连续内存访问。构建后的增量修改采用写时复制：只替换被修改的那一行，
+ * 修改已有元素的值则直接原地写。写操作需要调用方串行化，读操作无锁。
+ */
+public final class SparseMatrix {
+
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final float[] values;
+    private final int baseRowCount;
+
+    // 增量修改过的行，null 表示沿用扁平数组中的原始行
+    private volatile AtomicReferenceArray<SparseRow> patchedRows;
+    private volatile int rowCount;
+
+    private SparseMatrix(int[] rowPointers, int[] columnIndices, float[] values) {
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+        this.baseRowCount = rowPointers.length - 1;
+        this.rowCount = baseRowCount;
+        this.patchedRows = new AtomicReferenceArray<>(baseRowCount);
+    }
+
+    static SparseMatrix of(int[] rowPointers, int[] columnIndices, float[] values) {
+        return new SparseMatrix(rowPointers, columnIndices, values);
+    }
+
+    public static SparseMatrix empty() {
+        return new SparseMatrix(new int[1], new int[0], new float[0]);
+    }
+
+    /**
+     * 由坐标形式 (rows[k], columns[k], values[k]) 构建矩阵。
+     * 同一位置出现多次时保留最大值（例如同一用户既评分又收藏了同一景点）。
+     */
+    public static SparseMatrix fromCoordinates(int rowCount, int[] rows, int[] columns, float[] vals, int length) {
+        int[] pointers = new int[rowCount + 1];
+        for (int k = 0; k < length; k++) {
+            pointers[rows[k] + 1]++;
+        }
+        int maxRowLength = 0;
+        for (int r = 0; r < rowCount; r++) {
+            maxRowLength = Math.max(maxRowLength, pointers[r + 1]);
+            pointers[r + 1] += pointers[r];
+        }
+
+        // 按行做计数排序，得到每行的坐标下标
+        int[] order = new int[length];
+        int[] fill = Arrays.copyOf(pointers, rowCount);
+        for (int k = 0; k < length; k++) {
+            order[fill[rows[k]]++] = k;
+        }
+
+        int[] outColumns = new int[length];
+        float[] outValues = new float[length];
+        int[] outPointers = new int[rowCount + 1];
+        long[] rowKeys = new long[maxRowLength];
+        int written = 0;
+        for (int r = 0; r < rowCount; r++) {
+            int from = pointers[r];
+            int n = pointers[r + 1] - from;
+            for (int i = 0; i < n; i++) {
+                int k = order[from + i];
+                rowKeys[i] = ((long) columns[k] << 32) | k;
+            }
+            Arrays.sort(rowKeys, 0, n);
+            for (int i = 0; i < n; i++) {
+                int k = (int) rowKeys[i];
+                int column = columns[k];
+                if (written > outPointers[r] && outColumns[written - 1] == column) {
+                    outValues[written - 1] = Math.max(outValues[written - 1], vals[k]);
+                } else {
+                    outColumns[written] = column;
+                    outValues[written] = vals[k];
+                    written++;
+                }
+            }
+            outPointers[r + 1] = written;
+        }
+        return new SparseMatrix(outPointers,
+                written == length ? outColumns : Arrays.copyOf(outColumns, written),
+                written == length ? outValues : Arrays.copyOf(outValues, written));
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public SparseRow row(int row) {
+        if (row < 0 || row >= rowCount) {
+            return SparseRow.EMPTY;
+        }
+        AtomicReferenceArray<SparseRow> patches = patchedRows;
+        SparseRow patched = row < patches.length() ? patches.get(row) : null;
+        if (patched != null) {
+            return patched;
+        }
+        if (row < baseRowCount) {
+            return new SparseRow(columnIndices, values, rowPointers[row], rowPointers[row + 1]);
+        }
+        return SparseRow.EMPTY;
+    }
+
+    public float get(int row, int column) {
+        return row(row).get(column);
+    }
+
+    /**
+     * 写入一个元素，value 为 0 表示删除。只有结构变化（插入/删除）才复制该行。
+     */
+    public void put(int row, int column, float value) {
+        ensureRowCount(row + 1);
+        SparseRow current = row(row);
+        int k = current.find(column);
+        int n = current.size();
+        if (k >= 0 && value != 0f) {
+            current.valueArray()[current.start() + k] = value;
+            return;
+        }
+        if (k < 0 && value == 0f) {
+            return;
+        }
+
+        int[] newIndices;
+        float[] newValues;
+        if (k >= 0) {
+            newIndices = new int[n - 1];
+            newValues = new float[n - 1];
+            copyExcept(current, k, newIndices, newValues);
+        } else {
+            int insertAt = current.insertionPoint(column);
+            newIndices = new int[n + 1];
+            newValues = new float[n + 1];
+            System.arraycopy(current.indexArray(), current.start(), newIndices, 0, insertAt);
+            System.arraycopy(current.valueArray(), current.start(), newValues, 0, insertAt);
+            newIndices[insertAt] = column;
+            newValues[insertAt] = value;
+            System.arraycopy(current.indexArray(), current.start() + insertAt, newIndices, insertAt + 1, n - insertAt);
+            System.arraycopy(current.valueArray(), current.start() + insertAt, newValues, insertAt + 1, n - insertAt);
+        }
+        patchedRows.set(row, new SparseRow(newIndices, newValues, 0, newIndices.length));
+    }
+
+    /**
+     * 整行替换 (写时复制)，row 的内容此后不得再修改
+     */
+    public void replaceRow(int row, SparseRow replacement) {
+        ensureRowCount(row + 1);
+        patchedRows.set(row, replacement);
+    }
+
+    private static void copyExcept(SparseRow row, int skip, int[] indices, float[] vals) {
+        int n = row.size();
+        System.arraycopy(row.indexArray(), row.start(), indices, 0, skip);
+        System.arraycopy(row.valueArray(), row.start(), vals, 0, skip);
+        System.arraycopy(row.indexArray(), row.start() + skip + 1, indices, skip, n - skip - 1);
+        System.arraycopy(row.valueArray(), row.start() + skip + 1, vals, skip, n - skip - 1);
+    }
+
+    /**
+     * 扩展行数（新行为空），供新用户/新景点使用
+     */
+    public void ensureRowCount(int newRowCount) {
+        if (newRowCount <= rowCount) {
+            return;
+        }
+        AtomicReferenceArray<SparseRow> patches = patchedRows;
+        if (newRowCount > patches.length()) {
+            AtomicReferenceArray<SparseRow> grown = new AtomicReferenceArray<>(Math.max(newRowCount, patches.length() * 2));
+            for (int i = 0; i < patches.length(); i++) {
+                grown.set(i, patches.get(i));
+            }
+            patchedRows = grown;
+        }
+        rowCount = newRowCount;
+    }
+
+    /**
+     * 转置为新的扁平 CSR 矩阵 (CSR <-> CSC)。按行顺序扫描，因此结果每行也按列号升序。
+     */
+    public SparseMatrix transpose(int columnCount) {
+        int rows = rowCount;
+        int[] pointers = new int[columnCount + 1];
+        for (int r = 0; r < rows; r++) {
+            SparseRow row = row(r);
+            for (int k = 0; k < row.size(); k++) {
+                pointers[row.indexAt(k) + 1]++;
+            }
+        }
+        for (int c = 0; c < columnCount; c++) {
+            pointers[c + 1] += pointers[c];
+        }
+        int[] fill = Arrays.copyOf(pointers, columnCount);
+        int[] outColumns = new int[pointers[columnCount]];
+        float[] outValues = new float[pointers[columnCount]];
+        for (int r = 0; r < rows; r++) {
+            SparseRow row = row(r);
+            for (int k = 0; k < row.size(); k++) {
+                int position = fill[row.indexAt(k)]++;
+                outColumns[position] = r;
+                outValues[position] = row.valueAt(k);
+            }
+        }
+        return new SparseMatrix(pointers, outColumns, outValues);
+    }
+
+    /**
+     * 逐行拼接两个行数相同的矩阵：结果第 r 行 = first 第 r 行 + second 第 r 行。
+     * 调用方保证 first 每行的列号都小于 second 同一行的列号（例如下三角 + 上三角）。
+     */
+    static SparseMatrix concatenateRows(SparseMatrix first, SparseMatrix second) {
+        int rows = Math.max(first.rowCount(), second.rowCount());
+        int[] pointers = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            pointers[r + 1] = pointers[r] + first.row(r).size() + second.row(r).size();
+        }
+        int[] columns = new int[pointers[rows]];
+        float[] vals = new float[pointers[rows]];
+        for (int r = 0; r < rows; r++) {
+            int position = pointers[r];
+            for (SparseRow part : new SparseRow[]{first.row(r), second.row(r)}) {
+                System.arraycopy(part.indexArray(), part.start(), columns, position, part.size());
+                System.arraycopy(part.valueArray(), part.start(), vals, position, part.size());
+                position += part.size();
+            }
+        }
+        return new SparseMatrix(pointers, columns, vals);
+    }
+
+    /**
+     * 把增量修改过的行合并回扁平数组，得到没有补丁行的新矩阵 (用于写快照)
+     */
+    SparseMatrix compact() {
+        int rows = rowCount;
+        int[] pointers = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            pointers[r + 1] = pointers[r] + row(r).size();
+        }
+        int[] columns = new int[pointers[rows]];
+        float[] vals = new float[pointers[rows]];
+        for (int r = 0; r < rows; r++) {
+            SparseRow current = row(r);
+            System.arraycopy(current.indexArray(), current.start(), columns, pointers[r], current.size());
+            System.arraycopy(current.valueArray(), current.start(), vals, pointers[r], current.size());
+        }
+        return new SparseMatrix(pointers, columns, vals);
+    }
+
+    // 以下三个访问器只返回扁平数组，不包含补丁行，调用前先 compact()
+    int[] rowPointerArray() {
+        return rowPointers;
+    }
+
+    int[] columnIndexArray() {
+        return columnIndices;
+    }
+
+    float[] valueArray() {
+        return values;
+    }
+
+    public long nonZeroCount() {
+        long count = 0;
+        for (int r = 0; r < rowCount; r++) {
+            count += row(r).size();
+        }
+        return count;
+    }
+
+    public long estimatedHeapBytes() {
+        long bytes = 4L * rowPointers.length + 8L * columnIndices.length + 4L * patchedRows.length();
+        AtomicReferenceArray<SparseRow> patches = patchedRows;
+        for (int i = 0; i < patches.length(); i++) {
+            SparseRow row = patches.get(i);
+            if (row != null) {
+                bytes += 64 + 8L * row.size(); // 行对象 + 两个数组头
+            }
+        }
+        return bytes;
+    }
+}
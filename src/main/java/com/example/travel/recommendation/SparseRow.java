@@ -0,0 +1,80 @@
+package com.example.travel.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * 稀疏矩阵中一行的只读视图：indices/values 两个并行数组上的 [start, end) 区间，不复制数据。
+ * 来自 {@link SparseMatrix} 的行按列号升序；相似景点列表等结果按分值降序。
+ */
+public final class SparseRow {
+
+    public static final SparseRow EMPTY = new SparseRow(new int[0], new float[0], 0, 0);
+
+    private final int[] indices;
+    private final float[] values;
+    private final int start;
+    private final int end;
+
+    public SparseRow(int[] indices, float[] values, int start, int end) {
+        this.indices = indices;
+        this.values = values;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int size() {
+        return end - start;
+    }
+
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    /** 第 k 个元素 (0 <= k < size) 的列号 */
+    public int indexAt(int k) {
+        return indices[start + k];
+    }
+
+    /** 第 k 个元素 (0 <= k < size) 的值 */
+    public float valueAt(int k) {
+        return values[start + k];
+    }
+
+    /**
+     * 在按列号升序的行中二分查找，返回位置 k，不存在时返回负数
+     */
+    public int find(int index) {
+        int pos = Arrays.binarySearch(indices, start, end, index);
+        return pos >= 0 ? pos - start : -1;
+    }
+
+    public float get(int index) {
+        int k = find(index);
+        return k >= 0 ? values[start + k] : 0f;
+    }
+
+    /**
+     * 列号不存在时应插入的位置 (相对 start)
+     */
+    int insertionPoint(int index) {
+        int pos = Arrays.binarySearch(indices, start, end, index);
+        return (pos >= 0 ? pos : -(pos + 1)) - start;
+    }
+
+    // 以下供 SparseMatrix 做写时复制
+    int[] indexArray() {
+        return indices;
+    }
+
+    float[] valueArray() {
+        return values;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+}
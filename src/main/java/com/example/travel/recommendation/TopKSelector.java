@@ -0,0 +1,110 @@
+package com.example.travel.recommendation;
+
+/**
+ * 用有界最小堆从流式输入中选出分值最高的 K 个 (序号, 分值)，O(n log K)，不装箱。
+ * 分值相同时序号小的优先，保证结果稳定。
+ */
+public final class TopKSelector {
+
+    private final int capacity;
+    private final int[] ids;
+    private final float[] scores;
+    private int size;
+
+    public TopKSelector(int k) {
+        this.capacity = Math.max(0, k);
+        this.ids = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    public void offer(int id, float score) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (isBetter(id, score, ids[0], scores[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /** 已满时为堆顶（当前第 K 名）的分值，否则为负无穷 */
+    public float threshold() {
+        return size == capacity && capacity > 0 ? scores[0] : Float.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * 取出结果并按分值降序排列，之后选择器被清空
+     */
+    public SparseRow drainDescending() {
+        int n = size;
+        int[] outIds = new int[n];
+        float[] outScores = new float[n];
+        for (int i = n - 1; i >= 0; i--) {
+            outIds[i] = ids[0];
+            outScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return new SparseRow(outIds, outScores, 0, n);
+    }
+
+    private static boolean isBetter(int id1, float score1, int id2, float score2) {
+        return score1 > score2 || (score1 == score2 && id1 < id2);
+    }
+
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!isBetter(ids[parent], scores[parent], ids[pos], scores[pos])) {
+                break;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isBetter(ids[left], scores[left], ids[right], scores[right])) {
+                worst = right;
+            }
+            if (!isBetter(ids[pos], scores[pos], ids[worst], scores[worst])) {
+                return;
+            }
+            swap(pos, worst);
+            pos = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
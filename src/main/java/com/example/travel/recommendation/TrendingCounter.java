@@ -0,0 +1,119 @@
+package com.example.travel.recommendation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.LongPredicate;
+
+/**
+ * 按时间指数衰减的景点热度计数 (forward decay)。
+ * <p>
+ * 每个事件按 weight · e^{λ(t - t0)} 累加到景点的 DoubleAdder 中，t0 为基准时间，λ = ln2 / 半衰期；
+ * 查询时乘以 e^{-λ(now - t0)} 得到当前热度，因此写入无锁、无需定时衰减任务。
+ * 指数增长到上限前整体换算到新的基准时间 (同时丢弃热度已可忽略的景点)，换算期间并发写入的少量增量可能丢失。
+ */
+public final class TrendingCounter {
+
+    // e^40 ≈ 2.4e17，远未到 double 精度问题之前重设基准时间
+    private static final double MAX_EXPONENT = 40;
+    // 换算时热度低于该值的景点被移除
+    private static final double PRUNE_BELOW = 1e-6;
+
+    private final double lambdaPerMilli;
+    private volatile Generation generation;
+
+    public TrendingCounter(Duration halfLife, long nowMillis) {
+        this.lambdaPerMilli = Math.log(2) / Math.max(1, halfLife.toMillis());
+        this.generation = new Generation(nowMillis, new ConcurrentHashMap<>());
+    }
+
+    public void record(long attractionId, double weight, long nowMillis) {
+        Generation current = generation;
+        double exponent = lambdaPerMilli * (nowMillis - current.landmarkMillis());
+        if (exponent > MAX_EXPONENT) {
+            current = rebase(nowMillis);
+            exponent = lambdaPerMilli * (nowMillis - current.landmarkMillis());
+        }
+        current.counters().computeIfAbsent(attractionId, id -> new DoubleAdder()).add(weight * Math.exp(exponent));
+    }
+
+    /**
+     * @return 景点在 nowMillis 时刻的热度 (半衰期之前的一次权重 1 的事件贡献 0.5)
+     */
+    public double score(long attractionId, long nowMillis) {
+        Generation current = generation;
+        DoubleAdder counter = current.counters().get(attractionId);
+        return counter != null ? counter.sum() * decay(current, nowMillis) : 0.0;
+    }
+
+    /**
+     * 热度最高的 limit 个景点 id，热度降序
+     *
+     * @param filter 只统计通过过滤的景点
+     */
+    public List<Long> top(int limit, long nowMillis, LongPredicate filter) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Generation current = generation;
+        // 同一代内所有计数的衰减系数相同，按原始累加值比较即可
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Math.min(limit, current.counters().size()) + 1, Map.Entry.comparingByValue());
+        current.counters().forEach((attractionId, counter) -> {
+            double value = counter.sum();
+            if (value <= 0 || !filter.test(attractionId)) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.add(Map.entry(attractionId, value));
+            } else if (value > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(Map.entry(attractionId, value));
+            }
+        });
+        List<Map.Entry<Long, Double>> sorted = new ArrayList<>(heap);
+        sorted.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(sorted.size());
+        sorted.forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+
+    public void remove(long attractionId) {
+        generation.counters().remove(attractionId);
+    }
+
+    public int size() {
+        return generation.counters().size();
+    }
+
+    private double decay(Generation current, long nowMillis) {
+        return Math.exp(-lambdaPerMilli * (nowMillis - current.landmarkMillis()));
+    }
+
+    private synchronized Generation rebase(long nowMillis) {
+        Generation current = generation;
+        if (lambdaPerMilli * (nowMillis - current.landmarkMillis()) <= MAX_EXPONENT) {
+            return current; // 其他线程已经换算
+        }
+        double scale = decay(current, nowMillis);
+        ConcurrentHashMap<Long, DoubleAdder> rebased = new ConcurrentHashMap<>();
+        current.counters().forEach((attractionId, counter) -> {
+            double value = counter.sum() * scale;
+            if (value >= PRUNE_BELOW) {
+                DoubleAdder adder = new DoubleAdder();
+                adder.add(value);
+                rebased.put(attractionId, adder);
+            }
+        });
+        Generation next = new Generation(nowMillis, rebased);
+        generation = next;
+        return next;
+    }
+
+    private record Generation(long landmarkMillis, ConcurrentHashMap<Long, DoubleAdder> counters) {
+    }
+}
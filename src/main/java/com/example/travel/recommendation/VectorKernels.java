@@ -0,0 +1,40 @@
+package com.example.travel.recommendation;
+
+/**
+ * 相似度计算中的热点循环：模长、稀疏-稠密点积、按下标累加、稠密矩阵按行点积和正分值筛选。
+ * <p>
+ * 有两个实现：{@link ScalarKernels} 为普通循环；{@link SimdKernels} 使用 Vector API
+ * (jdk.incubator.vector，按 CPU 选择最宽的向量长度，稀疏部分用 gather/scatter)。
+ * 启动参数带有 {@code --add-modules jdk.incubator.vector} 时使用后者，否则自动回退到前者；
+ * 也可以用系统属性 {@code -Drecommendation.kernels=scalar} 强制使用标量实现。
+ * 两种实现的浮点求和顺序不同，结果只在舍入误差范围内一致。
+ */
+public interface VectorKernels {
+
+    /** 实现名称，用于日志和状态展示 */
+    String name();
+
+    /** Σ values[k]²，k ∈ [from, to) */
+    double sumOfSquares(float[] values, int from, int to);
+
+    /** Σ values[k] * dense[indices[k]]，k ∈ [from, to) */
+    double sparseDenseDot(int[] indices, float[] values, int from, int to, float[] dense);
+
+    /**
+     * dense[indices[k]] += scale * values[k]，k ∈ [from, to)；区间内的下标必须互不相同
+     */
+    void scatterAdd(int[] indices, float[] values, int from, int to, float scale, float[] dense);
+
+    /**
+     * out[r] = query[queryOffset, queryOffset + dim) · matrix[r * dim, (r + 1) * dim)，r ∈ [0, rows)
+     */
+    void multiplyRows(float[] matrix, int rows, int dim, float[] query, int queryOffset, float[] out);
+
+    /** 把 scores[0, length) 中大于 0 的 (下标, 分值) 交给 selector */
+    void offerPositive(float[] scores, int length, TopKSelector selector);
+
+    /** 当前进程使用的实现，首次调用时选定 */
+    static VectorKernels get() {
+        return VectorKernelsHolder.INSTANCE;
+    }
+}
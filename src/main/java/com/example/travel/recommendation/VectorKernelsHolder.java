@@ -0,0 +1,47 @@
+package com.example.travel.recommendation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 延迟选择 {@link VectorKernels} 的实现。SimdKernels 引用了孵化模块中的类，
+ * 只能通过反射加载：模块未启用时加载会抛出 LinkageError，此时回退到标量实现。
+ */
+@Slf4j
+final class VectorKernelsHolder {
+
+    static final String PROPERTY = "recommendation.kernels";
+    private static final String SIMD_CLASS = "com.example.travel.recommendation.SimdKernels";
+
+    static final VectorKernels INSTANCE = select();
+
+    private VectorKernelsHolder() {
+    }
+
+    private static VectorKernels select() {
+        if ("scalar".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+            log.info("相似度计算使用标量实现 ({}=scalar)", PROPERTY);
+            return ScalarKernels.INSTANCE;
+        }
+        VectorKernels simd = loadSimd();
+        if (simd != null) {
+            log.info("相似度计算使用 Vector API 实现: {}", simd.name());
+            return simd;
+        }
+        log.info("jdk.incubator.vector 模块不可用 (需要 --add-modules jdk.incubator.vector)，相似度计算回退到标量实现");
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * 加载并自检 SIMD 实现，任何失败都返回 null
+     */
+    static VectorKernels loadSimd() {
+        try {
+            VectorKernels simd = (VectorKernels) Class.forName(SIMD_CLASS).getDeclaredConstructor().newInstance();
+            simd.sumOfSquares(new float[]{1f}, 0, 1);
+            return simd;
+        } catch (Exception | LinkageError e) {
+            log.debug("加载 {} 失败", SIMD_CLASS, e);
+            return null;
+        }
+    }
+}
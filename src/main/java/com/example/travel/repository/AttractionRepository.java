@@ -1,16 +1,29 @@
 package com.example.travel.repository;
 
 import com.example.travel.entity.Attraction;
+import com.example.travel.recommendation.AttractionFacet;
+import com.example.travel.recommendation.AttractionLocation;
+import com.example.travel.recommendation.AttractionRating;
+import com.example.travel.recommendation.AttractionTagKey;
+import com.example.travel.search.AttractionGeoPoint;
+import com.example.travel.search.AttractionSuggestionSource;
+import com.example.travel.search.AttractionText;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository; // Add @Repository for clarity
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository // Good practice to add @Repository, though optional for Spring Data JPA
 public interface AttractionRepository extends
@@ -40,6 +53,46 @@ public interface AttractionRepository extends
     // 返回Page，Service层可以取 .getContent() 来获得List
     Page<Attraction> findByOrderByAverageRatingDescRatingCountDesc(Pageable pageable);
 
+    // 按ID批量查询并一次取回标签，避免转换 DTO 时逐个懒加载
+    @EntityGraph(attributePaths = "tags")
+    List<Attraction> findWithTagsByIdIn(Collection<Long> ids);
+
+    // Rating statistics of every attraction, used to build the in-memory tag index
+    @Query("SELECT new com.example.travel.recommendation.AttractionRating(a.id, a.averageRating, a.ratingCount) FROM Attraction a")
+    List<AttractionRating> findAllAttractionRatings();
+
+    // All (attraction, tag) pairs, used to build the in-memory tag index
+    @Query("SELECT new com.example.travel.recommendation.AttractionTagKey(a.id, t.id) FROM Attraction a JOIN a.tags t")
+    List<AttractionTagKey> findAllAttractionTagKeys();
+
+    // Searchable text of every attraction, used to build the in-memory full-text index.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.travel.search.AttractionText(a.id, a.name, a.description, a.location, a.address, a.category, a.averageRating) " +
+            "FROM Attraction a")
+    Stream<AttractionText> streamAllAttractionTexts();
+
+    // Name, location and rating count of every attraction, used to build the in-memory suggestion index
+    @Query("SELECT new com.example.travel.search.AttractionSuggestionSource(a.id, a.name, a.location, a.ratingCount) FROM Attraction a")
+    List<AttractionSuggestionSource> findAllAttractionSuggestionSources();
+
+    // Category and location of every attraction, used to filter in-memory rankings
+    @Query("SELECT new com.example.travel.recommendation.AttractionFacet(a.id, a.category, a.location) FROM Attraction a")
+    List<AttractionFacet> findAllAttractionFacets();
+
+    // Coordinates of attractions inside a bounding box (attractions without coordinates are skipped)
+    @Query("SELECT new com.example.travel.recommendation.AttractionLocation(a.id, a.latitude, a.longitude) FROM Attraction a " +
+            "WHERE a.latitude BETWEEN :minLatitude AND :maxLatitude AND a.longitude BETWEEN :minLongitude AND :maxLongitude")
+    List<AttractionLocation> findAttractionLocationsWithin(@Param("minLatitude") double minLatitude,
+                                                           @Param("maxLatitude") double maxLatitude,
+                                                           @Param("minLongitude") double minLongitude,
+                                                           @Param("maxLongitude") double maxLongitude);
+
+    // Coordinates and category of every located attraction, used to build the in-memory spatial index
+    @Query("SELECT new com.example.travel.search.AttractionGeoPoint(a.id, a.latitude, a.longitude, a.category) FROM Attraction a " +
+            "WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL")
+    List<AttractionGeoPoint> findAllAttractionGeoPoints();
+
     // --- Analytics Queries ---
     @Query("SELECT a.category, COUNT(a.id) FROM Attraction a WHERE a.category IS NOT NULL GROUP BY a.category ORDER BY COUNT(a.id) DESC")
     List<Object[]> countAttractionsByCategory();
@@ -48,7 +101,7 @@ public interface AttractionRepository extends
     Page<Object[]> findTopAttractionTagsUsage(Pageable pageable);
 
 
-    @Query("SELECT a FROM Attraction a JOIN a.tags t WHERE t.id IN :tagIds " +
+    @Query("SELECT DISTINCT a FROM Attraction a JOIN a.tags t WHERE t.id IN :tagIds " +
             "AND a.id NOT IN (SELECT r.attraction.id FROM Review r WHERE r.user.id = :userId) " +
             "AND a.id NOT IN (SELECT uf.attraction.id FROM UserFavorite uf WHERE uf.user.id = :userId) " +
             "ORDER BY a.averageRating DESC, a.ratingCount DESC")
@@ -57,16 +110,7 @@ public interface AttractionRepository extends
             @Param("tagIds") Set<Long> tagIds,
             Pageable pageable
     );
-    /*
-    @Query(value = """
-        SELECT * FROM attractions
-        WHERE ST_Distance_Sphere(POINT(longitude, latitude), POINT(:param_lon, :param_lat)) < :radiusMeters
-        ORDER BY ST_Distance_Sphere(POINT(longitude, latitude), POINT(:param_lon, :param_lat)) ASC
-        """, nativeQuery = true)
-    List<Attraction> findNearbyAttractions(
-            @Param("param_lon") Double longitude, // Use different names for @Param if they clash with entity fields
-            @Param("param_lat") Double latitude,
-            @Param("radiusMeters") Integer radiusMeters
-    );
-    */
+
+    // "Near me" queries are answered by the in-memory AttractionGeoIndex rather than ST_Distance_Sphere,
+    // which is MySQL-only and cannot use an index
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.travel.repository;
+
+import com.example.travel.entity.InteractionTombstone;
+import com.example.travel.recommendation.InteractionChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InteractionTombstoneRepository extends JpaRepository<InteractionTombstone, Long> {
+
+    // Interactions deleted since the given time (snapshot catch-up and delta polling)
+    @Query("SELECT new com.example.travel.recommendation.InteractionChange(t.userId, t.attractionId, t.deletedAt) " +
+           "FROM InteractionTombstone t WHERE t.deletedAt >= :since")
+    List<InteractionChange> findInteractionChangesSince(@Param("since") LocalDateTime since);
+
+    // Purge tombstones past their retention; returns the number of rows deleted
+    @Modifying
+    @Query("DELETE FROM InteractionTombstone t WHERE t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
@@ -2,10 +2,35 @@ package com.example.travel.repository;
 
 import com.example.travel.entity.ItineraryAttraction;
 import com.example.travel.entity.ItineraryAttractionId;
+import com.example.travel.recommendation.InteractionChange;
+import com.example.travel.recommendation.InteractionKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface ItineraryAttractionRepository extends JpaRepository<ItineraryAttraction, ItineraryAttractionId> {
 
-}
\ No newline at end of file
+    // Whether the attraction is part of any itinerary owned by the user
+    boolean existsByItinerary_User_IdAndAttraction_Id(Long userId, Long attractionId);
+
+    // All (itinerary owner, attraction) pairs in one join over itinerary_attractions and itineraries, streamed without
+    // hydrating entities. Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.travel.recommendation.InteractionKey(i.user.id, ia.attraction.id) " +
+           "FROM ItineraryAttraction ia JOIN ia.itinerary i")
+    Stream<InteractionKey> streamAllInteractionKeys();
+
+    // (owner, attraction) pairs of itineraries updated since the given time (snapshot catch-up and delta polling)
+    @Query("SELECT new com.example.travel.recommendation.InteractionChange(i.user.id, ia.attraction.id, i.updatedAt) " +
+           "FROM ItineraryAttraction ia JOIN ia.itinerary i WHERE i.updatedAt >= :since")
+    List<InteractionChange> findInteractionChangesSince(@Param("since") LocalDateTime since);
+}
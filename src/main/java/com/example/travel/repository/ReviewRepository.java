@@ -1,13 +1,23 @@
 package com.example.travel.repository;
 
 import com.example.travel.entity.Review;
+import com.example.travel.recommendation.InteractionChange;
+import com.example.travel.recommendation.InteractionRating;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 // ... other imports ...
 
 @Repository
@@ -26,4 +36,19 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> findByUserId(Long userId, Pageable pageable); // For paginated reviews by user
 
     boolean existsByUserIdAndAttractionId(Long userId, Long attractionId); // To check if user already reviewed
+
+    // Current rating of one user for one attraction (used by incremental recommendation updates)
+    @Query("SELECT r.rating FROM Review r WHERE r.user.id = :userId AND r.attraction.id = :attractionId")
+    Optional<Integer> findRatingByUserIdAndAttractionId(@Param("userId") Long userId, @Param("attractionId") Long attractionId);
+
+    // Reviews created or updated since the given time (snapshot catch-up and delta polling); deletions come from tombstones
+    @Query("SELECT new com.example.travel.recommendation.InteractionChange(r.user.id, r.attraction.id, r.updatedAt) FROM Review r WHERE r.updatedAt >= :since")
+    List<InteractionChange> findInteractionChangesSince(@Param("since") LocalDateTime since);
+
+    // All (user, attraction, rating) tuples for the recommendation model, streamed without hydrating Review entities.
+    // Must be consumed inside a transaction and closed; the fetch size is honoured by MySQL with useCursorFetch=true.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.travel.recommendation.InteractionRating(r.user.id, r.attraction.id, r.rating) FROM Review r " +
+           "WHERE r.user.id IS NOT NULL AND r.attraction.id IS NOT NULL AND r.rating IS NOT NULL")
+    Stream<InteractionRating> streamAllInteractionRatings();
 }
\ No newline at end of file
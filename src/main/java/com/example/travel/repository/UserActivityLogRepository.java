@@ -1,13 +1,22 @@
 package com.example.travel.repository;
 
 import com.example.travel.entity.UserActivityLog;
+import com.example.travel.recommendation.AttractionView;
+import com.example.travel.search.AttractionViewCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // 可选，如果需要复杂动态查询
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserActivityLogRepository extends JpaRepository<UserActivityLog, Long>, JpaSpecificationExecutor<UserActivityLog> {
@@ -24,5 +33,17 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
     // 根据景点ID查找特定类型的活动日志 (例如，查看某个景点的所有 VIEW_ATTRACTION 活动)
     Page<UserActivityLog> findByAttraction_IdAndActivityTypeOrderByTimestampDesc(Long attractionId, String activityType, Pageable pageable);
 
+    // 时间窗口内的景点浏览记录 (按时间顺序)，用于预热浏览会话共现模型；需在事务内消费并关闭
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.travel.recommendation.AttractionView(l.user.id, l.attraction.id, l.timestamp) " +
+           "FROM UserActivityLog l WHERE l.activityType = 'VIEW_ATTRACTION' AND l.attraction IS NOT NULL " +
+           "AND l.timestamp >= :since AND l.timestamp < :until ORDER BY l.timestamp, l.id")
+    Stream<AttractionView> streamAttractionViews(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    // 每个景点的浏览次数，构建输入联想索引时作为热度的一部分
+    @Query("SELECT new com.example.travel.search.AttractionViewCount(l.attraction.id, COUNT(l)) " +
+           "FROM UserActivityLog l WHERE l.activityType = 'VIEW_ATTRACTION' AND l.attraction IS NOT NULL GROUP BY l.attraction.id")
+    List<AttractionViewCount> countViewsByAttraction();
+
     // 如果需要，可以添加更多自定义查询方法
 }
\ No newline at end of file
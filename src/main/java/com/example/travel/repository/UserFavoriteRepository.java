@@ -2,14 +2,23 @@ package com.example.travel.repository;
 
 import com.example.travel.entity.UserFavorite;
 import com.example.travel.entity.UserFavoriteId;
+import com.example.travel.recommendation.InteractionChange;
+import com.example.travel.recommendation.InteractionKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying; // If using custom delete query
 import org.springframework.data.jpa.repository.Query; // If using custom delete query
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param; // If using custom delete query
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UserFavoriteId> {
 
@@ -27,4 +36,14 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, User
     // @Modifying
     // @Query("DELETE FROM UserFavorite uf WHERE uf.user.id = :userId AND uf.attraction.id = :attractionId")
     // void deleteFavorite(@Param("userId") Long userId, @Param("attractionId") Long attractionId);
+
+    // Favorites added since the given time (snapshot catch-up and delta polling); removals come from tombstones
+    @Query("SELECT new com.example.travel.recommendation.InteractionChange(f.user.id, f.attraction.id, f.createdAt) FROM UserFavorite f WHERE f.createdAt >= :since")
+    List<InteractionChange> findInteractionChangesSince(@Param("since") LocalDateTime since);
+
+    // All (user, attraction) favorite pairs for the recommendation model, streamed without hydrating entities.
+    // Must be consumed inside a transaction and closed; the fetch size is honoured by MySQL with useCursorFetch=true.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.travel.recommendation.InteractionKey(f.user.id, f.attraction.id) FROM UserFavorite f")
+    Stream<InteractionKey> streamAllInteractionKeys();
 }
\ No newline at end of file
@@ -0,0 +1,523 @@
+package com.example.travel.search;
+
+import com.example.travel.recommendation.IdDictionary;
+import com.example.travel.recommendation.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 景点坐标的内存空间索引：等经纬度网格分桶 (相当于定长的 geohash)。
+ * <p>
+ * 地球按 0.1° × 0.1° 划分网格 (赤道附近约 11 km 见方)，每个有景点的格子一个桶，
+ * 桶内用基本类型数组存放景点序号和弧度坐标；格子编号 → 桶的映射是 {@link LongIntHashMap}。
+ * 半径查询先求出圆的经纬度外接范围 (圆覆盖极点时取全部经度，跨 180° 经线时列号回绕)，
+ * 只扫描范围内的桶，再用球面距离 (haversine) 精确过滤；
+ * k 近邻查询从一个格子的半径开始，圆内结果不足 k 个时把半径加倍重查。
+ * 两种查询都可叠加类别、标签 (任一) 过滤，结果按距离升序 (距离相同时 id 小的在前)。
+ * <p>
+ * 查询持有读锁，单个景点的增量更新持有写锁。
+ */
+public final class AttractionGeoIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    /** 球面上两点间的最大距离 (半个大圆周长)，不限半径时使用 */
+    public static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private static final double CELL_DEGREES = 0.1;
+    private static final int ROWS = 1800;
+    private static final int COLUMNS = 3600;
+    private static final double CELL_KM = EARTH_RADIUS_KM * Math.toRadians(CELL_DEGREES);
+    private static final int RADIUS_GROWTH = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdDictionary attractions;
+    private final LongIntHashMap bucketByCell = new LongIntHashMap(); // 格子编号 + 1 → 桶下标 + 1 (0 表示没有桶)
+    private final List<Bucket> buckets = new ArrayList<>();
+    private final BitSet liveAttractions = new BitSet();
+
+    // 以下按景点序号索引，只在持有锁时访问
+    private int[] bucketOf;
+    private String[] categories; // 小写
+    private long[][] tagsByAttraction; // 升序
+    private int liveCount;
+
+    private AttractionGeoIndex(IdDictionary attractions) {
+        this.attractions = attractions;
+        int capacity = Math.max(16, attractions.size());
+        this.bucketOf = new int[capacity];
+        this.categories = new String[capacity];
+        this.tagsByAttraction = new long[capacity][];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 距离 (latitude, longitude) 不超过 radiusKm 的景点中最近的至多 limit 个
+     *
+     * @param category 类别 (不区分大小写)，null 表示不过滤
+     * @param tagIds 带其中任一标签，null 或空表示不过滤
+     */
+    public List<NearbyAttraction> withinRadius(double latitude, double longitude, double radiusKm,
+                                               String category, Collection<Long> tagIds, int limit) {
+        Filter filter = Filter.of(category, tagIds);
+        lock.readLock().lock();
+        try {
+            int capacity = Math.min(limit, liveCount);
+            if (capacity <= 0 || radiusKm < 0) {
+                return List.of();
+            }
+            NearestSelector nearest = new NearestSelector(capacity);
+            collect(latitude, longitude, Math.min(radiusKm, MAX_DISTANCE_KM), filter, nearest);
+            return nearest.drainAscending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 满足过滤条件的景点中离 (latitude, longitude) 最近的 k 个，只考虑 maxRadiusKm 以内的景点
+     */
+    public List<NearbyAttraction> nearest(double latitude, double longitude, int k, double maxRadiusKm,
+                                          String category, Collection<Long> tagIds) {
+        Filter filter = Filter.of(category, tagIds);
+        lock.readLock().lock();
+        try {
+            int capacity = Math.min(k, liveCount);
+            if (capacity <= 0 || maxRadiusKm < 0) {
+                return List.of();
+            }
+            double maxRadius = Math.min(maxRadiusKm, MAX_DISTANCE_KM);
+            double radius = Math.min(CELL_KM, maxRadius);
+            NearestSelector nearest = new NearestSelector(capacity);
+            // 圆内已有 k 个结果时，圆外的景点都比第 k 个远，结果就是最终答案
+            while (collect(latitude, longitude, radius, filter, nearest) < k && radius < maxRadius) {
+                radius = Math.min(radius * RADIUS_GROWTH, maxRadius);
+                nearest.clear();
+            }
+            return nearest.drainAscending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或修改景点：替换其所在的格子、类别和标签；坐标缺失或越界的景点从索引中移除
+     */
+    public void upsertAttraction(AttractionGeoPoint point, Collection<Long> tagIds) {
+        lock.writeLock().lock();
+        try {
+            upsertLocked(point, tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAttraction(long attractionId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = attractions.ordinalOf(attractionId);
+            if (ordinal >= 0) {
+                removeLocked(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int attractionCount() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 分配过的格子数 (景点移走后空桶保留，供之后写入复用) */
+    public int cellCount() {
+        lock.readLock().lock();
+        try {
+            return buckets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = attractions.estimatedHeapBytes() + bucketByCell.estimatedHeapBytes();
+            for (Bucket bucket : buckets) {
+                // 桶对象和四个数组头部约 80 字节，每个槽位 int + 三个 double
+                bytes += 80L + 28L * bucket.ordinals.length;
+            }
+            bytes += 12L * bucketOf.length;
+            for (int ordinal = liveAttractions.nextSetBit(0); ordinal >= 0; ordinal = liveAttractions.nextSetBit(ordinal + 1)) {
+                bytes += 8L * tagsByAttraction[ordinal].length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 球面距离 (haversine)，经纬度为角度
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        return distanceKm(phi1, Math.cos(phi1), phi2, Math.cos(phi2), Math.toRadians(lon2 - lon1));
+    }
+
+    // 弧度坐标，纬度的余弦由调用方预先算好
+    private static double distanceKm(double phi1, double cosPhi1, double phi2, double cosPhi2, double deltaLambda) {
+        double sinHalfPhi = Math.sin((phi2 - phi1) / 2);
+        double sinHalfLambda = Math.sin(deltaLambda / 2);
+        double a = sinHalfPhi * sinHalfPhi + cosPhi1 * cosPhi2 * sinHalfLambda * sinHalfLambda;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * 把圆内满足过滤条件的景点交给 nearest
+     *
+     * @return 圆内满足过滤条件的景点数
+     */
+    private int collect(double latitude, double longitude, double radiusKm, Filter filter, NearestSelector nearest) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double minLatitude = latitude - Math.toDegrees(angular);
+        double maxLatitude = latitude + Math.toDegrees(angular);
+        double minLongitude = -180;
+        double maxLongitude = 180;
+        if (minLatitude > -90 && maxLatitude < 90) {
+            // 圆不含极点时经度范围为 ±asin(sin(r) / cos(φ))
+            double longitudeDelta = Math.toDegrees(Math.asin(Math.min(1.0, Math.sin(angular) / Math.cos(Math.toRadians(latitude)))));
+            minLongitude = longitude - longitudeDelta;
+            maxLongitude = longitude + longitudeDelta;
+        }
+        // 范围各向外多取一格，避免边界上的舍入误差漏掉格子
+        int firstRow = Math.max(0, row(minLatitude) - 1);
+        int lastRow = Math.min(ROWS - 1, row(maxLatitude) + 1);
+        long firstColumn = (long) Math.floor((minLongitude + 180) / CELL_DEGREES) - 1;
+        int columnSpan = (int) Math.min(COLUMNS, (long) Math.floor((maxLongitude + 180) / CELL_DEGREES) + 1 - firstColumn + 1);
+
+        Query query = new Query(Math.toRadians(latitude), Math.toRadians(longitude), angular, radiusKm, filter, nearest);
+        if ((long) (lastRow - firstRow + 1) * columnSpan > buckets.size()) {
+            // 范围内的格子比已有的桶还多：直接扫描全部桶
+            for (Bucket bucket : buckets) {
+                scan(bucket, query);
+            }
+            return query.matches;
+        }
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = 0; c < columnSpan; c++) {
+                int column = (int) Math.floorMod(firstColumn + c, (long) COLUMNS);
+                int bucket = bucketByCell.get(cellKey(r, column)) - 1;
+                if (bucket >= 0) {
+                    scan(buckets.get(bucket), query);
+                }
+            }
+        }
+        return query.matches;
+    }
+
+    private void scan(Bucket bucket, Query query) {
+        for (int i = 0; i < bucket.size; i++) {
+            if (Math.abs(bucket.latitudes[i] - query.latitude) > query.angular) {
+                continue; // 纬度差已超过半径
+            }
+            int ordinal = bucket.ordinals[i];
+            if (!query.filter.accepts(ordinal, categories, tagsByAttraction)) {
+                continue;
+            }
+            double distance = distanceKm(query.latitude, query.cosLatitude, bucket.latitudes[i], bucket.cosLatitudes[i],
+                    bucket.longitudes[i] - query.longitude);
+            if (distance <= query.radiusKm) {
+                query.nearest.offer(attractions.idOf(ordinal), distance);
+                query.matches++;
+            }
+        }
+    }
+
+    private void upsertLocked(AttractionGeoPoint point, long[] tagIds) {
+        int ordinal = attractions.getOrAdd(point.getAttractionId());
+        ensureCapacity(ordinal + 1);
+        removeLocked(ordinal);
+        if (!isValid(point)) {
+            return;
+        }
+        double latitude = point.getLatitude();
+        double longitude = point.getLongitude();
+        long cellKey = cellKey(row(latitude), column(longitude));
+        int bucket = bucketByCell.get(cellKey) - 1;
+        if (bucket < 0) {
+            bucket = buckets.size();
+            buckets.add(new Bucket());
+            bucketByCell.addTo(cellKey, bucket + 1);
+        }
+        double phi = Math.toRadians(latitude);
+        buckets.get(bucket).add(ordinal, phi, Math.cos(phi), Math.toRadians(longitude));
+        bucketOf[ordinal] = bucket;
+        categories[ordinal] = point.getCategory() != null ? point.getCategory().toLowerCase(Locale.ROOT) : null;
+        tagsByAttraction[ordinal] = tagIds;
+        liveAttractions.set(ordinal);
+        liveCount++;
+    }
+
+    private void removeLocked(int ordinal) {
+        if (!liveAttractions.get(ordinal)) {
+            return;
+        }
+        buckets.get(bucketOf[ordinal]).remove(ordinal);
+        liveCount--;
+        liveAttractions.clear(ordinal);
+        categories[ordinal] = null;
+        tagsByAttraction[ordinal] = null;
+    }
+
+    private static boolean isValid(AttractionGeoPoint point) {
+        return point.getLatitude() != null && point.getLongitude() != null
+                && point.getLatitude() >= -90 && point.getLatitude() <= 90
+                && point.getLongitude() >= -180 && point.getLongitude() <= 180;
+    }
+
+    private static int row(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    // 180° 与 -180° 是同一条经线
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * COLUMNS + column + 1;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > bucketOf.length) {
+            int capacity = Math.max(count, bucketOf.length * 2);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            tagsByAttraction = Arrays.copyOf(tagsByAttraction, capacity);
+        }
+    }
+
+    /**
+     * 一个格子内的景点：序号和弧度坐标 (纬度的余弦预先算好)，无序；删除时用最后一个填补空位
+     */
+    private static final class Bucket {
+        private int[] ordinals = new int[4];
+        private double[] latitudes = new double[4];
+        private double[] cosLatitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        void add(int ordinal, double latitude, double cosLatitude, double longitude) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                cosLatitudes = Arrays.copyOf(cosLatitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ordinals[size] = ordinal;
+            latitudes[size] = latitude;
+            cosLatitudes[size] = cosLatitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    latitudes[i] = latitudes[size];
+                    cosLatitudes[i] = cosLatitudes[size];
+                    longitudes[i] = longitudes[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次圆形范围扫描的参数 (弧度) 与命中计数
+     */
+    private static final class Query {
+        private final double latitude;
+        private final double cosLatitude;
+        private final double longitude;
+        private final double angular;
+        private final double radiusKm;
+        private final Filter filter;
+        private final NearestSelector nearest;
+        private int matches;
+
+        Query(double latitude, double longitude, double angular, double radiusKm, Filter filter, NearestSelector nearest) {
+            this.latitude = latitude;
+            this.cosLatitude = Math.cos(latitude);
+            this.longitude = longitude;
+            this.angular = angular;
+            this.radiusKm = radiusKm;
+            this.filter = filter;
+            this.nearest = nearest;
+        }
+    }
+
+    /**
+     * 类别与标签 (任一) 过滤条件
+     */
+    private static final class Filter {
+        private String category;
+        private long[] tagIds;
+
+        static Filter of(String category, Collection<Long> tagIds) {
+            Filter filter = new Filter();
+            filter.category = category != null && !category.isBlank() ? category.toLowerCase(Locale.ROOT) : null;
+            filter.tagIds = tagIds == null || tagIds.isEmpty() ? null
+                    : tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+            return filter;
+        }
+
+        boolean accepts(int ordinal, String[] categories, long[][] tagsByAttraction) {
+            if (category != null && !category.equals(categories[ordinal])) {
+                return false;
+            }
+            if (tagIds == null) {
+                return true;
+            }
+            for (long tagId : tagsByAttraction[ordinal]) {
+                if (Arrays.binarySearch(tagIds, tagId) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 保留距离最近的 k 个结果的有界最大堆 (堆顶是当前第 k 近的)，距离相同时 id 大的视为更远
+     */
+    private static final class NearestSelector {
+        private final long[] ids;
+        private final double[] distances;
+        private int size;
+
+        NearestSelector(int k) {
+            this.ids = new long[k];
+            this.distances = new double[k];
+        }
+
+        void offer(long id, double distance) {
+            if (size < ids.length) {
+                ids[size] = id;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (fartherThan(ids[0], distances[0], id, distance)) {
+                ids[0] = id;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        // 依次弹出堆顶 (最远的) 从后往前填，得到升序结果
+        List<NearbyAttraction> drainAscending() {
+            NearbyAttraction[] result = new NearbyAttraction[size];
+            while (size > 0) {
+                result[size - 1] = new NearbyAttraction(ids[0], distances[0]);
+                size--;
+                ids[0] = ids[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            return Arrays.asList(result);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!fartherThan(ids[i], distances[i], ids[parent], distances[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int farthest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && fartherThan(ids[left], distances[left], ids[farthest], distances[farthest])) {
+                    farthest = left;
+                }
+                if (right < size && fartherThan(ids[right], distances[right], ids[farthest], distances[farthest])) {
+                    farthest = right;
+                }
+                if (farthest == i) {
+                    return;
+                }
+                swap(i, farthest);
+                i = farthest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+
+        private static boolean fartherThan(long idA, double distanceA, long idB, double distanceB) {
+            return distanceA > distanceB || (distanceA == distanceB && idA > idB);
+        }
+    }
+
+    public static final class Builder {
+        private final List<AttractionGeoPoint> points = new ArrayList<>();
+        private final Map<Long, List<Long>> tagsByAttraction = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(AttractionGeoPoint point) {
+            points.add(point);
+            return this;
+        }
+
+        public Builder addTag(long attractionId, long tagId) {
+            tagsByAttraction.computeIfAbsent(attractionId, id -> new ArrayList<>()).add(tagId);
+            return this;
+        }
+
+        public AttractionGeoIndex build() {
+            long[] ids = points.stream().mapToLong(AttractionGeoPoint::getAttractionId).toArray();
+            AttractionGeoIndex index = new AttractionGeoIndex(IdDictionary.fromIds(ids, ids.length));
+            for (AttractionGeoPoint point : points) {
+                List<Long> tagIds = tagsByAttraction.getOrDefault(point.getAttractionId(), List.of());
+                index.upsertLocked(point, tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray());
+            }
+            return index;
+        }
+    }
+}
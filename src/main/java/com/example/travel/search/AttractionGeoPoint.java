@@ -0,0 +1,16 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 空间索引所需的景点字段投影：坐标，以及与位置组合使用的类别过滤条件
+ */
+@Data
+@AllArgsConstructor
+public class AttractionGeoPoint {
+    private Long attractionId;
+    private Double latitude;
+    private Double longitude;
+    private String category;
+}
@@ -0,0 +1,475 @@
+package com.example.travel.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 搜索框输入联想的内存索引：景点名称、地点、标签名称登记在同一棵 {@link SuggestionTrie} 中，每个节点保留热度最高的 {@link #TOP_N} 条。
+ * <p>
+ * 景点热度 = 评价数 + 浏览数；地点和标签的热度是其下所有景点热度之和。
+ * 文本规范化后，除整段文本外，每个词的起点 (空白、标点之后，以及中日韩文字与其他文字的交界处) 也各登记一个 key，
+ * 输入名称中间的词同样可以补全。景点、标签变化或浏览数增长时只更新受影响的条目及其在树中的路径。
+ * <p>
+ * 查询持有读锁，更新持有写锁。
+ */
+public final class AttractionSuggestionIndex {
+
+    public static final int TOP_N = 10;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie trie = new SuggestionTrie(TOP_N, this::compareEntries);
+
+    // 条目按编号索引，删除后编号回收复用
+    private String[] texts = new String[64];
+    private SuggestionType[] types = new SuggestionType[64];
+    private long[] refIds = new long[64];
+    private long[] weights = new long[64];
+    private String[][] keysByEntry = new String[64][];
+    private int[] freeEntries = new int[16];
+    private int freeCount;
+    private int allocatedEntries;
+    private int entryCount;
+    // 批量构建时只登记不重算，构建结束后整棵树重算一次
+    private boolean bulkLoading;
+
+    private final Map<Long, AttractionState> attractions = new HashMap<>();
+    private final Map<Long, Integer> tagEntries = new HashMap<>();
+    private final Map<Long, Long> tagWeights = new HashMap<>();
+    private final Map<String, LocationState> locations = new HashMap<>(); // 规范化后的地点
+
+    private AttractionSuggestionIndex() {
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 以 prefix 开头 (规范化后比较) 的条目，按热度降序，至多 min(limit, TOP_N) 条
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = TextTokenizer.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int[] top = trie.top(key);
+            List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+            for (int k = 0; k < top.length && k < limit; k++) {
+                int entry = top[k];
+                Long id = types[entry] == SuggestionType.LOCATION ? null : refIds[entry];
+                suggestions.add(new Suggestion(texts[entry], types[entry], id, weights[entry]));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或修改景点：名称、地点、标签或评价数变化时更新对应条目，浏览数保留
+     */
+    public void upsertAttraction(long attractionId, String name, String location, Collection<Long> tagIds, Integer ratingCount) {
+        lock.writeLock().lock();
+        try {
+            AttractionState old = attractions.get(attractionId);
+            upsertLocked(attractionId, name, location, tagIds, ratingCount != null ? ratingCount : 0, old != null ? old.views : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateRatingCount(long attractionId, Integer ratingCount) {
+        lock.writeLock().lock();
+        try {
+            AttractionState state = attractions.get(attractionId);
+            if (state != null) {
+                changePopularity(state, ratingCount != null ? ratingCount : 0, state.views);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 累加一批浏览数 (景点 id → 新增浏览次数)
+     */
+    public void addViews(Map<Long, Long> viewDeltas) {
+        lock.writeLock().lock();
+        try {
+            viewDeltas.forEach((attractionId, delta) -> {
+                AttractionState state = attractions.get(attractionId);
+                if (state != null && delta != 0) {
+                    changePopularity(state, state.ratingCount, state.views + delta);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAttraction(long attractionId) {
+        lock.writeLock().lock();
+        try {
+            AttractionState state = attractions.remove(attractionId);
+            if (state != null) {
+                detach(state);
+                removeEntry(state.entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或重命名标签
+     */
+    public void upsertTag(long tagId, String name) {
+        lock.writeLock().lock();
+        try {
+            upsertTagLocked(tagId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTag(long tagId) {
+        lock.writeLock().lock();
+        try {
+            Integer entry = tagEntries.remove(tagId);
+            if (entry != null) {
+                removeEntry(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int entryCount() {
+        lock.readLock().lock();
+        try {
+            return entryCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return trie.nodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = trie.estimatedHeapBytes();
+            // 条目数组：每个编号一个引用、一个枚举引用、两个 long
+            bytes += 24L * texts.length + 4L * freeEntries.length;
+            for (int entry = 0; entry < allocatedEntries; entry++) {
+                if (texts[entry] == null) {
+                    continue;
+                }
+                bytes += 40L + 2L * texts[entry].length() + 16L;
+                for (String key : keysByEntry[entry]) {
+                    bytes += 44L + 2L * key.length(); // 字符串 + 数组中的引用
+                }
+            }
+            // 景点状态约 100 字节 + 标签数组，HashMap 条目约 32 字节
+            for (AttractionState state : attractions.values()) {
+                bytes += 132L + 8L * state.tagIds.length;
+            }
+            bytes += 64L * tagEntries.size() + 64L * tagWeights.size() + 72L * locations.size();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void upsertLocked(long attractionId, String name, String location, Collection<Long> tagIds,
+                              long ratingCount, long views) {
+        AttractionState old = attractions.get(attractionId);
+        if (old != null) {
+            detach(old);
+        }
+        AttractionState state = new AttractionState(name, location, TextTokenizer.normalize(location),
+                tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray(), ratingCount, views);
+        if (old != null && Objects.equals(old.name, name)) {
+            state.entry = old.entry;
+            setWeight(state.entry, state.popularity());
+        } else {
+            if (old != null) {
+                removeEntry(old.entry);
+            }
+            state.entry = addEntry(name, SuggestionType.ATTRACTION, attractionId, state.popularity());
+        }
+        attractions.put(attractionId, state);
+        attach(state);
+    }
+
+    private void upsertTagLocked(long tagId, String name) {
+        Integer entry = tagEntries.get(tagId);
+        if (entry != null && Objects.equals(texts[entry], name)) {
+            return;
+        }
+        if (entry != null) {
+            removeEntry(entry);
+        }
+        int added = addEntry(name, SuggestionType.TAG, tagId, tagWeights.getOrDefault(tagId, 0L));
+        if (added >= 0) {
+            tagEntries.put(tagId, added);
+        } else {
+            tagEntries.remove(tagId);
+        }
+    }
+
+    private void changePopularity(AttractionState state, long ratingCount, long views) {
+        long delta = ratingCount + views - state.popularity();
+        state.ratingCount = ratingCount;
+        state.views = views;
+        setWeight(state.entry, state.popularity());
+        LocationState location = locations.get(state.locationKey);
+        if (location != null) {
+            location.weight += delta;
+            setWeight(location.entry, location.weight);
+        }
+        for (long tagId : state.tagIds) {
+            addTagWeight(tagId, delta);
+        }
+    }
+
+    // 把景点的热度计入所在地点和各个标签
+    private void attach(AttractionState state) {
+        long popularity = state.popularity();
+        if (!state.locationKey.isEmpty()) {
+            LocationState location = locations.get(state.locationKey);
+            if (location == null) {
+                location = new LocationState(addEntry(state.location, SuggestionType.LOCATION, 0L, 0L));
+                locations.put(state.locationKey, location);
+            }
+            location.attractionCount++;
+            location.weight += popularity;
+            setWeight(location.entry, location.weight);
+        }
+        for (long tagId : state.tagIds) {
+            addTagWeight(tagId, popularity);
+        }
+    }
+
+    private void detach(AttractionState state) {
+        long popularity = state.popularity();
+        LocationState location = locations.get(state.locationKey);
+        if (location != null) {
+            location.weight -= popularity;
+            if (--location.attractionCount == 0) {
+                locations.remove(state.locationKey);
+                removeEntry(location.entry);
+            } else {
+                setWeight(location.entry, location.weight);
+            }
+        }
+        for (long tagId : state.tagIds) {
+            addTagWeight(tagId, -popularity);
+        }
+    }
+
+    private void addTagWeight(long tagId, long delta) {
+        long weight = tagWeights.merge(tagId, delta, Long::sum);
+        Integer entry = tagEntries.get(tagId);
+        if (entry != null) {
+            setWeight(entry, weight);
+        }
+    }
+
+    /**
+     * @return 条目编号；文本规范化后为空时不登记，返回 -1
+     */
+    private int addEntry(String text, SuggestionType type, long refId, long weight) {
+        String[] keys = keysOf(text);
+        if (keys.length == 0) {
+            return -1;
+        }
+        int entry = freeCount > 0 ? freeEntries[--freeCount] : allocatedEntries++;
+        ensureCapacity(entry + 1);
+        texts[entry] = text;
+        types[entry] = type;
+        refIds[entry] = refId;
+        weights[entry] = weight;
+        keysByEntry[entry] = keys;
+        for (String key : keys) {
+            if (bulkLoading) {
+                trie.putWithoutRefresh(key, entry);
+            } else {
+                trie.put(key, entry);
+            }
+        }
+        entryCount++;
+        return entry;
+    }
+
+    private void removeEntry(int entry) {
+        if (entry < 0) {
+            return;
+        }
+        // 先从树中移除全部 key 再清空条目：移除一个 key 重算路径时，其他 key 所在的子树仍会比较到这个条目
+        for (String key : keysByEntry[entry]) {
+            trie.remove(key, entry);
+        }
+        keysByEntry[entry] = null;
+        texts[entry] = null;
+        types[entry] = null;
+        if (freeCount == freeEntries.length) {
+            freeEntries = Arrays.copyOf(freeEntries, freeCount * 2);
+        }
+        freeEntries[freeCount++] = entry;
+        entryCount--;
+    }
+
+    private void setWeight(int entry, long weight) {
+        if (entry < 0 || weights[entry] == weight) {
+            return;
+        }
+        weights[entry] = weight;
+        if (!bulkLoading) {
+            for (String key : keysByEntry[entry]) {
+                trie.refresh(key);
+            }
+        }
+    }
+
+    // 热度降序，其次文本、来源、id 升序，保证顺序稳定
+    private int compareEntries(int a, int b) {
+        int cmp = Long.compare(weights[b], weights[a]);
+        if (cmp == 0) {
+            cmp = texts[a].compareTo(texts[b]);
+        }
+        if (cmp == 0) {
+            cmp = types[a].compareTo(types[b]);
+        }
+        return cmp != 0 ? cmp : Long.compare(refIds[a], refIds[b]);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > texts.length) {
+            int capacity = Math.max(count, texts.length * 2);
+            texts = Arrays.copyOf(texts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            refIds = Arrays.copyOf(refIds, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            keysByEntry = Arrays.copyOf(keysByEntry, capacity);
+        }
+    }
+
+    /**
+     * 规范化后的整段文本，以及从每个词的起点开始的后缀
+     */
+    static String[] keysOf(String text) {
+        String normalized = TextTokenizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalized);
+        int previous = normalized.codePointAt(0);
+        for (int i = Character.charCount(previous); i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint) && (!Character.isLetterOrDigit(previous)
+                    || TextTokenizer.isCjk(previous) != TextTokenizer.isCjk(codePoint))) {
+                keys.add(normalized.substring(i));
+            }
+            previous = codePoint;
+            i += Character.charCount(codePoint);
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private static final class AttractionState {
+        private final String name;
+        private final String location;
+        private final String locationKey; // 规范化后的地点，没有地点时为空串
+        private final long[] tagIds;
+        private long ratingCount;
+        private long views;
+        private int entry = -1;
+
+        AttractionState(String name, String location, String locationKey, long[] tagIds, long ratingCount, long views) {
+            this.name = name;
+            this.location = location;
+            this.locationKey = locationKey;
+            this.tagIds = tagIds;
+            this.ratingCount = ratingCount;
+            this.views = views;
+        }
+
+        long popularity() {
+            return ratingCount + views;
+        }
+    }
+
+    private static final class LocationState {
+        private final int entry; // 展示文本取第一个登记该地点的景点
+        private int attractionCount;
+        private long weight;
+
+        LocationState(int entry) {
+            this.entry = entry;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<Long, AttractionSource> attractionSources = new HashMap<>();
+        private final Map<Long, String> tagNames = new HashMap<>();
+        private final Map<Long, List<Long>> tagsByAttraction = new HashMap<>();
+        private final Map<Long, Long> views = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder addAttraction(long attractionId, String name, String location, Integer ratingCount) {
+            attractionSources.put(attractionId, new AttractionSource(name, location, ratingCount != null ? ratingCount : 0));
+            return this;
+        }
+
+        public Builder addTag(long tagId, String name) {
+            tagNames.put(tagId, name);
+            return this;
+        }
+
+        public Builder addAttractionTag(long attractionId, long tagId) {
+            tagsByAttraction.computeIfAbsent(attractionId, id -> new ArrayList<>()).add(tagId);
+            return this;
+        }
+
+        public Builder addViews(long attractionId, long count) {
+            views.merge(attractionId, count, Long::sum);
+            return this;
+        }
+
+        public AttractionSuggestionIndex build() {
+            AttractionSuggestionIndex index = new AttractionSuggestionIndex();
+            index.bulkLoading = true;
+            tagNames.forEach(index::upsertTagLocked);
+            attractionSources.forEach((attractionId, source) -> index.upsertLocked(attractionId, source.name, source.location,
+                    tagsByAttraction.getOrDefault(attractionId, List.of()), source.ratingCount, views.getOrDefault(attractionId, 0L)));
+            index.bulkLoading = false;
+            index.trie.refreshAll();
+            return index;
+        }
+
+        private record AttractionSource(String name, String location, long ratingCount) {
+        }
+    }
+}
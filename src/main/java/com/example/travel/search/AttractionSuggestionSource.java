@@ -0,0 +1,16 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 输入联想索引所需的景点字段投影：名称、地点和评价数
+ */
+@Data
+@AllArgsConstructor
+public class AttractionSuggestionSource {
+    private Long attractionId;
+    private String name;
+    private String location;
+    private Integer ratingCount;
+}
@@ -0,0 +1,19 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 全文索引所需的景点字段投影：参与检索的文本字段，以及与关键字组合使用的类别和评分过滤条件
+ */
+@Data
+@AllArgsConstructor
+public class AttractionText {
+    private Long attractionId;
+    private String name;
+    private String description;
+    private String location;
+    private String address;
+    private String category;
+    private Double averageRating;
+}
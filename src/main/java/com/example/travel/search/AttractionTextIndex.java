@@ -0,0 +1,445 @@
+package com.example.travel.search;
+
+import com.example.travel.recommendation.IdDictionary;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.recommendation.SparseRow;
+import com.example.travel.recommendation.TopKSelector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 景点的内存全文倒排索引，按 BM25 打分。
+ * <p>
+ * 名称、描述、地点、地址分别分词 ({@link TextTokenizer})，词频按字段权重合并 (简化的 BM25F)，文档长度同样按权重累加。
+ * 每个词项的倒排表是按景点序号升序的 int[] 加对应的 float[] 词频，不装箱。
+ * 查询要求全部词项命中：从最短的倒排表出发，在其他倒排表中二分推进求交集，
+ * 同时按类别、最低评分、标签 (任一) 过滤，再用有界堆取出一页。
+ * <p>
+ * 查询持有读锁，单个景点的增量更新持有写锁。
+ */
+public final class AttractionTextIndex {
+
+    /** 按相关度排序时使用的排序属性名 (不是实体字段，不能交给数据库排序) */
+    public static final String RELEVANCE = "relevance";
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // 名称命中比描述命中更能说明相关
+    private static final float NAME_WEIGHT = 3f;
+    private static final float LOCATION_WEIGHT = 1.5f;
+    private static final float ADDRESS_WEIGHT = 1f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdDictionary attractions;
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final BitSet liveAttractions = new BitSet();
+
+    // 以下按景点序号索引，只在持有锁时访问
+    private String[][] termsByAttraction; // 去重后的词项，更新或删除时据此清理倒排表
+    private float[] lengths;
+    private String[] categories; // 小写
+    private double[] averageRatings;
+    private long[][] tagsByAttraction; // 升序
+    private int liveCount;
+    private double totalLength;
+
+    private AttractionTextIndex(IdDictionary attractions) {
+        this.attractions = attractions;
+        int capacity = Math.max(16, attractions.size());
+        this.termsByAttraction = new String[capacity][];
+        this.lengths = new float[capacity];
+        this.categories = new String[capacity];
+        this.averageRatings = new double[capacity];
+        this.tagsByAttraction = new long[capacity][];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 包含关键字全部词项、且满足过滤条件的景点，按相关度降序分页 (相关度相同时 id 小的在前)
+     *
+     * @param category 类别 (不区分大小写)，null 表示不过滤
+     * @param minRating 最低平均评分，null 表示不过滤
+     * @param tagIds 带其中任一标签，null 或空表示不过滤
+     * @return 当前页的景点 id 与满足条件的景点总数
+     */
+    public RankedAttractions search(String keyword, String category, Float minRating, Collection<Long> tagIds,
+                                    int offset, int limit) {
+        Query query = Query.of(keyword, category, minRating, tagIds);
+        lock.readLock().lock();
+        try {
+            int capacity = (int) Math.min(liveCount, Math.max(0L, (long) offset + limit));
+            TopKSelector top = new TopKSelector(capacity);
+            int total = forEachMatch(query, top::offer);
+            SparseRow ranked = top.drainDescending();
+            List<Long> page = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int k = offset; k < ranked.size(); k++) {
+                page.add(attractions.idOf(ranked.indexAt(k)));
+            }
+            return new RankedAttractions(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 满足条件的全部景点 id (不排序)，供按其他字段排序的查询在数据库中按主键过滤
+     */
+    public long[] matchingIds(String keyword, String category, Float minRating, Collection<Long> tagIds) {
+        Query query = Query.of(keyword, category, minRating, tagIds);
+        lock.readLock().lock();
+        try {
+            IdCollector collector = new IdCollector();
+            forEachMatch(query, collector);
+            return collector.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或修改景点：重新分词并替换其倒排表条目、类别、评分和标签
+     */
+    public void upsertAttraction(AttractionText text, Collection<Long> tagIds) {
+        lock.writeLock().lock();
+        try {
+            upsertLocked(text, tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateRating(long attractionId, Double averageRating) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = attractions.ordinalOf(attractionId);
+            if (ordinal >= 0 && liveAttractions.get(ordinal)) {
+                averageRatings[ordinal] = averageRating != null ? averageRating : 0.0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAttraction(long attractionId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = attractions.ordinalOf(attractionId);
+            if (ordinal >= 0) {
+                removeLocked(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int attractionCount() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postingsByTerm.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = attractions.estimatedHeapBytes();
+            for (Map.Entry<String, Postings> entry : postingsByTerm.entrySet()) {
+                // 词项字符串约 40 + 2n 字节，HashMap 条目约 32 字节，倒排表两个数组 8 字节/条
+                bytes += 72L + 2L * entry.getKey().length() + 8L * entry.getValue().ordinals.length;
+            }
+            bytes += 36L * lengths.length;
+            for (int ordinal = liveAttractions.nextSetBit(0); ordinal >= 0; ordinal = liveAttractions.nextSetBit(ordinal + 1)) {
+                bytes += 8L * termsByAttraction[ordinal].length + 8L * tagsByAttraction[ordinal].length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int forEachMatch(Query query, MatchConsumer consumer) {
+        if (query.terms.isEmpty() || liveCount == 0) {
+            return 0;
+        }
+        int n = query.terms.size();
+        Postings[] lists = new Postings[n];
+        int[] queryCounts = new int[n];
+        int k = 0;
+        for (Map.Entry<String, Integer> term : query.terms.entrySet()) {
+            Postings postings = postingsByTerm.get(term.getKey());
+            if (postings == null) {
+                return 0; // 有词项不在任何景点中
+            }
+            lists[k] = postings;
+            queryCounts[k++] = term.getValue();
+        }
+        sortByLength(lists, queryCounts);
+
+        float[] idf = new float[n];
+        for (int t = 0; t < n; t++) {
+            int df = lists[t].size;
+            idf[t] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+        }
+        float averageLength = (float) (totalLength / liveCount);
+        int[] cursors = new int[n];
+        int matches = 0;
+        Postings lead = lists[0];
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int ordinal = lead.ordinals[i];
+            for (int t = 1; t < n; t++) {
+                Postings other = lists[t];
+                int pos = Arrays.binarySearch(other.ordinals, cursors[t], other.size, ordinal);
+                if (pos < 0) {
+                    cursors[t] = -(pos + 1);
+                    if (cursors[t] == other.size) {
+                        break candidates; // 这个倒排表已经走完，后面不会再有交集
+                    }
+                    continue candidates;
+                }
+                cursors[t] = pos;
+            }
+            if (!query.accepts(ordinal, categories, averageRatings, tagsByAttraction)) {
+                continue;
+            }
+            float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+            float score = 0f;
+            for (int t = 0; t < n; t++) {
+                float tf = t == 0 ? lead.frequencies[i] : lists[t].frequencies[cursors[t]];
+                score += queryCounts[t] * idf[t] * tf * (K1 + 1) / (tf + norm);
+            }
+            consumer.accept(ordinal, score);
+            matches++;
+        }
+        return matches;
+    }
+
+    private void upsertLocked(AttractionText text, long[] tagIds) {
+        int ordinal = attractions.getOrAdd(text.getAttractionId());
+        ensureCapacity(ordinal + 1);
+        removeLocked(ordinal);
+
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float length = addField(frequencies, text.getName(), NAME_WEIGHT)
+                + addField(frequencies, text.getLocation(), LOCATION_WEIGHT)
+                + addField(frequencies, text.getAddress(), ADDRESS_WEIGHT)
+                + addField(frequencies, text.getDescription(), DESCRIPTION_WEIGHT);
+        for (Map.Entry<String, Float> term : frequencies.entrySet()) {
+            postingsByTerm.computeIfAbsent(term.getKey(), key -> new Postings()).put(ordinal, term.getValue());
+        }
+        termsByAttraction[ordinal] = frequencies.keySet().toArray(new String[0]);
+        lengths[ordinal] = length;
+        categories[ordinal] = text.getCategory() != null ? text.getCategory().toLowerCase(Locale.ROOT) : null;
+        averageRatings[ordinal] = text.getAverageRating() != null ? text.getAverageRating() : 0.0;
+        tagsByAttraction[ordinal] = tagIds;
+        liveAttractions.set(ordinal);
+        liveCount++;
+        totalLength += length;
+    }
+
+    private void removeLocked(int ordinal) {
+        if (!liveAttractions.get(ordinal)) {
+            return;
+        }
+        for (String term : termsByAttraction[ordinal]) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(ordinal);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+        totalLength -= lengths[ordinal];
+        liveCount--;
+        liveAttractions.clear(ordinal);
+        termsByAttraction[ordinal] = null;
+        tagsByAttraction[ordinal] = null;
+        categories[ordinal] = null;
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> terms = TextTokenizer.indexTerms(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+        return weight * terms.size();
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > lengths.length) {
+            int capacity = Math.max(count, lengths.length * 2);
+            termsByAttraction = Arrays.copyOf(termsByAttraction, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            averageRatings = Arrays.copyOf(averageRatings, capacity);
+            tagsByAttraction = Arrays.copyOf(tagsByAttraction, capacity);
+        }
+    }
+
+    // 词项数很少 (一次查询通常不超过十几个)，插入排序即可
+    private static void sortByLength(Postings[] lists, int[] queryCounts) {
+        for (int i = 1; i < lists.length; i++) {
+            for (int j = i; j > 0 && lists[j].size < lists[j - 1].size; j--) {
+                Postings postings = lists[j];
+                lists[j] = lists[j - 1];
+                lists[j - 1] = postings;
+                int count = queryCounts[j];
+                queryCounts[j] = queryCounts[j - 1];
+                queryCounts[j - 1] = count;
+            }
+        }
+    }
+
+    private interface MatchConsumer {
+        void accept(int ordinal, float score);
+    }
+
+    private final class IdCollector implements MatchConsumer {
+        private long[] ids = new long[16];
+        private int count;
+
+        @Override
+        public void accept(int ordinal, float score) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = attractions.idOf(ordinal);
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, count);
+        }
+    }
+
+    /**
+     * 一个词项的倒排表：按景点序号升序，加权词频与序号一一对应
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void put(int ordinal, float frequency) {
+            int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (pos >= 0) {
+                frequencies[pos] = frequency;
+                return;
+            }
+            pos = -(pos + 1);
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            // 全量构建按序号递增写入，总是追加在末尾
+            System.arraycopy(ordinals, pos, ordinals, pos + 1, size - pos);
+            System.arraycopy(frequencies, pos, frequencies, pos + 1, size - pos);
+            ordinals[pos] = ordinal;
+            frequencies[pos] = frequency;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, pos + 1, ordinals, pos, size - pos - 1);
+            System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    /**
+     * 分好词的关键字 (词项 → 在查询中出现的次数) 与过滤条件
+     */
+    private static final class Query {
+        private final Map<String, Integer> terms = new LinkedHashMap<>();
+        private String category;
+        private Float minRating;
+        private long[] tagIds;
+
+        static Query of(String keyword, String category, Float minRating, Collection<Long> tagIds) {
+            Query query = new Query();
+            for (String term : TextTokenizer.queryTerms(keyword)) {
+                query.terms.merge(term, 1, Integer::sum);
+            }
+            query.category = category != null && !category.isBlank() ? category.toLowerCase(Locale.ROOT) : null;
+            query.minRating = minRating;
+            query.tagIds = tagIds == null || tagIds.isEmpty() ? null
+                    : tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+            return query;
+        }
+
+        boolean accepts(int ordinal, String[] categories, double[] averageRatings, long[][] tagsByAttraction) {
+            if (category != null && !category.equals(categories[ordinal])) {
+                return false;
+            }
+            if (minRating != null && averageRatings[ordinal] < minRating) {
+                return false;
+            }
+            if (tagIds == null) {
+                return true;
+            }
+            for (long tagId : tagsByAttraction[ordinal]) {
+                if (Arrays.binarySearch(tagIds, tagId) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static final class Builder {
+        private final List<AttractionText> texts = new ArrayList<>();
+        private final Map<Long, List<Long>> tagsByAttraction = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(AttractionText text) {
+            texts.add(text);
+            return this;
+        }
+
+        public Builder addTag(long attractionId, long tagId) {
+            tagsByAttraction.computeIfAbsent(attractionId, id -> new ArrayList<>()).add(tagId);
+            return this;
+        }
+
+        public AttractionTextIndex build() {
+            long[] ids = texts.stream().mapToLong(AttractionText::getAttractionId).toArray();
+            AttractionTextIndex index = new AttractionTextIndex(IdDictionary.fromIds(ids, ids.length));
+            // 按 id 升序 (即序号顺序) 写入，倒排表只做追加
+            texts.sort((a, b) -> Long.compare(a.getAttractionId(), b.getAttractionId()));
+            for (AttractionText text : texts) {
+                List<Long> tagIds = tagsByAttraction.getOrDefault(text.getAttractionId(), List.of());
+                index.upsertLocked(text, tagIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray());
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * (景点, 浏览次数) 投影，构建输入联想索引时作为热度的一部分
+ */
+@Data
+@AllArgsConstructor
+public class AttractionViewCount {
+    private Long attractionId;
+    private Long views;
+}
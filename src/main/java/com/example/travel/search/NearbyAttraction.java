@@ -0,0 +1,16 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一条附近景点结果：景点 id 与到查询位置的球面距离
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NearbyAttraction {
+    private final long attractionId;
+    private final double distanceKm;
+}
@@ -0,0 +1,18 @@
+package com.example.travel.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 一条前缀补全结果：展示文本、来源、对应的景点或标签 id (地点为 null)，以及排序用的热度
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class Suggestion {
+    private final String text;
+    private final SuggestionType type;
+    private final Long id;
+    private final long weight;
+}
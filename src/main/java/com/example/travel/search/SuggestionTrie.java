@@ -0,0 +1,340 @@
+package com.example.travel.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 前缀补全用的压缩字典树 (radix tree)：不是词尾且只有一个子节点的节点与子节点合并，边上保存一段字符。
+ * 每个节点预先算好子树中排名最高的 N 个条目，查询只需走到前缀对应的节点直接取出，与条目总数无关。
+ * <p>
+ * 条目是调用方分配的 int 编号，排名由调用方提供的 {@link EntryOrder} 决定；
+ * 条目排名变化后调用 {@link #refresh} 沿它的路径自底向上重算。非线程安全，由调用方加锁。
+ */
+final class SuggestionTrie {
+
+    private static final int[] NO_ENTRIES = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * 条目的排名：返回负数表示 a 排在 b 前面
+     */
+    interface EntryOrder {
+        int compare(int a, int b);
+    }
+
+    private final int topN;
+    private final EntryOrder order;
+    private final Node root = new Node(new char[0]);
+    private int nodeCount = 1;
+
+    SuggestionTrie(int topN, EntryOrder order) {
+        this.topN = topN;
+        this.order = order;
+    }
+
+    /**
+     * 登记 key → entry，并重算路径上各节点的前 N 名
+     */
+    void put(String key, int entry) {
+        refresh(insert(key, entry));
+    }
+
+    /**
+     * 批量构建时只登记、不重算，全部登记完后调用一次 {@link #refreshAll}
+     */
+    void putWithoutRefresh(String key, int entry) {
+        insert(key, entry);
+    }
+
+    void remove(String key, int entry) {
+        List<Node> path = pathOf(key);
+        if (!reachesEnd(key, path)) {
+            return; // key 不存在
+        }
+        Node node = path.get(path.size() - 1);
+        node.entries = without(node.entries, entry);
+        // 自底向上清理：删掉空叶子，把不是词尾的单子节点与子节点合并
+        for (int d = path.size() - 1; d >= 1; d--) {
+            Node current = path.get(d);
+            Node parent = path.get(d - 1);
+            if (current.entries.length > 0) {
+                break;
+            }
+            if (current.children.length == 0) {
+                parent.children = withoutChild(parent.children, current);
+                nodeCount--;
+            } else if (current.children.length == 1) {
+                Node child = current.children[0];
+                child.label = concat(current.label, child.label);
+                replaceChild(parent, current, child);
+                nodeCount--;
+                break;
+            } else {
+                break;
+            }
+        }
+        refresh(pathOf(key));
+    }
+
+    /**
+     * key 对应条目的排名变化后重算路径上各节点的前 N 名
+     */
+    void refresh(String key) {
+        refresh(pathOf(key));
+    }
+
+    void refreshAll() {
+        refreshSubtree(root);
+    }
+
+    /**
+     * @return 以 prefix 开头的 key 中排名最高的至多 N 个条目，按排名顺序；调用方不得修改返回的数组
+     */
+    int[] top(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int idx = findChild(node, prefix.charAt(i));
+            if (idx < 0) {
+                return NO_ENTRIES;
+            }
+            Node child = node.children[idx];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return child.top; // 前缀在这条边上结束
+            }
+            if (common < child.label.length) {
+                return NO_ENTRIES;
+            }
+            node = child;
+            i += common;
+        }
+        return node.top;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    long estimatedHeapBytes() {
+        return estimatedHeapBytes(root);
+    }
+
+    private List<Node> insert(String key, int entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int idx = findChild(node, key.charAt(i));
+            if (idx < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                node.children = withChild(node.children, -(idx + 1), leaf);
+                nodeCount++;
+                path.add(leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[idx];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // 在公共前缀处拆分这条边
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                middle.top = child.top;
+                node.children[idx] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        if (!contains(node.entries, node.entries.length, entry)) {
+            node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            node.entries[node.entries.length - 1] = entry;
+        }
+        return path;
+    }
+
+    // 沿 key 尽量向下走，返回经过的节点 (含根)
+    private List<Node> pathOf(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int idx = findChild(node, key.charAt(i));
+            if (idx < 0) {
+                break;
+            }
+            Node child = node.children[idx];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                break;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        return path;
+    }
+
+    // path 的最后一个节点是否恰好对应整个 key
+    private static boolean reachesEnd(String key, List<Node> path) {
+        int length = 0;
+        for (Node node : path) {
+            length += node.label.length;
+        }
+        return length == key.length();
+    }
+
+    private void refresh(List<Node> path) {
+        for (int d = path.size() - 1; d >= 0; d--) {
+            recomputeTop(path.get(d));
+        }
+    }
+
+    private void refreshSubtree(Node node) {
+        for (Node child : node.children) {
+            refreshSubtree(child);
+        }
+        recomputeTop(node);
+    }
+
+    // 节点的前 N 名 = 本节点的词尾条目与各子节点前 N 名的合并 (同一条目可能经多个 key 出现，去重)
+    private void recomputeTop(Node node) {
+        int[] best = new int[topN];
+        int size = 0;
+        for (int entry : node.entries) {
+            size = offer(best, size, entry);
+        }
+        for (Node child : node.children) {
+            for (int entry : child.top) {
+                size = offer(best, size, entry);
+            }
+        }
+        node.top = size == 0 ? NO_ENTRIES : Arrays.copyOf(best, size);
+    }
+
+    private int offer(int[] best, int size, int entry) {
+        if (contains(best, size, entry)) {
+            return size;
+        }
+        if (size == topN && (topN == 0 || order.compare(entry, best[size - 1]) >= 0)) {
+            return size;
+        }
+        int pos = size < topN ? size : size - 1;
+        while (pos > 0 && order.compare(entry, best[pos - 1]) < 0) {
+            best[pos] = best[pos - 1];
+            pos--;
+        }
+        best[pos] = entry;
+        return size < topN ? size + 1 : size;
+    }
+
+    private static boolean contains(int[] entries, int size, int entry) {
+        for (int k = 0; k < size; k++) {
+            if (entries[k] == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 子节点按边的首字符升序
+    private static int findChild(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = node.children[mid].label[0];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int n = Math.min(label.length, key.length() - offset);
+        int k = 0;
+        while (k < n && label[k] == key.charAt(offset + k)) {
+            k++;
+        }
+        return k;
+    }
+
+    private static int[] without(int[] entries, int entry) {
+        for (int k = 0; k < entries.length; k++) {
+            if (entries[k] == entry) {
+                int[] copy = new int[entries.length - 1];
+                System.arraycopy(entries, 0, copy, 0, k);
+                System.arraycopy(entries, k + 1, copy, k, entries.length - k - 1);
+                return copy.length == 0 ? NO_ENTRIES : copy;
+            }
+        }
+        return entries;
+    }
+
+    private static Node[] withChild(Node[] children, int pos, Node child) {
+        Node[] copy = new Node[children.length + 1];
+        System.arraycopy(children, 0, copy, 0, pos);
+        copy[pos] = child;
+        System.arraycopy(children, pos, copy, pos + 1, children.length - pos);
+        return copy;
+    }
+
+    private static Node[] withoutChild(Node[] children, Node child) {
+        for (int k = 0; k < children.length; k++) {
+            if (children[k] == child) {
+                Node[] copy = new Node[children.length - 1];
+                System.arraycopy(children, 0, copy, 0, k);
+                System.arraycopy(children, k + 1, copy, k, children.length - k - 1);
+                return copy.length == 0 ? NO_CHILDREN : copy;
+            }
+        }
+        return children;
+    }
+
+    private static void replaceChild(Node parent, Node oldChild, Node newChild) {
+        for (int k = 0; k < parent.children.length; k++) {
+            if (parent.children[k] == oldChild) {
+                parent.children[k] = newChild;
+                return;
+            }
+        }
+    }
+
+    private static char[] concat(char[] a, char[] b) {
+        char[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    private static long estimatedHeapBytes(Node node) {
+        // 节点对象约 32 字节，四个数组各约 16 字节头部
+        long bytes = 32L + 64L + 2L * node.label.length + 4L * (node.children.length + node.entries.length + node.top.length);
+        for (Node child : node.children) {
+            bytes += estimatedHeapBytes(child);
+        }
+        return bytes;
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private int[] entries = NO_ENTRIES; // 在此结束的 key 对应的条目
+        private int[] top = NO_ENTRIES;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+    }
+}
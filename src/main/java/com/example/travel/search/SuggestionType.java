@@ -0,0 +1,10 @@
+package com.example.travel.search;
+
+/**
+ * 补全条目的来源
+ */
+public enum SuggestionType {
+    ATTRACTION, // 景点名称，id 为景点 id
+    LOCATION,   // 景点所在地点，没有 id
+    TAG         // 标签名称，id 为标签 id
+}
@@ -0,0 +1,102 @@
+package com.example.travel.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文检索的分词器。
+ * <p>
+ * 先做 NFKC 规范化 (全角字母数字转半角)，再按字符类别切分：
+ * 中日韩文字的连续段切成相邻二元组 (bigram)，拉丁字母和数字按词切分并转小写，其他字符视为分隔符。
+ * 索引侧另外为每个中日韩文字输出单字，使单个汉字的查询也能命中；
+ * 查询侧只有单字段落才输出单字，多字查询只用二元组，避免单字匹配拉低精度。
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * 索引用的词项 (可重复，重复次数即词频)
+     */
+    public static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, true, terms);
+        return terms;
+    }
+
+    /**
+     * 查询用的词项 (可重复)
+     */
+    public static List<String> queryTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, false, terms);
+        return terms;
+    }
+
+    /**
+     * 前缀补全用的规范化：NFKC、小写、连续空白合并为一个空格并去掉首尾空白
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static void tokenize(String text, boolean forIndex, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder word = new StringBuilder();
+        List<String> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, terms);
+                cjkRun.add(new String(Character.toChars(codePoint)));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, forIndex, terms);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, terms);
+                flushCjk(cjkRun, forIndex, terms);
+            }
+        }
+        flushWord(word, terms);
+        flushCjk(cjkRun, forIndex, terms);
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() > 0) {
+            terms.add(word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<String> run, boolean forIndex, List<String> terms) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (forIndex || run.size() == 1) {
+            terms.addAll(run);
+        }
+        for (int k = 0; k + 1 < run.size(); k++) {
+            terms.add(run.get(k) + run.get(k + 1));
+        }
+        run.clear();
+    }
+
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.travel.service;
+
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.dto.NearbyAttractionResponse;
+import com.example.travel.entity.Attraction;
+import com.example.travel.entity.Tag;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.exception.ExceptionUtils;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.search.AttractionGeoIndex;
+import com.example.travel.search.AttractionGeoPoint;
+import com.example.travel.search.NearbyAttraction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 维护景点坐标的内存空间索引 ({@link AttractionGeoIndex})，提供"附近景点"查询。
+ * 启动后在后台全量构建，之后随景点新增/修改/删除增量更新；距离计算全部在内存中完成，H2 与 MySQL 上行为一致。
+ * 索引就绪前附近景点查询返回空列表。
+ */
+@Service
+public class AttractionGeoIndexService extends BackgroundIndexService<AttractionGeoIndex, AttractionChangedEvent> {
+
+    public static final int MAX_NEARBY_LIMIT = 100;
+
+    private final AttractionRepository attractionRepository;
+    private final AttractionService attractionService;
+    private final Timer queryTimer;
+
+    @Autowired
+    public AttractionGeoIndexService(AttractionRepository attractionRepository,
+                                     AttractionService attractionService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        super("attraction-geo-index-builder", transactionManager);
+        this.attractionRepository = attractionRepository;
+        this.attractionService = attractionService;
+        this.queryTimer = Timer.builder("attraction.search.nearby")
+                .description("Time to answer one radius or k-nearest query against the in-memory spatial index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 附近景点，按距离升序：给出 radiusKm 时为半径内最近的 limit 个，否则为最近的 limit 个
+     *
+     * @param category 类别 (不区分大小写)，null 表示不过滤
+     * @param tagIds 带其中任一标签，null 或空表示不过滤
+     */
+    public List<NearbyAttractionResponse> findNearbyAttractions(double latitude, double longitude, Double radiusKm,
+                                                                int limit, String category, Collection<Long> tagIds) {
+        ExceptionUtils.throwIfInvalid(latitude >= -90 && latitude <= 90, "纬度必须在 -90 到 90 之间");
+        ExceptionUtils.throwIfInvalid(longitude >= -180 && longitude <= 180, "经度必须在 -180 到 180 之间");
+        ExceptionUtils.throwIfInvalid(radiusKm == null || radiusKm > 0, "搜索半径必须大于 0");
+        ExceptionUtils.throwIfInvalid(limit > 0, "返回数量必须大于 0");
+        AttractionGeoIndex current = currentIndex();
+        if (current == null) {
+            return new ArrayList<>();
+        }
+        int size = Math.min(limit, MAX_NEARBY_LIMIT);
+        long startNanos = System.nanoTime();
+        List<NearbyAttraction> nearby;
+        try {
+            nearby = radiusKm != null
+                    ? current.withinRadius(latitude, longitude, radiusKm, category, tagIds, size)
+                    : current.nearest(latitude, longitude, size, AttractionGeoIndex.MAX_DISTANCE_KM, category, tagIds);
+        } finally {
+            queryTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        Map<Long, AttractionResponse> attractions = attractionService.findAttractionResponsesInOrder(
+                        nearby.stream().map(NearbyAttraction::getAttractionId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(AttractionResponse::getId, attraction -> attraction));
+        List<NearbyAttractionResponse> responses = new ArrayList<>(nearby.size());
+        for (NearbyAttraction hit : nearby) {
+            AttractionResponse attraction = attractions.get(hit.getAttractionId());
+            if (attraction != null) { // 刚被删除、索引尚未更新
+                responses.add(new NearbyAttractionResponse(attraction, hit.getDistanceKm()));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * 半径内最近的至多 limit 个景点 (不过滤)，供推荐流水线的附近召回使用
+     *
+     * @return 索引尚未构建时为 null
+     */
+    public List<NearbyAttraction> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        AttractionGeoIndex current = currentIndex();
+        if (current == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            return current.withinRadius(latitude, longitude, radiusKm, null, null, limit);
+        } finally {
+            queryTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    protected AttractionGeoIndex buildIndex() {
+        AttractionGeoIndex.Builder builder = AttractionGeoIndex.builder();
+        attractionRepository.findAllAttractionGeoPoints().forEach(builder::add);
+        attractionRepository.findAllAttractionTagKeys().forEach(key -> builder.addTag(key.getAttractionId(), key.getTagId()));
+        return builder.build();
+    }
+
+    @Override
+    protected String describe(AttractionGeoIndex built) {
+        return String.format("%d attractions in %d cells (~%d KB)",
+                built.attractionCount(), built.cellCount(), built.estimatedHeapBytes() / 1024);
+    }
+
+    /**
+     * 景点新增/修改/删除后更新索引；评分变化不影响位置，忽略
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        if (event.getType() == AttractionChangeType.RATING) {
+            return;
+        }
+        handleChange(event);
+    }
+
+    @Override
+    protected void applyChange(AttractionGeoIndex current, AttractionChangedEvent event) {
+        Long attractionId = event.getAttractionId();
+        if (event.getType() == AttractionChangeType.DELETED) {
+            current.removeAttraction(attractionId);
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            List<Attraction> found = attractionRepository.findWithTagsByIdIn(List.of(attractionId));
+            if (found.isEmpty()) {
+                current.removeAttraction(attractionId);
+                return;
+            }
+            Attraction attraction = found.get(0);
+            List<Long> tagIds = attraction.getTags().stream().map(Tag::getId).collect(Collectors.toList());
+            current.upsertAttraction(new AttractionGeoPoint(attraction.getId(), attraction.getLatitude(),
+                    attraction.getLongitude(), attraction.getCategory()), tagIds);
+        });
+    }
+}
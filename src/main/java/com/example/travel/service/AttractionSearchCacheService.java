@@ -0,0 +1,96 @@
+package com.example.travel.service;
+
+import com.example.travel.cache.AttractionSearchDependencies;
+import com.example.travel.cache.AttractionSearchKey;
+import com.example.travel.cache.CacheNames;
+import com.example.travel.config.LocalCacheProperties;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 景点搜索结果缓存 (attractionSearch)，按依赖精确失效：景点变化只删除可能受影响的缓存页，
+ * 评价带来的评分变化不再清空整个搜索缓存。依赖判断见 {@link AttractionSearchDependencies}。
+ */
+@Slf4j
+@Service
+public class AttractionSearchCacheService {
+
+    private final Cache cache;
+    private final AttractionSearchDependencies dependencies;
+    // 每处理一次景点变化递增；加载期间发生过变化时，加载结果可能已经过时，返回后立即删除
+    private final AtomicLong changeGeneration = new AtomicLong();
+
+    @Autowired
+    public AttractionSearchCacheService(CacheManager cacheManager, LocalCacheProperties cacheProperties) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CacheNames.ATTRACTION_SEARCH),
+                "Cache '" + CacheNames.ATTRACTION_SEARCH + "' is not configured under local-cache.caches");
+        LocalCacheProperties.Spec spec = cacheProperties.getCaches().getOrDefault(CacheNames.ATTRACTION_SEARCH,
+                new LocalCacheProperties.Spec());
+        this.dependencies = new AttractionSearchDependencies(spec.getMaximumSize());
+    }
+
+    /**
+     * 返回缓存的搜索结果页，未命中时执行查询并登记页面中的景点；同一个键的并发未命中只查询一次。
+     * 删除都使用立即生效的 evictIfPresent/invalidate：事务感知的 evict 会推迟到提交后，在提交回调中调用时会丢失。
+     */
+    public Page<AttractionResponse> get(AttractionSearchKey key, Supplier<Page<AttractionResponse>> loader) {
+        LoadOutcome outcome = new LoadOutcome();
+        Page<AttractionResponse> page = cache.get(key, () -> {
+            long generation = changeGeneration.get();
+            Page<AttractionResponse> loaded = loader.get();
+            List<Long> attractionIds = loaded.getContent().stream()
+                    .map(AttractionResponse::getId)
+                    .collect(Collectors.toList());
+            outcome.overflow = dependencies.register(key, attractionIds);
+            outcome.stale = changeGeneration.get() != generation;
+            return loaded;
+        });
+        // 加载函数中不能修改缓存的其他条目，超出依赖上限的页面在加载完成后删除
+        outcome.overflow.forEach(cache::evictIfPresent);
+        if (outcome.stale) {
+            cache.evictIfPresent(key);
+            dependencies.remove(key);
+        }
+        return page;
+    }
+
+    /**
+     * 景点变化提交后删除受影响的搜索缓存页；事件没有携带变化前后的快照时清空整个搜索缓存
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        changeGeneration.incrementAndGet();
+        if (event.getBefore() == null && event.getAfter() == null) {
+            dependencies.clear();
+            cache.invalidate();
+            log.debug("AttractionSearchCacheService: cleared the search cache for {}", event);
+            return;
+        }
+        // 评分变化只影响评分和评分数，其他类型的修改可能涉及快照以外的字段
+        boolean untrackedFieldsChanged = event.getType() != AttractionChangeType.RATING;
+        List<AttractionSearchKey> affected = dependencies.removeAffectedBy(event.getBefore(), event.getAfter(), untrackedFieldsChanged);
+        affected.forEach(cache::evictIfPresent);
+        log.debug("AttractionSearchCacheService: evicted {} search pages for {}, {} pages still cached",
+                affected.size(), event, dependencies.size());
+    }
+
+    private static final class LoadOutcome {
+        private List<AttractionSearchKey> overflow = List.of();
+        private boolean stale;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.travel.service;
 
+import com.example.travel.cache.AttractionSearchKey;
+import com.example.travel.cache.CacheNames;
 import com.example.travel.dto.AttractionCreateRequest;
 import com.example.travel.dto.AttractionResponse;
 import com.example.travel.dto.AttractionUpdateRequest;
@@ -8,14 +10,22 @@ import com.example.travel.entity.Attraction;
 import com.example.travel.entity.Tag;
 import com.example.travel.entity.User;
 import com.example.travel.entity.UserActivityLog;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.event.AttractionSnapshot;
+import com.example.travel.event.AttractionViewedEvent;
 import com.example.travel.exception.ResourceNotFoundException;
+import com.example.travel.recommendation.RankedAttractions;
 import com.example.travel.repository.AttractionRepository;
 import com.example.travel.repository.ReviewRepository; // Needed for calculating average rating
 import com.example.travel.repository.UserActivityLogRepository;
+import com.example.travel.search.AttractionTextIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -26,31 +36,49 @@ import org.springframework.util.StringUtils; // For StringUtils.hasText
 
 import jakarta.persistence.criteria.Predicate; // For JPA Criteria API
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class AttractionService {
 
+    // 关键字命中的景点超过这个数量时，按其他字段排序的查询改走数据库 LIKE，避免过长的 IN 列表
+    private static final int MAX_MATCHED_IDS_FOR_SORTED_SEARCH = 10_000;
+
     private final AttractionRepository attractionRepository;
     private final TagService tagService; // Inject TagService for tag operations and DTO conversion
     private final ReviewRepository reviewRepository; // For calculating average rating
 
     private final UserActivityLogRepository userActivityLogRepository;
     private final UserService userService; // To get current authenticated user if not passed directly
+    private final ApplicationEventPublisher eventPublisher; // 通知内存中的景点索引
+    private final PopularityLeaderboardService popularityLeaderboardService;
+    private final AttractionSearchCacheService attractionSearchCacheService;
+    private final AttractionTextIndexService attractionTextIndexService;
     @Autowired
     public AttractionService(AttractionRepository attractionRepository,
                              TagService tagService,
                              ReviewRepository reviewRepository,
                              UserActivityLogRepository userActivityLogRepository,
-                             UserService userService) {
+                             UserService userService,
+                             ApplicationEventPublisher eventPublisher,
+                             PopularityLeaderboardService popularityLeaderboardService,
+                             AttractionSearchCacheService attractionSearchCacheService,
+                             AttractionTextIndexService attractionTextIndexService) {
         this.attractionRepository = attractionRepository;
         this.tagService = tagService;
         this.reviewRepository = reviewRepository;
         this.userActivityLogRepository = userActivityLogRepository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.popularityLeaderboardService = popularityLeaderboardService;
+        this.attractionSearchCacheService = attractionSearchCacheService;
+        this.attractionTextIndexService = attractionTextIndexService;
     }
 
 
@@ -97,7 +125,7 @@ public class AttractionService {
     // --- CRUD Operations ---
 
     @Transactional
-    @CacheEvict(value = {"popularAttractions", "attractionSearch"}, allEntries = true) // Evict cache on create
+    @CacheEvict(value = CacheNames.POPULAR_ATTRACTIONS_PAGE, allEntries = true) // Evict cache on create; search pages are evicted by dependency
     public AttractionResponse createAttraction(AttractionCreateRequest request) {
         Attraction attraction = new Attraction();
         mapRequestToAttraction(request, attraction); // Helper to map fields
@@ -113,6 +141,8 @@ public class AttractionService {
         attraction.setRatingCount(0);
 
         Attraction savedAttraction = attractionRepository.save(attraction);
+        eventPublisher.publishEvent(new AttractionChangedEvent(savedAttraction.getId(), AttractionChangeType.CREATED,
+                null, AttractionSnapshot.of(savedAttraction)));
         return convertToAttractionResponse(savedAttraction);
     }
 
@@ -127,6 +157,7 @@ public class AttractionService {
             UserActivityLog log = new UserActivityLog(currentUser, attraction, "VIEW_ATTRACTION", "Viewed attraction details for ID: " + id);
             userActivityLogRepository.save(log);
         }
+        eventPublisher.publishEvent(new AttractionViewedEvent(currentUser != null ? currentUser.getId() : null, id)); // 热度计数
         return convertToAttractionResponse(attraction);
     }
 
@@ -139,10 +170,11 @@ public class AttractionService {
 
 
     @Transactional
-    @CacheEvict(value = {"popularAttractions", "attractionSearch"}, allEntries = true) // Evict cache on update
+    @CacheEvict(value = CacheNames.POPULAR_ATTRACTIONS_PAGE, allEntries = true) // Evict cache on update; search pages are evicted by dependency
     public AttractionResponse updateAttraction(Long id, AttractionUpdateRequest request) {
         Attraction attraction = attractionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Attraction not found with id: " + id));
+        AttractionSnapshot before = AttractionSnapshot.of(attraction); // Searchable fields before the change, for search cache invalidation
 
         mapRequestToAttraction(request, attraction); // Helper to map fields (can be a common private method)
 
@@ -156,11 +188,12 @@ public class AttractionService {
         }
 
         Attraction updatedAttraction = attractionRepository.save(attraction);
+        eventPublisher.publishEvent(new AttractionChangedEvent(id, AttractionChangeType.UPDATED, before, AttractionSnapshot.of(updatedAttraction)));
         return convertToAttractionResponse(updatedAttraction);
     }
 
     @Transactional
-    @CacheEvict(value = {"popularAttractions", "attractionSearch"}, allEntries = true) // Evict cache on delete
+    @CacheEvict(value = CacheNames.POPULAR_ATTRACTIONS_PAGE, allEntries = true) // Evict cache on delete; search pages are evicted by dependency
     public void deleteAttraction(Long id) {
         Attraction attraction = attractionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Attraction not found with id: " + id));
@@ -170,27 +203,93 @@ public class AttractionService {
         // - Favorites related to this attraction? (CASCADE delete by DB on user_favorites if attraction_id FK is set up, or manually remove)
         // - ItineraryAttractions? (CASCADE delete by DB on itinerary_attractions if attraction_id FK is set up, or manually remove)
         // For now, a direct delete. The @ManyToMany tags relationship will have its join table entries removed.
+        AttractionSnapshot before = AttractionSnapshot.of(attraction);
         attractionRepository.delete(attraction);
+        eventPublisher.publishEvent(new AttractionChangedEvent(id, AttractionChangeType.DELETED, before, null));
     }
 
     // --- Search and other methods ---
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "attractionSearch", key = "#keyword + '-' + #category + '-' + #minRating + '-' + #tagIds?.toString() + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
-    public Page<AttractionResponse> searchAttractions(
-            String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
-
+    // Search activity is logged separately so that it is recorded on cache hits as well
+    @Transactional
+    public void recordSearchActivity(String keyword, String category, Float minRating, List<Long> tagIds) {
         User currentUser = userService.getCurrentAuthenticatedUser();
         if (currentUser != null) {
             String searchDetails = String.format("Keyword: %s, Category: %s, MinRating: %s, TagIds: %s", keyword, category, minRating, tagIds);
             UserActivityLog log = new UserActivityLog(currentUser, null, "SEARCH_ATTRACTIONS", searchDetails); // No specific attraction for a search query
             userActivityLogRepository.save(log);
         }
+    }
+
+    // Keyed on all arguments; the pageable includes the sort, so differently sorted pages are cached separately.
+    // Each cached page records the attractions it contains, so a change to one attraction only evicts the pages it can affect.
+    @Transactional(readOnly = true)
+    public Page<AttractionResponse> searchAttractions(
+            String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
+        return attractionSearchCacheService.get(new AttractionSearchKey(keyword, category, minRating, tagIds, pageable),
+                () -> findAttractions(keyword, category, minRating, tagIds, pageable));
+    }
+
+    private Page<AttractionResponse> findAttractions(
+            String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
+        if (StringUtils.hasText(keyword)) {
+            Page<AttractionResponse> indexed = findAttractionsByText(keyword, category, minRating, tagIds, pageable);
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+        return findAttractionsInDatabase(keyword, category, minRating, tagIds, withoutRelevanceSort(pageable));
+    }
+
+    // Keyword searches go to the in-memory full-text index: relevance-sorted pages come straight from the index,
+    // other sorts filter the database query by the matched ids. Returns null while the index is not built yet.
+    private Page<AttractionResponse> findAttractionsByText(
+            String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted() || sort.getOrderFor(AttractionTextIndex.RELEVANCE) != null) {
+            RankedAttractions ranked = attractionTextIndexService.search(
+                    keyword, category, minRating, tagIds, (int) pageable.getOffset(), pageable.getPageSize());
+            if (ranked == null) {
+                return null;
+            }
+            return new PageImpl<>(findAttractionResponsesInOrder(ranked.getAttractionIds()), pageable, ranked.getTotalElements());
+        }
+        long[] matchedIds = attractionTextIndexService.matchingIds(keyword, category, minRating, tagIds);
+        if (matchedIds == null || matchedIds.length > MAX_MATCHED_IDS_FOR_SORTED_SEARCH) {
+            return null;
+        }
+        if (matchedIds.length == 0) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        List<Long> ids = Arrays.stream(matchedIds).boxed().collect(Collectors.toList());
+        Specification<Attraction> spec = (root, query, criteriaBuilder) -> root.get("id").in(ids);
+        return convertToAttractionResponsePage(attractionRepository.findAll(spec, pageable));
+    }
+
+    // "relevance" is not an entity property; without the index the database query falls back to id order
+    private Pageable withoutRelevanceSort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor(AttractionTextIndex.RELEVANCE) == null) {
+            return pageable;
+        }
+        Sort remaining = Sort.by(sort.stream()
+                .filter(order -> !order.getProperty().equals(AttractionTextIndex.RELEVANCE))
+                .collect(Collectors.toList()));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), remaining.isSorted() ? remaining : Sort.by("id"));
+    }
+
+    private Page<AttractionResponse> findAttractionsInDatabase(
+            String keyword, String category, Float minRating, List<Long> tagIds, Pageable pageable) {
         Specification<Attraction> spec = (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (StringUtils.hasText(keyword)) {
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + keyword.toLowerCase() + "%"));
+                String pattern = "%" + keyword.toLowerCase() + "%";
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), pattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), pattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("location")), pattern),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("address")), pattern)));
             }
             if (StringUtils.hasText(category)) {
                 predicates.add(criteriaBuilder.equal(criteriaBuilder.lower(root.get("category")), category.toLowerCase()));
@@ -220,18 +319,35 @@ public class AttractionService {
 
     // In AttractionService.java
     @Transactional(readOnly = true)
-    @Cacheable("popularAttractionsPage") // Use a different cache name if signature changes
+    @Cacheable(value = CacheNames.POPULAR_ATTRACTIONS_PAGE, sync = true)
     public Page<AttractionResponse> getPopularAttractions(Pageable pageable) { // Changed parameter to Pageable
-        Page<Attraction> popularPage = attractionRepository.findByOrderByAverageRatingDescRatingCountDesc(pageable);
-        return popularPage.map(this::convertToAttractionResponse); // Use the existing page map function
+        // 排行来自内存中的排行榜，只按主键取这一页的景点
+        RankedAttractions ranking = popularityLeaderboardService.popularAttractions(pageable.getPageNumber(), pageable.getPageSize());
+        return new PageImpl<>(findAttractionResponsesInOrder(ranking.getAttractionIds()), pageable, ranking.getTotalElements());
+    }
+
+    // 按给定顺序返回景点，标签随景点一次取回；不存在的 id 被跳过
+    @Transactional(readOnly = true)
+    public List<AttractionResponse> findAttractionResponsesInOrder(List<Long> attractionIds) {
+        if (attractionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Attraction> attractionMap = attractionRepository.findWithTagsByIdIn(attractionIds).stream()
+                .collect(Collectors.toMap(Attraction::getId, attraction -> attraction));
+        return attractionIds.stream()
+                .map(attractionMap::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToAttractionResponse)
+                .collect(Collectors.toList());
     }
 
     // Method to be called by ReviewService when a review is added/updated/deleted
     @Transactional
-    @CacheEvict(value = {"popularAttractions", "attractionSearch"}, allEntries = true)
+    @CacheEvict(value = CacheNames.POPULAR_ATTRACTIONS_PAGE, allEntries = true)
     public void updateAttractionRatingAndCount(Long attractionId) {
         Attraction attraction = attractionRepository.findById(attractionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attraction not found with id: " + attractionId + " for rating update."));
+        AttractionSnapshot before = AttractionSnapshot.of(attraction);
 
         Double newAverageRating = reviewRepository.calculateAverageRatingByAttractionId(attractionId);
         Integer newRatingCount = reviewRepository.countReviewsByAttractionId(attractionId);
@@ -239,6 +355,7 @@ public class AttractionService {
         attraction.setAverageRating(newAverageRating != null ? newAverageRating : 0.0);
         attraction.setRatingCount(newRatingCount != null ? newRatingCount : 0);
         attractionRepository.save(attraction);
+        eventPublisher.publishEvent(new AttractionChangedEvent(attractionId, AttractionChangeType.RATING, before, AttractionSnapshot.of(attraction)));
     }
 
     // --- Private Helper Methods for mapping DTO to Entity ---
@@ -0,0 +1,176 @@
+package com.example.travel.service;
+
+import com.example.travel.dto.SuggestionResponse;
+import com.example.travel.entity.Attraction;
+import com.example.travel.entity.Tag;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.event.AttractionSnapshot;
+import com.example.travel.event.AttractionViewedEvent;
+import com.example.travel.event.TagChangedEvent;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.repository.TagRepository;
+import com.example.travel.repository.UserActivityLogRepository;
+import com.example.travel.search.AttractionSuggestionIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 维护搜索框输入联想的内存索引 ({@link AttractionSuggestionIndex})。
+ * 启动后在后台全量构建，之后随景点、标签变化增量更新，浏览数定期批量计入；索引就绪前返回空列表，不回退到数据库。
+ */
+@Service
+public class AttractionSuggestionService extends BackgroundIndexService<AttractionSuggestionIndex, Object> {
+
+    private final AttractionRepository attractionRepository;
+    private final TagRepository tagRepository;
+    private final UserActivityLogRepository userActivityLogRepository;
+    // 尚未计入索引的浏览次数
+    private final ConcurrentHashMap<Long, Long> pendingViews = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AttractionSuggestionService(AttractionRepository attractionRepository,
+                                       TagRepository tagRepository,
+                                       UserActivityLogRepository userActivityLogRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        super("attraction-suggestion-index-builder", transactionManager);
+        this.attractionRepository = attractionRepository;
+        this.tagRepository = tagRepository;
+        this.userActivityLogRepository = userActivityLogRepository;
+
+        Gauge.builder("attraction.suggest.memory", this, service -> indexStat(AttractionSuggestionIndex::estimatedHeapBytes))
+                .description("Estimated heap used by the in-memory suggestion trie and its entries")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("attraction.suggest.entries", this, service -> indexStat(AttractionSuggestionIndex::entryCount))
+                .description("Attraction, location and tag names in the suggestion index")
+                .register(meterRegistry);
+        Gauge.builder("attraction.suggest.nodes", this, service -> indexStat(AttractionSuggestionIndex::nodeCount))
+                .description("Nodes of the compressed suggestion trie")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 以 prefix 开头的景点名、地点、标签名，按热度降序
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        AttractionSuggestionIndex current = currentIndex();
+        if (current == null) {
+            return List.of();
+        }
+        return current.suggest(prefix, Math.min(limit, AttractionSuggestionIndex.TOP_N)).stream()
+                .map(suggestion -> new SuggestionResponse(suggestion.getText(), suggestion.getType(), suggestion.getId(), suggestion.getWeight()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected AttractionSuggestionIndex buildIndex() {
+        pendingViews.clear(); // 之前的浏览已经记录在活动日志中
+        AttractionSuggestionIndex.Builder builder = AttractionSuggestionIndex.builder();
+        tagRepository.findAll().forEach(tag -> builder.addTag(tag.getId(), tag.getName()));
+        attractionRepository.findAllAttractionSuggestionSources().forEach(source ->
+                builder.addAttraction(source.getAttractionId(), source.getName(), source.getLocation(), source.getRatingCount()));
+        attractionRepository.findAllAttractionTagKeys().forEach(key -> builder.addAttractionTag(key.getAttractionId(), key.getTagId()));
+        userActivityLogRepository.countViewsByAttraction().forEach(count -> builder.addViews(count.getAttractionId(), count.getViews()));
+        return builder.build();
+    }
+
+    @Override
+    protected String describe(AttractionSuggestionIndex built) {
+        return String.format("%d names in %d trie nodes (~%d KB)",
+                built.entryCount(), built.nodeCount(), built.estimatedHeapBytes() / 1024);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        handleChange(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        handleChange(event);
+    }
+
+    // 浏览只累加计数，定期批量计入
+    @EventListener
+    public void onAttractionViewed(AttractionViewedEvent event) {
+        pendingViews.merge(event.getAttractionId(), 1L, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest.view-flush-interval-seconds:30}",
+            initialDelayString = "${search.suggest.view-flush-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void flushViews() {
+        AttractionSuggestionIndex current = currentIndex();
+        if (current == null || pendingViews.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> drained = new HashMap<>();
+        for (Long attractionId : pendingViews.keySet()) {
+            Long views = pendingViews.remove(attractionId);
+            if (views != null) {
+                drained.put(attractionId, views);
+            }
+        }
+        current.addViews(drained);
+    }
+
+    @Override
+    protected void applyChange(AttractionSuggestionIndex current, Object change) {
+        if (change instanceof AttractionChangedEvent event) {
+            applyAttractionChange(current, event);
+        } else if (change instanceof TagChangedEvent event) {
+            readOnlyTransaction.executeWithoutResult(status -> tagRepository.findById(event.getTagId()).ifPresentOrElse(
+                    tag -> current.upsertTag(tag.getId(), tag.getName()),
+                    () -> current.removeTag(event.getTagId())));
+        }
+    }
+
+    private void applyAttractionChange(AttractionSuggestionIndex current, AttractionChangedEvent event) {
+        Long attractionId = event.getAttractionId();
+        if (event.getType() == AttractionChangeType.DELETED) {
+            current.removeAttraction(attractionId);
+            return;
+        }
+        AttractionSnapshot after = event.getAfter();
+        if (after != null) {
+            // 快照已包含名称、地点、标签和评价数，不需要再查库
+            if (event.getType() == AttractionChangeType.RATING) {
+                current.updateRatingCount(attractionId, after.getRatingCount());
+            } else {
+                current.upsertAttraction(attractionId, after.getName(), after.getLocation(), after.getTagIds(), after.getRatingCount());
+            }
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            List<Attraction> found = attractionRepository.findWithTagsByIdIn(List.of(attractionId));
+            if (found.isEmpty()) {
+                current.removeAttraction(attractionId);
+                return;
+            }
+            Attraction attraction = found.get(0);
+            List<Long> tagIds = attraction.getTags().stream().map(Tag::getId).collect(Collectors.toList());
+            current.upsertAttraction(attractionId, attraction.getName(), attraction.getLocation(), tagIds, attraction.getRatingCount());
+        });
+    }
+
+    private double indexStat(ToLongFunction<AttractionSuggestionIndex> stat) {
+        AttractionSuggestionIndex current = currentIndex();
+        return current != null ? stat.applyAsLong(current) : 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.travel.service;
+
+import com.example.travel.entity.Attraction;
+import com.example.travel.entity.Tag;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
+import com.example.travel.recommendation.AttractionTagIndex;
+import com.example.travel.recommendation.InteractionKey;
+import com.example.travel.recommendation.InteractionRating;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.repository.ReviewRepository;
+import com.example.travel.repository.UserFavoriteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 维护内存中的标签 → 景点位图索引 ({@link AttractionTagIndex})。
+ * 启动后在后台全量构建，之后随景点变化和用户评价/收藏增量更新；索引就绪前基于偏好的推荐仍走数据库查询。
+ */
+@Service
+public class AttractionTagIndexService extends BackgroundIndexService<AttractionTagIndex, Object> {
+
+    private final AttractionRepository attractionRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    public AttractionTagIndexService(AttractionRepository attractionRepository,
+                                     ReviewRepository reviewRepository,
+                                     UserFavoriteRepository userFavoriteRepository,
+                                     PlatformTransactionManager transactionManager) {
+        super("attraction-tag-index-builder", transactionManager);
+        this.attractionRepository = attractionRepository;
+        this.reviewRepository = reviewRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+    }
+
+    @Override
+    protected AttractionTagIndex buildIndex() {
+        AttractionTagIndex.Builder builder = AttractionTagIndex.builder(attractionRepository.findAllAttractionRatings());
+        attractionRepository.findAllAttractionTagKeys().forEach(key -> builder.addTag(key.getAttractionId(), key.getTagId()));
+        try (Stream<InteractionRating> reviews = reviewRepository.streamAllInteractionRatings()) {
+            reviews.forEach(review -> builder.addInteraction(review.getUserId(), review.getAttractionId()));
+        }
+        try (Stream<InteractionKey> favorites = userFavoriteRepository.streamAllInteractionKeys()) {
+            favorites.forEach(favorite -> builder.addInteraction(favorite.getUserId(), favorite.getAttractionId()));
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected String describe(AttractionTagIndex built) {
+        return String.format("%d attractions, %d tags, %d users (~%d KB)",
+                built.attractionCount(), built.tagCount(), built.userCount(), built.estimatedHeapBytes() / 1024);
+    }
+
+    /**
+     * 景点新增/修改/删除或评分变化后更新索引。先于推荐结果缓存的作废执行。
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        handleChange(event);
+    }
+
+    /**
+     * 用户评价/收藏变化后更新其"已交互"位图 (行程不影响基于偏好的推荐)
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        if (event.getType() == InteractionType.ITINERARY) {
+            return;
+        }
+        handleChange(event);
+    }
+
+    @Override
+    protected void applyChange(AttractionTagIndex current, Object change) {
+        if (change instanceof AttractionChangedEvent event) {
+            applyAttractionChange(current, event);
+        } else if (change instanceof InteractionChangedEvent event) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                boolean interacted = reviewRepository.findRatingByUserIdAndAttractionId(event.getUserId(), event.getAttractionId()).isPresent()
+                        || userFavoriteRepository.existsByUser_IdAndAttraction_Id(event.getUserId(), event.getAttractionId());
+                current.setInteracted(event.getUserId(), event.getAttractionId(), interacted);
+            });
+        }
+    }
+
+    private void applyAttractionChange(AttractionTagIndex current, AttractionChangedEvent event) {
+        Long attractionId = event.getAttractionId();
+        if (event.getType() == AttractionChangeType.DELETED) {
+            current.removeAttraction(attractionId);
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            if (event.getType() == AttractionChangeType.RATING) {
+                attractionRepository.findById(attractionId).ifPresentOrElse(
+                        attraction -> current.updateRating(attractionId, attraction.getAverageRating(), attraction.getRatingCount()),
+                        () -> current.removeAttraction(attractionId));
+                return;
+            }
+            List<Attraction> found = attractionRepository.findWithTagsByIdIn(List.of(attractionId));
+            if (found.isEmpty()) {
+                current.removeAttraction(attractionId);
+                return;
+            }
+            Attraction attraction = found.get(0);
+            List<Long> tagIds = attraction.getTags().stream().map(Tag::getId).collect(Collectors.toList());
+            current.upsertAttraction(attractionId, tagIds, attraction.getAverageRating(), attraction.getRatingCount());
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.travel.service;
+
+import com.example.travel.entity.Attraction;
+import com.example.travel.entity.Tag;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.search.AttractionText;
+import com.example.travel.search.AttractionTextIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 维护内存中的景点全文索引 ({@link AttractionTextIndex})。
+ * 启动后在后台全量构建，之后随景点变化增量更新；索引就绪前关键字搜索仍走数据库 LIKE 查询。
+ */
+@Service
+public class AttractionTextIndexService extends BackgroundIndexService<AttractionTextIndex, AttractionChangedEvent> {
+
+    private final AttractionRepository attractionRepository;
+    private final Timer queryTimer;
+
+    @Autowired
+    public AttractionTextIndexService(AttractionRepository attractionRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        super("attraction-text-index-builder", transactionManager);
+        this.attractionRepository = attractionRepository;
+        this.queryTimer = Timer.builder("attraction.search.text")
+                .description("Time to match and rank one keyword query against the in-memory full-text index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按相关度分页检索
+     *
+     * @return 当前页的景点 id 与总数，索引尚未构建时为 null
+     */
+    public RankedAttractions search(String keyword, String category, Float minRating, Collection<Long> tagIds,
+                                    int offset, int limit) {
+        AttractionTextIndex current = currentIndex();
+        if (current == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            return current.search(keyword, category, minRating, tagIds, offset, limit);
+        } finally {
+            queryTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 满足条件的全部景点 id
+     *
+     * @return 索引尚未构建时为 null
+     */
+    public long[] matchingIds(String keyword, String category, Float minRating, Collection<Long> tagIds) {
+        AttractionTextIndex current = currentIndex();
+        if (current == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            return current.matchingIds(keyword, category, minRating, tagIds);
+        } finally {
+            queryTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    protected AttractionTextIndex buildIndex() {
+        AttractionTextIndex.Builder builder = AttractionTextIndex.builder();
+        try (Stream<AttractionText> texts = attractionRepository.streamAllAttractionTexts()) {
+            texts.forEach(builder::add);
+        }
+        attractionRepository.findAllAttractionTagKeys().forEach(key -> builder.addTag(key.getAttractionId(), key.getTagId()));
+        return builder.build();
+    }
+
+    @Override
+    protected String describe(AttractionTextIndex built) {
+        return String.format("%d attractions, %d terms (~%d KB)",
+                built.attractionCount(), built.termCount(), built.estimatedHeapBytes() / 1024);
+    }
+
+    /**
+     * 景点新增/修改/删除或评分变化后更新索引。先于搜索缓存的作废执行，重新加载的缓存页读到的是新索引。
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        handleChange(event);
+    }
+
+    @Override
+    protected void applyChange(AttractionTextIndex current, AttractionChangedEvent event) {
+        Long attractionId = event.getAttractionId();
+        if (event.getType() == AttractionChangeType.DELETED) {
+            current.removeAttraction(attractionId);
+            return;
+        }
+        if (event.getType() == AttractionChangeType.RATING && event.getAfter() != null) {
+            current.updateRating(attractionId, event.getAfter().getAverageRating());
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            List<Attraction> found = attractionRepository.findWithTagsByIdIn(List.of(attractionId));
+            if (found.isEmpty()) {
+                current.removeAttraction(attractionId);
+                return;
+            }
+            Attraction attraction = found.get(0);
+            List<Long> tagIds = attraction.getTags().stream().map(Tag::getId).collect(Collectors.toList());
+            current.upsertAttraction(new AttractionText(attraction.getId(), attraction.getName(), attraction.getDescription(),
+                    attraction.getLocation(), attraction.getAddress(), attraction.getCategory(), attraction.getAverageRating()), tagIds);
+        });
+    }
+}
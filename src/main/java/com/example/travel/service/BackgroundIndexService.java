@@ -0,0 +1,121 @@
+package com.example.travel.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在后台构建、随变更增量维护的内存索引的公共生命周期：应用就绪后在单独的守护线程上全量构建，
+ * 构建期间到达的变更先排队，索引发布后重放；此后的变更直接应用到当前索引。
+ * 子类只提供全量构建 ({@link #buildIndex()}) 和单条变更的处理 ({@link #applyChange(Object, Object)})，
+ * 并在自己的事件监听中调用 {@link #handleChange(Object)}。
+ *
+ * @param <I> 索引类型
+ * @param <C> 变更 (事件) 类型
+ */
+@Slf4j
+public abstract class BackgroundIndexService<I, C> {
+
+    private final String name;
+    protected final TransactionTemplate readOnlyTransaction;
+
+    private volatile I index;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    // 构建期间到达的变化，索引发布后重放 (处理是幂等的)
+    private final Queue<C> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final ExecutorService indexBuilder;
+
+    /**
+     * @param builderThreadName 构建线程的名称
+     */
+    protected BackgroundIndexService(String builderThreadName, PlatformTransactionManager transactionManager) {
+        this.name = getClass().getSimpleName();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // 事件监听在原事务提交后执行，需要独立的新事务读取最新数据
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.indexBuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, builderThreadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return 当前索引，首次构建完成前为 null
+     */
+    public I currentIndex() {
+        return index;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        indexBuilder.submit(this::rebuildIndex);
+    }
+
+    @PreDestroy
+    public void shutdownIndexBuilder() {
+        indexBuilder.shutdownNow();
+    }
+
+    /**
+     * 在只读事务中从数据库全量构建索引
+     */
+    protected abstract I buildIndex();
+
+    /**
+     * 把一条变更应用到已发布的索引上，须是幂等的 (构建期间的变更会在发布后重放)
+     */
+    protected abstract void applyChange(I index, C change);
+
+    /**
+     * 构建完成后日志中的索引规模，如景点数和估算的内存占用
+     */
+    protected abstract String describe(I index);
+
+    /**
+     * 子类在事务提交后的事件监听中调用
+     */
+    protected void handleChange(C change) {
+        if (building.get()) {
+            pendingChanges.add(change);
+        }
+        applyToCurrent(change);
+    }
+
+    private void rebuildIndex() {
+        building.set(true);
+        try {
+            long start = System.currentTimeMillis();
+            I built = readOnlyTransaction.execute(status -> buildIndex());
+            index = built;
+            log.info("{}: indexed {} in {} ms", name, describe(built), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("{}: failed to build the index, queries keep using the fallback", name, e);
+        } finally {
+            building.set(false);
+            C change;
+            while ((change = pendingChanges.poll()) != null) {
+                applyToCurrent(change);
+            }
+        }
+    }
+
+    private void applyToCurrent(C change) {
+        I current = index;
+        if (current == null) {
+            return; // 索引尚未构建，构建时会读取到这次变更
+        }
+        applyChange(current, change);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.travel.service;
+
+import com.example.travel.cache.CachePolicy;
+import com.example.travel.cache.LruCache;
+import com.example.travel.config.LocalCacheProperties;
+import com.example.travel.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 各个服务层缓存的容量配置和命中/未命中/淘汰/加载耗时统计
+ */
+@Service
+public class CacheStatsService {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final CacheManager cacheManager;
+    private final LocalCacheProperties cacheProperties;
+
+    @Autowired
+    public CacheStatsService(CacheManager cacheManager, LocalCacheProperties cacheProperties) {
+        this.cacheManager = cacheManager;
+        this.cacheProperties = cacheProperties;
+    }
+
+    public List<CacheStatsResponse> getCacheStats() {
+        List<CacheStatsResponse> responses = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            LocalCacheProperties.Spec spec = cacheProperties.getCaches().getOrDefault(name, new LocalCacheProperties.Spec());
+            CacheStats stats;
+            long size;
+            if (cache instanceof CaffeineCache caffeineCache) {
+                stats = caffeineCache.getNativeCache().stats();
+                size = caffeineCache.getNativeCache().estimatedSize();
+            } else if (cache instanceof LruCache lruCache) {
+                stats = lruCache.stats();
+                size = lruCache.size();
+            } else {
+                continue; // 不是本地缓存，没有统计
+            }
+            responses.add(toResponse(name, spec, size, stats));
+        }
+        return responses;
+    }
+
+    private static CacheStatsResponse toResponse(String name, LocalCacheProperties.Spec spec, long size, CacheStats stats) {
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.setName(name);
+        response.setPolicy(spec.getPolicy() != null ? spec.getPolicy() : CachePolicy.W_TINY_LFU);
+        response.setSize(size);
+        response.setMaximumSize(spec.getMaximumSize());
+        response.setTtlSeconds(spec.getTtlSeconds());
+        response.setHitCount(stats.hitCount());
+        response.setMissCount(stats.missCount());
+        response.setHitRate(stats.hitRate());
+        response.setEvictionCount(stats.evictionCount());
+        response.setLoadCount(stats.loadCount());
+        response.setLoadFailureCount(stats.loadFailureCount());
+        response.setAverageLoadMillis(stats.averageLoadPenalty() / NANOS_PER_MILLI);
+        response.setTotalLoadMillis(stats.totalLoadTime() / NANOS_PER_MILLI);
+        return response;
+    }
+}
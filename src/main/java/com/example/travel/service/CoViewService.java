@@ -0,0 +1,182 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.event.AttractionViewedEvent;
+import com.example.travel.recommendation.AttractionView;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CoViewModel;
+import com.example.travel.repository.UserActivityLogRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 维护浏览会话共现模型 ({@link CoViewModel})：启动时从最近 warmup-days 天的 VIEW_ATTRACTION 活动日志预热一次，
+ * 之后只由景点浏览事件增量更新，不再回扫历史。匿名浏览没有用户，不计入会话。
+ */
+@Slf4j
+@Service
+public class CoViewService {
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final AttractionService attractionService;
+    private final RecommendationProperties.CoView config;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CoViewModel model;
+
+    // warmingUp 只在持有 pendingViews 锁时清除：先重放完队列再清除，之后的浏览一定晚于所有排队的浏览
+    private volatile boolean warmingUp;
+    // 预热期间到达的浏览，预热完成后按到达顺序重放
+    private final Queue<PendingView> pendingViews = new ArrayDeque<>();
+
+    @Autowired
+    public CoViewService(UserActivityLogRepository userActivityLogRepository,
+                         AttractionService attractionService,
+                         RecommendationProperties recommendationProperties,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.userActivityLogRepository = userActivityLogRepository;
+        this.attractionService = attractionService;
+        this.config = recommendationProperties.getCoView();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.model = new CoViewModel(Duration.ofMinutes(config.getSessionGapMinutes()), config.getMaxSessionItems(),
+                config.getRecentViews(), config.getMinCoViews(), Duration.ofHours(config.getUserRetentionHours()),
+                config.getMaxUsers());
+
+        Gauge.builder("recommendation.coview.attractions", model, CoViewModel::attractionCount)
+                .description("Attractions with at least one session in the co-view model")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.coview.users", model, CoViewModel::userCount)
+                .description("Users whose browsing sessions are kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 看过该景点的人也看了
+     */
+    public List<AttractionResponse> getAlsoViewed(Long attractionId, int limit) {
+        return toResponses(model.alsoViewed(attractionId, limit));
+    }
+
+    /**
+     * 根据用户最近的浏览推荐，没有浏览记录时为空
+     */
+    public List<AttractionResponse> getRecentBrowsingRecommendations(Long userId, int limit) {
+        return toResponses(model.recentBrowsing(userId, limit));
+    }
+
+    /**
+     * 根据最近浏览的候选 (景点ID, 分值)，供推荐流水线使用
+     */
+    public List<Candidate> getRecentBrowsingCandidates(Long userId, int limit) {
+        return model.recentBrowsing(userId, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.isEnabled() || config.getWarmupDays() <= 0) {
+            return;
+        }
+        warmingUp = true;
+        long start = System.currentTimeMillis();
+        // 只读取预热开始之前的日志，之后的浏览由事件队列补上
+        LocalDateTime until = LocalDateTime.now();
+        LocalDateTime since = until.minusDays(config.getWarmupDays());
+        try {
+            long views = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<AttractionView> stream = userActivityLogRepository.streamAttractionViews(since, until)) {
+                    Iterator<AttractionView> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        AttractionView view = iterator.next();
+                        model.recordView(view.getUserId(), view.getAttractionId(), toEpochMillis(view.getTimestamp()));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            log.info("CoViewService: replayed {} views of the last {} days into {} attractions / {} users in {} ms",
+                    views, config.getWarmupDays(), model.attractionCount(), model.userCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("CoViewService: warm-up from the activity log failed, continuing with live views only", e);
+        } finally {
+            long untilMillis = toEpochMillis(until);
+            synchronized (pendingViews) {
+                PendingView pending;
+                while ((pending = pendingViews.poll()) != null) {
+                    if (pending.timestampMillis >= untilMillis) { // 更早的已经包含在预热读取的日志中
+                        model.recordView(pending.userId, pending.attractionId, pending.timestampMillis);
+                    }
+                }
+                warmingUp = false;
+            }
+        }
+    }
+
+    // 浏览日志与事件在同一个只读事务中产生，不等待提交
+    @EventListener
+    public void onAttractionViewed(AttractionViewedEvent event) {
+        if (!config.isEnabled() || event.getUserId() == null) {
+            return;
+        }
+        if (warmingUp) {
+            synchronized (pendingViews) {
+                if (warmingUp) { // 加锁后再确认，避免在重放结束后才入队而丢失
+                    pendingViews.add(new PendingView(event.getUserId(), event.getAttractionId(), System.currentTimeMillis()));
+                    return;
+                }
+            }
+        }
+        model.recordView(event.getUserId(), event.getAttractionId(), System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        if (event.getType() == AttractionChangeType.DELETED) {
+            model.removeAttraction(event.getAttractionId());
+        }
+    }
+
+    private List<AttractionResponse> toResponses(List<Candidate> candidates) {
+        return attractionService.findAttractionResponsesInOrder(
+                candidates.stream().map(Candidate::getAttractionId).collect(Collectors.toList()));
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class PendingView {
+        final long userId;
+        final long attractionId;
+        final long timestampMillis;
+
+        PendingView(long userId, long attractionId, long timestampMillis) {
+            this.userId = userId;
+            this.attractionId = attractionId;
+            this.timestampMillis = timestampMillis;
+        }
+    }
+}
@@ -5,10 +5,13 @@ import com.example.travel.entity.Attraction;
 import com.example.travel.entity.User;
 import com.example.travel.entity.UserFavorite;
 import com.example.travel.entity.UserFavoriteId;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
 import com.example.travel.exception.ConflictException;
 import com.example.travel.exception.ResourceNotFoundException;
 import com.example.travel.repository.UserFavoriteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -25,14 +28,17 @@ public class FavoriteService {
     private final UserFavoriteRepository userFavoriteRepository;
     private final UserService userService;
     private final AttractionService attractionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public FavoriteService(UserFavoriteRepository userFavoriteRepository,
                            UserService userService,
-                           AttractionService attractionService) {
+                           AttractionService attractionService,
+                           ApplicationEventPublisher eventPublisher) {
         this.userFavoriteRepository = userFavoriteRepository;
         this.userService = userService;
         this.attractionService = attractionService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -55,6 +61,7 @@ public class FavoriteService {
         // userFavorite.setCreatedAt(LocalDateTime.now()); // Already handled by @PrePersist in UserFavorite entity
 
         userFavoriteRepository.save(userFavorite);
+        eventPublisher.publishEvent(new InteractionChangedEvent(userId, attractionId, InteractionType.FAVORITE));
     }
 
     @Transactional
@@ -70,6 +77,7 @@ public class FavoriteService {
         // userFavoriteRepository.deleteById(id); // Requires findById first if only id is passed.
         // Or use a custom delete method in repository
         userFavoriteRepository.deleteByUser_IdAndAttraction_Id(userId, attractionId);
+        eventPublisher.publishEvent(new InteractionChangedEvent(userId, attractionId, InteractionType.FAVORITE));
     }
 
     @Transactional(readOnly = true)
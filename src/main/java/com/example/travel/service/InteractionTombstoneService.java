@@ -0,0 +1,88 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.entity.InteractionTombstone;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.repository.InteractionTombstoneRepository;
+import com.example.travel.repository.ItineraryAttractionRepository;
+import com.example.travel.repository.ReviewRepository;
+import com.example.travel.repository.UserFavoriteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交互被删除时写入墓碑，供其他节点的增量拉取发现删除 (被删除的行本身已经无法按时间查询)。
+ * 墓碑与删除在同一个事务中提交，删除回滚时墓碑也不会留下。
+ */
+@Slf4j
+@Service
+public class InteractionTombstoneService {
+
+    private final InteractionTombstoneRepository tombstoneRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+    private final ItineraryAttractionRepository itineraryAttractionRepository;
+    private final RecommendationProperties recommendationProperties;
+
+    @Autowired
+    public InteractionTombstoneService(InteractionTombstoneRepository tombstoneRepository,
+                                       ReviewRepository reviewRepository,
+                                       UserFavoriteRepository userFavoriteRepository,
+                                       ItineraryAttractionRepository itineraryAttractionRepository,
+                                       RecommendationProperties recommendationProperties) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.reviewRepository = reviewRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+        this.itineraryAttractionRepository = itineraryAttractionRepository;
+        this.recommendationProperties = recommendationProperties;
+    }
+
+    /**
+     * 在发布事件的事务提交前检查该类交互是否还存在 (查询前会先刷新待执行的删除)，不存在时写入墓碑。
+     * 新增和修改不写墓碑，其他节点按 updated_at / created_at 拉取。
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        if (!recommendationProperties.getDelta().isEnabled() || event.getType() == null || interactionExists(event)) {
+            return;
+        }
+        tombstoneRepository.save(new InteractionTombstone(event.getUserId(), event.getAttractionId(), event.getType()));
+    }
+
+    private boolean interactionExists(InteractionChangedEvent event) {
+        Long userId = event.getUserId();
+        Long attractionId = event.getAttractionId();
+        switch (event.getType()) {
+            case REVIEW:
+                return reviewRepository.existsByUserIdAndAttractionId(userId, attractionId);
+            case FAVORITE:
+                return userFavoriteRepository.existsByUser_IdAndAttraction_Id(userId, attractionId);
+            case ITINERARY:
+                return itineraryAttractionRepository.existsByItinerary_User_IdAndAttraction_Id(userId, attractionId);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 定期删除超过保留期的墓碑；每个节点都会执行，重复删除无害
+     */
+    @Scheduled(fixedDelayString = "${recommendation.delta.purge-interval-minutes:60}",
+            initialDelayString = "${recommendation.delta.purge-interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    @Transactional
+    public void purgeExpiredTombstones() {
+        long retentionHours = recommendationProperties.getDelta().getTombstoneRetentionHours();
+        int purged = tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("InteractionTombstoneService: Purged {} tombstones older than {} h", purged, retentionHours);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.travel.service;
 
 import com.example.travel.dto.*; // Import all DTOs
 import com.example.travel.entity.*; // Import all Entities
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
 import com.example.travel.exception.ForbiddenException;
 import com.example.travel.exception.ResourceNotFoundException;
 import com.example.travel.repository.ItineraryRepository;
@@ -9,6 +11,7 @@ import com.example.travel.repository.ItineraryRepository;
 // import com.example.travel.repository.ItineraryAttractionRepository;
 import com.example.travel.repository.UserActivityLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -31,6 +35,7 @@ public class ItineraryService {
     private final TagService tagService;
 
     private final UserActivityLogRepository userActivityLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
     // private final ItineraryAttractionRepository itineraryAttractionRepository; // May not be needed
 
     @Autowired
@@ -38,13 +43,15 @@ public class ItineraryService {
                             UserService userService,
                             AttractionService attractionService,
                             TagService tagService,
-                            UserActivityLogRepository userActivityLogRepository
+                            UserActivityLogRepository userActivityLogRepository,
+                            ApplicationEventPublisher eventPublisher
             /* ItineraryAttractionRepository itineraryAttractionRepository */) {
         this.itineraryRepository = itineraryRepository;
         this.userService = userService;
         this.attractionService = attractionService;
         this.tagService = tagService;
         this.userActivityLogRepository = userActivityLogRepository;
+        this.eventPublisher = eventPublisher;
         // this.itineraryAttractionRepository = itineraryAttractionRepository;
     }
 
@@ -188,6 +195,7 @@ public class ItineraryService {
         }
 
         Itinerary savedItinerary = itineraryRepository.save(itinerary);
+        publishItineraryAttractionChanges(userId, attractionIdsOf(savedItinerary));
         return convertToItineraryResponse(savedItinerary);
     }
 
@@ -261,6 +269,9 @@ public class ItineraryService {
             itinerary.setTags(tags);
         }
 
+        // Attractions before the update; removed ones also change the owner's recommendation signal
+        Set<Long> affectedAttractionIds = attractionIdsOf(itinerary);
+
         // Update ItineraryAttractions (using full replacement strategy for simplicity)
         if (request.getItineraryAttractions() != null) {
             // Clear existing itinerary attractions
@@ -283,9 +294,16 @@ public class ItineraryService {
                 newItineraryAttractionsSet.add(ia);
             }
             itinerary.getItineraryAttractions().addAll(newItineraryAttractionsSet);
+            // The collection is the inverse side and does not dirty the itinerary itself; bump updated_at so that
+            // other nodes polling for changed itineraries pick up the new attractions
+            itinerary.setUpdatedAt(LocalDateTime.now());
         }
 
         Itinerary updatedItinerary = itineraryRepository.save(itinerary);
+        if (request.getItineraryAttractions() != null) {
+            affectedAttractionIds.addAll(attractionIdsOf(updatedItinerary));
+            publishItineraryAttractionChanges(updatedItinerary.getUser().getId(), affectedAttractionIds);
+        }
         return convertToItineraryResponse(updatedItinerary);
     }
 
@@ -302,8 +320,31 @@ public class ItineraryService {
             throw new ForbiddenException("You are not authorized to delete this itinerary.");
         }
 
+        Long ownerId = itinerary.getUser().getId();
+        Set<Long> removedAttractionIds = attractionIdsOf(itinerary);
+
         // Deleting the itinerary should also delete its ItineraryAttractions due to
         // CascadeType.ALL and orphanRemoval=true on Itinerary.itineraryAttractions
         itineraryRepository.delete(itinerary);
+        publishItineraryAttractionChanges(ownerId, removedAttractionIds);
+    }
+
+    private Set<Long> attractionIdsOf(Itinerary itinerary) {
+        Set<Long> attractionIds = new HashSet<>();
+        if (itinerary.getItineraryAttractions() != null) {
+            for (ItineraryAttraction ia : itinerary.getItineraryAttractions()) {
+                if (ia.getAttraction() != null) {
+                    attractionIds.add(ia.getAttraction().getId());
+                }
+            }
+        }
+        return attractionIds;
+    }
+
+    // One event per attraction; the recommendation model re-reads the owner's current state after commit
+    private void publishItineraryAttractionChanges(Long ownerId, Set<Long> attractionIds) {
+        for (Long attractionId : attractionIds) {
+            eventPublisher.publishEvent(new InteractionChangedEvent(ownerId, attractionId, InteractionType.ITINERARY));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.entity.Attraction;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.recommendation.PopularityLeaderboard;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.repository.AttractionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 维护内存中的热门景点排行榜 ({@link PopularityLeaderboard})，随景点新增、删除和评分变化增量更新。
+ * 排行榜就绪前热门查询仍走数据库。
+ */
+@Slf4j
+@Service
+public class PopularityLeaderboardService {
+
+    private final AttractionRepository attractionRepository;
+    private final RecommendationProperties.Popularity config;
+
+    private volatile PopularityLeaderboard leaderboard;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    // 构建期间到达的变化，排行榜发布后重放
+    private final Queue<AttractionChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public PopularityLeaderboardService(AttractionRepository attractionRepository,
+                                        RecommendationProperties recommendationProperties) {
+        this.attractionRepository = attractionRepository;
+        this.config = recommendationProperties.getPopularity();
+    }
+
+    /**
+     * 热门景点中的一页 (景点 id 按排行顺序) 以及景点总数
+     */
+    public RankedAttractions popularAttractions(int page, int size) {
+        PopularityLeaderboard current = leaderboard;
+        if (current != null) {
+            return new RankedAttractions(current.page(page * size, size), current.size());
+        }
+        Page<Attraction> popular = attractionRepository.findByOrderByAverageRatingDescRatingCountDesc(PageRequest.of(page, size));
+        return new RankedAttractions(popular.getContent().stream().map(Attraction::getId).collect(Collectors.toList()),
+                popular.getTotalElements());
+    }
+
+    /**
+     * 景点数据量小，启动完成后同步构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        building.set(true);
+        try {
+            long start = System.currentTimeMillis();
+            PopularityLeaderboard built = PopularityLeaderboard.build(attractionRepository.findAllAttractionRatings(),
+                    config.getRanking(), config.getPriorWeight(), config.getMeanTolerance());
+            leaderboard = built;
+            log.info("PopularityLeaderboardService: ranked {} attractions ({}, prior mean {}) in {} ms",
+                    built.size(), built.ranking(), String.format("%.3f", built.priorMean()), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("PopularityLeaderboardService: failed to build the leaderboard, popular attractions stay on the database", e);
+        } finally {
+            building.set(false);
+            AttractionChangedEvent event;
+            while ((event = pendingChanges.poll()) != null) {
+                applyChange(event);
+            }
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        if (building.get()) {
+            pendingChanges.add(event);
+        }
+        applyChange(event);
+    }
+
+    private void applyChange(AttractionChangedEvent event) {
+        PopularityLeaderboard current = leaderboard;
+        if (current == null) {
+            return;
+        }
+        if (event.getType() == AttractionChangeType.DELETED) {
+            current.remove(event.getAttractionId());
+            return;
+        }
+        attractionRepository.findById(event.getAttractionId()).ifPresentOrElse(
+                attraction -> current.upsert(attraction.getId(), attraction.getAverageRating(), attraction.getRatingCount()),
+                () -> current.remove(event.getAttractionId()));
+    }
+}
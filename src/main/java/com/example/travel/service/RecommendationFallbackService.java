@@ -0,0 +1,111 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.event.AttractionChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 推荐降级时使用的热门景点列表：完整的 AttractionResponse 保存在内存中，读取时不访问数据库和模型。
+ * 启动完成后 (排行榜构建之后) 加载，景点变化后在后台线程上合并刷新；刷新失败时保留旧列表。
+ */
+@Slf4j
+@Service
+public class RecommendationFallbackService {
+
+    private final PopularityLeaderboardService popularityLeaderboardService;
+    private final AttractionService attractionService;
+    private final RecommendationProperties.Serving config;
+
+    private volatile List<AttractionResponse> popularAttractions = List.of();
+    // 刷新任务已提交但尚未开始时，新的变化不再重复提交
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-fallback-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public RecommendationFallbackService(PopularityLeaderboardService popularityLeaderboardService,
+                                         AttractionService attractionService,
+                                         RecommendationProperties recommendationProperties) {
+        this.popularityLeaderboardService = popularityLeaderboardService;
+        this.attractionService = attractionService;
+        this.config = recommendationProperties.getServing();
+    }
+
+    /**
+     * 热门景点的前 limit 个 (可能少于 limit，列表尚未加载时为空)
+     */
+    public List<AttractionResponse> popularAttractions(int limit) {
+        List<AttractionResponse> current = popularAttractions;
+        return current.size() > limit ? current.subList(0, Math.max(0, limit)) : current;
+    }
+
+    /**
+     * 热门景点中的一页，超出缓存长度的页为空
+     */
+    public Page<AttractionResponse> popularAttractionPage(int page, int size) {
+        List<AttractionResponse> current = popularAttractions;
+        int from = (int) Math.min((long) page * size, current.size());
+        int to = (int) Math.min((long) from + size, current.size());
+        return new PageImpl<>(current.subList(from, to), PageRequest.of(page, size), current.size());
+    }
+
+    // 排行榜在 ApplicationReadyEvent 中同步构建，这里排在它之后
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        if (!refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                refreshQueued.set(false);
+                refresh();
+            });
+        } catch (RejectedExecutionException e) {
+            refreshQueued.set(false); // 关闭中
+        }
+    }
+
+    @PreDestroy
+    public void shutdownRefresher() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            List<Long> attractionIds = popularityLeaderboardService.popularAttractions(0, config.getFallbackSize()).getAttractionIds();
+            popularAttractions = List.copyOf(attractionService.findAttractionResponsesInOrder(attractionIds));
+            log.debug("RecommendationFallbackService: cached {} popular attractions", popularAttractions.size());
+        } catch (RuntimeException e) {
+            log.warn("RecommendationFallbackService: failed to refresh the popular fallback list, keeping {} cached entries: {}",
+                    popularAttractions.size(), e.toString());
+        }
+    }
+}
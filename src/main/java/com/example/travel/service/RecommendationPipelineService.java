@@ -0,0 +1,121 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.entity.Tag;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.recommendation.RecommendationPipeline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 统一的推荐入口：所有 {@link CandidateGenerator} bean (协同过滤邻居、偏好标签、热度、附近景点、浏览会话) 作为召回阶段
+ * 在独立线程池上并发运行，各自受 recommendation.pipeline.stages.&lt;name&gt; 的时间预算约束，
+ * 再由轻量的排序器合并成最终结果。所有阶段都没有候选时回退到热门景点。
+ */
+@Slf4j
+@Service
+public class RecommendationPipelineService {
+
+    private final RecommendationService recommendationService;
+    private final UserService userService;
+    private final AttractionService attractionService;
+    private final PopularityLeaderboardService popularityLeaderboardService;
+    private final RecommendationProperties.Pipeline config;
+    // 读取用户偏好标签 (懒加载集合) 时使用
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor candidateExecutor;
+    private final RecommendationPipeline pipeline;
+
+    @Autowired
+    public RecommendationPipelineService(List<CandidateGenerator> generators,
+                                         RecommendationService recommendationService,
+                                         UserService userService,
+                                         AttractionService attractionService,
+                                         PopularityLeaderboardService popularityLeaderboardService,
+                                         RecommendationProperties recommendationProperties,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry) {
+        this.recommendationService = recommendationService;
+        this.userService = userService;
+        this.attractionService = attractionService;
+        this.popularityLeaderboardService = popularityLeaderboardService;
+        this.config = recommendationProperties.getPipeline();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // 有界队列：过载时阶段任务不会无限排队、一起超时，而是被拒绝并按跳过处理
+        int threads = config.resolveThreads();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.candidateExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())), runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-candidates-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("recommendation.pipeline.queue.depth", candidateExecutor, pool -> pool.getQueue().size())
+                .description("Pipeline stage tasks waiting for a candidate thread")
+                .register(meterRegistry);
+
+        List<RecommendationPipeline.Stage> stages = new ArrayList<>();
+        for (CandidateGenerator generator : generators) {
+            RecommendationProperties.Stage stage = config.stage(generator.name());
+            if (stage.isEnabled()) {
+                stages.add(new RecommendationPipeline.Stage(generator, Duration.ofMillis(stage.getBudgetMillis()), stage.getWeight()));
+            }
+        }
+        this.pipeline = new RecommendationPipeline(stages, candidateExecutor, config.getSkipAfterTimeouts(),
+                Duration.ofSeconds(config.getSkipSeconds()), meterRegistry);
+        log.info("Recommendation pipeline stages: {}", pipeline.stageNames());
+    }
+
+    @PreDestroy
+    public void shutdownCandidateExecutor() {
+        candidateExecutor.shutdownNow();
+    }
+
+    /**
+     * 合并各召回阶段的推荐
+     *
+     * @param latitude  可选，用户当前位置，与 longitude 同时提供时启用附近景点召回
+     * @param longitude 可选
+     */
+    public List<AttractionResponse> getBlendedRecommendations(Long userId, int numRecommendations,
+                                                              Double latitude, Double longitude) {
+        RecommendationPipeline.Result result = pipeline.run(buildRequest(userId, latitude, longitude), numRecommendations);
+        List<Long> attractionIds = result.getRanked().stream()
+                .map(Candidate::getAttractionId)
+                .collect(Collectors.toList());
+        if (attractionIds.isEmpty()) {
+            attractionIds = popularityLeaderboardService.popularAttractions(0, numRecommendations).getAttractionIds();
+        }
+        return attractionService.findAttractionResponsesInOrder(attractionIds);
+    }
+
+    private CandidateRequest buildRequest(Long userId, Double latitude, Double longitude) {
+        Set<Long> preferredTagIds = readOnlyTransaction.execute(status -> userService.findUserEntityById(userId)
+                .getPreferredTags().stream()
+                .map(Tag::getId)
+                .collect(Collectors.toSet()));
+        return new CandidateRequest(userId, preferredTagIds, recommendationService.getInteractedAttractionIds(userId),
+                latitude, longitude, Math.max(1, config.getCandidatesPerStage()));
+    }
+}
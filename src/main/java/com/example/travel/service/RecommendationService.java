@@ -1,55 +1,185 @@
 package com.example.travel.service;
 
+import com.example.travel.config.RecommendationProperties;
 import com.example.travel.dto.AttractionResponse; // 使用我们已有的DTO
+import com.example.travel.dto.recommendation.RecommendationModelStatusResponse;
+import com.example.travel.dto.recommendation.UserRecommendationsResponse;
 import com.example.travel.entity.*;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.UserPreferencesChangedEvent;
+import com.example.travel.exception.ConflictException;
+import com.example.travel.recommendation.AlsModel;
+import com.example.travel.recommendation.AlsParameters;
+import com.example.travel.recommendation.AlsTrainingStats;
+import com.example.travel.recommendation.AttractionTagIndex;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.IdDictionary;
+import com.example.travel.recommendation.InteractionChange;
+import com.example.travel.recommendation.InteractionKey;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.recommendation.RecommendationResultCache;
+import com.example.travel.recommendation.RecommendationStrategy;
+import com.example.travel.recommendation.InteractionMatrix;
+import com.example.travel.recommendation.InteractionSourceStats;
+import com.example.travel.recommendation.ItemCfModel;
+import com.example.travel.recommendation.LshParameters;
+import com.example.travel.recommendation.ModelSnapshotFile;
+import com.example.travel.recommendation.RecommendationModel;
+import com.example.travel.recommendation.SimilarityBuildStats;
+import com.example.travel.recommendation.SimilarityMode;
+import com.example.travel.recommendation.SparseRow;
 import com.example.travel.repository.AttractionRepository;
+import com.example.travel.repository.InteractionTombstoneRepository;
+import com.example.travel.repository.ItineraryAttractionRepository;
 import com.example.travel.repository.ReviewRepository;
 import com.example.travel.repository.UserFavoriteRepository;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @Transactional(readOnly = true)
 public class RecommendationService {
 
+    private static final Duration WATERMARK_SAFETY_MARGIN = Duration.ofMinutes(5);
+
     private final UserService userService;
     private final AttractionService attractionService; // 用于DTO转换
     private final AttractionRepository attractionRepository;
 
     private final ReviewRepository reviewRepository;
     private final UserFavoriteRepository userFavoriteRepository;
+    private final ItineraryAttractionRepository itineraryAttractionRepository;
+    private final InteractionTombstoneRepository interactionTombstoneRepository;
+    private final AttractionTagIndexService attractionTagIndexService;
+    private final PopularityLeaderboardService popularityLeaderboardService;
+    private final RecommendationProperties recommendationProperties;
+    // 后台构建线程上没有外层事务，流式查询需要显式开启只读事务
+    private final TransactionTemplate readOnlyTransaction;
+    private final Timer alsScoringTimer;
+    private final Counter deltaChangesCounter;
+    private final RecommendationResultCache resultCache;
+
+    // 当前发布的模型快照 (偏好矩阵 + 景点相似邻居)，首个快照构建完成前为 null
+    private final AtomicReference<RecommendationModel> currentModel = new AtomicReference<>();
+    private final AtomicLong modelVersion = new AtomicLong();
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    // 构建期间到达的偏好变化，新快照发布后重放，避免丢失构建读取数据之后的变更
+    private final Queue<InteractionChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+    private volatile String lastBuildError;
+    // 增量拉取的高水位：其他节点的变更从这里开始读取，为 null 时使用当前快照的高水位
+    private volatile LocalDateTime deltaWatermark;
+    // 拉取窗口重叠部分中已经应用过的变更 (键 -> 变更时间)，只在拉取线程上访问
+    private final Map<InteractionKey, LocalDateTime> appliedDeltas = new HashMap<>();
+    // 单线程后台构建，同一时间最多一个构建任务
+    private final ExecutorService modelBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-model-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    // 内存数据结构: attractionId -> {userId -> rating/preference_score}
-// 用于快速查找哪些用户与特定景点有交互及其偏好程度
-    private Map<Long, Map<Long, Double>> attractionUserPreferences;
-
-    // 内存数据结构: userId -> {attractionId -> rating/preference_score}
-// 用于快速查找特定用户喜欢哪些景点及其偏好程度
-    private Map<Long, Map<Long, Double>> userAttractionPreferences;
     @Autowired
     public RecommendationService(UserService userService,
                                  AttractionService attractionService,
                                  AttractionRepository attractionRepository,
                                  ReviewRepository reviewRepository, // Add
-                                 UserFavoriteRepository userFavoriteRepository) { // Add
+                                 UserFavoriteRepository userFavoriteRepository, // Add
+                                 ItineraryAttractionRepository itineraryAttractionRepository,
+                                 InteractionTombstoneRepository interactionTombstoneRepository,
+                                 AttractionTagIndexService attractionTagIndexService,
+                                 PopularityLeaderboardService popularityLeaderboardService,
+                                 RecommendationProperties recommendationProperties,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
         this.userService = userService;
         this.attractionService = attractionService;
         this.attractionRepository = attractionRepository;
         this.reviewRepository = reviewRepository; // Add
         this.userFavoriteRepository = userFavoriteRepository; // Add
-        this.attractionUserPreferences = new ConcurrentHashMap<>();
-        this.userAttractionPreferences = new ConcurrentHashMap<>();
+        this.itineraryAttractionRepository = itineraryAttractionRepository;
+        this.interactionTombstoneRepository = interactionTombstoneRepository;
+        this.attractionTagIndexService = attractionTagIndexService;
+        this.popularityLeaderboardService = popularityLeaderboardService;
+        this.recommendationProperties = recommendationProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        RecommendationProperties.ResultCache cacheConfig = recommendationProperties.getResultCache();
+        this.resultCache = new RecommendationResultCache(cacheConfig.isEnabled(), cacheConfig.getMaxUsers(),
+                Duration.ofMinutes(cacheConfig.getTtlMinutes()), meterRegistry);
+
+        // ALS 指标：训练耗时与迭代次数取自当前快照，打分耗时按请求记录
+        this.alsScoringTimer = Timer.builder("recommendation.als.scoring")
+                .description("Time to score all attractions for one user with the ALS model")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.als.training.time", currentModel, ref -> alsStat(ref.get(), AlsTrainingStats::getTrainingMillis))
+                .description("Training time of the ALS model in the current snapshot")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.als.iterations", currentModel, ref -> alsStat(ref.get(), AlsTrainingStats::getIterations))
+                .description("Iterations used to train the ALS model in the current snapshot")
+                .register(meterRegistry);
+
+        // 增量拉取指标：应用的其他节点变更数，以及高水位落后当前时间的秒数
+        this.deltaChangesCounter = Counter.builder("recommendation.delta.changes")
+                .description("Interaction changes applied to the model by delta polling")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.delta.lag", this, service -> service.deltaLagSeconds())
+                .description("Age of the delta polling watermark")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private double deltaLagSeconds() {
+        LocalDateTime watermark = deltaWatermark;
+        return watermark != null ? Duration.between(watermark, LocalDateTime.now()).toSeconds() : Double.NaN;
+    }
+
+    private static double alsStat(RecommendationModel model, ToDoubleFunction<AlsTrainingStats> stat) {
+        return model != null && model.als() != null ? stat.applyAsDouble(model.als().trainingStats()) : Double.NaN;
     }
 
 
@@ -61,22 +191,33 @@ public class RecommendationService {
      * @return 分页的景点推荐
      */
     public Page<AttractionResponse> getRecommendationsBasedOnUserPreferences(Long userId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "averageRating", "ratingCount")); // Define pageable here
+        RankedAttractions ranking = resultCache.getOrCompute(userId, RecommendationStrategy.USER_PREFERENCES,
+                page, size, currentModelVersion(), () -> rankByUserPreferences(userId, pageable));
+        return new PageImpl<>(loadAttractionResponses(ranking.getAttractionIds()), pageable, ranking.getTotalElements());
+    }
+
+    private RankedAttractions rankByUserPreferences(Long userId, Pageable pageable) {
         User user = userService.findUserEntityById(userId);
         Set<Tag> preferredTags = user.getPreferredTags();
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "averageRating", "ratingCount")); // Define pageable here
-
         if (CollectionUtils.isEmpty(preferredTags)) {
-            return attractionService.getPopularAttractions(pageable);
+            return popularityLeaderboardService.popularAttractions(pageable.getPageNumber(), pageable.getPageSize());
         }
-
         Set<Long> preferredTagIds = preferredTags.stream().map(Tag::getId).collect(Collectors.toSet());
-
+        AttractionTagIndex tagIndex = attractionTagIndexService.currentIndex();
+        if (tagIndex != null) {
+            // 标签位图取并集、去掉已评价/收藏的景点，再按评分顺序取一页
+            return tagIndex.recommend(preferredTagIds, userId, (int) pageable.getOffset(), pageable.getPageSize());
+        }
+        // 索引尚未构建完成时查询数据库
         Page<Attraction> recommendedAttractionsPage = attractionRepository.findRecommendationsByUserPreferences(
                 userId, preferredTagIds, pageable
         );
-
-        return recommendedAttractionsPage.map(attractionService::convertToAttractionResponse);
+        List<Long> attractionIds = recommendedAttractionsPage.getContent().stream()
+                .map(Attraction::getId)
+                .collect(Collectors.toList());
+        return new RankedAttractions(List.copyOf(attractionIds), recommendedAttractionsPage.getTotalElements());
     }
 
     /**
@@ -86,228 +227,567 @@ public class RecommendationService {
      * @return 分页的热门景点
      */
     public Page<AttractionResponse> getPopularAttractionRecommendations(int page, int size) {
-        // AttractionService.getPopularAttractions(limit) 返回 List，我们需要 Page
-        // 因此，我们直接调用AttractionRepository的方法，或者让AttractionService提供一个返回Page的方法
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by(Sort.Direction.DESC, "ratingCount")));
-        Page<Attraction> popularAttractions = attractionRepository.findByOrderByAverageRatingDescRatingCountDesc(pageable);
-        return popularAttractions.map(attractionService::convertToAttractionResponse);
-    }
-
-    @PostConstruct
-    public void initializeRecommendationData() {
-        loadInteractionData();
-        // 考虑异步执行或定时执行，如果景点数量很多
-        // For now, let's call it directly for simplicity if data is small
-        if (this.attractionUserPreferences != null && !this.attractionUserPreferences.isEmpty()) {
-            System.out.println("RecommendationService: Proceeding to calculate attraction similarity matrix.");
-            calculateAttractionSimilarityMatrix();
-        } else {
-            System.out.println("RecommendationService: No interaction data loaded, skipping similarity matrix calculation.");
-            this.attractionSimilarityMatrix = new ConcurrentHashMap<>(); //确保即使跳过也有初始化的空map
-        }
-    }
-
-    @PostConstruct // 应用启动后执行数据加载
-    @Transactional(readOnly = true) // 确保在事务中加载，特别是对于懒加载的实体
-    public void loadInteractionData() {
-        Map<Long, Map<Long, Double>> tempAttractionPrefs = new HashMap<>();
-        Map<Long, Map<Long, Double>> tempUserPrefs = new HashMap<>();
-
-        // 1. 加载评分数据
-        List<Review> allReviews = reviewRepository.findAll();
-        for (Review review : allReviews) {
-            if (review.getUser() != null && review.getAttraction() != null && review.getRating() != null) {
-                Long userId = review.getUser().getId();
-                Long attractionId = review.getAttraction().getId();
-                double rating = review.getRating().doubleValue();
-
-                tempAttractionPrefs.computeIfAbsent(attractionId, k -> new HashMap<>()).put(userId, rating);
-                tempUserPrefs.computeIfAbsent(userId, k -> new HashMap<>()).put(attractionId, rating);
-            }
+        return attractionService.getPopularAttractions(pageable);
+    }
+
+    /**
+     * 应用启动完成后在后台构建第一个模型快照，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submitModelTask(this::restoreOrRebuildModel);
+    }
+
+    @PreDestroy
+    public void shutdownModelBuilder() {
+        modelBuilder.shutdownNow();
+    }
+
+    /**
+     * 提交一次后台全量构建；已有构建在进行时抛出 ConflictException
+     */
+    public void rebuildModelAsync() {
+        submitModelTask(this::rebuildModel);
+    }
+
+    private void submitModelTask(Runnable task) {
+        if (!building.compareAndSet(false, true)) {
+            throw new ConflictException("推荐模型正在构建中");
         }
+        try {
+            modelBuilder.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    // 先清除标记再重放：之后到达的变更会直接作用在新快照上
+                    building.set(false);
+                    replayPendingChanges();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            building.set(false);
+            throw e;
+        }
+    }
 
-        // 2. 加载收藏数据 (可以赋予一个固定高分，例如 5.0，如果评分范围是1-5)
-        // 注意：如果一个用户既收藏又评分了同一个景点，需要决定如何合并分数（例如取最高值）
-        final double favoriteScore = 5.0; // 假设收藏行为等同于5分评价
-        List<UserFavorite> allFavorites = userFavoriteRepository.findAll();
-        for (UserFavorite favorite : allFavorites) {
-            if (favorite.getUser() != null && favorite.getAttraction() != null) {
-                Long userId = favorite.getUser().getId();
-                Long attractionId = favorite.getAttraction().getId();
+    private void rebuildModel() {
+        long startTime = System.currentTimeMillis();
+        // 高水位往前留出余量，覆盖读取数据时尚未提交的事务；追平是幂等的，重叠部分无害
+        LocalDateTime watermark = LocalDateTime.now().minus(WATERMARK_SAFETY_MARGIN);
+        try {
+            LoadedInteractions loaded = loadInteractionData();
+            ItemCfModel itemCf = calculateAttractionSimilarityMatrix(loaded.matrix());
+            AlsModel als = trainAlsModel(loaded.matrix());
+            RecommendationModel model = new RecommendationModel(modelVersion.incrementAndGet(), itemCf, als,
+                    LocalDateTime.now(), System.currentTimeMillis() - startTime, watermark, false, loaded.sourceStats());
+            writeSnapshot(model); // 发布前写入，此时模型尚未接收增量修改
+            currentModel.set(model);
+            lastBuildError = null;
+            log.info("RecommendationService: Model snapshot v{} published after {} ms", model.version(), model.buildMillis());
+        } catch (RuntimeException e) {
+            lastBuildError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            log.error("RecommendationService: Model build failed, keeping the previous snapshot", e);
+        }
+    }
 
-                // 更新景点用户偏好
-                Map<Long, Double> usersWhoRatedAttraction = tempAttractionPrefs.computeIfAbsent(attractionId, k -> new HashMap<>());
-                usersWhoRatedAttraction.put(userId, Math.max(usersWhoRatedAttraction.getOrDefault(userId, 0.0), favoriteScore));
+    /**
+     * 启动时优先映射本地快照文件并从其高水位追平，快照不可用时全量构建；
+     * 快照过旧时先用它提供服务，再在后台全量构建一次 (墓碑超过保留期后，追平无法再发现其间的删除)。
+     */
+    private void restoreOrRebuildModel() {
+        RecommendationModel restored = restoreSnapshot();
+        if (restored == null) {
+            rebuildModel();
+            return;
+        }
+        modelVersion.accumulateAndGet(restored.version(), Math::max);
+        currentModel.set(restored);
+        try {
+            long startTime = System.currentTimeMillis();
+            int changed = catchUpSince(restored.watermark());
+            log.info("RecommendationService: Caught up {} interaction changes since {} in {} ms",
+                    changed, restored.watermark(), System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            lastBuildError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            log.error("RecommendationService: Catch-up after snapshot restore failed, rebuilding", e);
+            rebuildModel();
+            return;
+        }
+        long maxAgeHours = recommendationProperties.getSnapshot().getMaxAgeHours();
+        if (maxAgeHours > 0 && restored.builtAt().plusHours(maxAgeHours).isBefore(LocalDateTime.now())) {
+            log.info("RecommendationService: Snapshot v{} is older than {} h, rebuilding in the background", restored.version(), maxAgeHours);
+            rebuildModel();
+        }
+    }
 
-                // 更新用户景点偏好
-                Map<Long, Double> attractionsRatedByUser = tempUserPrefs.computeIfAbsent(userId, k -> new HashMap<>());
-                attractionsRatedByUser.put(attractionId, Math.max(attractionsRatedByUser.getOrDefault(attractionId, 0.0), favoriteScore));
-            }
+    private RecommendationModel restoreSnapshot() {
+        RecommendationProperties.Snapshot config = recommendationProperties.getSnapshot();
+        if (!config.isEnabled()) {
+            return null;
         }
+        Path path = Paths.get(config.getPath());
+        if (!Files.exists(path)) {
+            log.info("RecommendationService: No model snapshot at {}, building from the database", path.toAbsolutePath());
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            RecommendationModel model = ModelSnapshotFile.read(path);
+            log.info("RecommendationService: Model snapshot v{} (built {}) restored from {} in {} ms",
+                    model.version(), model.builtAt(), path.toAbsolutePath(), System.currentTimeMillis() - startTime);
+            return model;
+        } catch (IOException | RuntimeException e) {
+            log.warn("RecommendationService: Ignoring unusable model snapshot {}: {}", path.toAbsolutePath(), e.getMessage());
+            return null;
+        }
+    }
 
-        // 3. (可选) 加载行程包含数据 (来自 ItineraryAttraction 表)
-        // 这也可以被视为一种强烈的积极信号，可以赋予一个高分。
-        // List<ItineraryAttraction> allItineraryAttractions = itineraryAttractionRepository.findAll(); // 需要注入 ItineraryAttractionRepository
-        // for (ItineraryAttraction ia : allItineraryAttractions) {
-        //     if (ia.getItinerary() != null && ia.getItinerary().getUser() != null && ia.getAttraction() != null) {
-        //         Long userId = ia.getItinerary().getUser().getId();
-        //         Long attractionId = ia.getAttraction().getId();
-        //         double itineraryInclusionScore = 5.0; // 例如，与收藏同等重要或更高
-        //
-        //         Map<Long, Double> usersWhoInteractedWithAttraction = tempAttractionPrefs.computeIfAbsent(attractionId, k -> new HashMap<>());
-        //         usersWhoInteractedWithAttraction.put(userId, Math.max(usersWhoInteractedWithAttraction.getOrDefault(userId, 0.0), itineraryInclusionScore));
-        //
-        //         Map<Long, Double> attractionsInteractedByUser = tempUserPrefs.computeIfAbsent(userId, k -> new HashMap<>());
-        //         attractionsInteractedByUser.put(attractionId, Math.max(attractionsInteractedByUser.getOrDefault(attractionId, 0.0), itineraryInclusionScore));
-        //     }
-        // }
-        // System.out.println("RecommendationService: Loaded " + allItineraryAttractions.size() + " itinerary items.");
-
-        this.attractionUserPreferences = new ConcurrentHashMap<>(tempAttractionPrefs);
-        this.userAttractionPreferences = new ConcurrentHashMap<>(tempUserPrefs);
-        long endTime = System.currentTimeMillis();
-        System.out.println("RecommendationService: Interaction data loaded. Users: " + this.userAttractionPreferences.size() + ", Attractions with interactions: " + this.attractionUserPreferences.size());
-    }
-
-    private Map<Long, Map<Long, Double>> attractionSimilarityMatrix;
-    public void calculateAttractionSimilarityMatrix() {
-        Map<Long, Map<Long, Double>> tempSimilarityMatrix = new ConcurrentHashMap<>();
-        List<Long> attractionIds = new ArrayList<>(this.attractionUserPreferences.keySet()); // 所有有过交互的景点
-
-        for (int i = 0; i < attractionIds.size(); i++) {
-            for (int j = i + 1; j < attractionIds.size(); j++) { //只计算上三角或下三角，因为是对称的
-                Long attr1Id = attractionIds.get(i);
-                Long attr2Id = attractionIds.get(j);
-
-                // 获取评价过这两个景点的用户向量
-                Map<Long, Double> usersForAttr1 = this.attractionUserPreferences.get(attr1Id);
-                Map<Long, Double> usersForAttr2 = this.attractionUserPreferences.get(attr2Id);
-
-                double similarity = calculateCosineSimilarityForItems(usersForAttr1, usersForAttr2);
-
-                if (similarity > 0) { // 只存储有一定相似度的
-                    tempSimilarityMatrix.computeIfAbsent(attr1Id, k -> new HashMap<>()).put(attr2Id, similarity);
-                    tempSimilarityMatrix.computeIfAbsent(attr2Id, k -> new HashMap<>()).put(attr1Id, similarity); // 对称存储
-                }
+    private void writeSnapshot(RecommendationModel model) {
+        RecommendationProperties.Snapshot config = recommendationProperties.getSnapshot();
+        if (!config.isEnabled()) {
+            return;
+        }
+        Path path = Paths.get(config.getPath());
+        long startTime = System.currentTimeMillis();
+        try {
+            ModelSnapshotFile.write(model, path);
+            log.info("RecommendationService: Model snapshot v{} written to {} in {} ms",
+                    model.version(), path.toAbsolutePath(), System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            log.warn("RecommendationService: Failed to write model snapshot to {}", path.toAbsolutePath(), e);
+        }
+    }
+
+    // 重新读取高水位之后新增/修改/删除过的评价、收藏和行程的当前状态，之后的增量拉取从追平开始的时间继续
+    private int catchUpSince(LocalDateTime watermark) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<InteractionKey, LocalDateTime> changed = readOnlyTransaction.execute(status -> loadInteractionChanges(watermark));
+        for (InteractionKey key : changed.keySet()) {
+            applyInteractionChange(key.getUserId(), key.getAttractionId());
+        }
+        deltaWatermark = startedAt.minusSeconds(recommendationProperties.getDelta().getOverlapSeconds());
+        return changed.size();
+    }
+
+    /**
+     * 多节点部署时定期拉取其他节点写入的交互变更：高水位之后修改过的评价、新增的收藏、更新过的行程和删除墓碑。
+     * 每个 (用户, 景点) 与本节点的事件一样重新读取当前状态后写入模型，重复应用是幂等的，因此不需要消息中间件。
+     * 每次拉取的起点回退 overlap-seconds，重叠窗口中已经应用过的同一变更会被跳过。
+     */
+    @Scheduled(fixedDelayString = "${recommendation.delta.poll-interval-seconds:30}",
+            initialDelayString = "${recommendation.delta.poll-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void pollInteractionDeltas() {
+        RecommendationProperties.Delta config = recommendationProperties.getDelta();
+        RecommendationModel model = currentModel.get();
+        if (!config.isEnabled() || model == null || building.get()) {
+            return; // 构建期间不拉取也不推进高水位，新快照发布后从原高水位继续
+        }
+        long startTime = System.currentTimeMillis();
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        LocalDateTime since = deltaWatermark != null ? deltaWatermark : model.watermark();
+        Map<InteractionKey, LocalDateTime> changes = loadInteractionChanges(since);
+        int applied = 0;
+        for (Map.Entry<InteractionKey, LocalDateTime> change : changes.entrySet()) {
+            InteractionKey key = change.getKey();
+            LocalDateTime appliedChangeAt = appliedDeltas.get(key);
+            if (appliedChangeAt != null && !appliedChangeAt.isBefore(change.getValue())) {
+                continue;
             }
+            applyInteractionChange(key.getUserId(), key.getAttractionId());
+            resultCache.invalidateUser(key.getUserId());
+            appliedDeltas.put(key, change.getValue());
+            applied++;
+        }
+        deltaChangesCounter.increment(applied);
+        if (building.get() || currentModel.get() != model) {
+            // 拉取期间开始了新的构建，新快照可能读不到这些变更：不推进高水位，下次全部重新应用
+            appliedDeltas.clear();
+            return;
+        }
+        LocalDateTime watermark = pollStartedAt.minusSeconds(config.getOverlapSeconds());
+        deltaWatermark = watermark;
+        appliedDeltas.values().removeIf(changedAt -> changedAt.isBefore(watermark));
+        if (applied > 0) {
+            log.info("RecommendationService: Applied {} of {} interaction changes since {} in {} ms",
+                    applied, changes.size(), since, System.currentTimeMillis() - startTime);
         }
-        this.attractionSimilarityMatrix = tempSimilarityMatrix;
-        System.out.println("RecommendationService: Attraction similarity matrix calculated for " + this.attractionSimilarityMatrix.size() + " attractions.");
     }
 
-    // 基于物品的余弦相似度计算 (用户是维度)
-    private double calculateCosineSimilarityForItems(Map<Long, Double> usersWhoRatedItem1, Map<Long, Double> usersWhoRatedItem2) {
-        if (usersWhoRatedItem1 == null || usersWhoRatedItem2 == null) return 0.0;
+    // 高水位之后变更过的 (用户, 景点)，同一键取最晚的变更时间；删除来自墓碑表
+    private Map<InteractionKey, LocalDateTime> loadInteractionChanges(LocalDateTime since) {
+        Map<InteractionKey, LocalDateTime> changes = new LinkedHashMap<>();
+        Consumer<List<InteractionChange>> collect = rows -> rows.forEach(change ->
+                changes.merge(change.key(), change.getChangedAt(), (a, b) -> a.isAfter(b) ? a : b));
+        collect.accept(reviewRepository.findInteractionChangesSince(since));
+        collect.accept(userFavoriteRepository.findInteractionChangesSince(since));
+        collect.accept(itineraryAttractionRepository.findInteractionChangesSince(since));
+        collect.accept(interactionTombstoneRepository.findInteractionChangesSince(since));
+        return changes;
+    }
 
-        Set<Long> commonUsers = new HashSet<>(usersWhoRatedItem1.keySet());
-        commonUsers.retainAll(usersWhoRatedItem2.keySet());
+    private void replayPendingChanges() {
+        InteractionChangedEvent event;
+        int replayed = 0;
+        while ((event = pendingChanges.poll()) != null) {
+            try {
+                applyInteractionChange(event.getUserId(), event.getAttractionId());
+                replayed++;
+            } catch (RuntimeException e) {
+                log.warn("RecommendationService: Failed to replay {}", event, e);
+            }
+        }
+        if (replayed > 0) {
+            log.info("RecommendationService: Replayed {} interaction changes received during the build", replayed);
+        }
+    }
 
-        if (commonUsers.isEmpty()) {
-            return 0.0;
+    public RecommendationModelStatusResponse getModelStatus() {
+        RecommendationModel model = currentModel.get();
+        RecommendationModelStatusResponse status = new RecommendationModelStatusResponse();
+        status.setReady(model != null);
+        status.setBuilding(building.get());
+        status.setLastBuildError(lastBuildError);
+        if (model != null) {
+            InteractionMatrix interactions = model.interactions();
+            status.setVersion(model.version());
+            status.setBuiltAt(model.builtAt());
+            status.setBuildMillis(model.buildMillis());
+            status.setWatermark(model.watermark());
+            status.setDeltaWatermark(deltaWatermark);
+            status.setRestoredFromSnapshot(model.restoredFromSnapshot());
+            status.setSourceLoads(model.sourceStats());
+            status.setUserCount(interactions.userCount());
+            status.setAttractionCount(interactions.itemCount());
+            status.setInteractionCount(interactions.interactionCount());
+            status.setNeighborCount(model.itemCf().neighborCount());
+            status.setEstimatedHeapBytes(model.itemCf().estimatedHeapBytes());
+            SimilarityBuildStats buildStats = model.itemCf().buildStats();
+            status.setSimilarityMode(buildStats.getMode().name());
+            status.setSampledRecall(Double.isNaN(buildStats.getSampledRecall()) ? null : buildStats.getSampledRecall());
+            if (model.als() != null) {
+                status.setAlsIterations(model.als().trainingStats().getIterations());
+                status.setAlsTrainingMillis(model.als().trainingStats().getTrainingMillis());
+            }
         }
+        return status;
+    }
 
-        double dotProduct = 0.0;
-        double normItem1 = 0.0;
-        double normItem2 = 0.0;
+    private LoadedInteractions loadInteractionData() {
+        long startTime = System.currentTimeMillis();
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+
+        // 只在只读事务中流式读取 (用户, 景点, 分值) 投影：不加载实体、不触发懒加载代理，
+        // 持久化上下文中没有托管对象，内存占用只有偏好矩阵本身
+        // 同一用户对同一景点有多种交互时，Builder 取最大值
+        RecommendationProperties.Signals signals = recommendationProperties.getSignals();
+        List<InteractionSourceStats> sourceStats = new ArrayList<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            // 1. 加载评分数据
+            sourceStats.add(loadSource("reviews", reviewRepository::streamAllInteractionRatings,
+                    rating -> builder.add(rating.getUserId(), rating.getAttractionId(),
+                            (float) (rating.getRating() * signals.getReviewWeight()))));
+
+            // 2. 加载收藏数据 (赋予固定高分)
+            sourceStats.add(loadSource("favorites", userFavoriteRepository::streamAllInteractionKeys,
+                    favorite -> builder.add(favorite.getUserId(), favorite.getAttractionId(), (float) signals.getFavoriteScore())));
+
+            // 3. 加载行程包含数据：行程景点表与行程表的一次连接查询，直接得到 (行程所有者, 景点)
+            if (signals.getItineraryScore() > 0) {
+                sourceStats.add(loadSource("itineraries", itineraryAttractionRepository::streamAllInteractionKeys,
+                        inclusion -> builder.add(inclusion.getUserId(), inclusion.getAttractionId(), (float) signals.getItineraryScore())));
+            }
+        });
+        sourceStats.forEach(stats -> log.info("RecommendationService: Loaded {} {} rows in {} ms",
+                stats.getRows(), stats.getSource(), stats.getMillis()));
+
+        InteractionMatrix interactionMatrix = builder.build();
+        log.info("RecommendationService: Interaction data loaded in {} ms. Users: {}, Attractions with interactions: {}, Interactions: {}, ~{} KB heap",
+                System.currentTimeMillis() - startTime, interactionMatrix.userCount(), interactionMatrix.itemCount(),
+                interactionMatrix.interactionCount(), interactionMatrix.estimatedHeapBytes() / 1024);
+        return new LoadedInteractions(interactionMatrix, sourceStats);
+    }
 
-        for (Long userId : commonUsers) {
-            dotProduct += usersWhoRatedItem1.get(userId) * usersWhoRatedItem2.get(userId);
+    private <T> InteractionSourceStats loadSource(String source, Supplier<Stream<T>> query, Consumer<T> consumer) {
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+        try (Stream<T> stream = query.get()) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                rows++;
+            }
         }
+        return new InteractionSourceStats(source, rows, System.currentTimeMillis() - startTime);
+    }
+
+    private record LoadedInteractions(InteractionMatrix matrix, List<InteractionSourceStats> sourceStats) {
+    }
 
-        for (Double rating : usersWhoRatedItem1.values()) {
-            normItem1 += Math.pow(rating, 2);
+    private ItemCfModel calculateAttractionSimilarityMatrix(InteractionMatrix interactions) {
+        RecommendationProperties.Similarity config = recommendationProperties.getSimilarity();
+        int threads = config.resolveBuildThreads();
+        // 每次构建使用独立的线程池，构建完成即释放线程
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ItemCfModel itemCfModel;
+        int tileCount = threads * Math.max(1, config.getTilesPerThread());
+        int maxNeighbors = Math.max(1, config.getNeighborsPerAttraction());
+        try {
+            if (config.getMode() == SimilarityMode.LSH) {
+                RecommendationProperties.Lsh lsh = config.getLsh();
+                itemCfModel = ItemCfModel.buildApproximate(interactions, pool, tileCount, maxNeighbors, new LshParameters(
+                        lsh.getBands(), lsh.getRowsPerBand(), lsh.getMaxBucketSize(), lsh.getRecallSampleSize(), lsh.getSeed()));
+            } else {
+                itemCfModel = ItemCfModel.build(interactions, pool, tileCount, maxNeighbors);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        SimilarityBuildStats stats = itemCfModel.buildStats();
+        log.info("RecommendationService: Attraction similarity model ({}) built in {} ms on {} threads ({} tiles, speedup {}x) for {} attractions, {} candidate pairs, top-{} neighbors ({} stored), ~{} KB heap",
+                stats.getMode(), stats.getWallMillis(), stats.getThreads(), stats.getTiles(), String.format("%.2f", stats.getSpeedup()),
+                interactions.itemCount(), stats.getCandidatePairs(), itemCfModel.neighborIndex().maxNeighbors(), stats.getNeighbors(),
+                itemCfModel.estimatedHeapBytes() / 1024);
+        if (!Double.isNaN(stats.getSampledRecall())) {
+            log.info("RecommendationService: Approximate neighbor recall@{} against exact mode on a sample: {}",
+                    maxNeighbors, String.format("%.3f", stats.getSampledRecall()));
         }
-        normItem1 = Math.sqrt(normItem1);
+        return itemCfModel;
+    }
 
-        for (Double rating : usersWhoRatedItem2.values()) {
-            normItem2 += Math.pow(rating, 2);
+    // 在发布前训练，此时偏好矩阵还不会被增量更新修改
+    private AlsModel trainAlsModel(InteractionMatrix interactions) {
+        RecommendationProperties.Als config = recommendationProperties.getAls();
+        if (!config.isEnabled()) {
+            return null;
         }
-        normItem2 = Math.sqrt(normItem2);
+        int threads = recommendationProperties.getSimilarity().resolveBuildThreads();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        AlsModel als;
+        try {
+            als = AlsModel.train(interactions, new AlsParameters(config.getFactors(), config.getIterations(),
+                    config.getRegularization(), config.getAlpha(), config.getSeed()), pool,
+                    threads * Math.max(1, recommendationProperties.getSimilarity().getTilesPerThread()));
+        } finally {
+            pool.shutdown();
+        }
+        AlsTrainingStats stats = als.trainingStats();
+        log.info("RecommendationService: ALS model trained in {} ms on {} threads ({} factors, {} iterations), ~{} KB heap",
+                stats.getTrainingMillis(), stats.getThreads(), stats.getFactors(), stats.getIterations(), als.estimatedHeapBytes() / 1024);
+        return als;
+    }
 
-        if (normItem1 == 0 || normItem2 == 0) {
-            return 0.0;
+    /**
+     * 评价/收藏事务提交后，增量更新该用户对该景点的偏好分，以及该景点的相似邻居列表。
+     * 在新事务中读取最新的评价和收藏状态，所以同一事件重复处理结果不变。
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        if (building.get()) {
+            pendingChanges.add(event); // 先入队再读取当前快照，保证新快照发布后不会漏掉
         }
+        applyInteractionChange(event.getUserId(), event.getAttractionId());
+        // 模型更新后再作废，避免作废与更新之间的请求把旧结果重新写进缓存
+        resultCache.invalidateUser(event.getUserId());
+    }
 
-        return dotProduct / (normItem1 * normItem2);
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserPreferencesChanged(UserPreferencesChangedEvent event) {
+        resultCache.invalidateUser(event.getUserId());
     }
 
-    // 获取与给定景点相似的景点列表
-    private List<AttractionSimilarityScore> getSimilarAttractions(Long attractionId, int count) {
-        if (this.attractionSimilarityMatrix == null || !this.attractionSimilarityMatrix.containsKey(attractionId)) {
-            return Collections.emptyList();
+    private void applyInteractionChange(Long userId, Long attractionId) {
+        RecommendationModel model = currentModel.get();
+        if (model == null) {
+            return; // 模型尚未构建，构建时会读取到这次变更
         }
+        double newScore = resolvePreferenceScore(userId, attractionId);
+        model.itemCf().applyScoreChange(userId, attractionId, (float) newScore);
+    }
 
-        Map<Long, Double> similarItems = this.attractionSimilarityMatrix.get(attractionId);
-        if (similarItems == null || similarItems.isEmpty()) {
-            return Collections.emptyList();
+    // 与 loadInteractionData 的合并规则一致: 评分、收藏、行程按 signals 换算后取最大值，没有任何交互时为 0
+    private double resolvePreferenceScore(Long userId, Long attractionId) {
+        RecommendationProperties.Signals signals = recommendationProperties.getSignals();
+        double score = reviewRepository.findRatingByUserIdAndAttractionId(userId, attractionId)
+                .map(rating -> rating * signals.getReviewWeight())
+                .orElse(0.0);
+        if (userFavoriteRepository.existsByUser_IdAndAttraction_Id(userId, attractionId)) {
+            score = Math.max(score, signals.getFavoriteScore());
+        }
+        if (signals.getItineraryScore() > 0
+                && itineraryAttractionRepository.existsByItinerary_User_IdAndAttraction_Id(userId, attractionId)) {
+            score = Math.max(score, signals.getItineraryScore());
         }
+        return score;
+    }
 
-        return this.attractionSimilarityMatrix.get(attractionId).entrySet().stream()
-                .map(entry -> new AttractionSimilarityScore(entry.getKey(), entry.getValue()))
-                .sorted((s1, s2) -> Double.compare(s2.getSimilarity(), s1.getSimilarity()))
-                .limit(count)
-                .collect(Collectors.toList());
+    public List<AttractionResponse> getItemBasedCfRecommendations(Long userId, int numRecommendations) {
+        RankedAttractions ranking = resultCache.getOrCompute(userId, RecommendationStrategy.ITEM_CF,
+                0, numRecommendations, currentModelVersion(), () -> rankItemBasedCf(userId, numRecommendations));
+        return loadAttractionResponses(ranking.getAttractionIds());
     }
 
-    // 辅助内部类
-    private static class AttractionSimilarityScore {
-        private Long attractionId;
-        private double similarity;
-        // constructor, getters
-        public AttractionSimilarityScore(Long attractionId, double similarity) { this.attractionId = attractionId; this.similarity = similarity; }
-        public Long getAttractionId() { return attractionId; }
-        public double getSimilarity() { return similarity; }
+    private RankedAttractions rankItemBasedCf(Long userId, int numRecommendations) {
+        RecommendationModel snapshot = currentModel.get();
+        SparseRow ranked = scoreItemBasedCf(snapshot, userId, numRecommendations);
+        if (ranked.isEmpty()) {
+            // 用户数据不足、相似度模型未计算或没有基于CF的推荐，回退到热门推荐
+            return rankPopular(numRecommendations);
+        }
+        return toRankedAttractions(ranked, snapshot.interactions());
     }
 
-    public List<AttractionResponse> getItemBasedCfRecommendations(Long userId, int numRecommendations) {
-        if (this.userAttractionPreferences == null || !this.userAttractionPreferences.containsKey(userId) || this.attractionSimilarityMatrix == null) {
-            // 用户数据不足或相似度矩阵未计算，回退到热门推荐
-            return getPopularAttractionRecommendations(0, numRecommendations).getContent();
-        }
-
-        Map<Long, Double> targetUserPreferences = this.userAttractionPreferences.get(userId);
-        Map<Long, Double> recommendationScores = new HashMap<>();
-
-        // 遍历用户喜欢过的物品
-        for (Map.Entry<Long, Double> userPrefEntry : targetUserPreferences.entrySet()) {
-            Long likedAttractionId = userPrefEntry.getKey();
-            double userRatingForLikedAttraction = userPrefEntry.getValue();
-
-            // 找到与该喜欢物品相似的其他物品
-            List<AttractionSimilarityScore> similarAttractions = getSimilarAttractions(likedAttractionId, 2 * numRecommendations); // 获取稍多一些相似物品
-
-            for (AttractionSimilarityScore simAttraction : similarAttractions) {
-                Long recommendedAttractionId = simAttraction.getAttractionId();
-                double similarity = simAttraction.getSimilarity();
-
-                // 如果用户尚未与推荐物品互动过
-                if (!targetUserPreferences.containsKey(recommendedAttractionId)) {
-                    // 预测分数 = 用户对原物品的评分 * 原物品与推荐物品的相似度
-                    // 可以使用更复杂的加权方式
-                    // 计算预测评分：Σ (similarity_ij * rating_uj) / Σ (similarity_ij)
-                    // 这里简化为：Σ (similarity_ij * rating_ui) -> rating_ui 是用户对当前物品i的评分
-                    // 我们将使用 rating_ui (即 userRatingForLikedAttraction) * similarity_ij 作为分数贡献
-                    // 并对同一个推荐候选物品累加来自不同“已喜欢物品”的贡献
-                    double predictedScore = recommendationScores.getOrDefault(recommendedAttractionId, 0.0);
-                    predictedScore += userRatingForLikedAttraction * similarity; // 累加分数
-                    recommendationScores.put(recommendedAttractionId, predictedScore);
+    /**
+     * 批量为多个用户生成物品协同过滤推荐，结果逐个交给 sink (按首次出现的顺序，重复的用户ID只输出一次)。
+     * 整批使用同一个模型快照；每 chunk-size 个用户并行打分后，合并所有推荐景点查询一次数据库再输出，
+     * 不经过单用户结果缓存，避免活动任务把缓存冲掉。
+     * 不加入类上的只读事务：每批景点查询各自开启并释放事务，向客户端输出期间不占用数据库连接和持久化上下文。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void generateBatchRecommendations(List<Long> userIds, int numRecommendations,
+                                             Consumer<UserRecommendationsResponse> sink) {
+        long start = System.currentTimeMillis();
+        RecommendationModel snapshot = currentModel.get();
+        List<Long> distinctUserIds = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        RecommendationProperties.Batch config = recommendationProperties.getBatch();
+        int chunkSize = Math.max(1, config.getChunkSize());
+        List<Long> popularIds = null; // 首次需要回退时才查询，整批共用
+        int personalizedCount = 0;
+        ForkJoinPool pool = new ForkJoinPool(config.resolveThreads());
+        try {
+            for (int from = 0; from < distinctUserIds.size(); from += chunkSize) {
+                List<Long> chunk = distinctUserIds.subList(from, Math.min(distinctUserIds.size(), from + chunkSize));
+                List<SparseRow> scored = pool.submit(() -> chunk.parallelStream()
+                        .map(userId -> scoreItemBasedCf(snapshot, userId, numRecommendations))
+                        .collect(Collectors.toList())).join();
+
+                List<List<Long>> rankedIds = new ArrayList<>(chunk.size());
+                Set<Long> attractionIds = new LinkedHashSet<>();
+                for (SparseRow ranked : scored) {
+                    List<Long> ids;
+                    if (ranked.isEmpty()) {
+                        if (popularIds == null) {
+                            popularIds = rankPopular(numRecommendations).getAttractionIds();
+                        }
+                        ids = popularIds;
+                    } else {
+                        ids = toRankedAttractions(ranked, snapshot.interactions()).getAttractionIds();
+                        personalizedCount++;
+                    }
+                    rankedIds.add(ids);
+                    attractionIds.addAll(ids);
+                }
+
+                // 这一批所有用户的推荐景点去重后只查询一次，每个景点只转换一次
+                Map<Long, AttractionResponse> responses = readOnlyTransaction.execute(status ->
+                        attractionRepository.findWithTagsByIdIn(attractionIds).stream()
+                                .collect(Collectors.toMap(Attraction::getId, attractionService::convertToAttractionResponse)));
+                for (int k = 0; k < chunk.size(); k++) {
+                    List<AttractionResponse> attractions = rankedIds.get(k).stream()
+                            .map(responses::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+                    sink.accept(new UserRecommendationsResponse(chunk.get(k), !scored.get(k).isEmpty(), attractions));
                 }
             }
+        } finally {
+            pool.shutdown();
+        }
+        log.info("RecommendationService: batch recommendations for {} users ({} personalized) in {} ms",
+                distinctUserIds.size(), personalizedCount, System.currentTimeMillis() - start);
+    }
 
+    /**
+     * 物品协同过滤的候选 (景点ID, 预测分)，供推荐流水线使用；模型未就绪或用户没有交互时为空
+     */
+    public List<Candidate> getItemCfCandidates(Long userId, int limit) {
+        RecommendationModel snapshot = currentModel.get();
+        SparseRow ranked = scoreItemBasedCf(snapshot, userId, limit);
+        IdDictionary items = snapshot != null ? snapshot.interactions().items() : null;
+        List<Candidate> candidates = new ArrayList<>(ranked.size());
+        for (int k = 0; k < ranked.size(); k++) {
+            candidates.add(new Candidate(items.idOf(ranked.indexAt(k)), ranked.valueAt(k)));
         }
+        return candidates;
+    }
 
-        // 排序并获取Top-N推荐
-        List<Long> recommendedAttractionIds = recommendationScores.entrySet().stream()
-                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                .limit(numRecommendations)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    /**
+     * 当前模型快照中用户交互过 (评价/收藏/行程) 的景点ID
+     */
+    public Set<Long> getInteractedAttractionIds(Long userId) {
+        RecommendationModel snapshot = currentModel.get();
+        InteractionMatrix interactions = snapshot != null ? snapshot.interactions() : null;
+        int userOrdinal = interactions != null ? interactions.users().ordinalOf(userId) : -1;
+        if (userOrdinal < 0) {
+            return Set.of();
+        }
+        SparseRow row = interactions.userRow(userOrdinal);
+        Set<Long> attractionIds = new HashSet<>(row.size() * 2);
+        for (int k = 0; k < row.size(); k++) {
+            attractionIds.add(interactions.items().idOf(row.indexAt(k)));
+        }
+        return attractionIds;
+    }
 
-        if (recommendedAttractionIds.isEmpty()) {
-            // 如果没有基于CF的推荐，可以回退
-            return getPopularAttractionRecommendations(0, numRecommendations).getContent();
+    // 物品协同过滤打分，返回按分数降序的景点序号；用户没有交互或模型未就绪时返回空行
+    private SparseRow scoreItemBasedCf(RecommendationModel snapshot, Long userId, int numRecommendations) {
+        ItemCfModel model = snapshot != null ? snapshot.itemCf() : null;
+        InteractionMatrix interactions = model != null ? model.interactions() : null;
+        int userOrdinal = interactions != null ? interactions.users().ordinalOf(userId) : -1;
+        if (userOrdinal < 0) {
+            return SparseRow.EMPTY;
         }
+        // 预测分数 = Σ rating_ui * similarity_ij，i 为用户喜欢过的景点，j 为与之相似且用户未交互过的景点
+        int neighborsPerItem = (int) Math.min(Integer.MAX_VALUE, 2L * numRecommendations); // 每个景点取稍多一些相似物品
+        return model.recommend(userOrdinal, neighborsPerItem, numRecommendations);
+    }
+
+    /**
+     * 基于 ALS 隐因子的推荐：用户因子与全部景点因子做一次稠密点积扫描，取前 N 个用户未交互过的景点
+     */
+    public List<AttractionResponse> getAlsRecommendations(Long userId, int numRecommendations) {
+        RankedAttractions ranking = resultCache.getOrCompute(userId, RecommendationStrategy.ALS,
+                0, numRecommendations, currentModelVersion(), () -> rankAls(userId, numRecommendations));
+        return loadAttractionResponses(ranking.getAttractionIds());
+    }
+
+    private RankedAttractions rankAls(Long userId, int numRecommendations) {
+        RecommendationModel snapshot = currentModel.get();
+        AlsModel als = snapshot != null ? snapshot.als() : null;
+        int userOrdinal = als != null ? snapshot.interactions().users().ordinalOf(userId) : -1;
+        if (als == null || !als.hasUser(userOrdinal)) {
+            // ALS 未启用、尚未训练完成或用户在训练时没有交互，回退到热门推荐
+            return rankPopular(numRecommendations);
+        }
+        long startNanos = System.nanoTime();
+        SparseRow ranked = als.recommend(userOrdinal, numRecommendations, snapshot.interactions().userRow(userOrdinal));
+        alsScoringTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (ranked.isEmpty()) {
+            return rankPopular(numRecommendations);
+        }
+        return toRankedAttractions(ranked, snapshot.interactions());
+    }
+
+    private RankedAttractions rankPopular(int numRecommendations) {
+        return RankedAttractions.of(popularityLeaderboardService.popularAttractions(0, numRecommendations).getAttractionIds());
+    }
+
+    private RankedAttractions toRankedAttractions(SparseRow ranked, InteractionMatrix interactions) {
+        List<Long> attractionIds = new ArrayList<>(ranked.size());
+        for (int k = 0; k < ranked.size(); k++) {
+            attractionIds.add(interactions.items().idOf(ranked.indexAt(k)));
+        }
+        return RankedAttractions.of(attractionIds);
+    }
+
+    private long currentModelVersion() {
+        RecommendationModel model = currentModel.get();
+        return model != null ? model.version() : 0L;
+    }
 
+    // 按排序后的景点ID查询景点并保持顺序
+    private List<AttractionResponse> loadAttractionResponses(List<Long> recommendedAttractionIds) {
         List<Attraction> attractions = attractionRepository.findAllById(recommendedAttractionIds);
         Map<Long, Attraction> attractionMap = attractions.stream()
                 .collect(Collectors.toMap(Attraction::getId, attr -> attr));
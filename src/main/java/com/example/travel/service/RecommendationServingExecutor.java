@@ -0,0 +1,132 @@
+package com.example.travel.service;
+
+import com.example.travel.common.Result;
+import com.example.travel.config.RecommendationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 推荐端点的异步执行：请求在独立的有界线程池上处理，不占用 servlet 线程；每个端点有自己的截止时间。
+ * <p>
+ * 以下情况返回降级结果 (degraded = true，数据来自内存中的热门景点列表)：
+ * 超过截止时间、线程池队列已满、数据库不可用 (DataAccessException / TransactionException)。
+ * 其他异常 (找不到用户等) 照常交给全局异常处理。超时后原任务仍会执行完，只是结果被丢弃。
+ * 当前请求的 SecurityContext 随任务传递到工作线程。
+ */
+@Slf4j
+@Component
+public class RecommendationServingExecutor {
+
+    static final String DEGRADED_MESSAGE = "degraded: recommendations are temporarily unavailable, showing popular attractions";
+
+    private final RecommendationProperties.Serving config;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor threadPool;
+    private final Executor executor;
+
+    @Autowired
+    public RecommendationServingExecutor(RecommendationProperties recommendationProperties, MeterRegistry meterRegistry) {
+        this.config = recommendationProperties.getServing();
+        this.meterRegistry = meterRegistry;
+        int threads = Math.max(1, config.getThreads());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())), runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-serving-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = new DelegatingSecurityContextExecutor(threadPool);
+
+        Gauge.builder("recommendation.serving.queue.depth", threadPool, pool -> pool.getQueue().size())
+                .description("Recommendation requests waiting for a serving thread")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.serving.active", threadPool, ThreadPoolExecutor::getActiveCount)
+                .description("Recommendation requests currently being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在线程池上执行 work，在端点的截止时间内完成时返回其结果，否则返回 fallback 的降级结果
+     *
+     * @param endpoint 端点名称，对应 recommendation.serving.deadlines 的键和指标标签
+     * @param fallback 必须只读内存，不能阻塞
+     */
+    public <T> CompletableFuture<ResponseEntity<Result<T>>> submit(String endpoint, Supplier<T> work, Supplier<T> fallback) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(degrade(endpoint, "rejected", fallback, startNanos));
+        }
+        return future
+                .orTimeout(config.deadlineMillis(endpoint), TimeUnit.MILLISECONDS)
+                .handle((data, error) -> {
+                    if (error == null) {
+                        record(endpoint, "ok", startNanos);
+                        return ResponseEntity.ok(Result.success(data));
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        Counter.builder("recommendation.serving.timeouts")
+                                .description("Recommendation requests that missed their deadline")
+                                .tag("endpoint", endpoint)
+                                .register(meterRegistry)
+                                .increment();
+                        return degrade(endpoint, "timeout", fallback, startNanos);
+                    }
+                    if (cause instanceof DataAccessException || cause instanceof TransactionException) {
+                        log.warn("Recommendation endpoint {} failed, serving fallback: {}", endpoint, cause.toString());
+                        return degrade(endpoint, "unavailable", fallback, startNanos);
+                    }
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
+    }
+
+    private <T> ResponseEntity<Result<T>> degrade(String endpoint, String reason, Supplier<T> fallback, long startNanos) {
+        Counter.builder("recommendation.serving.fallbacks")
+                .description("Recommendation requests answered with the popular fallback list")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        record(endpoint, "degraded", startNanos);
+        return ResponseEntity.ok(Result.degraded(fallback.get(), DEGRADED_MESSAGE));
+    }
+
+    private void record(String endpoint, String outcome, long startNanos) {
+        Timer.builder("recommendation.serving.requests")
+                .description("End-to-end latency of asynchronous recommendation requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
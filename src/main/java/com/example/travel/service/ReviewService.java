@@ -7,11 +7,14 @@ import com.example.travel.dto.UserBasicResponse; // Needed for ReviewResponse
 import com.example.travel.entity.Attraction;
 import com.example.travel.entity.Review;
 import com.example.travel.entity.User;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
 import com.example.travel.exception.ConflictException;
 import com.example.travel.exception.ForbiddenException;
 import com.example.travel.exception.ResourceNotFoundException;
 import com.example.travel.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,14 +28,17 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final UserService userService; // To get User entity and UserBasicResponse
     private final AttractionService attractionService; // To get Attraction entity, AttractionBasicResponse, and update ratings
+    private final ApplicationEventPublisher eventPublisher; // Notifies the recommender after commit
 
     @Autowired
     public ReviewService(ReviewRepository reviewRepository,
                          UserService userService,
-                         AttractionService attractionService) {
+                         AttractionService attractionService,
+                         ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.userService = userService;
         this.attractionService = attractionService;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- DTO Converter ---
@@ -109,6 +115,7 @@ public class ReviewService {
 
         // After saving the review, update the attraction's average rating and count
         attractionService.updateAttractionRatingAndCount(attraction.getId());
+        eventPublisher.publishEvent(new InteractionChangedEvent(userId, attraction.getId(), InteractionType.REVIEW));
 
         return convertToReviewResponse(savedReview);
     }
@@ -164,6 +171,7 @@ public class ReviewService {
 
         // After updating the review, update the attraction's average rating and count
         attractionService.updateAttractionRatingAndCount(review.getAttraction().getId());
+        eventPublisher.publishEvent(new InteractionChangedEvent(review.getUser().getId(), review.getAttraction().getId(), InteractionType.REVIEW));
 
         return convertToReviewResponse(updatedReview);
     }
@@ -174,6 +182,7 @@ public class ReviewService {
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
         Long attractionIdToUpdate = review.getAttraction().getId();
+        Long reviewAuthorId = review.getUser().getId();
 
         // Authorization check: Only the author or an admin can delete a review
         // For simplicity, only author check here. Add admin role check if needed.
@@ -188,6 +197,7 @@ public class ReviewService {
 
         // After deleting the review, update the attraction's average rating and count
         attractionService.updateAttractionRatingAndCount(attractionIdToUpdate);
+        eventPublisher.publishEvent(new InteractionChangedEvent(reviewAuthorId, attractionIdToUpdate, InteractionType.REVIEW));
     }
 
     // Method to increment helpful count (example)
@@ -3,10 +3,12 @@ package com.example.travel.service;
 import com.example.travel.dto.TagRequest;
 import com.example.travel.dto.TagResponse;
 import com.example.travel.entity.Tag;
+import com.example.travel.event.TagChangedEvent;
 import com.example.travel.exception.ConflictException;
 import com.example.travel.exception.ResourceNotFoundException;
 import com.example.travel.repository.TagRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,10 +21,12 @@ import java.util.stream.Collectors;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher; // 通知内存中的输入联想索引
 
     @Autowired
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- DTO Converter ---
@@ -59,6 +63,7 @@ public class TagService {
         tag.setDescription(tagRequest.getDescription());
 
         Tag savedTag = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(savedTag.getId()));
         return convertToTagResponse(savedTag);
     }
 
@@ -116,6 +121,7 @@ public class TagService {
         }
 
         Tag updatedTag = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(id));
         return convertToTagResponse(updatedTag);
     }
 
@@ -126,6 +132,7 @@ public class TagService {
 
 
         tagRepository.delete(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(id));
     }
 
     // Helper method to find or create tags, useful when associating tags by name
@@ -143,7 +150,9 @@ public class TagService {
                         Tag newTag = new Tag();
                         newTag.setName(tagName.trim());
                         // newTag.setTagCategory("Default"); // Optional: set a default category
-                        return tagRepository.save(newTag);
+                        Tag savedTag = tagRepository.save(newTag);
+                        eventPublisher.publishEvent(new TagChangedEvent(savedTag.getId()));
+                        return savedTag;
                     });
             tags.add(tag);
         }
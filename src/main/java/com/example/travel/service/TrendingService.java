@@ -0,0 +1,136 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.event.AttractionChangeType;
+import com.example.travel.event.AttractionChangedEvent;
+import com.example.travel.event.AttractionViewedEvent;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
+import com.example.travel.recommendation.AttractionFacet;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.TrendingCounter;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.repository.ReviewRepository;
+import com.example.travel.repository.UserFavoriteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * "正在流行"的景点：浏览、收藏、评价事件按权重累加到随时间指数衰减的计数中，查询完全在内存中完成。
+ * 计数不持久化，重启后从零开始累积。
+ */
+@Slf4j
+@Service
+public class TrendingService {
+
+    private final AttractionRepository attractionRepository;
+    private final ReviewRepository reviewRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+    private final AttractionService attractionService;
+    private final RecommendationProperties.Trending config;
+
+    private final TrendingCounter counter;
+    // 按类别/地点过滤用的景点属性，启动时加载，随景点变化更新
+    private final Map<Long, AttractionFacet> facets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendingService(AttractionRepository attractionRepository,
+                           ReviewRepository reviewRepository,
+                           UserFavoriteRepository userFavoriteRepository,
+                           AttractionService attractionService,
+                           RecommendationProperties recommendationProperties) {
+        this.attractionRepository = attractionRepository;
+        this.reviewRepository = reviewRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+        this.attractionService = attractionService;
+        this.config = recommendationProperties.getTrending();
+        this.counter = new TrendingCounter(Duration.ofMinutes(config.getHalfLifeMinutes()), System.currentTimeMillis());
+    }
+
+    /**
+     * 热度最高的景点
+     *
+     * @param category 可选，类别 (不区分大小写)
+     * @param location 可选，地点包含该关键字 (不区分大小写)
+     */
+    public List<AttractionResponse> getTrendingAttractions(int limit, String category, String location) {
+        LongPredicate filter = attractionId -> true;
+        if (StringUtils.hasText(category) || StringUtils.hasText(location)) {
+            String locationKeyword = StringUtils.hasText(location) ? location.toLowerCase() : null;
+            filter = attractionId -> {
+                AttractionFacet facet = facets.get(attractionId);
+                return facet != null
+                        && (!StringUtils.hasText(category) || category.equalsIgnoreCase(facet.getCategory()))
+                        && (locationKeyword == null || (facet.getLocation() != null && facet.getLocation().toLowerCase().contains(locationKeyword)));
+            };
+        }
+        List<Long> attractionIds = counter.top(limit, System.currentTimeMillis(), filter);
+        return attractionService.findAttractionResponsesInOrder(attractionIds);
+    }
+
+    /**
+     * 热度最高的景点及其当前热度，供推荐流水线使用
+     */
+    public List<Candidate> getTrendingCandidates(int limit) {
+        long now = System.currentTimeMillis();
+        List<Long> attractionIds = counter.top(limit, now, attractionId -> true);
+        List<Candidate> candidates = new ArrayList<>(attractionIds.size());
+        attractionIds.forEach(attractionId -> candidates.add(new Candidate(attractionId, counter.score(attractionId, now))));
+        return candidates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        attractionRepository.findAllAttractionFacets().forEach(facet -> facets.put(facet.getAttractionId(), facet));
+        log.info("TrendingService: loaded facets of {} attractions, half-life {} min", facets.size(), config.getHalfLifeMinutes());
+    }
+
+    // 浏览不依赖事务结果，同步计数
+    @EventListener
+    public void onAttractionViewed(AttractionViewedEvent event) {
+        counter.record(event.getAttractionId(), config.getViewWeight(), System.currentTimeMillis());
+    }
+
+    /**
+     * 新增/更新评价、新增收藏计入热度；取消收藏、删除评价不计入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        double weight;
+        if (event.getType() == InteractionType.FAVORITE
+                && userFavoriteRepository.existsByUser_IdAndAttraction_Id(event.getUserId(), event.getAttractionId())) {
+            weight = config.getFavoriteWeight();
+        } else if (event.getType() == InteractionType.REVIEW
+                && reviewRepository.findRatingByUserIdAndAttractionId(event.getUserId(), event.getAttractionId()).isPresent()) {
+            weight = config.getReviewWeight();
+        } else {
+            return;
+        }
+        counter.record(event.getAttractionId(), weight, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttractionChanged(AttractionChangedEvent event) {
+        if (event.getType() == AttractionChangeType.DELETED) {
+            facets.remove(event.getAttractionId());
+            counter.remove(event.getAttractionId());
+        } else if (event.getType() != AttractionChangeType.RATING) {
+            attractionRepository.findById(event.getAttractionId()).ifPresent(attraction -> facets.put(attraction.getId(),
+                    new AttractionFacet(attraction.getId(), attraction.getCategory(), attraction.getLocation())));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.travel.service;
 import com.example.travel.dto.*;
 import com.example.travel.entity.Tag;
 import com.example.travel.entity.User;
+import com.example.travel.event.UserPreferencesChangedEvent;
 
 import com.example.travel.exception.ConflictException;
 import com.example.travel.exception.ResourceNotFoundException;
@@ -11,6 +12,7 @@ import com.example.travel.repository.UserRepository;
 import com.example.travel.config.JwtTokenUtil; // 您的JWT工具类
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -47,6 +49,7 @@ public class UserService implements UserDetailsService,IUserService {
     // private final RoleRepository roleRepository; // If using Role entity (we decided against this for now)
     private final TagService tagService; // Inject TagService
     private final TagRepository tagRepository; // Still needed for direct ID fetching
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public void setAuthenticationManager(@Lazy AuthenticationManager authenticationManager) {
@@ -60,7 +63,8 @@ public class UserService implements UserDetailsService,IUserService {
                        @Lazy AuthenticationManager authenticationManager,
                        // RoleRepository roleRepository,
                        TagService tagService, // Add TagService
-                       TagRepository tagRepository) { // Keep TagRepository
+                       TagRepository tagRepository, // Keep TagRepository
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenUtil = jwtTokenUtil;
@@ -68,6 +72,7 @@ public class UserService implements UserDetailsService,IUserService {
         // this.roleRepository = roleRepository;
         this.tagService = tagService; // Initialize TagService
         this.tagRepository = tagRepository; // Initialize TagRepository
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -169,6 +174,7 @@ public class UserService implements UserDetailsService,IUserService {
                 // The TagService method might have better handling for not found IDs
             }
             user.setPreferredTags(preferredTags);
+            eventPublisher.publishEvent(new UserPreferencesChangedEvent(id)); // 推荐结果缓存在事务提交后作废
         }
 
         User updatedUser = userRepository.save(user);
@@ -234,6 +240,7 @@ public class UserService implements UserDetailsService,IUserService {
                 preferredTags = tagService.findTagsByIds(request.getPreferredTagIds());
             }
             user.setPreferredTags(preferredTags);
+            eventPublisher.publishEvent(new UserPreferencesChangedEvent(id));
         }
 
         User updatedUser = userRepository.save(user);
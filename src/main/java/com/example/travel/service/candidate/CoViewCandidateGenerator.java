@@ -0,0 +1,34 @@
+package com.example.travel.service.candidate;
+
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.service.CoViewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 浏览会话召回：与用户最近浏览的景点在同一会话中被共同浏览的景点，适合没有评价/收藏的用户
+ */
+@Component
+public class CoViewCandidateGenerator implements CandidateGenerator {
+
+    private final CoViewService coViewService;
+
+    @Autowired
+    public CoViewCandidateGenerator(CoViewService coViewService) {
+        this.coViewService = coViewService;
+    }
+
+    @Override
+    public String name() {
+        return "co-view";
+    }
+
+    @Override
+    public List<Candidate> generate(CandidateRequest request) {
+        return coViewService.getRecentBrowsingCandidates(request.getUserId(), request.getCandidateLimit());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.travel.service.candidate;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.recommendation.AttractionLocation;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.search.AttractionGeoIndex;
+import com.example.travel.search.NearbyAttraction;
+import com.example.travel.service.AttractionGeoIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 附近景点召回：请求带有用户位置时，取搜索半径内的景点，分值随距离线性递减 (1 - 距离 / 半径)。
+ * 优先查内存空间索引；索引尚未就绪时先按经纬度外接矩形查询数据库，再用球面距离精确过滤
+ */
+@Component
+public class GeoCandidateGenerator implements CandidateGenerator {
+
+    private final AttractionRepository attractionRepository;
+    private final AttractionGeoIndexService attractionGeoIndexService;
+    private final RecommendationProperties.Pipeline config;
+    // 在流水线线程上运行，没有外层事务
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public GeoCandidateGenerator(AttractionRepository attractionRepository,
+                                 AttractionGeoIndexService attractionGeoIndexService,
+                                 RecommendationProperties recommendationProperties,
+                                 PlatformTransactionManager transactionManager) {
+        this.attractionRepository = attractionRepository;
+        this.attractionGeoIndexService = attractionGeoIndexService;
+        this.config = recommendationProperties.getPipeline();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public String name() {
+        return "geo";
+    }
+
+    @Override
+    public List<Candidate> generate(CandidateRequest request) {
+        if (!request.hasLocation() || config.getGeoRadiusKm() <= 0) {
+            return List.of();
+        }
+        double latitude = request.getLatitude();
+        double longitude = request.getLongitude();
+        double radiusKm = config.getGeoRadiusKm();
+        List<NearbyAttraction> nearby = attractionGeoIndexService.withinRadius(latitude, longitude, radiusKm, request.getCandidateLimit());
+        if (nearby != null) {
+            // 已按距离升序，即分值降序
+            List<Candidate> candidates = new ArrayList<>(nearby.size());
+            for (NearbyAttraction attraction : nearby) {
+                candidates.add(new Candidate(attraction.getAttractionId(), 1.0 - attraction.getDistanceKm() / radiusKm));
+            }
+            return candidates;
+        }
+
+        double latitudeDelta = Math.toDegrees(radiusKm / AttractionGeoIndex.EARTH_RADIUS_KM);
+        double longitudeDelta = Math.toDegrees(radiusKm / (AttractionGeoIndex.EARTH_RADIUS_KM * Math.max(Math.cos(Math.toRadians(latitude)), 1e-6)));
+        List<AttractionLocation> inBox = readOnlyTransaction.execute(status -> attractionRepository.findAttractionLocationsWithin(
+                latitude - latitudeDelta, latitude + latitudeDelta, longitude - longitudeDelta, longitude + longitudeDelta));
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (AttractionLocation location : inBox) {
+            double distance = AttractionGeoIndex.distanceKm(latitude, longitude, location.getLatitude(), location.getLongitude());
+            if (distance < radiusKm) {
+                candidates.add(new Candidate(location.getAttractionId(), 1.0 - distance / radiusKm));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::getScore).reversed().thenComparing(Candidate::getAttractionId));
+        return candidates.size() > request.getCandidateLimit()
+                ? new ArrayList<>(candidates.subList(0, request.getCandidateLimit())) : candidates;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.travel.service.candidate;
+
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.service.RecommendationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 物品协同过滤召回：用户交互过的景点的相似邻居，分值为加权相似度之和
+ */
+@Component
+public class ItemCfCandidateGenerator implements CandidateGenerator {
+
+    private final RecommendationService recommendationService;
+
+    @Autowired
+    public ItemCfCandidateGenerator(RecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    @Override
+    public String name() {
+        return "item-cf";
+    }
+
+    @Override
+    public List<Candidate> generate(CandidateRequest request) {
+        return recommendationService.getItemCfCandidates(request.getUserId(), request.getCandidateLimit());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.travel.service.candidate;
+
+import com.example.travel.recommendation.AttractionTagIndex;
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.service.AttractionTagIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 偏好标签召回：带有用户任一偏好标签、且用户未评价/收藏过的景点，按评分顺序取前 N 个。
+ * 索引只给出顺序，分值按名次线性递减 (第一名 1.0)；索引尚未构建完成时不召回
+ */
+@Component
+public class TagCandidateGenerator implements CandidateGenerator {
+
+    private final AttractionTagIndexService attractionTagIndexService;
+
+    @Autowired
+    public TagCandidateGenerator(AttractionTagIndexService attractionTagIndexService) {
+        this.attractionTagIndexService = attractionTagIndexService;
+    }
+
+    @Override
+    public String name() {
+        return "tag";
+    }
+
+    @Override
+    public List<Candidate> generate(CandidateRequest request) {
+        AttractionTagIndex tagIndex = attractionTagIndexService.currentIndex();
+        if (tagIndex == null || request.getPreferredTagIds().isEmpty()) {
+            return List.of();
+        }
+        RankedAttractions ranked = tagIndex.recommend(request.getPreferredTagIds(), request.getUserId(),
+                0, request.getCandidateLimit());
+        List<Long> attractionIds = ranked.getAttractionIds();
+        List<Candidate> candidates = new ArrayList<>(attractionIds.size());
+        for (int rank = 0; rank < attractionIds.size(); rank++) {
+            candidates.add(new Candidate(attractionIds.get(rank), (double) (attractionIds.size() - rank) / attractionIds.size()));
+        }
+        return candidates;
+    }
+}
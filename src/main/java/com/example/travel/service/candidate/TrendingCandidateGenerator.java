@@ -0,0 +1,34 @@
+package com.example.travel.service.candidate;
+
+import com.example.travel.recommendation.Candidate;
+import com.example.travel.recommendation.CandidateGenerator;
+import com.example.travel.recommendation.CandidateRequest;
+import com.example.travel.service.TrendingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 热度召回：近期浏览、收藏、评价随时间衰减后热度最高的景点，分值为当前热度
+ */
+@Component
+public class TrendingCandidateGenerator implements CandidateGenerator {
+
+    private final TrendingService trendingService;
+
+    @Autowired
+    public TrendingCandidateGenerator(TrendingService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    @Override
+    public String name() {
+        return "trending";
+    }
+
+    @Override
+    public List<Candidate> generate(CandidateRequest request) {
+        return trendingService.getTrendingCandidates(request.getCandidateLimit());
+    }
+}
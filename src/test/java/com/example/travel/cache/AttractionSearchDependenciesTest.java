@@ -0,0 +1,125 @@
+package com.example.travel.cache;
+
+import com.example.travel.event.AttractionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttractionSearchDependenciesTest {
+
+    private static final PageRequest BY_ID = PageRequest.of(0, 10, Sort.by("id"));
+    private static final PageRequest BY_RATING = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "averageRating"));
+
+    private final AttractionSearchDependencies dependencies = new AttractionSearchDependencies(100);
+
+    private static AttractionSnapshot attraction(long id, String category, Set<Long> tagIds, double rating) {
+        return new AttractionSnapshot(id, "Attraction " + id, null, null, null, category, tagIds, rating, 10);
+    }
+
+    private static AttractionSearchKey key(String category, Float minRating, List<Long> tagIds, PageRequest pageable) {
+        return new AttractionSearchKey(null, category, minRating, tagIds, pageable);
+    }
+
+    @Test
+    void removeAffectedBy_shouldEvictPagesContainingTheAttraction() {
+        AttractionSearchKey page = key("museum", null, null, BY_ID);
+        dependencies.register(page, List.of(1L, 2L));
+
+        List<AttractionSearchKey> affected = dependencies.removeAffectedBy(
+                attraction(2L, "museum", Set.of(), 4.0), attraction(2L, "museum", Set.of(), 4.2), false);
+
+        assertEquals(List.of(page), affected);
+        assertEquals(0, dependencies.size());
+    }
+
+    @Test
+    void removeAffectedBy_shouldKeepPagesOfOtherCategoriesAndTags() {
+        AttractionSearchKey museums = key("museum", null, null, BY_RATING);
+        AttractionSearchKey parks = key(null, null, List.of(7L), BY_RATING);
+        dependencies.register(museums, List.of(1L));
+        dependencies.register(parks, List.of(3L));
+
+        List<AttractionSearchKey> affected = dependencies.removeAffectedBy(
+                attraction(9L, "temple", Set.of(8L), 4.0), attraction(9L, "temple", Set.of(8L), 4.8), false);
+
+        assertTrue(affected.isEmpty());
+        assertEquals(2, dependencies.size());
+    }
+
+    @Test
+    void removeAffectedBy_shouldEvictAllPagesOfAQueryWhenMembershipChanges() {
+        AttractionSearchKey first = key("museum", null, null, BY_ID);
+        AttractionSearchKey second = key("museum", null, null, PageRequest.of(1, 10, Sort.by("id")));
+        dependencies.register(first, List.of(1L));
+        dependencies.register(second, List.of(11L));
+
+        // 新增一个博物馆：结果总数变化，两页都要删除
+        List<AttractionSearchKey> affected = dependencies.removeAffectedBy(null, attraction(20L, "Museum", Set.of(), 0.0), false);
+
+        assertEquals(Set.of(first, second), Set.copyOf(affected));
+    }
+
+    @Test
+    void removeAffectedBy_shouldEvictWhenRatingCrossesMinRating() {
+        AttractionSearchKey highlyRated = key(null, 4.0f, null, BY_ID);
+        AttractionSearchKey anyRating = key(null, null, null, BY_ID);
+        dependencies.register(highlyRated, List.of(1L));
+        dependencies.register(anyRating, List.of(1L));
+
+        List<AttractionSearchKey> affected = dependencies.removeAffectedBy(
+                attraction(5L, "park", Set.of(), 3.9), attraction(5L, "park", Set.of(), 4.1), false);
+
+        assertEquals(List.of(highlyRated), affected); // 按 id 排序、不含景点 5 的无过滤页面不受影响
+    }
+
+    @Test
+    void removeAffectedBy_shouldEvictPagesSortedByAChangedField() {
+        AttractionSearchKey byRating = key(null, null, null, BY_RATING);
+        AttractionSearchKey byPrice = key(null, null, null, PageRequest.of(0, 10, Sort.by("ticketPrice")));
+        dependencies.register(byRating, List.of(1L));
+        dependencies.register(byPrice, List.of(1L));
+
+        // 评分变化：只影响按评分排序的页面
+        assertEquals(List.of(byRating), dependencies.removeAffectedBy(
+                attraction(5L, "park", Set.of(), 3.0), attraction(5L, "park", Set.of(), 3.5), false));
+        // 一般修改可能改了快照以外的字段：按票价排序的页面也受影响
+        assertEquals(List.of(byPrice), dependencies.removeAffectedBy(
+                attraction(5L, "park", Set.of(), 3.5), attraction(5L, "park", Set.of(), 3.5), true));
+    }
+
+    @Test
+    void register_shouldReturnOverflowingKeysOldestFirst() {
+        AttractionSearchDependencies small = new AttractionSearchDependencies(2);
+        AttractionSearchKey a = key("a", null, null, BY_ID);
+        AttractionSearchKey b = key("b", null, null, BY_ID);
+        AttractionSearchKey c = key("c", null, null, BY_ID);
+
+        assertTrue(small.register(a, List.of(1L)).isEmpty());
+        assertTrue(small.register(b, List.of(1L)).isEmpty());
+        assertEquals(List.of(a), small.register(c, List.of(1L)));
+        assertEquals(2, small.size());
+        // a 的反向索引也被清理：景点 1 的变化只影响 b 和 c
+        assertEquals(Set.of(b, c), Set.copyOf(small.removeAffectedBy(
+                attraction(1L, "x", Set.of(), 1.0), attraction(1L, "x", Set.of(), 2.0), false)));
+    }
+
+    @Test
+    void matches_shouldTreatLikeWildcardsAsPossibleMatches() {
+        AttractionSearchKey wildcard = new AttractionSearchKey("la_e", null, null, null, BY_ID);
+        AttractionSearchKey plain = new AttractionSearchKey("LAKE", null, null, null, BY_ID);
+        AttractionSnapshot westLake = new AttractionSnapshot(1L, "West Lake", null, "Hangzhou", null, "park", Set.of(), 4.0, 1);
+        AttractionSnapshot temple = new AttractionSnapshot(2L, "Temple", null, null, null, "temple", Set.of(), 4.0, 1);
+
+        assertTrue(wildcard.matches(temple));
+        assertTrue(plain.matches(westLake));
+        assertFalse(plain.matches(temple));
+        // 关键字也匹配地点等文本字段，且按全文索引的词项判断 (不要求连续出现)
+        assertTrue(new AttractionSearchKey("hangzhou", null, null, null, BY_ID).matches(westLake));
+        assertTrue(new AttractionSearchKey("lake west", null, null, null, BY_ID).matches(westLake));
+    }
+}
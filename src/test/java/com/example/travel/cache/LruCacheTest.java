@@ -0,0 +1,100 @@
+package com.example.travel.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        nanos.addAndGet(1_000);
+        return value;
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        LruCache cache = new LruCache("test", 2, null, nanos::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertNotNull(cache.get("a")); // a 变为最近访问
+
+        cache.put("c", 3);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void get_shouldExpireEntriesAfterTtl() {
+        LruCache cache = new LruCache("test", 10, Duration.ofSeconds(60), nanos::get);
+        cache.put("a", 1);
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertNotNull(cache.get("a"));
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void getWithLoader_shouldLoadOnceAndRecordStats() {
+        LruCache cache = new LruCache("test", 10, null, nanos::get);
+
+        assertEquals("x", cache.get("k", () -> load("x")));
+        assertEquals("x", cache.get("k", () -> load("y")));
+
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1_000, stats.totalLoadTime());
+    }
+
+    @Test
+    void getWithLoader_shouldCacheNullValues() {
+        LruCache cache = new LruCache("test", 10, null, nanos::get);
+
+        assertNull(cache.get("k", () -> load(null)));
+        assertNull(cache.get("k", () -> load("late")));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getWithLoader_shouldNotStoreValueLoadedAcrossClear() {
+        LruCache cache = new LruCache("test", 10, null, nanos::get);
+
+        String value = cache.get("k", () -> {
+            cache.clear(); // 加载期间数据发生变化
+            return load("stale");
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    void getWithLoader_shouldWrapLoaderFailures() {
+        LruCache cache = new LruCache("test", 10, null, nanos::get);
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, cache.stats().loadFailureCount());
+        assertNull(cache.get("k"));
+    }
+}
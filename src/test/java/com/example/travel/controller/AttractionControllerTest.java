@@ -40,6 +40,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import com.example.travel.config.SecurityConfig;
 import com.example.travel.config.JwtTokenUtil; // If needed for token filter bean in SecurityConfig
 import com.example.travel.service.UserService; // If UserDetailsService is UserService
+import com.example.travel.service.AttractionGeoIndexService;
+import com.example.travel.service.AttractionSuggestionService;
 
 @WebMvcTest(AttractionController.class) // Test only the AttractionController layer
 @Import({SecurityConfig.class, JwtTokenUtil.class}) // Import security config for @PreAuthorize
@@ -52,6 +54,12 @@ class AttractionControllerTest {
     @MockBean // Mocks the AttractionService in the Spring context
     private AttractionService attractionService;
 
+    @MockBean
+    private AttractionSuggestionService attractionSuggestionService;
+
+    @MockBean
+    private AttractionGeoIndexService attractionGeoIndexService;
+
     @MockBean // Mock UserService if your SecurityConfig or controller methods depend on it
     private UserService userService; // (e.g., for @PreAuthorize("@userService.isSelf(...)"))
 
@@ -0,0 +1,60 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlsModelTest {
+
+    private static final AlsParameters PARAMS = new AlsParameters(4, 8, 0.1, 10.0, 7L);
+
+    private InteractionMatrix interactions;
+
+    @BeforeEach
+    void setUp() {
+        // 两组兴趣明显不同的用户：1-3 偏好 100/200/300，4-6 偏好 400/500/600
+        interactions = InteractionMatrix.builder()
+                .add(1L, 100L, 5f).add(1L, 200L, 4f)
+                .add(2L, 100L, 4f).add(2L, 200L, 5f).add(2L, 300L, 4f)
+                .add(3L, 200L, 5f).add(3L, 300L, 5f)
+                .add(4L, 400L, 5f).add(4L, 500L, 4f)
+                .add(5L, 400L, 4f).add(5L, 500L, 5f).add(5L, 600L, 4f)
+                .add(6L, 500L, 5f).add(6L, 600L, 5f)
+                .build();
+    }
+
+    @Test
+    void train_parallelShouldMatchSerial() {
+        AlsModel serial = AlsModel.train(interactions, PARAMS, null, 4);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AlsModel parallel = AlsModel.train(interactions, PARAMS, pool, 4);
+            assertArrayEquals(serial.userFactorArray(), parallel.userFactorArray());
+            assertArrayEquals(serial.itemFactorArray(), parallel.itemFactorArray());
+            assertEquals(4, parallel.trainingStats().getThreads());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8, serial.trainingStats().getIterations());
+    }
+
+    @Test
+    void recommend_shouldSkipSeenItemsAndPreferSameGroup() {
+        AlsModel model = AlsModel.train(interactions, PARAMS, null, 2);
+        int user1 = interactions.users().ordinalOf(1L);
+
+        SparseRow ranked = model.recommend(user1, 4, interactions.userRow(user1));
+        assertEquals(4, ranked.size());
+        for (int k = 0; k < ranked.size(); k++) {
+            long attractionId = interactions.items().idOf(ranked.indexAt(k));
+            assertNotEquals(100L, attractionId);
+            assertNotEquals(200L, attractionId);
+        }
+        // 同组未看过的 300 应排第一
+        assertEquals(300L, interactions.items().idOf(ranked.indexAt(0)));
+        assertSame(SparseRow.EMPTY, model.recommend(-1, 4, SparseRow.EMPTY));
+    }
+}
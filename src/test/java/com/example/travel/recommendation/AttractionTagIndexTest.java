@@ -0,0 +1,71 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttractionTagIndexTest {
+
+    private AttractionTagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = AttractionTagIndex.builder(List.of(
+                        new AttractionRating(10L, 4.5, 20),
+                        new AttractionRating(20L, 4.8, 5),
+                        new AttractionRating(30L, 4.5, 50),
+                        new AttractionRating(40L, 3.0, 100),
+                        new AttractionRating(50L, 5.0, 1)))
+                .addTag(10L, 1L).addTag(10L, 2L) // 同时命中两个偏好标签
+                .addTag(20L, 1L)
+                .addTag(30L, 2L)
+                .addTag(40L, 2L)
+                .addTag(50L, 3L)
+                .addInteraction(7L, 20L)
+                .build();
+    }
+
+    @Test
+    void recommend_shouldUnionTagsWithoutDuplicatesAndOrderByRating() {
+        RankedAttractions ranking = index.recommend(Set.of(1L, 2L), 99L, 0, 10);
+        // 评分降序，评分相同按评分数降序
+        assertEquals(List.of(20L, 30L, 10L, 40L), ranking.getAttractionIds());
+        assertEquals(4, ranking.getTotalElements());
+    }
+
+    @Test
+    void recommend_shouldExcludeInteractedAttractionsAndPage() {
+        RankedAttractions firstPage = index.recommend(Set.of(1L, 2L), 7L, 0, 2);
+        assertEquals(List.of(30L, 10L), firstPage.getAttractionIds());
+        assertEquals(3, firstPage.getTotalElements());
+
+        RankedAttractions secondPage = index.recommend(Set.of(1L, 2L), 7L, 2, 2);
+        assertEquals(List.of(40L), secondPage.getAttractionIds());
+        assertTrue(index.recommend(Set.of(1L, 2L), 7L, 4, 2).getAttractionIds().isEmpty());
+        assertEquals(0, index.recommend(Set.of(42L), 7L, 0, 2).getTotalElements());
+    }
+
+    @Test
+    void updates_shouldBeVisibleToNextQuery() {
+        index.recommend(Set.of(2L), 7L, 0, 10); // 先生成评分顺序
+
+        index.upsertAttraction(60L, List.of(2L), 4.9, 3); // 新景点
+        index.upsertAttraction(10L, List.of(3L), 4.5, 20); // 标签 2 被移除
+        index.updateRating(40L, 4.95, 101);
+        index.removeAttraction(30L);
+        index.setInteracted(7L, 60L, true);
+
+        assertEquals(List.of(40L), index.recommend(Set.of(2L), 7L, 0, 10).getAttractionIds());
+        assertEquals(List.of(40L, 60L), index.recommend(Set.of(2L), 8L, 0, 10).getAttractionIds());
+        assertEquals(List.of(50L, 10L), index.recommend(Set.of(3L), 7L, 0, 10).getAttractionIds());
+
+        index.setInteracted(7L, 60L, false);
+        index.upsertAttraction(30L, List.of(2L), 1.0, 1); // 删除后重新加入
+        assertEquals(List.of(40L, 60L, 30L), index.recommend(Set.of(2L), 7L, 0, 10).getAttractionIds());
+        assertEquals(6, index.attractionCount());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoViewModelTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private CoViewModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new CoViewModel(Duration.ofMinutes(30), 3, 2, 1, Duration.ofDays(1), 1000);
+    }
+
+    @Test
+    void recordView_shouldOnlyPairViewsInTheSameSession() {
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, 10 * MINUTE);
+        // 间隔超过 30 分钟，新会话
+        model.recordView(1L, 300L, 50 * MINUTE);
+
+        assertEquals(List.of(200L), ids(model.alsoViewed(100L, 10)));
+        assertEquals(List.of(100L), ids(model.alsoViewed(200L, 10)));
+        assertTrue(model.alsoViewed(300L, 10).isEmpty());
+    }
+
+    @Test
+    void recordView_shouldCountRepeatedViewsInASessionOnce() {
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, MINUTE);
+        model.recordView(1L, 100L, 2 * MINUTE);
+        model.recordView(1L, 200L, 3 * MINUTE);
+
+        // 一个会话：co = 1，两个景点各 1 个会话 -> 1 / sqrt(1 * 1)
+        assertEquals(1.0, model.alsoViewed(100L, 10).get(0).getScore(), 1e-9);
+        assertEquals(2, model.coViewEntryCount());
+    }
+
+    @Test
+    void alsoViewed_shouldNormalizeBySessionCounts() {
+        // 500 出现在每个会话中，200 只与 100 一起出现
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, MINUTE);
+        model.recordView(1L, 500L, 2 * MINUTE);
+        for (long user = 2; user <= 5; user++) {
+            model.recordView(user, 500L, 0);
+            model.recordView(user, 900L + user, MINUTE);
+        }
+
+        List<Candidate> similar = model.alsoViewed(100L, 10);
+        assertEquals(List.of(200L, 500L), ids(similar));
+        assertEquals(1.0, similar.get(0).getScore(), 1e-9);
+        assertEquals(1.0 / Math.sqrt(5), similar.get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    void recordView_shouldLimitSessionToMostRecentItems() {
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, MINUTE);
+        model.recordView(1L, 300L, 2 * MINUTE);
+        model.recordView(1L, 400L, 3 * MINUTE);
+        // 会话最多保留最近 3 个景点：加入 500 时 100 已经被挤出
+        model.recordView(1L, 500L, 4 * MINUTE);
+
+        assertEquals(List.of(200L, 300L, 400L), ids(model.alsoViewed(500L, 10)));
+        assertFalse(ids(model.alsoViewed(100L, 10)).contains(500L));
+    }
+
+    @Test
+    void recentBrowsing_shouldExcludeRecentlyViewedAndWeightRecentViewsHigher() {
+        // 其他用户的会话：100 与 300 共现，200 与 400 共现
+        model.recordView(2L, 100L, 0);
+        model.recordView(2L, 300L, MINUTE);
+        model.recordView(3L, 200L, 0);
+        model.recordView(3L, 400L, MINUTE);
+        // 用户 1 先看 100，隔了很久再看 200
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, 120 * MINUTE);
+
+        assertEquals(List.of(400L, 300L), ids(model.recentBrowsing(1L, 10)));
+        assertTrue(model.recentBrowsing(99L, 10).isEmpty());
+    }
+
+    @Test
+    void removeAttraction_shouldDropItFromRecommendations() {
+        model.recordView(1L, 100L, 0);
+        model.recordView(1L, 200L, MINUTE);
+        model.removeAttraction(200L);
+
+        assertTrue(model.alsoViewed(100L, 10).isEmpty());
+        assertTrue(model.alsoViewed(200L, 10).isEmpty());
+    }
+
+    @Test
+    void longIntHashMap_shouldGrowAndAccumulate() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (long key = 1; key <= 1000; key++) {
+            map.addTo(key, (int) key);
+        }
+        map.addTo(7L, 3);
+        assertEquals(1000, map.size());
+        assertEquals(10, map.get(7L));
+        assertEquals(0, map.get(5000L));
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(0L, 1));
+    }
+
+    private static List<Long> ids(List<Candidate> candidates) {
+        return candidates.stream().map(Candidate::getAttractionId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCfModelTest {
+
+    private InteractionMatrix interactions;
+
+    @BeforeEach
+    void setUp() {
+        interactions = InteractionMatrix.builder()
+                .add(1L, 100L, 4f)
+                .add(1L, 200L, 5f)
+                .add(2L, 100L, 3f)
+                .add(2L, 300L, 2f)
+                .add(3L, 200L, 1f)
+                .add(3L, 300L, 5f)
+                .add(3L, 200L, 5f) // 收藏与评分重复，取最大值
+                .build();
+    }
+
+    @Test
+    void build_shouldEncodeIdsAndKeepMaxScoreForDuplicates() {
+        assertEquals(3, interactions.userCount());
+        assertEquals(3, interactions.itemCount());
+        assertEquals(6, interactions.interactionCount());
+
+        int user3 = interactions.users().ordinalOf(3L);
+        int item200 = interactions.items().ordinalOf(200L);
+        assertEquals(5f, interactions.score(user3, item200));
+        assertEquals(-1, interactions.users().ordinalOf(99L));
+    }
+
+    @Test
+    void itemColumns_shouldMirrorUserRows() {
+        for (int u = 0; u < interactions.userCount(); u++) {
+            SparseRow row = interactions.userRow(u);
+            for (int k = 0; k < row.size(); k++) {
+                assertEquals(row.valueAt(k), interactions.itemColumn(row.indexAt(k)).get(u));
+            }
+        }
+    }
+
+    @Test
+    void similarity_shouldMatchBruteForceCosine() {
+        ItemCfModel model = ItemCfModel.build(interactions, 10);
+        for (int i = 0; i < interactions.itemCount(); i++) {
+            for (int j = 0; j < interactions.itemCount(); j++) {
+                if (i != j) {
+                    assertEquals(bruteForceCosine(i, j), model.similarity(i, j), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void applyScoreChange_shouldMatchFullRebuild() {
+        ItemCfModel model = ItemCfModel.build(interactions, 10);
+        model.applyScoreChange(2L, 200L, 4f);   // 新增
+        model.applyScoreChange(3L, 300L, 0f);   // 删除
+        model.applyScoreChange(1L, 100L, 2f);   // 修改
+        model.applyScoreChange(4L, 300L, 3f);   // 新用户
+
+        ItemCfModel rebuilt = ItemCfModel.build(InteractionMatrix.builder()
+                .add(1L, 100L, 2f)
+                .add(1L, 200L, 5f)
+                .add(2L, 100L, 3f)
+                .add(2L, 200L, 4f)
+                .add(2L, 300L, 2f)
+                .add(3L, 200L, 5f)
+                .add(4L, 300L, 3f)
+                .build(), 10);
+
+        long[] ids = {100L, 200L, 300L};
+        for (long a : ids) {
+            for (long b : ids) {
+                if (a != b) {
+                    double expected = rebuilt.similarity(rebuilt.interactions().items().ordinalOf(a), rebuilt.interactions().items().ordinalOf(b));
+                    double actual = model.similarity(model.interactions().items().ordinalOf(a), model.interactions().items().ordinalOf(b));
+                    assertEquals(expected, actual, 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void applyScoreChange_removingUnknownPair_shouldNotAllocateOrdinals() {
+        ItemCfModel model = ItemCfModel.build(interactions, 10);
+        model.applyScoreChange(9L, 100L, 0f);   // 未知用户
+        model.applyScoreChange(1L, 900L, 0f);   // 未知景点
+
+        assertEquals(3, model.interactions().userCount());
+        assertEquals(3, model.interactions().itemCount());
+        assertTrue(model.interactions().users().ordinalOf(9L) < 0);
+        assertTrue(model.interactions().items().ordinalOf(900L) < 0);
+    }
+
+    @Test
+    void parallelBuild_shouldMatchSequentialBuild() {
+        ItemCfModel sequential = ItemCfModel.build(interactions, 10);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ItemCfModel parallel = ItemCfModel.build(interactions, pool, 3, 10);
+            assertEquals(sequential.buildStats().getCandidatePairs(), parallel.buildStats().getCandidatePairs());
+            assertEquals(sequential.neighborCount(), parallel.neighborCount());
+            for (int i = 0; i < interactions.itemCount(); i++) {
+                for (int j = 0; j < interactions.itemCount(); j++) {
+                    assertEquals(sequential.similarity(i, j), parallel.similarity(i, j), 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void similarItems_shouldBeSortedBySimilarityDescending() {
+        ItemCfModel model = ItemCfModel.build(interactions, 10);
+        SparseRow similar = model.similarItems(interactions.items().ordinalOf(200L), 10);
+        assertEquals(2, similar.size());
+        assertTrue(similar.valueAt(0) >= similar.valueAt(1));
+    }
+
+    @Test
+    void neighborLists_shouldKeepOnlyTopK() {
+        ItemCfModel model = ItemCfModel.build(interactions, 1);
+        for (int i = 0; i < interactions.itemCount(); i++) {
+            SparseRow neighbors = model.similarItems(i, 10);
+            assertEquals(1, neighbors.size());
+            double best = 0;
+            for (int j = 0; j < interactions.itemCount(); j++) {
+                if (j != i) {
+                    best = Math.max(best, bruteForceCosine(i, j));
+                }
+            }
+            assertEquals(best, neighbors.valueAt(0), 1e-6);
+        }
+    }
+
+    @Test
+    void approximateBuild_withWideBands_shouldFindExactNeighbors() {
+        // 每段 1 行、段数很多时，任何共享用户的景点对几乎必然落入同一个桶
+        LshParameters params = new LshParameters(64, 1, 100, 10, 7L);
+        ItemCfModel approximate = ItemCfModel.buildApproximate(interactions, null, 2, 10, params);
+        ItemCfModel exact = ItemCfModel.build(interactions, 10);
+        assertEquals(SimilarityMode.LSH, approximate.buildStats().getMode());
+        assertEquals(1.0, approximate.buildStats().getSampledRecall(), 1e-9);
+        for (int i = 0; i < interactions.itemCount(); i++) {
+            for (int j = 0; j < interactions.itemCount(); j++) {
+                assertEquals(exact.similarity(i, j), approximate.similarity(i, j), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void lshCandidates_shouldMergeBandsWithoutDuplicates() {
+        long[] merged = LshNeighborIndexBuilder.mergeUnique(new long[]{1, 4, 9}, new long[]{1, 2, 9, 10, 0}, 4);
+        assertArrayEquals(new long[]{1, 2, 4, 9, 10}, merged);
+        assertArrayEquals(new long[]{3, 5}, LshNeighborIndexBuilder.mergeUnique(new long[0], new long[]{3, 5}, 2));
+    }
+
+    @Test
+    void recommend_whileNewItemsAreAdded_shouldNotReadPastTheScoreArray() throws InterruptedException {
+        // K 大于新增景点数、读取整行邻居：每个新景点都会立即出现在 100 号景点的邻居列表中
+        ItemCfModel model = ItemCfModel.build(interactions, 2000);
+        int user1 = interactions.users().ordinalOf(1L);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[4];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        model.recommend(user1, Integer.MAX_VALUE, 5);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            readers[r].start();
+        }
+        try {
+            // 用户 2 与用户 1 都看过 100 号景点，之后陆续看了一批新景点
+            for (long itemId = 1000; itemId < 1500 && failure.get() == null; itemId++) {
+                model.applyScoreChange(2L, itemId, 5f);
+            }
+        } finally {
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+        assertNull(failure.get());
+        assertFalse(model.recommend(user1, Integer.MAX_VALUE, 5).isEmpty());
+    }
+
+    private double bruteForceCosine(int item1, int item2) {
+        SparseRow a = interactions.itemColumn(item1);
+        SparseRow b = interactions.itemColumn(item2);
+        double dot = 0;
+        for (int k = 0; k < a.size(); k++) {
+            dot += a.valueAt(k) * b.get(a.indexAt(k));
+        }
+        double norm = Math.sqrt(interactions.itemSquaredNorm(item1) * interactions.itemSquaredNorm(item2));
+        return dot / norm;
+    }
+
+    @Test
+    void recommend_shouldSumWeightedSimilaritiesAndSkipInteractedItems() {
+        ItemCfModel model = ItemCfModel.build(interactions, 10);
+        int user1 = interactions.users().ordinalOf(1L);
+        int item100 = interactions.items().ordinalOf(100L);
+        int item200 = interactions.items().ordinalOf(200L);
+        int item300 = interactions.items().ordinalOf(300L);
+
+        SparseRow ranked = model.recommend(user1, 10, 5);
+        assertEquals(1, ranked.size());
+        assertEquals(item300, ranked.indexAt(0));
+        double expected = 4 * bruteForceCosine(item100, item300) + 5 * bruteForceCosine(item200, item300);
+        assertEquals(expected, ranked.valueAt(0), 1e-5);
+        assertTrue(model.recommend(-1, 10, 5).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RecommendationModel model;
+
+    @BeforeEach
+    void setUp() {
+        InteractionMatrix interactions = InteractionMatrix.builder()
+                .add(1L, 100L, 4f)
+                .add(1L, 200L, 5f)
+                .add(2L, 100L, 3f)
+                .add(2L, 300L, 2f)
+                .add(3L, 200L, 1f)
+                .add(3L, 300L, 5f)
+                .build();
+        ItemCfModel itemCf = ItemCfModel.build(interactions, 10);
+        itemCf.applyScoreChange(4L, 400L, 5f); // 构建之后追加的用户和景点
+        itemCf.applyScoreChange(4L, 100L, 2f);
+        AlsModel als = AlsModel.train(interactions, new AlsParameters(4, 3, 0.1, 10.0, 1L), null, 2);
+        model = new RecommendationModel(7L, itemCf, als, LocalDateTime.of(2024, 5, 1, 12, 0),
+                1234L, LocalDateTime.of(2024, 5, 1, 11, 55), false, List.of());
+    }
+
+    @Test
+    void read_shouldRestoreWrittenModel() throws IOException {
+        Path path = tempDir.resolve("model.snapshot");
+        ModelSnapshotFile.write(model, path);
+        RecommendationModel restored = ModelSnapshotFile.read(path);
+
+        assertTrue(restored.restoredFromSnapshot());
+        assertEquals(7L, restored.version());
+        assertEquals(model.builtAt(), restored.builtAt());
+        assertEquals(model.watermark(), restored.watermark());
+
+        InteractionMatrix expected = model.interactions();
+        InteractionMatrix actual = restored.interactions();
+        assertEquals(expected.userCount(), actual.userCount());
+        assertEquals(expected.itemCount(), actual.itemCount());
+        assertEquals(expected.interactionCount(), actual.interactionCount());
+        for (int u = 0; u < expected.userCount(); u++) {
+            long userId = expected.users().idOf(u);
+            assertEquals(u, actual.users().ordinalOf(userId));
+        }
+        for (int i = 0; i < expected.itemCount(); i++) {
+            assertEquals(i, actual.items().ordinalOf(expected.items().idOf(i)));
+            assertEquals(expected.itemSquaredNorm(i), actual.itemSquaredNorm(i), 1e-9);
+            SparseRow expectedNeighbors = model.itemCf().similarItems(i, 10);
+            SparseRow actualNeighbors = restored.itemCf().similarItems(i, 10);
+            assertEquals(expectedNeighbors.size(), actualNeighbors.size());
+            for (int k = 0; k < expectedNeighbors.size(); k++) {
+                assertEquals(expectedNeighbors.indexAt(k), actualNeighbors.indexAt(k));
+                assertEquals(expectedNeighbors.valueAt(k), actualNeighbors.valueAt(k));
+            }
+        }
+    }
+
+    @Test
+    void read_shouldRestoreAlsFactors() throws IOException {
+        Path path = tempDir.resolve("model.snapshot");
+        ModelSnapshotFile.write(model, path);
+        AlsModel restored = ModelSnapshotFile.read(path).als();
+
+        assertNotNull(restored);
+        assertEquals(model.als().factors(), restored.factors());
+        assertEquals(3, restored.trainingStats().getIterations());
+        assertArrayEquals(model.als().userFactorArray(), restored.userFactorArray());
+        assertArrayEquals(model.als().itemFactorArray(), restored.itemFactorArray());
+    }
+
+    @Test
+    void read_shouldRejectCorruptedPayload() throws IOException {
+        Path path = tempDir.resolve("model.snapshot");
+        ModelSnapshotFile.write(model, path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), channel.size() - 1);
+        }
+        IOException error = assertThrows(IOException.class, () -> ModelSnapshotFile.read(path));
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+}
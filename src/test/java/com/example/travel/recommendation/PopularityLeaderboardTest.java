@@ -0,0 +1,72 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityLeaderboardTest {
+
+    private static List<AttractionRating> ratings() {
+        return List.of(
+                new AttractionRating(1L, 4.6, 200),
+                new AttractionRating(2L, 5.0, 2), // 只有两条五星评价
+                new AttractionRating(3L, 4.6, 80),
+                new AttractionRating(4L, 3.9, 500),
+                new AttractionRating(5L, null, null));
+    }
+
+    @Test
+    void averageRanking_shouldMatchDatabaseOrder() {
+        PopularityLeaderboard leaderboard = PopularityLeaderboard.build(ratings(), PopularityRanking.AVERAGE, 10, 0.01);
+        assertEquals(List.of(2L, 1L, 3L, 4L, 5L), leaderboard.page(0, 10));
+        assertEquals(List.of(3L, 4L), leaderboard.page(2, 2));
+        assertEquals(5, leaderboard.size());
+    }
+
+    @Test
+    void upsertAndRemove_shouldReorderIncrementally() {
+        PopularityLeaderboard leaderboard = PopularityLeaderboard.build(ratings(), PopularityRanking.AVERAGE, 10, 0.01);
+        leaderboard.upsert(4L, 4.8, 501);
+        leaderboard.upsert(6L, 4.7, 1);
+        leaderboard.remove(2L);
+        assertEquals(List.of(4L, 6L, 1L, 3L, 5L), leaderboard.page(0, 10));
+        assertEquals(5, leaderboard.size());
+    }
+
+    @Test
+    void bayesianRanking_shouldShrinkFewReviewsTowardsMean() {
+        PopularityLeaderboard leaderboard = PopularityLeaderboard.build(ratings(), PopularityRanking.BAYESIAN, 10, 0.01);
+        List<Long> top = leaderboard.page(0, 3);
+        assertEquals(List.of(1L, 3L), top.subList(0, 2));
+        assertNotEquals(2L, top.get(0));
+
+        // 评价数足够多之后仍能排到最前
+        leaderboard.upsert(2L, 5.0, 300);
+        assertEquals(2L, leaderboard.page(0, 1).get(0));
+    }
+
+    @Test
+    void deepPages_shouldMatchDirectScan() {
+        List<AttractionRating> many = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            many.add(new AttractionRating(id, (id * 7919 % 500) / 100.0, (int) (id % 13)));
+        }
+        PopularityLeaderboard leaderboard = PopularityLeaderboard.build(many, PopularityRanking.AVERAGE, 10, 0.01);
+        List<Long> all = new ArrayList<>();
+        for (int offset = 0; offset < 500; offset += 50) {
+            all.addAll(leaderboard.page(offset, 50)); // 前几页遍历跳表，之后使用快照
+        }
+        assertEquals(leaderboard.page(0, 150), all.subList(0, 150));
+        assertEquals(all.subList(300, 350), leaderboard.page(300, 50));
+
+        leaderboard.upsert(1L, 9.0, 1);
+        List<Long> expected = new ArrayList<>(all);
+        expected.remove(1L);
+        expected.add(0, 1L);
+        assertEquals(1L, leaderboard.page(0, 1).get(0));
+        assertEquals(expected.subList(300, 350), leaderboard.page(300, 50)); // 快照随写入失效
+    }
+}
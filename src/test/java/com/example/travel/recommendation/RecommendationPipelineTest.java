@@ -0,0 +1,173 @@
+package com.example.travel.recommendation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationPipelineTest {
+
+    private static final CandidateRequest REQUEST = new CandidateRequest(1L, Set.of(), Set.of(9L), null, null, 100);
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rank_shouldNormalizePerStageAndSumWeightedScores() {
+        List<Candidate> cf = List.of(new Candidate(1L, 8.0), new Candidate(2L, 4.0), new Candidate(9L, 10.0));
+        List<Candidate> trending = List.of(new Candidate(2L, 100.0), new Candidate(3L, 50.0));
+        List<Candidate> ranked = CandidateRanker.rank(List.of(cf, trending), new double[]{1.0, 0.5}, Set.of(9L), 10);
+
+        // 1: 8/10 = 0.8；2: 4/10 + 0.5 * 100/100 = 0.9；3: 0.5 * 50/100 = 0.25；9 已交互被排除
+        assertEquals(List.of(2L, 1L, 3L), ids(ranked));
+        assertEquals(0.9, ranked.get(0).getScore(), 1e-9);
+        assertEquals(List.of(2L), ids(CandidateRanker.rank(List.of(cf, trending), new double[]{1.0, 0.5}, Set.of(9L), 1)));
+    }
+
+    @Test
+    void run_shouldDropStagesThatMissTheirBudget() {
+        RecommendationPipeline pipeline = new RecommendationPipeline(List.of(
+                stage(fixed("fast", 1L, 2L), 1000),
+                stage(blocking("slow", 3L), 50),
+                stage(failing("broken"), 1000)),
+                executor, 0, Duration.ofSeconds(30), meterRegistry);
+
+        RecommendationPipeline.Result result = pipeline.run(REQUEST, 10);
+        assertEquals(List.of(1L, 2L), ids(result.getRanked()));
+        assertEquals(List.of(RecommendationPipeline.StageOutcome.OK, RecommendationPipeline.StageOutcome.TIMEOUT,
+                        RecommendationPipeline.StageOutcome.ERROR),
+                result.getStages().stream().map(RecommendationPipeline.StageReport::getOutcome).collect(Collectors.toList()));
+        assertEquals(2, result.getStages().get(0).getCandidateCount());
+        assertEquals(1, meterRegistry.get("recommendation.pipeline.stage")
+                .tags("stage", "slow", "outcome", "timeout").timer().count());
+        assertEquals(2.0, meterRegistry.get("recommendation.pipeline.candidates").tags("stage", "fast").summary().totalAmount());
+    }
+
+    @Test
+    void run_shouldSkipStageAfterConsecutiveTimeouts() {
+        AtomicInteger slowCalls = new AtomicInteger();
+        CandidateGenerator slow = new CandidateGenerator() {
+            @Override
+            public String name() {
+                return "slow";
+            }
+
+            @Override
+            public List<Candidate> generate(CandidateRequest request) {
+                slowCalls.incrementAndGet();
+                return blocking("slow", 3L).generate(request);
+            }
+        };
+        RecommendationPipeline pipeline = new RecommendationPipeline(List.of(stage(fixed("fast", 1L), 1000), stage(slow, 20)),
+                executor, 2, Duration.ofMinutes(5), meterRegistry);
+
+        pipeline.run(REQUEST, 10);
+        pipeline.run(REQUEST, 10);
+        RecommendationPipeline.Result third = pipeline.run(REQUEST, 10);
+
+        assertEquals(RecommendationPipeline.StageOutcome.SKIPPED, third.getStages().get(1).getOutcome());
+        assertEquals(List.of(1L), ids(third.getRanked()));
+        assertEquals(2, slowCalls.get());
+        assertEquals(1.0, meterRegistry.get("recommendation.pipeline.stage.skipped").tags("stage", "slow").counter().count());
+    }
+
+    @Test
+    void run_shouldSkipStagesRejectedByAFullExecutor() {
+        // 1 个线程 + 1 个排队位置：slow 占住线程，queued 排队，rejected 提交被拒绝
+        ThreadPoolExecutor bounded = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        try {
+            RecommendationPipeline pipeline = new RecommendationPipeline(List.of(
+                    stage(blocking("slow", 1L), 20), stage(fixed("queued", 2L), 20), stage(fixed("rejected", 3L), 20)),
+                    bounded, 0, Duration.ofSeconds(30), meterRegistry);
+
+            RecommendationPipeline.Result result = pipeline.run(REQUEST, 10);
+
+            assertEquals(List.of(RecommendationPipeline.StageOutcome.TIMEOUT, RecommendationPipeline.StageOutcome.TIMEOUT,
+                            RecommendationPipeline.StageOutcome.SKIPPED),
+                    result.getStages().stream().map(RecommendationPipeline.StageReport::getOutcome).collect(Collectors.toList()));
+            assertTrue(result.getRanked().isEmpty());
+            assertEquals(1.0, meterRegistry.get("recommendation.pipeline.stage.skipped").tags("stage", "rejected").counter().count());
+        } finally {
+            release.countDown();
+            bounded.shutdownNow();
+        }
+    }
+
+    private static RecommendationPipeline.Stage stage(CandidateGenerator generator, long budgetMillis) {
+        return new RecommendationPipeline.Stage(generator, Duration.ofMillis(budgetMillis), 1.0);
+    }
+
+    private static CandidateGenerator fixed(String name, Long... attractionIds) {
+        return generator(name, request -> {
+            List<Candidate> candidates = new ArrayList<>();
+            for (int k = 0; k < attractionIds.length; k++) {
+                candidates.add(new Candidate(attractionIds[k], attractionIds.length - k));
+            }
+            return candidates;
+        });
+    }
+
+    private CandidateGenerator blocking(String name, Long attractionId) {
+        return generator(name, request -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new Candidate(attractionId, 1.0));
+        });
+    }
+
+    private static CandidateGenerator failing(String name) {
+        return generator(name, request -> {
+            throw new IllegalStateException("index not ready");
+        });
+    }
+
+    private static CandidateGenerator generator(String name, Function<CandidateRequest, List<Candidate>> body) {
+        return new CandidateGenerator() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public List<Candidate> generate(CandidateRequest request) {
+                return body.apply(request);
+            }
+        };
+    }
+
+    private static List<Long> ids(List<Candidate> candidates) {
+        return candidates.stream().map(Candidate::getAttractionId).collect(Collectors.toList());
+    }
+}
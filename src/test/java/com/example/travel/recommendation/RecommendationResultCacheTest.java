@@ -0,0 +1,82 @@
+package com.example.travel.recommendation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationResultCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private RecommendationResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new RecommendationResultCache(true, 100, Duration.ofMinutes(10), registry, nanos::get);
+    }
+
+    private RankedAttractions load() {
+        loads.incrementAndGet();
+        return RankedAttractions.of(List.of(3L, 1L, 2L));
+    }
+
+    private double gets(String strategy, String result) {
+        return registry.get("recommendation.cache.gets").tag("strategy", strategy).tag("result", result).counter().count();
+    }
+
+    @Test
+    void getOrCompute_shouldHitUntilUserIsInvalidated() {
+        RankedAttractions first = cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        RankedAttractions second = cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        assertSame(first, second);
+        assertEquals(List.of(3L, 1L, 2L), second.getAttractionIds());
+        assertEquals(1, loads.get());
+
+        // 不同策略、不同条数、不同用户各自独立
+        cache.getOrCompute(1L, RecommendationStrategy.ALS, 0, 5, 1L, this::load);
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 10, 1L, this::load);
+        cache.getOrCompute(2L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        assertEquals(4, loads.get());
+
+        cache.invalidateUser(1L);
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        cache.getOrCompute(2L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        assertEquals(5, loads.get());
+
+        assertEquals(2, gets("item_cf", "hit"));
+        assertEquals(4, gets("item_cf", "miss"));
+        assertEquals(1, gets("als", "miss"));
+    }
+
+    @Test
+    void getOrCompute_shouldMissAfterTtlOrModelRebuild() {
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 2L, this::load);
+        assertEquals(2, loads.get());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 2L, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getOrCompute_shouldDropResultComputedAcrossInvalidation() {
+        // 计算过程中用户产生新交互，旧结果不应写入缓存
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, () -> {
+            cache.invalidateUser(1L);
+            return load();
+        });
+        cache.getOrCompute(1L, RecommendationStrategy.ITEM_CF, 0, 5, 1L, this::load);
+        assertEquals(2, loads.get());
+    }
+}
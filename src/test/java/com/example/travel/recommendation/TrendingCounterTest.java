@@ -0,0 +1,52 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingCounterTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void score_shouldHalveEveryHalfLife() {
+        TrendingCounter counter = new TrendingCounter(Duration.ofHours(1), 0);
+        counter.record(1L, 4.0, 0);
+        assertEquals(4.0, counter.score(1L, 0), 1e-9);
+        assertEquals(2.0, counter.score(1L, HOUR), 1e-9);
+        assertEquals(1.0, counter.score(1L, 2 * HOUR), 1e-9);
+        assertEquals(0.0, counter.score(2L, HOUR));
+    }
+
+    @Test
+    void top_shouldPreferRecentActivityAndApplyFilter() {
+        TrendingCounter counter = new TrendingCounter(Duration.ofHours(1), 0);
+        IntStream.range(0, 10).forEach(i -> counter.record(1L, 1.0, 0)); // 很久以前的 10 次浏览
+        IntStream.range(0, 3).forEach(i -> counter.record(2L, 1.0, 5 * HOUR)); // 最近的 3 次浏览
+        counter.record(3L, 1.0, 5 * HOUR);
+
+        assertEquals(List.of(2L, 3L, 1L), counter.top(5, 5 * HOUR, id -> true));
+        assertEquals(List.of(2L), counter.top(1, 5 * HOUR, id -> true));
+        assertEquals(List.of(3L, 1L), counter.top(5, 5 * HOUR, id -> id != 2L));
+        assertEquals(List.of(2L, 3L, 1L), counter.top(Integer.MAX_VALUE, 5 * HOUR, id -> true)); // 堆容量不随 limit 分配
+    }
+
+    @Test
+    void record_shouldRebaseWithoutChangingScores() {
+        TrendingCounter counter = new TrendingCounter(Duration.ofMinutes(1), 0);
+        counter.record(1L, 1.0, 0);
+        counter.record(2L, 1.0, 55 * 60_000L);
+        long later = 60 * 60_000L; // 60 个半衰期后触发换算，1 号景点的热度已可忽略
+        counter.record(3L, 2.0, later);
+
+        assertEquals(2.0, counter.score(3L, later), 1e-9);
+        assertEquals(Math.pow(0.5, 5), counter.score(2L, later), 1e-9);
+        assertEquals(List.of(3L, 2L), counter.top(5, later, id -> true));
+        assertEquals(2, counter.size());
+    }
+}
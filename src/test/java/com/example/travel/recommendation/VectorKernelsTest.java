@@ -0,0 +1,96 @@
+package com.example.travel.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorKernelsTest {
+
+    private final ScalarKernels scalar = ScalarKernels.INSTANCE;
+    private VectorKernels simd;
+    private SplittableRandom random;
+
+    @BeforeEach
+    void setUp() {
+        simd = VectorKernelsHolder.loadSimd();
+        assumeTrue(simd != null, "jdk.incubator.vector 不可用");
+        random = new SplittableRandom(11);
+    }
+
+    @Test
+    void sumOfSquares_shouldMatchScalarIncludingTail() {
+        float[] values = randomValues(103);
+        for (int from : new int[]{0, 3}) {
+            for (int to : new int[]{from, from + 1, 64, 103}) {
+                assertEquals(scalar.sumOfSquares(values, from, to), simd.sumOfSquares(values, from, to), 1e-3);
+            }
+        }
+    }
+
+    @Test
+    void sparseDenseDot_shouldGatherFromIndices() {
+        float[] dense = randomValues(500);
+        int[] indices = random.ints(0, 500).distinct().limit(77).sorted().toArray();
+        float[] values = randomValues(77);
+        assertEquals(scalar.sparseDenseDot(indices, values, 5, 77, dense),
+                simd.sparseDenseDot(indices, values, 5, 77, dense), 1e-3);
+    }
+
+    @Test
+    void scatterAdd_shouldOnlyTouchGivenIndices() {
+        int[] indices = random.ints(0, 300).distinct().limit(45).toArray();
+        float[] values = randomValues(45);
+        float[] expected = new float[300];
+        float[] actual = new float[300];
+        scalar.scatterAdd(indices, values, 2, 45, 2.5f, expected);
+        simd.scatterAdd(indices, values, 2, 45, 2.5f, actual);
+        assertArrayEquals(expected, actual, 1e-5f);
+        assertEquals(0f, actual[indices[0]]);
+    }
+
+    @Test
+    void multiplyRows_shouldMatchScalar() {
+        int rows = 37;
+        int dim = 13; // 不是向量长度的整数倍，覆盖尾部
+        float[] matrix = randomValues(rows * dim);
+        float[] query = randomValues(3 * dim);
+        float[] expected = new float[rows];
+        float[] actual = new float[rows];
+        scalar.multiplyRows(matrix, rows, dim, query, dim, expected);
+        simd.multiplyRows(matrix, rows, dim, query, dim, actual);
+        assertArrayEquals(expected, actual, 1e-4f);
+    }
+
+    @Test
+    void offerPositive_shouldSelectSameTopK() {
+        float[] scores = new float[1001];
+        for (int k = 0; k < scores.length; k += 9) {
+            scores[k] = (float) random.nextDouble();
+        }
+        scores[1000] = 2f;
+        scores[4] = -1f;
+        TopKSelector expected = new TopKSelector(10);
+        TopKSelector actual = new TopKSelector(10);
+        scalar.offerPositive(scores, scores.length, expected);
+        simd.offerPositive(scores, scores.length, actual);
+        SparseRow expectedRow = expected.drainDescending();
+        SparseRow actualRow = actual.drainDescending();
+        assertEquals(10, actualRow.size());
+        assertEquals(1000, actualRow.indexAt(0));
+        for (int k = 0; k < expectedRow.size(); k++) {
+            assertEquals(expectedRow.indexAt(k), actualRow.indexAt(k));
+        }
+    }
+
+    private float[] randomValues(int n) {
+        float[] values = new float[n];
+        for (int k = 0; k < n; k++) {
+            values[k] = (float) (random.nextDouble() * 4 - 1);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.travel.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttractionGeoIndexTest {
+
+    private static AttractionGeoIndex sampleIndex() {
+        return AttractionGeoIndex.builder()
+                .add(new AttractionGeoPoint(1L, 30.2431, 120.1500, "自然风光")) // 西湖
+                .add(new AttractionGeoPoint(2L, 30.2408, 120.1017, "寺庙")) // 灵隐寺
+                .add(new AttractionGeoPoint(3L, 31.2400, 121.4900, "城市景观")) // 外滩
+                .add(new AttractionGeoPoint(4L, 39.9163, 116.3972, "博物馆")) // 故宫
+                .addTag(1L, 10L)
+                .addTag(2L, 20L)
+                .addTag(3L, 10L)
+                .build();
+    }
+
+    private static List<Long> ids(List<NearbyAttraction> nearby) {
+        return nearby.stream().map(NearbyAttraction::getAttractionId).collect(Collectors.toList());
+    }
+
+    @Test
+    void withinRadius_shouldReturnAttractionsInsideTheCircleByDistance() {
+        AttractionGeoIndex index = sampleIndex();
+
+        List<NearbyAttraction> nearby = index.withinRadius(30.25, 120.16, 200, null, null, 10);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(nearby));
+        assertEquals(AttractionGeoIndex.distanceKm(30.25, 120.16, 30.2431, 120.1500), nearby.get(0).getDistanceKm(), 1e-9);
+        assertEquals(List.of(1L), ids(index.withinRadius(30.25, 120.16, 2, null, null, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.withinRadius(30.25, 120.16, 200, null, null, 2)));
+    }
+
+    @Test
+    void queries_shouldApplyCategoryAndTagFilters() {
+        AttractionGeoIndex index = sampleIndex();
+
+        assertEquals(List.of(2L), ids(index.withinRadius(30.25, 120.16, 200, "寺庙", null, 10)));
+        assertEquals(List.of(1L, 3L), ids(index.withinRadius(30.25, 120.16, 200, null, List.of(10L), 10)));
+        assertEquals(List.of(1L, 3L), ids(index.nearest(30.25, 120.16, 5, AttractionGeoIndex.MAX_DISTANCE_KM, null, List.of(10L, 99L))));
+        assertEquals(List.of(3L), ids(index.nearest(30.25, 120.16, 5, AttractionGeoIndex.MAX_DISTANCE_KM, "城市景观", List.of())));
+        assertEquals(List.of(4L), ids(index.nearest(30.25, 120.16, 1, AttractionGeoIndex.MAX_DISTANCE_KM, "博物馆", null)));
+    }
+
+    @Test
+    void nearest_shouldExpandUntilKAttractionsAreFoundAndRespectTheMaximumRadius() {
+        AttractionGeoIndex index = sampleIndex();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.nearest(30.25, 120.16, 10, AttractionGeoIndex.MAX_DISTANCE_KM, null, null)));
+        assertEquals(List.of(4L), ids(index.nearest(40.0, 116.4, 1, AttractionGeoIndex.MAX_DISTANCE_KM, null, null)));
+        assertEquals(List.of(1L, 2L), ids(index.nearest(30.25, 120.16, 10, 50, null, null)));
+        assertTrue(index.nearest(0, 0, 3, 1000, null, null).isEmpty());
+    }
+
+    @Test
+    void queries_shouldWrapAroundTheAntimeridianAndThePoles() {
+        AttractionGeoIndex index = AttractionGeoIndex.builder()
+                .add(new AttractionGeoPoint(1L, 0.0, 179.95, "岛屿"))
+                .add(new AttractionGeoPoint(2L, 0.0, -179.95, "岛屿"))
+                .add(new AttractionGeoPoint(3L, 89.95, 0.0, "极地"))
+                .add(new AttractionGeoPoint(4L, 89.95, 180.0, "极地"))
+                .build();
+
+        assertEquals(List.of(2L, 1L), ids(index.withinRadius(0.0, -179.99, 20, null, null, 10)));
+        assertEquals(List.of(3L, 4L), ids(index.withinRadius(89.99, 90.0, 20, null, null, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.nearest(0.0, 180.0, 2, AttractionGeoIndex.MAX_DISTANCE_KM, null, null)));
+    }
+
+    @Test
+    void incrementalUpdates_shouldMoveRefilterAndRemoveAttractions() {
+        AttractionGeoIndex index = sampleIndex();
+
+        index.upsertAttraction(new AttractionGeoPoint(4L, 30.2500, 120.1600, "博物馆"), List.of(20L)); // 故宫"搬"到西湖边
+        assertEquals(List.of(4L, 1L), ids(index.withinRadius(30.25, 120.16, 2, null, null, 10)));
+        assertEquals(List.of(4L, 2L), ids(index.withinRadius(30.25, 120.16, 200, null, List.of(20L), 10)));
+
+        index.upsertAttraction(new AttractionGeoPoint(1L, null, null, "自然风光"), List.of()); // 坐标被清空
+        index.removeAttraction(3L);
+        index.upsertAttraction(new AttractionGeoPoint(5L, 30.2600, 120.1700, "公园"), List.of());
+
+        assertEquals(List.of(4L, 5L, 2L), ids(index.withinRadius(30.25, 120.16, 1000, null, null, 10)));
+        assertEquals(3, index.attractionCount());
+    }
+
+    @Test
+    void queries_shouldMatchBruteForceUnderRandomUpdates() {
+        Random random = new Random(42);
+        String[] categories = {"公园", "寺庙", "博物馆"};
+        Map<Long, AttractionGeoPoint> points = new HashMap<>();
+        Map<Long, List<Long>> tags = new HashMap<>();
+        AttractionGeoIndex.Builder builder = AttractionGeoIndex.builder();
+        for (long id = 1; id <= 300; id++) {
+            AttractionGeoPoint point = randomPoint(random, id, categories);
+            long tagId = random.nextInt(5);
+            points.put(id, point);
+            tags.put(id, List.of(tagId));
+            builder.add(point).addTag(id, tagId);
+        }
+        AttractionGeoIndex index = builder.build();
+
+        for (int round = 0; round < 200; round++) {
+            long id = 1 + random.nextInt(320);
+            if (random.nextInt(4) == 0) {
+                index.removeAttraction(id);
+                points.remove(id);
+            } else {
+                AttractionGeoPoint point = randomPoint(random, id, categories);
+                List<Long> tagIds = List.of((long) random.nextInt(5));
+                index.upsertAttraction(point, tagIds);
+                points.put(id, point);
+                tags.put(id, tagIds);
+            }
+
+            double latitude = 28 + random.nextDouble() * 4;
+            double longitude = 118 + random.nextDouble() * 4;
+            String category = random.nextBoolean() ? categories[random.nextInt(categories.length)] : null;
+            List<Long> tagIds = random.nextBoolean() ? List.of((long) random.nextInt(5), (long) random.nextInt(5)) : null;
+            double radiusKm = 5 + random.nextDouble() * 150;
+            int k = 1 + random.nextInt(15);
+
+            List<NearbyAttraction> expected = bruteForce(points, tags, latitude, longitude, category, tagIds);
+            List<NearbyAttraction> inRadius = expected.stream().filter(hit -> hit.getDistanceKm() <= radiusKm)
+                    .limit(k).collect(Collectors.toList());
+            assertEquals(ids(inRadius), ids(index.withinRadius(latitude, longitude, radiusKm, category, tagIds, k)));
+            assertEquals(ids(expected.subList(0, Math.min(k, expected.size()))),
+                    ids(index.nearest(latitude, longitude, k, AttractionGeoIndex.MAX_DISTANCE_KM, category, tagIds)));
+        }
+    }
+
+    private static AttractionGeoPoint randomPoint(Random random, long id, String[] categories) {
+        // 集中在长三角，少数散落在全球，覆盖多个网格和空桶复用
+        boolean local = random.nextInt(10) > 0;
+        double latitude = local ? 28 + random.nextDouble() * 4 : -89 + random.nextDouble() * 178;
+        double longitude = local ? 118 + random.nextDouble() * 4 : -180 + random.nextDouble() * 360;
+        return new AttractionGeoPoint(id, latitude, longitude, categories[random.nextInt(categories.length)]);
+    }
+
+    private static List<NearbyAttraction> bruteForce(Map<Long, AttractionGeoPoint> points, Map<Long, List<Long>> tags,
+                                                     double latitude, double longitude, String category, List<Long> tagIds) {
+        List<NearbyAttraction> hits = new ArrayList<>();
+        for (AttractionGeoPoint point : points.values()) {
+            if (category != null && !category.equals(point.getCategory())) {
+                continue;
+            }
+            if (tagIds != null && tags.get(point.getAttractionId()).stream().noneMatch(Set.copyOf(tagIds)::contains)) {
+                continue;
+            }
+            hits.add(new NearbyAttraction(point.getAttractionId(),
+                    AttractionGeoIndex.distanceKm(latitude, longitude, point.getLatitude(), point.getLongitude())));
+        }
+        hits.sort(Comparator.comparingDouble(NearbyAttraction::getDistanceKm).thenComparingLong(NearbyAttraction::getAttractionId));
+        return hits;
+    }
+}
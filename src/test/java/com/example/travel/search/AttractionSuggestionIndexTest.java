@@ -0,0 +1,136 @@
+package com.example.travel.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttractionSuggestionIndexTest {
+
+    private static AttractionSuggestionIndex sampleIndex() {
+        return AttractionSuggestionIndex.builder()
+                .addTag(10L, "西湖十景")
+                .addTag(20L, "Lakeside")
+                .addAttraction(1L, "西湖", "杭州", 100)
+                .addAttraction(2L, "西溪湿地", "杭州", 30)
+                .addAttraction(3L, "West Lake Museum", "Hangzhou", 5)
+                .addAttraction(4L, "Lake Tai", "Wuxi", 8)
+                .addAttractionTag(1L, 10L)
+                .addAttractionTag(3L, 20L)
+                .addAttractionTag(4L, 20L)
+                .addViews(3L, 10)
+                .build();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+
+    @Test
+    void suggest_shouldRankAttractionsLocationsAndTagsByPopularity() {
+        AttractionSuggestionIndex index = sampleIndex();
+
+        List<Suggestion> suggestions = index.suggest("西", 10);
+
+        assertEquals(List.of("西湖", "西湖十景", "西溪湿地"), texts(suggestions));
+        assertEquals(SuggestionType.TAG, suggestions.get(1).getType());
+        assertEquals(10L, suggestions.get(1).getId());
+        assertEquals(100L, suggestions.get(1).getWeight()); // 标签热度 = 带该标签的景点热度之和
+        Suggestion hangzhou = index.suggest("杭", 10).get(0);
+        assertEquals(SuggestionType.LOCATION, hangzhou.getType());
+        assertNull(hangzhou.getId());
+        assertEquals(130L, hangzhou.getWeight());
+    }
+
+    @Test
+    void suggest_shouldMatchWordStartsCaseInsensitively() {
+        AttractionSuggestionIndex index = sampleIndex();
+
+        // Lakeside = 15 + 8，West Lake Museum = 5 + 10 浏览，Lake Tai = 8
+        assertEquals(List.of("Lakeside", "West Lake Museum", "Lake Tai"), texts(index.suggest("LAKE", 10)));
+        assertEquals(List.of("West Lake Museum"), texts(index.suggest("mus", 10)));
+        assertEquals(List.of("Lakeside"), texts(index.suggest("lake", 1)));
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void incrementalUpdates_shouldRenameReweightAndRemoveEntries() {
+        AttractionSuggestionIndex index = sampleIndex();
+
+        index.upsertAttraction(2L, "西溪国家湿地公园", "杭州", List.of(10L), 30);
+        assertEquals(List.of("西湖十景", "西湖", "西溪国家湿地公园"), texts(index.suggest("西", 10)));
+        assertEquals(130L, index.suggest("西湖十", 10).get(0).getWeight());
+
+        index.addViews(Map.of(4L, 100L));
+        assertEquals(List.of("Lakeside", "Lake Tai", "West Lake Museum"), texts(index.suggest("lake", 10)));
+        assertEquals(123L, index.suggest("lake", 10).get(0).getWeight());
+
+        index.updateRatingCount(1L, 0);
+        assertEquals(List.of("西湖十景", "西溪国家湿地公园", "西湖"), texts(index.suggest("西", 10)));
+
+        index.removeAttraction(3L);
+        index.removeAttraction(4L);
+        assertTrue(index.suggest("wuxi", 10).isEmpty()); // 最后一个景点删除后地点也移除
+        assertEquals(List.of("Lakeside"), texts(index.suggest("lake", 10)));
+
+        index.upsertTag(20L, "Waterfront");
+        index.removeTag(10L);
+        assertEquals(List.of("Waterfront"), texts(index.suggest("wat", 10)));
+        assertEquals(List.of("西溪国家湿地公园", "西湖"), texts(index.suggest("西", 10)));
+        assertTrue(index.estimatedHeapBytes() > 0);
+    }
+
+    @Test
+    void keysOf_shouldStartAtEveryWordAndScriptBoundary() {
+        assertEquals(List.of("west lake西湖", "lake西湖", "西湖"), Arrays.asList(AttractionSuggestionIndex.keysOf("West  Lake西湖")));
+    }
+
+    @Test
+    void suggest_shouldMatchBruteForceUnderRandomUpdates() {
+        Random random = new Random(42);
+        AttractionSuggestionIndex index = AttractionSuggestionIndex.builder().build();
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Integer> ratingCounts = new HashMap<>();
+        String alphabet = "ab ";
+        for (int step = 0; step < 2000; step++) {
+            long id = random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                index.removeAttraction(id);
+                names.remove(id);
+                ratingCounts.remove(id);
+            } else {
+                StringBuilder name = new StringBuilder("a");
+                int length = random.nextInt(6);
+                for (int k = 0; k < length; k++) {
+                    name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                int ratingCount = random.nextInt(20);
+                index.upsertAttraction(id, name.toString(), null, List.of(), ratingCount);
+                names.put(id, name.toString());
+                ratingCounts.put(id, ratingCount);
+            }
+            for (String prefix : new String[]{"a", "ab", "b", "a a", "ba"}) {
+                List<Long> expected = names.keySet().stream()
+                        .filter(candidate -> Arrays.stream(AttractionSuggestionIndex.keysOf(names.get(candidate))).anyMatch(key -> key.startsWith(prefix)))
+                        .sorted(Comparator.<Long>comparingInt(candidate -> -ratingCounts.get(candidate))
+                                .thenComparing(names::get)
+                                .thenComparing(candidate -> candidate))
+                        .limit(AttractionSuggestionIndex.TOP_N)
+                        .collect(Collectors.toList());
+                List<Long> actual = index.suggest(prefix, AttractionSuggestionIndex.TOP_N).stream()
+                        .map(Suggestion::getId).collect(Collectors.toList());
+                assertEquals(expected, actual, "step " + step + ", prefix '" + prefix + "'");
+            }
+        }
+        assertEquals(Set.copyOf(names.keySet()).size(), index.entryCount());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.travel.search;
+
+import com.example.travel.recommendation.RankedAttractions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttractionTextIndexTest {
+
+    private static AttractionText text(long id, String name, String description, String location, String category, double rating) {
+        return new AttractionText(id, name, description, location, null, category, rating);
+    }
+
+    private static AttractionTextIndex sampleIndex() {
+        return AttractionTextIndex.builder()
+                .add(text(1L, "西湖", "杭州的湖泊，苏堤春晓", "杭州", "自然风光", 4.8))
+                .add(text(2L, "灵隐寺", "西湖西北的古刹", "杭州", "寺庙", 4.6))
+                .add(text(3L, "West Lake Museum", "History of the lake", "Hangzhou", "Museum", 4.0))
+                .add(text(4L, "故宫博物院", "明清两代的皇家宫殿", "北京", "博物馆", 4.9))
+                .addTag(1L, 10L)
+                .addTag(2L, 20L)
+                .addTag(3L, 10L)
+                .build();
+    }
+
+    @Test
+    void tokenizer_shouldSplitCjkIntoBigramsAndLatinIntoWords() {
+        assertEquals(List.of("west", "lake", "西湖", "湖景", "景区"), TextTokenizer.queryTerms("West-Lake 西湖景区"));
+        assertEquals(List.of("西", "湖", "西湖"), TextTokenizer.indexTerms("西湖"));
+        assertEquals(List.of("湖"), TextTokenizer.queryTerms("湖"));
+        assertEquals(List.of("abc", "123"), TextTokenizer.queryTerms("ＡＢＣ　１２３")); // 全角字母数字
+        assertTrue(TextTokenizer.queryTerms("!!").isEmpty());
+    }
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        RankedAttractions result = sampleIndex().search("西湖", null, null, null, 0, 10);
+
+        assertEquals(List.of(1L, 2L), result.getAttractionIds());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void search_shouldRequireEveryQueryTerm() {
+        AttractionTextIndex index = sampleIndex();
+
+        assertEquals(List.of(3L), index.search("lake museum", null, null, null, 0, 10).getAttractionIds());
+        assertTrue(index.search("lake temple", null, null, null, 0, 10).getAttractionIds().isEmpty());
+        assertEquals(List.of(4L), index.search("宫", null, null, null, 0, 10).getAttractionIds()); // 单字查询
+    }
+
+    @Test
+    void search_shouldApplyCategoryRatingAndTagFilters() {
+        AttractionTextIndex index = sampleIndex();
+
+        assertEquals(List.of(2L), index.search("杭州", "寺庙", null, null, 0, 10).getAttractionIds());
+        assertEquals(List.of(1L), index.search("杭州", null, 4.7f, null, 0, 10).getAttractionIds());
+        assertEquals(List.of(1L), index.search("杭州", null, null, List.of(10L, 99L), 0, 10).getAttractionIds());
+    }
+
+    @Test
+    void search_shouldPageByOffsetAndReportTotal() {
+        AttractionTextIndex index = sampleIndex();
+
+        RankedAttractions secondPage = index.search("杭州", null, null, null, 1, 1);
+
+        assertEquals(List.of(2L), secondPage.getAttractionIds());
+        assertEquals(2, secondPage.getTotalElements());
+        assertTrue(index.search("杭州", null, null, null, 5, 10).getAttractionIds().isEmpty());
+    }
+
+    @Test
+    void upsertAndRemove_shouldUpdatePostingsIncrementally() {
+        AttractionTextIndex index = sampleIndex();
+        int terms = index.termCount();
+
+        index.upsertAttraction(text(2L, "灵隐寺", "飞来峰造像", "杭州", "寺庙", 4.6), List.of(20L));
+        assertEquals(List.of(1L), index.search("西湖", null, null, null, 0, 10).getAttractionIds());
+        assertEquals(List.of(2L), index.search("飞来峰", null, null, null, 0, 10).getAttractionIds());
+
+        index.upsertAttraction(text(5L, "Lake Tai", null, "Suzhou", "Lake", 3.5), List.of());
+        long[] lakes = index.matchingIds("lake", null, null, null);
+        Arrays.sort(lakes);
+        assertArrayEquals(new long[]{3L, 5L}, lakes);
+
+        index.removeAttraction(5L);
+        assertArrayEquals(new long[]{3L}, index.matchingIds("lake", null, null, null));
+        assertEquals(4, index.attractionCount());
+        assertTrue(index.termCount() > 0 && index.termCount() != terms); // 词项随描述替换增删
+        assertTrue(index.search("suzhou", null, null, null, 0, 10).getAttractionIds().isEmpty());
+    }
+
+    @Test
+    void updateRating_shouldAffectMinRatingFilter() {
+        AttractionTextIndex index = sampleIndex();
+
+        index.updateRating(3L, 4.5);
+
+        assertEquals(List.of(3L), index.search("lake", null, 4.5f, null, 0, 10).getAttractionIds());
+        assertTrue(index.estimatedHeapBytes() > 0);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.travel.service;
+
+import com.example.travel.cache.CacheNames;
+import com.example.travel.config.CacheConfig;
+import com.example.travel.dto.AttractionResponse;
+import com.example.travel.dto.CacheStatsResponse;
+import com.example.travel.entity.Attraction;
+import com.example.travel.recommendation.RankedAttractions;
+import com.example.travel.repository.AttractionRepository;
+import com.example.travel.repository.ReviewRepository;
+import com.example.travel.repository.UserActivityLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * 只启动缓存配置和 AttractionService，验证重复查询不再访问数据库，以及评分变化后只删除受影响的缓存
+ */
+@SpringBootTest(classes = {CacheConfig.class, AttractionService.class, AttractionSearchCacheService.class, CacheStatsService.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AttractionServiceCacheTest {
+
+    @MockBean
+    private AttractionRepository attractionRepository;
+    @MockBean
+    private TagService tagService;
+    @MockBean
+    private ReviewRepository reviewRepository;
+    @MockBean
+    private UserActivityLogRepository userActivityLogRepository;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private PopularityLeaderboardService popularityLeaderboardService;
+    @MockBean
+    private AttractionTextIndexService attractionTextIndexService; // 索引未就绪：关键字搜索走数据库
+
+    @Autowired
+    private AttractionService attractionService;
+    @Autowired
+    private CacheStatsService cacheStatsService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Attraction attraction;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        attraction = new Attraction();
+        attraction.setId(1L);
+        attraction.setName("West Lake");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSearch() {
+        when(attractionRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(attraction), invocation.getArgument(1), 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchAttractions_shouldNotHitDatabaseOnRepeatCall() {
+        stubSearch();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        Page<AttractionResponse> first = attractionService.searchAttractions("lake", null, null, List.of(2L), pageable);
+        Page<AttractionResponse> second = attractionService.searchAttractions("lake", null, null, List.of(2L), pageable);
+
+        assertEquals("West Lake", second.getContent().get(0).getName());
+        assertSame(first, second);
+        verify(attractionRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchAttractions_shouldCacheDifferentSortsSeparately() {
+        stubSearch();
+
+        attractionService.searchAttractions("lake", null, null, null, PageRequest.of(0, 10, Sort.by("id")));
+        attractionService.searchAttractions("lake", null, null, null, PageRequest.of(0, 10, Sort.by("name")));
+
+        verify(attractionRepository, times(2)).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getPopularAttractions_shouldNotHitDatabaseOnRepeatCall() {
+        when(popularityLeaderboardService.popularAttractions(anyInt(), anyInt())).thenReturn(new RankedAttractions(List.of(1L), 1));
+        when(attractionRepository.findWithTagsByIdIn(any())).thenReturn(List.of(attraction));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        attractionService.getPopularAttractions(pageable);
+        Page<AttractionResponse> second = attractionService.getPopularAttractions(pageable);
+
+        assertEquals(1L, second.getContent().get(0).getId());
+        verify(popularityLeaderboardService, times(1)).popularAttractions(0, 10);
+        verify(attractionRepository, times(1)).findWithTagsByIdIn(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateAttractionRatingAndCount_shouldEvictSearchAndPopularCaches() {
+        stubSearch();
+        when(popularityLeaderboardService.popularAttractions(anyInt(), anyInt())).thenReturn(new RankedAttractions(List.of(1L), 1));
+        when(attractionRepository.findWithTagsByIdIn(any())).thenReturn(List.of(attraction));
+        when(attractionRepository.findById(anyLong())).thenReturn(Optional.of(attraction));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        attractionService.searchAttractions("lake", null, null, null, pageable);
+        attractionService.getPopularAttractions(pageable);
+        attractionService.updateAttractionRatingAndCount(1L);
+        attractionService.searchAttractions("lake", null, null, null, pageable);
+        attractionService.getPopularAttractions(pageable);
+
+        verify(attractionRepository, times(2)).findAll(any(Specification.class), any(Pageable.class));
+        verify(attractionRepository, times(2)).findWithTagsByIdIn(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateAttractionRatingAndCount_shouldKeepSearchPagesTheAttractionCannotAffect() {
+        stubSearch();
+        Attraction other = new Attraction();
+        other.setId(2L);
+        other.setName("Lingyin Temple");
+        other.setCategory("temple");
+        other.setAverageRating(4.0);
+        when(attractionRepository.findById(2L)).thenReturn(Optional.of(other));
+        when(reviewRepository.calculateAverageRatingByAttractionId(2L)).thenReturn(4.5);
+        when(reviewRepository.countReviewsByAttractionId(2L)).thenReturn(3);
+        Pageable byId = PageRequest.of(0, 10, Sort.by("id"));
+        Pageable byRating = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "averageRating"));
+
+        attractionService.searchAttractions(null, null, null, null, byId);
+        attractionService.searchAttractions(null, null, null, null, byRating);
+        attractionService.searchAttractions("lake", null, null, null, byRating);
+        attractionService.updateAttractionRatingAndCount(2L);
+        attractionService.searchAttractions(null, null, null, null, byId); // 按 id 排序，景点 2 不在页面中：保留
+        attractionService.searchAttractions(null, null, null, null, byRating); // 按评分排序，景点 2 可能移入：删除
+        attractionService.searchAttractions("lake", null, null, null, byRating); // 景点 2 不匹配关键字：保留
+
+        verify(attractionRepository, times(4)).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getCacheStats_shouldReportHitsMissesAndLoadsPerCache() {
+        stubSearch();
+        long hitsBefore = stats(CacheNames.ATTRACTION_SEARCH).getHitCount();
+        long missesBefore = stats(CacheNames.ATTRACTION_SEARCH).getMissCount();
+        Pageable pageable = PageRequest.of(0, 10);
+
+        attractionService.searchAttractions("stats", null, null, null, pageable);
+        attractionService.searchAttractions("stats", null, null, null, pageable);
+
+        CacheStatsResponse search = stats(CacheNames.ATTRACTION_SEARCH);
+        assertEquals(hitsBefore + 1, search.getHitCount());
+        assertEquals(missesBefore + 1, search.getMissCount());
+        assertTrue(search.getLoadCount() >= 1);
+        assertEquals(10000, search.getMaximumSize());
+        assertNotNull(stats(CacheNames.POPULAR_ATTRACTIONS_PAGE));
+    }
+
+    private CacheStatsResponse stats(String name) {
+        return cacheStatsService.getCacheStats().stream()
+                .filter(stats -> stats.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.travel.service;
+
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.entity.InteractionTombstone;
+import com.example.travel.event.InteractionChangedEvent;
+import com.example.travel.event.InteractionType;
+import com.example.travel.repository.InteractionTombstoneRepository;
+import com.example.travel.repository.ItineraryAttractionRepository;
+import com.example.travel.repository.ReviewRepository;
+import com.example.travel.repository.UserFavoriteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InteractionTombstoneServiceTest {
+
+    @Mock
+    private InteractionTombstoneRepository tombstoneRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+    @Mock
+    private UserFavoriteRepository userFavoriteRepository;
+    @Mock
+    private ItineraryAttractionRepository itineraryAttractionRepository;
+
+    private RecommendationProperties properties;
+    private InteractionTombstoneService tombstoneService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RecommendationProperties();
+        tombstoneService = new InteractionTombstoneService(tombstoneRepository, reviewRepository,
+                userFavoriteRepository, itineraryAttractionRepository, properties);
+    }
+
+    @Test
+    void onInteractionChanged_shouldWriteTombstoneWhenFavoriteWasRemoved() {
+        when(userFavoriteRepository.existsByUser_IdAndAttraction_Id(1L, 10L)).thenReturn(false);
+
+        tombstoneService.onInteractionChanged(new InteractionChangedEvent(1L, 10L, InteractionType.FAVORITE));
+
+        ArgumentCaptor<InteractionTombstone> captor = ArgumentCaptor.forClass(InteractionTombstone.class);
+        verify(tombstoneRepository).save(captor.capture());
+        InteractionTombstone tombstone = captor.getValue();
+        assertEquals(1L, tombstone.getUserId());
+        assertEquals(10L, tombstone.getAttractionId());
+        assertEquals(InteractionType.FAVORITE, tombstone.getInteractionType());
+        assertNotNull(tombstone.getDeletedAt());
+    }
+
+    @Test
+    void onInteractionChanged_shouldNotWriteTombstoneWhenReviewStillExists() {
+        when(reviewRepository.existsByUserIdAndAttractionId(1L, 10L)).thenReturn(true);
+
+        tombstoneService.onInteractionChanged(new InteractionChangedEvent(1L, 10L, InteractionType.REVIEW));
+
+        verify(tombstoneRepository, never()).save(any());
+    }
+
+    @Test
+    void onInteractionChanged_shouldCheckOnlyTheChangedInteractionType() {
+        when(itineraryAttractionRepository.existsByItinerary_User_IdAndAttraction_Id(1L, 10L)).thenReturn(false);
+
+        tombstoneService.onInteractionChanged(new InteractionChangedEvent(1L, 10L, InteractionType.ITINERARY));
+
+        verify(tombstoneRepository).save(any(InteractionTombstone.class));
+        verifyNoInteractions(reviewRepository, userFavoriteRepository);
+    }
+
+    @Test
+    void onInteractionChanged_shouldDoNothingWhenDeltaPollingIsDisabled() {
+        properties.getDelta().setEnabled(false);
+
+        tombstoneService.onInteractionChanged(new InteractionChangedEvent(1L, 10L, InteractionType.FAVORITE));
+
+        verifyNoInteractions(tombstoneRepository, userFavoriteRepository);
+    }
+
+    @Test
+    void purgeExpiredTombstones_shouldDeleteTombstonesOlderThanRetention() {
+        properties.getDelta().setTombstoneRetentionHours(24);
+        when(tombstoneRepository.deleteDeletedBefore(any())).thenReturn(3);
+
+        tombstoneService.purgeExpiredTombstones();
+
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tombstoneRepository).deleteDeletedBefore(captor.capture());
+        LocalDateTime expected = LocalDateTime.now().minusHours(24);
+        assertTrue(Math.abs(Duration.between(expected, captor.getValue()).toSeconds()) < 5);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.travel.service;
+
+import com.example.travel.common.Result;
+import com.example.travel.config.RecommendationProperties;
+import com.example.travel.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationServingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private RecommendationServingExecutor servingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        RecommendationProperties properties = new RecommendationProperties();
+        properties.getServing().setThreads(1);
+        properties.getServing().setQueueCapacity(1);
+        properties.getServing().setDefaultDeadlineMillis(2000);
+        properties.getServing().getDeadlines().put("slow", 50L);
+        meterRegistry = new SimpleMeterRegistry();
+        servingExecutor = new RecommendationServingExecutor(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        servingExecutor.shutdown();
+    }
+
+    @Test
+    void submit_shouldReturnResultWithinDeadline() throws Exception {
+        Result<List<Long>> result = body(servingExecutor.submit("fast", () -> List.of(1L, 2L), () -> List.of(9L)));
+
+        assertEquals(List.of(1L, 2L), result.getData());
+        assertNull(result.getDegraded());
+        assertEquals(1, meterRegistry.get("recommendation.serving.requests").tags("endpoint", "fast", "outcome", "ok").timer().count());
+    }
+
+    @Test
+    void submit_shouldServeFallbackWhenDeadlinePasses() throws Exception {
+        Result<List<Long>> result = body(servingExecutor.submit("slow", () -> {
+            await();
+            return List.of(1L);
+        }, () -> List.of(9L)));
+
+        assertEquals(List.of(9L), result.getData());
+        assertTrue(result.getDegraded());
+        assertEquals(1.0, meterRegistry.get("recommendation.serving.timeouts").tags("endpoint", "slow").counter().count());
+        assertEquals(1.0, meterRegistry.get("recommendation.serving.fallbacks").tags("endpoint", "slow", "reason", "timeout").counter().count());
+    }
+
+    @Test
+    void submit_shouldServeFallbackWhenDatabaseIsUnavailable() throws Exception {
+        Result<List<Long>> result = body(servingExecutor.submit("db", () -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        }, () -> List.of(9L)));
+
+        assertTrue(result.getDegraded());
+        assertEquals(1.0, meterRegistry.get("recommendation.serving.fallbacks").tags("endpoint", "db", "reason", "unavailable").counter().count());
+    }
+
+    @Test
+    void submit_shouldPropagateOtherExceptions() {
+        CompletableFuture<ResponseEntity<Result<List<Long>>>> future = servingExecutor.submit("missing", () -> {
+            throw new ResourceNotFoundException("User not found");
+        }, () -> List.of(9L));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, error.getCause());
+    }
+
+    @Test
+    void submit_shouldServeFallbackWhenQueueIsFull() throws Exception {
+        // 一个线程被占住，队列中再放一个，第三个请求被拒绝
+        servingExecutor.submit("blocked", () -> {
+            await();
+            return List.of(1L);
+        }, List::of);
+        servingExecutor.submit("blocked", () -> List.of(2L), List::of);
+
+        Result<List<Long>> result = body(servingExecutor.submit("blocked", () -> List.of(3L), () -> List.of(9L)));
+        assertEquals(List.of(9L), result.getData());
+        assertTrue(result.getDegraded());
+        assertEquals(1.0, meterRegistry.get("recommendation.serving.fallbacks").tags("endpoint", "blocked", "reason", "rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("recommendation.serving.queue.depth").gauge().value());
+    }
+
+    private void await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> Result<T> body(CompletableFuture<ResponseEntity<Result<T>>> future) throws Exception {
+        return future.get(2, TimeUnit.SECONDS).getBody();
+    }
+}
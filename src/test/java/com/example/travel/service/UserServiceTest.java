@@ -4,6 +4,7 @@ import com.example.travel.config.JwtTokenUtil;
 import com.example.travel.dto.*;
 import com.example.travel.entity.Tag;
 import com.example.travel.entity.User;
+import com.example.travel.event.UserPreferencesChangedEvent;
 import com.example.travel.exception.ConflictException;
 import com.example.travel.exception.ResourceNotFoundException;
 import com.example.travel.repository.TagRepository;
@@ -15,6 +16,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -46,6 +48,8 @@ class UserServiceTest {
     private AuthenticationManager authenticationManager;
     @Mock
     private TagService tagService; // Mock TagService for DTO conversion
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
 
     @InjectMocks
@@ -236,6 +240,8 @@ class UserServiceTest {
         User savedUser = userCaptor.getValue();
         // Verify that the user passed to save had the correct preferred tags
         assertEquals(actualTagsFetched, savedUser.getPreferredTags());
+        // 偏好标签变化需要通知推荐结果缓存
+        verify(eventPublisher).publishEvent(any(UserPreferencesChangedEvent.class));
     }
 
 